@@ -0,0 +1,731 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import java.net.URL;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hapi.chart.ChartOuterClass.Chart;
+
+import hapi.services.tiller.Tiller.InstallReleaseRequest;
+import hapi.services.tiller.Tiller.UpdateReleaseRequest;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.plugins.annotations.Parameter;
+
+import org.microbean.helm.ReleaseManager;
+
+import org.microbean.helm.chart.AbstractChartLoader;
+import org.microbean.helm.chart.URLChartLoader;
+
+/**
+ * An {@link AbstractMutatingReleaseMojo} whose implementations change
+ * several <a href="https://docs.helm.sh/glossary/#release">Helm
+ * releases</a>, each described by a {@link ReleaseDefinition}, at the
+ * same time over a single shared {@link ReleaseManager}.
+ *
+ * <p>At most {@linkplain #getConcurrency() <code>concurrency</code>}
+ * releases are worked with at once, and each release's Tiller
+ * operation is abandoned if it does not complete within {@linkplain
+ * #getReleaseTimeout() <code>releaseTimeout</code>} seconds.  A
+ * failure affecting one release does not prevent the others from
+ * being worked with; all failures are reported together once every
+ * release has been processed.</p>
+ *
+ * <p>Charts are loaded at most once per execution no matter how many
+ * releases are created from them.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #execute(Callable, ReleaseDefinition)
+ */
+public abstract class AbstractBatchReleaseMojo extends AbstractMutatingReleaseMojo {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link ReleaseDefinition}s describing the releases to work
+   * with.
+   *
+   * @see #getReleases()
+   *
+   * @see #setReleases(List)
+   */
+  @Parameter
+  private List<ReleaseDefinition> releases;
+
+  /**
+   * The maximum number of releases to work with at the same time.
+   *
+   * @see #getConcurrency()
+   *
+   * @see #setConcurrency(int)
+   */
+  @Parameter(defaultValue = "4", property = "helm.batch.concurrency")
+  private int concurrency;
+
+  /**
+   * The number of seconds to wait for the Tiller operation affecting
+   * any one release to complete before abandoning it; values less
+   * than or equal to {@code 0} mean there is no limit.
+   *
+   * @see #getReleaseTimeout()
+   *
+   * @see #setReleaseTimeout(long)
+   */
+  @Parameter(defaultValue = "600", property = "helm.batch.releaseTimeout")
+  private long releaseTimeout; // in seconds
+
+  /**
+   * Not used; each release's name is taken from its {@link
+   * ReleaseDefinition}.
+   *
+   * @see ReleaseDefinition#getReleaseName()
+   */
+  /*
+   * This field shadows the AbstractSingleReleaseMojo#releaseName
+   * field on purpose to relax its "required" nature.
+   */
+  @Parameter
+  private String releaseName;
+
+  /**
+   * The {@link Chart}s loaded during the current execution, indexed
+   * by the {@linkplain URL#toExternalForm() external form} of the
+   * {@link URL} from which each was loaded.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #loadChart(URL)
+   */
+  private ConcurrentMap<String, Future<Chart>> charts;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link AbstractBatchReleaseMojo}.
+   */
+  protected AbstractBatchReleaseMojo() {
+    super();
+    this.charts = new ConcurrentHashMap<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation gives the copy its own, empty cache of
+   * {@linkplain #loadChart(URL) loaded} {@link Chart}s.</p>
+   */
+  @Override
+  protected AbstractBatchReleaseMojo clone() {
+    final AbstractBatchReleaseMojo returnValue = (AbstractBatchReleaseMojo)super.clone();
+    returnValue.charts = new ConcurrentHashMap<>();
+    return returnValue;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation {@linkplain #execute(Callable, Collection)
+   * works with} every {@linkplain #getReleases() configured
+   * release}.</p>
+   *
+   * <p>Overrides of this method should call the {@link
+   * #clearCharts()} method once they have finished working with
+   * releases.</p>
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    final Log log = this.getLog();
+    assert log != null;
+    final List<ReleaseDefinition> releases = this.getReleases();
+    if (releases == null || releases.isEmpty()) {
+      if (log.isInfoEnabled()) {
+        log.info("No releases configured; skipping execution");
+      }
+    } else {
+      try {
+        this.execute(releaseManagerCallable, releases);
+      } finally {
+        this.clearCharts();
+      }
+    }
+  }
+
+  /**
+   * Works with each of the supplied {@link ReleaseDefinition}s by
+   * invoking the {@link #execute(Callable, ReleaseDefinition)} method
+   * on it, working with at most {@linkplain #getConcurrency()
+   * <code>concurrency</code>} releases at once, and returns only once
+   * all of them have been processed.
+   *
+   * <p>This implementation calls the {@link #execute(Callable,
+   * Collection, boolean)} method, supplying {@code false} as the
+   * value of its {@code failFast} parameter.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * the {@link ReleaseManager} shared by all releases; must not be
+   * {@code null}
+   *
+   * @param releases the {@link ReleaseDefinition}s to work with;
+   * must not be {@code null}
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   *
+   * @exception MojoExecutionException if working with any release
+   * failed; any further failures are {@linkplain
+   * Throwable#getSuppressed() suppressed} by its cause
+   *
+   * @see #execute(Callable, Collection, boolean)
+   */
+  protected final void execute(final Callable<ReleaseManager> releaseManagerCallable, final Collection<? extends ReleaseDefinition> releases) throws MojoExecutionException {
+    this.execute(releaseManagerCallable, releases, false);
+  }
+
+  /**
+   * Works with each of the supplied {@link ReleaseDefinition}s by
+   * invoking the {@link #execute(Callable, ReleaseDefinition)} method
+   * on it, working with at most {@linkplain #getConcurrency()
+   * <code>concurrency</code>} releases at once, and returns only once
+   * all of them have been processed.
+   *
+   * <p>The supplied {@link Callable} is asked to {@linkplain
+   * #connectInBackground(Callable) connect in the background} so that
+   * connecting to Tiller overlaps with chart loading.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * the {@link ReleaseManager} shared by all releases; must not be
+   * {@code null}
+   *
+   * @param releases the {@link ReleaseDefinition}s to work with;
+   * must not be {@code null}
+   *
+   * @param failFast if {@code true}, then once working with any
+   * release has failed, releases that have not yet been started are
+   * skipped; releases already being worked with are allowed to
+   * finish
+   *
+   * @exception NullPointerException if either {@code
+   * releaseManagerCallable} or {@code releases} is {@code null}
+   *
+   * @exception MojoExecutionException if working with any release
+   * failed; any further failures are {@linkplain
+   * Throwable#getSuppressed() suppressed} by its cause
+   *
+   * @see #execute(Callable, ReleaseDefinition)
+   */
+  protected final void execute(final Callable<ReleaseManager> releaseManagerCallable, final Collection<? extends ReleaseDefinition> releases, final boolean failFast) throws MojoExecutionException {
+    Objects.requireNonNull(releaseManagerCallable);
+    Objects.requireNonNull(releases);
+    final Log log = this.getLog();
+    assert log != null;
+    final List<ReleaseDefinition> definitions = new ArrayList<>(releases);
+    final int size = definitions.size();
+    if (size > 0) {
+      for (final ReleaseDefinition definition : definitions) {
+        if (definition == null) {
+          throw new MojoExecutionException("Invalid release definition: null");
+        }
+      }
+      this.connectInBackground(releaseManagerCallable);
+      final int concurrency = Math.max(1, Math.min(size, this.getConcurrency()));
+      final ExecutorService executorService = Executors.newFixedThreadPool(concurrency, runnable -> {
+          final Thread thread = new Thread(runnable, "helm-maven-plugin release worker");
+          thread.setDaemon(true);
+          return thread;
+        });
+      final AtomicBoolean failed = new AtomicBoolean();
+      try {
+        final List<Future<Long>> futures = new ArrayList<>(size);
+        for (final ReleaseDefinition definition : definitions) {
+          futures.add(executorService.submit(() -> {
+                if (failFast && failed.get()) {
+                  return null;
+                }
+                final long start = System.nanoTime();
+                try {
+                  this.execute(releaseManagerCallable, definition);
+                } catch (final Exception | Error throwable) {
+                  failed.set(true);
+                  throw throwable;
+                }
+                return Long.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+              }));
+        }
+        MojoExecutionException failure = null;
+        int failures = 0;
+        int skipped = 0;
+        for (int i = 0; i < size; i++) {
+          final String release = "Release " + definitions.get(i);
+          try {
+            final Long elapsed = futures.get(i).get();
+            if (elapsed == null) {
+              skipped++;
+              if (log.isWarnEnabled()) {
+                log.warn(release + ": skipped because an earlier release failed");
+              }
+            } else if (log.isInfoEnabled()) {
+              log.info(release + ": succeeded in " + elapsed + " ms");
+            }
+          } catch (final ExecutionException executionException) {
+            failures++;
+            Throwable cause = executionException.getCause();
+            if (cause == null) {
+              cause = executionException;
+            }
+            if (log.isErrorEnabled()) {
+              log.error(release + ": failed: " + cause.getMessage());
+            }
+            if (failure == null) {
+              failure = new MojoExecutionException(release + ": " + cause.getMessage(), cause);
+            } else {
+              failure.addSuppressed(cause);
+            }
+          }
+        }
+        if (failure != null) {
+          final StringBuilder message = new StringBuilder("Execution failed for ").append(failures).append(" of ").append(size).append(" releases");
+          if (skipped > 0) {
+            message.append("; ").append(skipped).append(" skipped");
+          }
+          throw new MojoExecutionException(message.toString(), failure);
+        }
+      } catch (final InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+        throw new MojoExecutionException(interruptedException.getMessage(), interruptedException);
+      } finally {
+        executorService.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Works with the release described by the supplied {@link
+   * ReleaseDefinition}.
+   *
+   * <p>This method is invoked on a worker thread, concurrently with
+   * other invocations of itself for other releases.  Overrides must
+   * therefore be safe for concurrent use.</p>
+   *
+   * <p>Implementations should use the {@link #await(Future,
+   * ReleaseDefinition)} method to wait for any {@link Future}
+   * returned by the {@link ReleaseManager} so that the {@linkplain
+   * #getReleaseTimeout() per-release timeout} is honored.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * the shared {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param releaseDefinition the {@link ReleaseDefinition} describing
+   * the release to work with; must not be {@code null}
+   *
+   * @exception Exception if an error occurs
+   */
+  protected abstract void execute(final Callable<ReleaseManager> releaseManagerCallable, final ReleaseDefinition releaseDefinition) throws Exception;
+
+  /**
+   * Waits at most {@linkplain #getReleaseTimeout()
+   * <code>releaseTimeout</code>} seconds for the supplied {@link
+   * Future} to complete and returns its result, {@linkplain
+   * Future#cancel(boolean) cancelling} it if it does not complete in
+   * time.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @param <T> the type of the {@link Future}'s result
+   *
+   * @param future the {@link Future} to wait for; must not be {@code
+   * null}
+   *
+   * @param releaseDefinition the {@link ReleaseDefinition} the
+   * {@link Future} concerns, used in error messages; may be {@code
+   * null}
+   *
+   * @return the result of the supplied {@link Future}, which may be
+   * {@code null}
+   *
+   * @exception NullPointerException if {@code future} is {@code null}
+   *
+   * @exception InterruptedException if the current thread was
+   * interrupted while waiting
+   *
+   * @exception ExecutionException if the supplied {@link Future}
+   * completed exceptionally
+   *
+   * @exception TimeoutException if the supplied {@link Future} did
+   * not complete in time
+   */
+  protected final <T> T await(final Future<T> future, final ReleaseDefinition releaseDefinition) throws InterruptedException, ExecutionException, TimeoutException {
+    Objects.requireNonNull(future);
+    final long releaseTimeout = this.getReleaseTimeout();
+    final T returnValue;
+    if (releaseTimeout > 0L) {
+      try {
+        returnValue = future.get(releaseTimeout, TimeUnit.SECONDS);
+      } catch (final TimeoutException timeoutException) {
+        future.cancel(true);
+        final TimeoutException throwMe = new TimeoutException("Release " + releaseDefinition + " did not complete within " + releaseTimeout + " seconds");
+        throwMe.initCause(timeoutException);
+        throw throwMe;
+      }
+    } else {
+      returnValue = future.get();
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns a new {@link Chart.Builder} for the Helm chart located at
+   * the supplied {@link URL}, loading the chart only if it has not
+   * already been loaded during the current execution.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>This method is safe for concurrent use by multiple
+   * threads.</p>
+   *
+   * @param chartUrl the {@link URL} of the chart; must not be {@code
+   * null}
+   *
+   * @return a new, non-{@code null} {@link Chart.Builder} that the
+   * caller may modify freely
+   *
+   * @exception NullPointerException if {@code chartUrl} is {@code
+   * null}
+   *
+   * @exception IOException if the chart could not be loaded
+   *
+   * @see #createChartLoader()
+   */
+  protected final Chart.Builder loadChart(final URL chartUrl) throws IOException {
+    Objects.requireNonNull(chartUrl);
+    final FutureTask<Chart> task = new FutureTask<>(() -> {
+        final Log log = this.getLog();
+        assert log != null;
+        final Chart.Builder chartBuilder;
+        try (final AbstractChartLoader<URL> chartLoader = this.createChartLoader()) {
+          if (chartLoader == null) {
+            throw new IllegalStateException("createChartLoader() == null");
+          }
+          if (log.isDebugEnabled()) {
+            log.debug("Loading Helm chart from " + chartUrl);
+          }
+          chartBuilder = chartLoader.load(chartUrl);
+        }
+        if (chartBuilder == null) {
+          throw new IllegalStateException("chartLoader.load(\"" + chartUrl + "\") == null");
+        }
+        if (log.isInfoEnabled()) {
+          log.info("Loaded Helm chart from " + chartUrl);
+        }
+        return chartBuilder.build();
+      });
+    // Use the external form as the key; URL#equals() may perform
+    // name resolution.
+    Future<Chart> chart = this.charts.putIfAbsent(chartUrl.toExternalForm(), task);
+    if (chart == null) {
+      chart = task;
+      task.run();
+    }
+    try {
+      return chart.get().toBuilder();
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      final InterruptedIOException throwMe = new InterruptedIOException(interruptedException.getMessage());
+      throwMe.initCause(interruptedException);
+      throw throwMe;
+    } catch (final ExecutionException executionException) {
+      final Throwable cause = executionException.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException)cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      } else if (cause instanceof Error) {
+        throw (Error)cause;
+      } else {
+        throw new IOException(cause);
+      }
+    }
+  }
+
+  /**
+   * Discards any {@link Chart}s {@linkplain #loadChart(URL) loaded}
+   * during the current execution.
+   */
+  protected final void clearCharts() {
+    this.charts.clear();
+  }
+
+  /**
+   * Returns a new {@link InstallReleaseRequest.Builder} that will
+   * install the release described by the supplied {@link
+   * ReleaseDefinition} in accordance with this {@link
+   * AbstractBatchReleaseMojo}'s settings.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releaseDefinition the {@link ReleaseDefinition} in
+   * question; must not be {@code null}
+   *
+   * @return a new, non-{@code null} {@link
+   * InstallReleaseRequest.Builder}
+   *
+   * @exception NullPointerException if {@code releaseDefinition} is
+   * {@code null}
+   *
+   * @exception IOException if the release's values could not be read
+   *
+   * @see #getValuesYaml(ReleaseDefinition)
+   */
+  protected InstallReleaseRequest.Builder createInstallReleaseRequest(final ReleaseDefinition releaseDefinition) throws IOException {
+    Objects.requireNonNull(releaseDefinition);
+    final InstallReleaseRequest.Builder requestBuilder = InstallReleaseRequest.newBuilder();
+    assert requestBuilder != null;
+
+    requestBuilder.setDisableHooks(this.getDisableHooks());
+    requestBuilder.setDryRun(this.getDryRun());
+
+    final String releaseName = releaseDefinition.getReleaseName();
+    if (releaseName != null) {
+      requestBuilder.setName(releaseName);
+    }
+
+    final String releaseNamespace = releaseDefinition.getReleaseNamespace();
+    if (releaseNamespace != null) {
+      requestBuilder.setNamespace(releaseNamespace);
+    }
+
+    requestBuilder.setReuseName(releaseDefinition.getReuseReleaseName());
+    requestBuilder.setTimeout(this.getTimeout());
+
+    final String valuesYaml = this.getValuesYaml(releaseDefinition);
+    if (valuesYaml != null && !valuesYaml.isEmpty()) {
+      final hapi.chart.ConfigOuterClass.Config.Builder values = requestBuilder.getValuesBuilder();
+      assert values != null;
+      values.setRaw(valuesYaml);
+    }
+
+    requestBuilder.setWait(this.getWait());
+    return requestBuilder;
+  }
+
+  /**
+   * Returns a new {@link UpdateReleaseRequest.Builder} that will
+   * update the release described by the supplied {@link
+   * ReleaseDefinition} in accordance with this {@link
+   * AbstractBatchReleaseMojo}'s settings.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releaseDefinition the {@link ReleaseDefinition} in
+   * question; must not be {@code null}
+   *
+   * @return a new, non-{@code null} {@link
+   * UpdateReleaseRequest.Builder}
+   *
+   * @exception NullPointerException if {@code releaseDefinition} is
+   * {@code null}
+   *
+   * @exception IOException if the release's values could not be read
+   *
+   * @see #getValuesYaml(ReleaseDefinition)
+   */
+  protected UpdateReleaseRequest.Builder createUpdateReleaseRequest(final ReleaseDefinition releaseDefinition) throws IOException {
+    Objects.requireNonNull(releaseDefinition);
+    final UpdateReleaseRequest.Builder requestBuilder = UpdateReleaseRequest.newBuilder();
+    assert requestBuilder != null;
+
+    requestBuilder.setDisableHooks(this.getDisableHooks());
+    requestBuilder.setDryRun(this.getDryRun());
+
+    final String releaseName = releaseDefinition.getReleaseName();
+    if (releaseName != null) {
+      requestBuilder.setName(releaseName);
+    }
+
+    requestBuilder.setTimeout(this.getTimeout());
+
+    final String valuesYaml = this.getValuesYaml(releaseDefinition);
+    if (valuesYaml != null && !valuesYaml.isEmpty()) {
+      final hapi.chart.ConfigOuterClass.Config.Builder values = requestBuilder.getValuesBuilder();
+      assert values != null;
+      values.setRaw(valuesYaml);
+    }
+
+    requestBuilder.setWait(this.getWait());
+    return requestBuilder;
+  }
+
+  /**
+   * Creates and returns an {@link AbstractChartLoader} capable of
+   * loading a Helm chart from a {@link URL}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Overrides of this method must not return {@code null}.</p>
+   *
+   * <p>This implementation returns a new {@link URLChartLoader}.</p>
+   *
+   * @return a new {@link AbstractChartLoader} implementation; never
+   * {@code null}
+   */
+  protected AbstractChartLoader<URL> createChartLoader() {
+    return new URLChartLoader();
+  }
+
+  /**
+   * Returns the YAML-formatted values described by the supplied
+   * {@link ReleaseDefinition}, reading them from its {@linkplain
+   * ReleaseDefinition#getValuesYamlUri() values URI} if it has no
+   * {@linkplain ReleaseDefinition#getValuesYaml() inline values}.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @param releaseDefinition the {@link ReleaseDefinition} in
+   * question; must not be {@code null}
+   *
+   * @return a YAML {@link String}, or {@code null}
+   *
+   * @exception NullPointerException if {@code releaseDefinition} is
+   * {@code null}
+   *
+   * @exception IOException if the values could not be read
+   */
+  protected String getValuesYaml(final ReleaseDefinition releaseDefinition) throws IOException {
+    Objects.requireNonNull(releaseDefinition);
+    return this.readValuesYaml(releaseDefinition.getValuesYaml(), releaseDefinition.getValuesYamlUri());
+  }
+
+  /**
+   * Returns the {@link ReleaseDefinition}s describing the releases to
+   * work with.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link List} of {@link ReleaseDefinition}s, or {@code
+   * null}
+   *
+   * @see #setReleases(List)
+   */
+  public List<ReleaseDefinition> getReleases() {
+    return this.releases;
+  }
+
+  /**
+   * Sets the {@link ReleaseDefinition}s describing the releases to
+   * work with.
+   *
+   * @param releases a {@link List} of {@link ReleaseDefinition}s;
+   * may be {@code null}
+   *
+   * @see #getReleases()
+   */
+  public void setReleases(final List<ReleaseDefinition> releases) {
+    this.releases = releases;
+  }
+
+  /**
+   * Returns the maximum number of releases to work with at the same
+   * time.
+   *
+   * @return the maximum number of releases to work with concurrently
+   *
+   * @see #setConcurrency(int)
+   */
+  public int getConcurrency() {
+    return this.concurrency;
+  }
+
+  /**
+   * Sets the maximum number of releases to work with at the same
+   * time.
+   *
+   * @param concurrency the maximum number of releases to work with
+   * concurrently; values less than {@code 1} are treated as {@code 1}
+   *
+   * @see #getConcurrency()
+   */
+  public void setConcurrency(final int concurrency) {
+    this.concurrency = concurrency;
+  }
+
+  /**
+   * Returns the number of seconds to wait for the Tiller operation
+   * affecting any one release to complete before abandoning it.
+   *
+   * @return the per-release timeout in seconds; values less than or
+   * equal to {@code 0} mean there is no limit
+   *
+   * @see #setReleaseTimeout(long)
+   */
+  public long getReleaseTimeout() {
+    return this.releaseTimeout;
+  }
+
+  /**
+   * Sets the number of seconds to wait for the Tiller operation
+   * affecting any one release to complete before abandoning it.
+   *
+   * @param releaseTimeout the per-release timeout in seconds; values
+   * less than or equal to {@code 0} mean there is no limit
+   *
+   * @see #getReleaseTimeout()
+   */
+  public void setReleaseTimeout(final long releaseTimeout) {
+    this.releaseTimeout = releaseTimeout;
+  }
+
+}
@@ -16,6 +16,16 @@
  */
 package org.microbean.helm.maven;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import java.net.URI;
+import java.net.URL;
+
+import java.nio.charset.StandardCharsets;
+
 import java.util.regex.Matcher;
 
 import org.apache.maven.plugins.annotations.Parameter;
@@ -87,6 +97,42 @@ public abstract class AbstractMutatingReleaseMojo extends AbstractSingleReleaseM
    */
   
 
+  /**
+   * Returns the YAML-formatted values to supply with a release
+   * request, preferring the supplied inline values to those read
+   * from the supplied {@link URI}.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @param valuesYaml inline YAML-formatted values; may be {@code
+   * null}
+   *
+   * @param valuesYamlUri a {@link URI} from which values will be read
+   * if {@code valuesYaml} is {@code null} or empty; may be {@code
+   * null}
+   *
+   * @return YAML-formatted values, or {@code null}
+   *
+   * @exception IOException if the values could not be read
+   */
+  protected String readValuesYaml(final String valuesYaml, final URI valuesYamlUri) throws IOException {
+    String returnValue = valuesYaml;
+    if ((returnValue == null || returnValue.isEmpty()) && valuesYamlUri != null) {
+      final URL yamlUrl = valuesYamlUri.toURL();
+      assert yamlUrl != null;
+      try (final Reader reader = new BufferedReader(new InputStreamReader(yamlUrl.openStream(), StandardCharsets.UTF_8))) {
+        final StringBuilder sb = new StringBuilder();
+        final char[] buffer = new char[4096];
+        int charsRead = -1;
+        while ((charsRead = reader.read(buffer, 0, buffer.length)) >= 0) {
+          sb.append(buffer, 0, charsRead);
+        }
+        returnValue = sb.toString();
+      }
+    }
+    return returnValue;
+  }
+
   /**
    * Returns {@code true} if <a
    * href="https://github.com/kubernetes/helm/blob/master/docs/charts_hooks.md#hooks">chart
@@ -85,5 +85,52 @@ public class AbstractReleaseDiscoveryListener implements ReleaseDiscoveryListene
       }
     }
   }
+
+  /**
+   * {@linkplain Log#info(CharSequence) Logs} the {@link
+   * hapi.release.ReleaseOuterClass.ReleaseOrBuilder} {@linkplain
+   * SingleReleaseDiscoveryEvent#getReleaseOrBuilder() associated with
+   * a <code>SingleReleaseDiscoveryEvent</code>}.
+   *
+   * @param event the {@link SingleReleaseDiscoveryEvent} describing
+   * the release; may be {@code null} in which case no action will be
+   * taken
+   *
+   * @see SingleReleaseDiscoveryEvent
+   *
+   * @see hapi.release.ReleaseOuterClass.Release#toString()
+   */
+  @Override
+  public void singleReleaseDiscovered(final SingleReleaseDiscoveryEvent event) {
+    if (event != null) {
+      final Log log = event.getLog();
+      if (log != null && log.isInfoEnabled()) {
+        log.info(String.valueOf(event.getReleaseOrBuilder()));
+      }
+    }
+  }
+
+  /**
+   * {@linkplain Log#info(CharSequence) Logs} the {@link
+   * ReleaseSummary} {@linkplain ReleaseSummaryEvent#getReleaseSummary()
+   * associated with a <code>ReleaseSummaryEvent</code>}.
+   *
+   * @param event the {@link ReleaseSummaryEvent} describing the
+   * release; may be {@code null} in which case no action will be
+   * taken
+   *
+   * @see ReleaseSummaryEvent
+   *
+   * @see ReleaseSummary#toString()
+   */
+  @Override
+  public void releaseSummaryDiscovered(final ReleaseSummaryEvent event) {
+    if (event != null) {
+      final Log log = event.getLog();
+      if (log != null && log.isInfoEnabled()) {
+        log.info(String.valueOf(event.getReleaseSummary()));
+      }
+    }
+  }
   
 }
@@ -16,18 +16,57 @@
  */
 package org.microbean.helm.maven;
 
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 
+import java.net.InetSocketAddress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import java.util.regex.Matcher;
 
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+
 import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.LocalPortForward;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.StatusException;
+import io.grpc.StatusRuntimeException;
+
+import io.grpc.health.v1.HealthCheckRequest;
+import io.grpc.health.v1.HealthCheckResponse;
 
+import io.grpc.netty.NettyChannelBuilder;
+
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 
@@ -38,6 +77,8 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.microbean.helm.ReleaseManager;
 import org.microbean.helm.Tiller;
 
+import org.microbean.kubernetes.Pods;
+
 /**
  * An {@link AbstractHelmMojo} that provides other <a
  * href="https://microbean.github.io/microbean-helm/">Helm</a>-related
@@ -45,12 +86,18 @@ import org.microbean.helm.Tiller;
  * href="https://maven.apache.org/developers/mojo-api-specification.html">mojo</a>
  * implementations the ability to work with a {@link ReleaseManager}.
  *
+ * <p>When {@linkplain #getClientConfigurations() multiple client
+ * configurations} are specified, each cluster is worked with by its
+ * own {@linkplain #clone() copy} of an {@link AbstractReleaseMojo},
+ * so subclasses may keep the state of a single {@linkplain
+ * #execute(Callable) execution} in instance fields.</p>
+ *
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  *
  * @see #execute(Callable)
  */
-public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
+public abstract class AbstractReleaseMojo extends AbstractHelmMojo implements Cloneable {
 
 
   /*
@@ -75,6 +122,27 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
   @Parameter
   private Config clientConfiguration;
 
+  /**
+   * A list of <a
+   * href="https://static.javadoc.io/io.fabric8/kubernetes-client/3.1.8/io/fabric8/kubernetes/client/Config.html">{@code
+   * Config}</a>s, one per Kubernetes cluster, against each of which
+   * this goal should be executed.  If specified, connections to the
+   * Tiller servers in all clusters are established in parallel, the
+   * goal is executed against at most {@code clusterConcurrency}
+   * clusters at a time, and {@code clientConfiguration} should not
+   * be specified.  {@code tillerHost} must not be specified.
+   */
+  @Parameter
+  private List<Config> clientConfigurations;
+
+  /**
+   * The maximum number of clusters listed in {@code
+   * clientConfigurations} against which this goal is executed at the
+   * same time.
+   */
+  @Parameter(defaultValue = "4", property = "helm.clusterConcurrency")
+  private int clusterConcurrency;
+
   /**
    * The Kubernetes cluster namespace in which Tiller may be found.
    */
@@ -93,6 +161,231 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
   @Parameter(property = "tiller.labels")
   private Map<String, String> tillerLabels;
 
+  /**
+   * The host name or IP address at which Tiller may be reached
+   * directly, e.g. {@code tiller-deploy.kube-system} from within the
+   * cluster.  If specified, Tiller is contacted on this host and on
+   * the port designated by {@code tillerPort} over a plain gRPC
+   * connection, and no Kubernetes API calls are made to find a Tiller
+   * pod or to forward a port to it.
+   */
+  @Parameter(alias = "tillerAddress", property = "tiller.host")
+  private String tillerHost;
+
+  /**
+   * The number of seconds to wait for Tiller to report that it is
+   * ready to serve requests when connecting to it {@linkplain
+   * #getTillerHost() directly}.
+   */
+  @Parameter(defaultValue = "10", property = "tiller.connectTimeout")
+  private long tillerConnectTimeout;
+
+  /**
+   * The maximum size, in bytes, of a single message that may be
+   * received from Tiller.  Large release listings and release
+   * contents may exceed gRPC's default limit.
+   */
+  @Parameter(defaultValue = "20971520", property = "tiller.maxInboundMessageSize")
+  private int tillerMaxInboundMessageSize;
+
+  /**
+   * The number of seconds without activity after which a keepalive
+   * ping is sent to Tiller.
+   */
+  @Parameter(defaultValue = "30", property = "tiller.keepAliveTime")
+  private long tillerKeepAliveTime;
+
+  /**
+   * The name of the compressor, e.g. {@code gzip}, to use to compress
+   * requests sent to Tiller.  If not specified, requests are not
+   * compressed.
+   */
+  @Parameter(property = "tiller.compression")
+  private String tillerCompression;
+
+  /**
+   * The initial HTTP/2 flow-control window size, in bytes, of the
+   * connection to Tiller.  Larger windows let more data be in flight
+   * over high-latency links such as port-forwards.  A value less than
+   * or equal to zero leaves the transport's default in place.
+   */
+  @Parameter(defaultValue = "1048576", property = "tiller.initialFlowControlWindow")
+  private int tillerInitialFlowControlWindow;
+
+  /**
+   * Whether the number of concurrent requests made to Tiller should
+   * be limited adaptively.  When enabled, every goal execution in the
+   * current Maven session shares a single limiter that admits fewer
+   * concurrent requests when Tiller responds slowly or reports that
+   * it is overloaded, and more when it responds promptly.  Requests
+   * waiting for capacity are queued rather than blocking the threads
+   * that issue them.  Disabled by default.
+   */
+  @Parameter(defaultValue = "false", property = "tiller.concurrency.governor")
+  private boolean tillerConcurrencyGovernor;
+
+  /**
+   * The maximum number of concurrent requests that list releases.
+   */
+  @Parameter(defaultValue = "8", property = "tiller.concurrency.list")
+  private int tillerListConcurrency;
+
+  /**
+   * The maximum number of concurrent requests that read the status,
+   * content or history of a single release.
+   */
+  @Parameter(defaultValue = "32", property = "tiller.concurrency.read")
+  private int tillerReadConcurrency;
+
+  /**
+   * The maximum number of concurrent requests that install, update,
+   * roll back, uninstall or test releases.
+   */
+  @Parameter(defaultValue = "8", property = "tiller.concurrency.mutate")
+  private int tillerMutateConcurrency;
+
+  /**
+   * The multiple of the fastest recently observed latency beyond
+   * which a list or read request is taken as a sign that Tiller is
+   * overloaded.  A value less than or equal to {@code 1} means that
+   * only errors are taken as such a sign.
+   */
+  @Parameter(defaultValue = "2.0", property = "tiller.concurrency.latencyTolerance")
+  private double tillerLatencyTolerance;
+
+  /**
+   * Whether to reach Tiller through a long-lived local port-forwarding
+   * daemon that is shared by successive Maven invocations.  The
+   * daemon is started on first use, is described by a file under
+   * {@code ~/.m2/helm-maven-plugin/tunnels}, and exits after {@code
+   * tillerTunnelIdleTimeout} seconds without use.  This setting is
+   * ignored if {@code clientConfiguration} is specified, since the
+   * daemon always configures its Kubernetes client automatically.
+   */
+  @Parameter(defaultValue = "false", property = "tiller.tunnel.daemon")
+  private boolean tillerTunnelDaemon;
+
+  /**
+   * The number of seconds after which an unused Tiller tunnel daemon
+   * will exit.
+   */
+  @Parameter(defaultValue = "1800", property = "tiller.tunnel.idleTimeout")
+  private long tillerTunnelIdleTimeout;
+
+  /**
+   * The number of seconds for which the name of a discovered Tiller
+   * pod is cached on disk under {@code
+   * ~/.m2/helm-maven-plugin/pods}, and reused by subsequent goal
+   * executions and Maven invocations instead of querying the
+   * Kubernetes API server again.  A value less than or equal to zero
+   * disables the cache.
+   */
+  @Parameter(defaultValue = "60", property = "tiller.podCache.ttl")
+  private long tillerPodCacheTtl;
+
+  /**
+   * The maximum number of times a read-only operation, such as
+   * retrieving the status of a release, is attempted when it fails
+   * because Tiller could not be reached.  A value of {@code 1}
+   * disables retries.
+   */
+  @Parameter(defaultValue = "5", property = "helm.retry.maxAttempts")
+  private int retryMaxAttempts;
+
+  /**
+   * The number of milliseconds to wait before the first retry of a
+   * failed read-only operation.  The wait doubles with each
+   * subsequent retry, and is randomized to avoid retrying in
+   * lockstep with other clients.
+   */
+  @Parameter(defaultValue = "200", property = "helm.retry.initialBackoff")
+  private long retryInitialBackoff;
+
+  /**
+   * The maximum number of milliseconds to wait between retries of a
+   * failed read-only operation.
+   */
+  @Parameter(defaultValue = "5000", property = "helm.retry.maxBackoff")
+  private long retryMaxBackoff;
+
+  /**
+   * The number of milliseconds, measured from the first attempt,
+   * after which a failed read-only operation is no longer retried.
+   */
+  @Parameter(defaultValue = "30000", property = "helm.retry.deadline")
+  private long retryDeadline;
+
+  /**
+   * Whether {@link ReleaseManager}s, and hence the connections to
+   * Tiller that they use, should be shared among all executions of
+   * Helm-related goals in the current Maven session that are
+   * configured to talk to the same Tiller server.  Pooled {@link
+   * ReleaseManager}s are closed when the Maven session ends.
+   */
+  @Parameter(defaultValue = "true", property = "helm.pool")
+  private boolean poolReleaseManagers;
+
+  /**
+   * Whether release operations that support it should be submitted
+   * asynchronously, allowing this goal to return before they
+   * complete so that independent goals overlap their network
+   * latency.  Submitted operations are awaited by the {@code await}
+   * goal or, failing that, when the Maven session ends; failures
+   * fail the build in either case.
+   * Asynchronous execution requires {@code poolReleaseManagers} to be
+   * {@code true}.
+   */
+  @Parameter(defaultValue = "false", property = "helm.async")
+  private boolean async;
+
+  /**
+   * The {@link MavenSession} in effect.
+   */
+  @Parameter(defaultValue = "${session}", readonly = true)
+  private MavenSession mavenSession;
+
+  /**
+   * The {@link MojoExecution} in effect.
+   */
+  @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+  private MojoExecution mojoExecution;
+
+  /**
+   * Whether to report how long each phase of this goal's execution,
+   * such as creating a Kubernetes client, discovering the Tiller pod,
+   * forwarding a port to it, executing the goal proper and closing
+   * the connection, took.  A summary is logged at {@code INFO} level
+   * and written as JSON to a file in {@code timingsDirectory}.
+   * Disabled by default.
+   */
+  @Parameter(defaultValue = "false", property = "helm.timings")
+  private boolean reportTimings;
+
+  /**
+   * The directory to which phase timings are written as JSON, one
+   * file per goal execution, or one file per cluster if {@code
+   * clientConfigurations} is specified.
+   */
+  @Parameter(defaultValue = "${project.build.directory}/helm-timings", property = "helm.timings.directory")
+  private File timingsDirectory;
+
+  /**
+   * The {@link PhaseTimings} for the current execution.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private volatile PhaseTimings phaseTimings;
+
+  /**
+   * The {@link PendingReleaseOperations} to which operations are
+   * {@linkplain #submit(String, Callable,
+   * ReleaseOperationResultHandler) submitted} during the current
+   * execution if it is {@linkplain #getAsync() asynchronous}.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private volatile PendingReleaseOperations pendingReleaseOperations;
+
   
   /*
    * Constructors.
@@ -118,6 +411,32 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
    * containing the results of an invocation of the {@link
    * #createReleaseManager(Tiller)} method.
    *
+   * <p>If {@linkplain #getPoolReleaseManagers() pooling is enabled}
+   * and a {@linkplain #getMavenSession() Maven session} is available,
+   * the {@link ReleaseManager} supplied by the {@link Callable} is
+   * shared with other executions that are configured to talk to the
+   * same Tiller server and is not closed by this method; otherwise it
+   * is closed before this method returns.</p>
+   *
+   * <p>If {@linkplain #getClientConfigurations() multiple client
+   * configurations} are specified, the {@link #execute(Callable)}
+   * method of a {@linkplain #clone() copy} of this {@link
+   * AbstractReleaseMojo} is invoked once per cluster, concurrently,
+   * and a summary of the results is logged.  A {@linkplain
+   * #getTillerHost() Tiller host} may not be specified in this
+   * case, since it cannot designate a Tiller server in more than one
+   * cluster.</p>
+   *
+   * <p>If this is the {@linkplain
+   * AggregatedReleaseOperations#executionCompleted(MavenSession,
+   * MojoExecution) last execution} of this goal in the reactor, every
+   * operation {@linkplain #aggregate(String, Callable,
+   * ReleaseManagerOperation, ReleaseOperationResultHandler)
+   * aggregated} by any execution of this goal during the Maven
+   * session is then deployed, and any failure fails this execution.
+   * Operations aggregated by other goals are left for those goals'
+   * last executions.</p>
+   *
    * @exception MojoExecutionException if there was a problem
    * executing this mojo
    *
@@ -136,34 +455,71 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
       return;
     }
 
-    final ReleaseManagerCallable releaseManagerCallable = new ReleaseManagerCallable();
-    Throwable throwable = null;
+    final List<Config> clientConfigurations = this.getClientConfigurations();
+    final boolean multipleClusters = clientConfigurations != null && !clientConfigurations.isEmpty();
+    if (multipleClusters) {
+      final String tillerHost = this.getTillerHost();
+      if (tillerHost != null && !tillerHost.isEmpty()) {
+        throw new MojoExecutionException("tillerHost (" + tillerHost + ") may not be specified together with clientConfigurations");
+      }
+    }
+
+    final ReleaseManagerPool pool;
+    final MavenSession session = this.getMavenSession();
+    if (session != null && this.getPoolReleaseManagers()) {
+      pool = ReleaseManagerPool.getInstance(session, log);
+    } else {
+      pool = null;
+    }
+    final AggregatedReleaseOperations aggregatedReleaseOperations;
+    if (pool == null) {
+      aggregatedReleaseOperations = null;
+    } else {
+      aggregatedReleaseOperations = AggregatedReleaseOperations.getInstance(session, log);
+    }
+    if (this.getAsync()) {
+      if (pool == null) {
+        if (log.isWarnEnabled()) {
+          log.warn("Asynchronous execution requires a Maven session and pooled ReleaseManagers; executing synchronously");
+        }
+      } else {
+        // Obtained after the pool so that pending operations are
+        // awaited before pooled ReleaseManagers are closed.
+        this.pendingReleaseOperations = PendingReleaseOperations.getInstance(session, log);
+      }
+    }
+    final PhaseTimings phaseTimings;
+    if (this.getReportTimings()) {
+      phaseTimings = new PhaseTimings();
+    } else {
+      phaseTimings = null;
+    }
+    this.phaseTimings = phaseTimings;
+    boolean executed = false;
     try {
-      this.execute(releaseManagerCallable);
-    } catch (final InterruptedException interruptedException) {
-      Thread.currentThread().interrupt();
-      final MojoExecutionException mojoExecutionException = new MojoExecutionException(interruptedException.getMessage(), interruptedException);
-      throwable = mojoExecutionException;
-      throw mojoExecutionException;
-    } catch (final RuntimeException | MojoExecutionException | MojoFailureException throwMe) {
-      throwable = throwMe;
-      throw throwMe;
-    } catch (final Exception otherStuff) {
-      final MojoExecutionException mojoExecutionException = new MojoExecutionException(otherStuff.getMessage(), otherStuff);
-      throwable = mojoExecutionException;
-      throw mojoExecutionException;
-    } finally {
-      if (releaseManagerCallable.releaseManager != null) {
-        try {
-          releaseManagerCallable.releaseManager.close();
-        } catch (final IOException ioException) {
-          if (throwable != null) {
-            throwable.addSuppressed(ioException);
-          } else {
-            throw new MojoExecutionException(ioException.getMessage(), ioException);
-          }
+      if (multipleClusters) {
+        this.executeAcrossClusters(pool, clientConfigurations);
+      } else {
+        this.executeWith(new ReleaseManagerCallable(pool, this.getClientConfiguration()));
+      }
+      executed = true;
+      if (aggregatedReleaseOperations != null) {
+        final MojoExecution mojoExecution = this.getMojoExecution();
+        if (aggregatedReleaseOperations.executionCompleted(session, mojoExecution) && aggregatedReleaseOperations.hasOperations(mojoExecution)) {
+          this.deploy(aggregatedReleaseOperations, mojoExecution);
         }
       }
+    } finally {
+      if (!executed && aggregatedReleaseOperations != null) {
+        // Count the failed execution too, so that the remaining ones
+        // can still tell which of them is the last.
+        aggregatedReleaseOperations.executionCompleted(session, this.getMojoExecution());
+      }
+      this.pendingReleaseOperations = null;
+      this.phaseTimings = null;
+      if (phaseTimings != null) {
+        this.reportTimings(phaseTimings, null, -1);
+      }
     }
   }
 
@@ -195,6 +551,68 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
     this.clientConfiguration = config;
   }  
 
+  /**
+   * Returns the {@link List} of {@link Config}s, one per Kubernetes
+   * cluster, against each of which this goal should be executed.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * <p>Overrides of this method may return {@code null}.</p>
+   *
+   * @return a {@link List} of {@link Config}s, or {@code null} if
+   * this goal should be executed against a single cluster described
+   * by the {@linkplain #getClientConfiguration() client
+   * configuration}
+   *
+   * @see #setClientConfigurations(List)
+   */
+  public List<Config> getClientConfigurations() {
+    return this.clientConfigurations;
+  }
+
+  /**
+   * Installs the {@link List} of {@link Config}s, one per Kubernetes
+   * cluster, against each of which this goal should be executed.
+   *
+   * @param clientConfigurations the {@link Config}s to use; may be
+   * {@code null}
+   *
+   * @see #getClientConfigurations()
+   */
+  public void setClientConfigurations(final List<Config> clientConfigurations) {
+    this.clientConfigurations = clientConfigurations;
+  }
+
+  /**
+   * Returns the maximum number of clusters against which this goal is
+   * executed at the same time when {@linkplain
+   * #getClientConfigurations() multiple client configurations} are
+   * specified.
+   *
+   * @return the maximum number of clusters to work with concurrently
+   *
+   * @see #setClusterConcurrency(int)
+   */
+  public int getClusterConcurrency() {
+    return this.clusterConcurrency;
+  }
+
+  /**
+   * Sets the maximum number of clusters against which this goal is
+   * executed at the same time when {@linkplain
+   * #getClientConfigurations() multiple client configurations} are
+   * specified.
+   *
+   * @param clusterConcurrency the maximum number of clusters to work
+   * with concurrently; values less than {@code 1} are treated as
+   * {@code 1}
+   *
+   * @see #getClusterConcurrency()
+   */
+  public void setClusterConcurrency(final int clusterConcurrency) {
+    this.clusterConcurrency = clusterConcurrency;
+  }
+
   /**
    * Returns {@code true} if this {@link AbstractReleaseMojo} should
    * not execute.
@@ -221,152 +639,1567 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
   }
 
   /**
-   * Returns the Kubernetes namespace in which Tiller may be found.
+   * Returns the host name or IP address at which Tiller may be
+   * reached directly, without discovering a Tiller pod or forwarding
+   * a port to it.
    *
    * <p>This method may return {@code null}.</p>
    *
-   * @return the Kubernetes namespace in which Tiller may be found, or
-   * {@code null}
+   * <p>Overrides of this method may return {@code null}.</p>
+   *
+   * @return the host at which Tiller may be reached directly, or
+   * {@code null} if Tiller should be found by way of the Kubernetes
+   * API
+   *
+   * @see #setTillerHost(String)
    */
-  public String getTillerNamespace() {
-    return this.tillerNamespace;
+  public String getTillerHost() {
+    return this.tillerHost;
   }
 
   /**
-   * Sets the Kubernetes namespace in which Tiller may be found.
+   * Sets the host name or IP address at which Tiller may be reached
+   * directly, without discovering a Tiller pod or forwarding a port
+   * to it.
    *
-   * @param tillerNamespace the Kubernetes namespace in which Tiller
-   * may be found; may be {@code null} in which case {@code
-   * kube-system} will be used by the {@link
-   * #createTiller(DefaultKubernetesClient)} method instead
+   * @param tillerHost the host at which Tiller may be reached
+   * directly; may be {@code null}
+   *
+   * @see #getTillerHost()
    */
-  public void setTillerNamespace(String tillerNamespace) {
-    this.tillerNamespace = tillerNamespace;
+  public void setTillerHost(final String tillerHost) {
+    this.tillerHost = tillerHost;
   }
 
   /**
-   * Returns the port on which Tiller may be found.
+   * Returns the number of seconds to wait for a directly reached
+   * Tiller server to report that it is ready.
    *
-   * @return the port on which Tiller may be found; normally {@code
-   * 44134}
+   * @return the number of seconds to wait for Tiller to become ready
+   *
+   * @see #setTillerConnectTimeout(long)
    */
-  public int getTillerPort() {
-    return this.tillerPort;
+  public long getTillerConnectTimeout() {
+    return this.tillerConnectTimeout;
   }
 
   /**
-   * Sets the port on which Tiller may be found.
+   * Sets the number of seconds to wait for a directly reached Tiller
+   * server to report that it is ready.
    *
-   * @param tillerPort the port on which Tiller may be found; normally
-   * {@code 44134}
+   * @param tillerConnectTimeout the number of seconds to wait for
+   * Tiller to become ready
+   *
+   * @see #getTillerConnectTimeout()
    */
-  public void setTillerPort(final int tillerPort) {
-    this.tillerPort = tillerPort;
+  public void setTillerConnectTimeout(final long tillerConnectTimeout) {
+    this.tillerConnectTimeout = tillerConnectTimeout;
   }
 
   /**
-   * Returns the Kubernetes labels that Tiller Pods have.
+   * Returns the maximum size, in bytes, of a single message that may
+   * be received from Tiller.
    *
-   * <p>This method may return {@code null}.</p>
+   * @return the maximum inbound message size in bytes
    *
-   * @return the Kubernetes labels that Tiller Pods have, or {@code
-   * null}
+   * @see #setTillerMaxInboundMessageSize(int)
    */
-  public Map<String, String> getTillerLabels() {
-    return this.tillerLabels;
+  public int getTillerMaxInboundMessageSize() {
+    return this.tillerMaxInboundMessageSize;
   }
 
   /**
-   * Sets the Kubernetes labels that Tiller Pods have.
+   * Sets the maximum size, in bytes, of a single message that may be
+   * received from Tiller.
    *
-   * <p>Tiller Pods are normally labeled with {@code app = helm} and
-   * {@code name = tiller}.</p>
+   * @param tillerMaxInboundMessageSize the maximum inbound message
+   * size in bytes; a value less than or equal to zero causes {@link
+   * Tiller#MAX_MESSAGE_SIZE} to be used instead
    *
-   * @param tillerLabels a {@link Map} containing the labels; may be
-   * {@code null}
+   * @see #getTillerMaxInboundMessageSize()
    */
-  public void setTillerLabels(final Map<String, String> tillerLabels) {
-    this.tillerLabels = tillerLabels;
+  public void setTillerMaxInboundMessageSize(final int tillerMaxInboundMessageSize) {
+    this.tillerMaxInboundMessageSize = tillerMaxInboundMessageSize;
   }
 
-
-  /*
-   * Protected instance methods.
-   */
-  
-
   /**
-   * Performs a release-oriented task using a {@link ReleaseManager}
-   * {@linkplain Callable#call() available} from the supplied {@link
-   * Callable}.
+   * Returns the number of seconds without activity after which a
+   * keepalive ping is sent to Tiller.
    *
-   * @param releaseManagerCallable the {@link Callable} that will
-   * provide a {@link ReleaseManager}; must not be {@code null}
+   * @return the keepalive time in seconds
    *
-   * @exception Exception if an error occurs
+   * @see #setTillerKeepAliveTime(long)
    */
-  protected abstract void execute(final Callable<ReleaseManager> releaseManagerCallable) throws Exception;
+  public long getTillerKeepAliveTime() {
+    return this.tillerKeepAliveTime;
+  }
 
   /**
-   * Creates a {@link DefaultKubernetesClient} for communicating with
-   * Kubernetes clusters.
-   *
-   * <p>This method never returns {@code null}.</p>
-   *
-   * <p>Overrides of this method must not return {@code null}.</p>
+   * Sets the number of seconds without activity after which a
+   * keepalive ping is sent to Tiller.
    *
-   * <p>The default implementation calls the {@link
-   * #getClientConfiguration()} method and {@linkplain
-   * DefaultKubernetesClient#DefaultKubernetesClient(Config) uses its
-   * return value}, unless it is {@code null}, in which case a new
-   * {@link DefaultKubernetesClient} is created via its {@linkplain
-   * DefaultKubernetesClient#DefaultKubernetesClient() no-argument
-   * constructor}.</p>
+   * @param tillerKeepAliveTime the keepalive time in seconds; a value
+   * less than or equal to zero disables keepalive pings
    *
-   * @return a new, non-{@code null} {@link DefaultKubernetesClient}
-   *
-   * @exception IOException if there was a problem creating the client
+   * @see #getTillerKeepAliveTime()
    */
-  protected DefaultKubernetesClient createClient() throws IOException {
-    final DefaultKubernetesClient client;
-    final Config config = this.getClientConfiguration();
-    if (config == null) {
-      client = new DefaultKubernetesClient();
-    } else {
-      client = new DefaultKubernetesClient(config);
-    }
-    return client;
+  public void setTillerKeepAliveTime(final long tillerKeepAliveTime) {
+    this.tillerKeepAliveTime = tillerKeepAliveTime;
   }
 
   /**
-   * Creates a {@link Tiller} and returns it.
+   * Returns the name of the compressor used to compress requests sent
+   * to Tiller.
    *
-   * <p>This method never returns {@code null}.</p>
+   * <p>This method may return {@code null}.</p>
    *
-   * <p>Overrides of this method must not return {@code null}.</p>
+   * @return the name of the compressor, such as {@code gzip}, or
+   * {@code null} if requests are not compressed
    *
-   * <p>This implementation passes the supplied {@link
-   * DefaultKubernetesClient} to the <a
-   * href="https://microbean.github.io/microbean-helm/apidocs/org/microbean/helm/Tiller.html#Tiller-T-">appropriate
-   * <code>Tiller</code> constructor</a>.</p>
+   * @see #setTillerCompression(String)
+   */
+  public String getTillerCompression() {
+    return this.tillerCompression;
+  }
+
+  /**
+   * Sets the name of the compressor used to compress requests sent
+   * to Tiller.
    *
-   * @param client the {@link DefaultKubernetesClient} to use to
-   * communicate with a Kubernetes cluster; must not be {@code null}
+   * @param tillerCompression the name of a compressor known to gRPC,
+   * such as {@code gzip}; may be {@code null} in which case requests
+   * are not compressed
    *
-   * @return a new {@link Tiller}; never {@code null}
+   * @see #getTillerCompression()
+   */
+  public void setTillerCompression(final String tillerCompression) {
+    this.tillerCompression = tillerCompression;
+  }
+
+  /**
+   * Returns the initial HTTP/2 flow-control window size, in bytes, of
+   * the connection to Tiller.
    *
-   * @exception NullPointerException if {@code client} is {@code null}
+   * @return the initial flow-control window size in bytes
    *
-   * @exception IOException if there was a problem creating a {@link
-   * Tiller}
+   * @see #setTillerInitialFlowControlWindow(int)
    */
-  protected Tiller createTiller(final DefaultKubernetesClient client) throws IOException {
-    Objects.requireNonNull(client);
-    return new Tiller(client, this.getTillerNamespace(), this.getTillerPort(), this.getTillerLabels());
+  public int getTillerInitialFlowControlWindow() {
+    return this.tillerInitialFlowControlWindow;
   }
 
   /**
-   * Creates a {@link ReleaseManager} and returns it.
+   * Sets the initial HTTP/2 flow-control window size, in bytes, of
+   * the connection to Tiller.
+   *
+   * @param tillerInitialFlowControlWindow the initial flow-control
+   * window size in bytes; a value less than or equal to zero leaves
+   * the transport's default in place
+   *
+   * @see #getTillerInitialFlowControlWindow()
+   */
+  public void setTillerInitialFlowControlWindow(final int tillerInitialFlowControlWindow) {
+    this.tillerInitialFlowControlWindow = tillerInitialFlowControlWindow;
+  }
+
+  /**
+   * Returns {@code true} if the number of concurrent requests made to
+   * Tiller should be limited adaptively.
+   *
+   * @return {@code true} if a {@link TillerConcurrencyGovernor} should
+   * be used; {@code false} otherwise
+   *
+   * @see #setTillerConcurrencyGovernor(boolean)
+   */
+  public boolean getTillerConcurrencyGovernor() {
+    return this.tillerConcurrencyGovernor;
+  }
+
+  /**
+   * Sets whether the number of concurrent requests made to Tiller
+   * should be limited adaptively.
+   *
+   * @param tillerConcurrencyGovernor whether a {@link
+   * TillerConcurrencyGovernor} should be used
+   *
+   * @see #getTillerConcurrencyGovernor()
+   */
+  public void setTillerConcurrencyGovernor(final boolean tillerConcurrencyGovernor) {
+    this.tillerConcurrencyGovernor = tillerConcurrencyGovernor;
+  }
+
+  /**
+   * Returns the maximum number of concurrent requests that list
+   * releases.
+   *
+   * @return the maximum number of concurrent list requests
+   *
+   * @see #setTillerListConcurrency(int)
+   */
+  public int getTillerListConcurrency() {
+    return this.tillerListConcurrency;
+  }
+
+  /**
+   * Sets the maximum number of concurrent requests that list
+   * releases.
+   *
+   * @param tillerListConcurrency the maximum number of concurrent
+   * list requests; values less than {@code 1} are treated as {@code
+   * 1}
+   *
+   * @see #getTillerListConcurrency()
+   */
+  public void setTillerListConcurrency(final int tillerListConcurrency) {
+    this.tillerListConcurrency = tillerListConcurrency;
+  }
+
+  /**
+   * Returns the maximum number of concurrent requests that read the
+   * status, content or history of a single release.
+   *
+   * @return the maximum number of concurrent read requests
+   *
+   * @see #setTillerReadConcurrency(int)
+   */
+  public int getTillerReadConcurrency() {
+    return this.tillerReadConcurrency;
+  }
+
+  /**
+   * Sets the maximum number of concurrent requests that read the
+   * status, content or history of a single release.
+   *
+   * @param tillerReadConcurrency the maximum number of concurrent
+   * read requests; values less than {@code 1} are treated as {@code
+   * 1}
+   *
+   * @see #getTillerReadConcurrency()
+   */
+  public void setTillerReadConcurrency(final int tillerReadConcurrency) {
+    this.tillerReadConcurrency = tillerReadConcurrency;
+  }
+
+  /**
+   * Returns the maximum number of concurrent requests that install,
+   * update, roll back, uninstall or test releases.
+   *
+   * @return the maximum number of concurrent mutating requests
+   *
+   * @see #setTillerMutateConcurrency(int)
+   */
+  public int getTillerMutateConcurrency() {
+    return this.tillerMutateConcurrency;
+  }
+
+  /**
+   * Sets the maximum number of concurrent requests that install,
+   * update, roll back, uninstall or test releases.
+   *
+   * @param tillerMutateConcurrency the maximum number of concurrent
+   * mutating requests; values less than {@code 1} are treated as
+   * {@code 1}
+   *
+   * @see #getTillerMutateConcurrency()
+   */
+  public void setTillerMutateConcurrency(final int tillerMutateConcurrency) {
+    this.tillerMutateConcurrency = tillerMutateConcurrency;
+  }
+
+  /**
+   * Returns the multiple of the fastest recently observed latency
+   * beyond which a list or read request is taken as a sign that
+   * Tiller is overloaded.
+   *
+   * @return the latency tolerance
+   *
+   * @see #setTillerLatencyTolerance(double)
+   */
+  public double getTillerLatencyTolerance() {
+    return this.tillerLatencyTolerance;
+  }
+
+  /**
+   * Sets the multiple of the fastest recently observed latency beyond
+   * which a list or read request is taken as a sign that Tiller is
+   * overloaded.
+   *
+   * @param tillerLatencyTolerance the latency tolerance; a value
+   * less than or equal to {@code 1} means that only errors are taken
+   * as a sign of overload
+   *
+   * @see #getTillerLatencyTolerance()
+   */
+  public void setTillerLatencyTolerance(final double tillerLatencyTolerance) {
+    this.tillerLatencyTolerance = tillerLatencyTolerance;
+  }
+
+  /**
+   * Returns {@code true} if Tiller should be reached through a
+   * long-lived local port-forwarding daemon shared by successive
+   * Maven invocations.
+   *
+   * @return {@code true} if a {@link TillerTunnelDaemon} should be
+   * used; {@code false} otherwise
+   *
+   * @see #setTillerTunnelDaemon(boolean)
+   *
+   * @see TillerTunnelDaemon
+   */
+  public boolean getTillerTunnelDaemon() {
+    return this.tillerTunnelDaemon;
+  }
+
+  /**
+   * Sets whether Tiller should be reached through a long-lived local
+   * port-forwarding daemon shared by successive Maven invocations.
+   *
+   * @param tillerTunnelDaemon if {@code true}, a {@link
+   * TillerTunnelDaemon} will be used when no {@linkplain
+   * #getClientConfiguration() client configuration} is specified
+   *
+   * @see #getTillerTunnelDaemon()
+   */
+  public void setTillerTunnelDaemon(final boolean tillerTunnelDaemon) {
+    this.tillerTunnelDaemon = tillerTunnelDaemon;
+  }
+
+  /**
+   * Returns the number of seconds after which an unused {@link
+   * TillerTunnelDaemon} will exit.
+   *
+   * @return the number of seconds after which an unused {@link
+   * TillerTunnelDaemon} will exit
+   *
+   * @see #setTillerTunnelIdleTimeout(long)
+   */
+  public long getTillerTunnelIdleTimeout() {
+    return this.tillerTunnelIdleTimeout;
+  }
+
+  /**
+   * Sets the number of seconds after which an unused {@link
+   * TillerTunnelDaemon} will exit.
+   *
+   * @param tillerTunnelIdleTimeout the number of seconds after which
+   * an unused {@link TillerTunnelDaemon} will exit; should be longer
+   * than the longest-running goal that uses it
+   *
+   * @see #getTillerTunnelIdleTimeout()
+   */
+  public void setTillerTunnelIdleTimeout(final long tillerTunnelIdleTimeout) {
+    this.tillerTunnelIdleTimeout = tillerTunnelIdleTimeout;
+  }
+
+  /**
+   * Returns the number of seconds for which the name of a discovered
+   * Tiller pod is cached and reused.
+   *
+   * @return the Tiller pod cache time-to-live in seconds; a value
+   * less than or equal to zero indicates that the cache is disabled
+   *
+   * @see #setTillerPodCacheTtl(long)
+   */
+  public long getTillerPodCacheTtl() {
+    return this.tillerPodCacheTtl;
+  }
+
+  /**
+   * Sets the number of seconds for which the name of a discovered
+   * Tiller pod is cached and reused.
+   *
+   * @param tillerPodCacheTtl the Tiller pod cache time-to-live in
+   * seconds; a value less than or equal to zero disables the cache
+   *
+   * @see #getTillerPodCacheTtl()
+   */
+  public void setTillerPodCacheTtl(final long tillerPodCacheTtl) {
+    this.tillerPodCacheTtl = tillerPodCacheTtl;
+  }
+
+  /**
+   * Returns the maximum number of times a read-only operation is
+   * attempted when it fails because Tiller could not be reached.
+   *
+   * @return the maximum number of attempts
+   *
+   * @see #setRetryMaxAttempts(int)
+   *
+   * @see #executeWithRetries(Callable, ReleaseManagerOperation)
+   */
+  public int getRetryMaxAttempts() {
+    return this.retryMaxAttempts;
+  }
+
+  /**
+   * Sets the maximum number of times a read-only operation is
+   * attempted when it fails because Tiller could not be reached.
+   *
+   * @param retryMaxAttempts the maximum number of attempts; a value
+   * less than or equal to {@code 1} disables retries
+   *
+   * @see #getRetryMaxAttempts()
+   */
+  public void setRetryMaxAttempts(final int retryMaxAttempts) {
+    this.retryMaxAttempts = retryMaxAttempts;
+  }
+
+  /**
+   * Returns the number of milliseconds to wait before the first retry
+   * of a failed read-only operation.
+   *
+   * @return the initial backoff in milliseconds
+   *
+   * @see #setRetryInitialBackoff(long)
+   */
+  public long getRetryInitialBackoff() {
+    return this.retryInitialBackoff;
+  }
+
+  /**
+   * Sets the number of milliseconds to wait before the first retry of
+   * a failed read-only operation.
+   *
+   * @param retryInitialBackoff the initial backoff in milliseconds
+   *
+   * @see #getRetryInitialBackoff()
+   */
+  public void setRetryInitialBackoff(final long retryInitialBackoff) {
+    this.retryInitialBackoff = retryInitialBackoff;
+  }
+
+  /**
+   * Returns the maximum number of milliseconds to wait between
+   * retries of a failed read-only operation.
+   *
+   * @return the maximum backoff in milliseconds
+   *
+   * @see #setRetryMaxBackoff(long)
+   */
+  public long getRetryMaxBackoff() {
+    return this.retryMaxBackoff;
+  }
+
+  /**
+   * Sets the maximum number of milliseconds to wait between retries
+   * of a failed read-only operation.
+   *
+   * @param retryMaxBackoff the maximum backoff in milliseconds
+   *
+   * @see #getRetryMaxBackoff()
+   */
+  public void setRetryMaxBackoff(final long retryMaxBackoff) {
+    this.retryMaxBackoff = retryMaxBackoff;
+  }
+
+  /**
+   * Returns the number of milliseconds, measured from the first
+   * attempt, after which a failed read-only operation is no longer
+   * retried.
+   *
+   * @return the retry deadline in milliseconds
+   *
+   * @see #setRetryDeadline(long)
+   */
+  public long getRetryDeadline() {
+    return this.retryDeadline;
+  }
+
+  /**
+   * Sets the number of milliseconds, measured from the first attempt,
+   * after which a failed read-only operation is no longer retried.
+   *
+   * @param retryDeadline the retry deadline in milliseconds
+   *
+   * @see #getRetryDeadline()
+   */
+  public void setRetryDeadline(final long retryDeadline) {
+    this.retryDeadline = retryDeadline;
+  }
+
+  /**
+   * Returns {@code true} if {@link ReleaseManager}s should be shared
+   * among all executions in the current {@linkplain
+   * #getMavenSession() Maven session} that are configured to talk to
+   * the same Tiller server.
+   *
+   * @return {@code true} if {@link ReleaseManager}s should be pooled;
+   * {@code false} otherwise
+   *
+   * @see #setPoolReleaseManagers(boolean)
+   */
+  public boolean getPoolReleaseManagers() {
+    return this.poolReleaseManagers;
+  }
+
+  /**
+   * Sets whether {@link ReleaseManager}s should be shared among all
+   * executions in the current {@linkplain #getMavenSession() Maven
+   * session} that are configured to talk to the same Tiller server.
+   *
+   * @param poolReleaseManagers if {@code true}, {@link
+   * ReleaseManager}s will be pooled and closed when the Maven session
+   * ends
+   *
+   * @see #getPoolReleaseManagers()
+   */
+  public void setPoolReleaseManagers(final boolean poolReleaseManagers) {
+    this.poolReleaseManagers = poolReleaseManagers;
+  }
+
+  /**
+   * Returns {@code true} if release operations should be submitted
+   * asynchronously and awaited later.
+   *
+   * @return {@code true} if release operations should be submitted
+   * asynchronously; {@code false} otherwise
+   *
+   * @see #setAsync(boolean)
+   *
+   * @see #submit(String, Callable, ReleaseOperationResultHandler)
+   */
+  public boolean getAsync() {
+    return this.async;
+  }
+
+  /**
+   * Sets whether release operations should be submitted
+   * asynchronously and awaited later.
+   *
+   * @param async if {@code true}, release operations will be
+   * submitted asynchronously and awaited by the {@code await} goal or
+   * when the Maven session ends
+   *
+   * @see #getAsync()
+   */
+  public void setAsync(final boolean async) {
+    this.async = async;
+  }
+
+  /**
+   * Returns {@code true} if the duration of each phase of this goal's
+   * execution should be reported.
+   *
+   * @return {@code true} if phase timings should be reported; {@code
+   * false} otherwise
+   *
+   * @see #setReportTimings(boolean)
+   *
+   * @see #getTimingsDirectory()
+   */
+  public boolean getReportTimings() {
+    return this.reportTimings;
+  }
+
+  /**
+   * Sets whether the duration of each phase of this goal's execution
+   * should be reported.
+   *
+   * @param reportTimings if {@code true}, phase timings will be
+   * logged at {@code INFO} level and written to a file in the
+   * {@linkplain #getTimingsDirectory() timings directory}
+   *
+   * @see #getReportTimings()
+   */
+  public void setReportTimings(final boolean reportTimings) {
+    this.reportTimings = reportTimings;
+  }
+
+  /**
+   * Returns the directory to which phase timings are written.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the directory to which phase timings are written, or
+   * {@code null} if they should only be logged
+   *
+   * @see #setTimingsDirectory(File)
+   */
+  public File getTimingsDirectory() {
+    return this.timingsDirectory;
+  }
+
+  /**
+   * Sets the directory to which phase timings are written.
+   *
+   * @param timingsDirectory the directory to which phase timings are
+   * written; may be {@code null} in which case they are only logged
+   *
+   * @see #getTimingsDirectory()
+   */
+  public void setTimingsDirectory(final File timingsDirectory) {
+    this.timingsDirectory = timingsDirectory;
+  }
+
+  /**
+   * Returns the Kubernetes namespace in which Tiller may be found.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the Kubernetes namespace in which Tiller may be found, or
+   * {@code null}
+   */
+  public String getTillerNamespace() {
+    return this.tillerNamespace;
+  }
+
+  /**
+   * Sets the Kubernetes namespace in which Tiller may be found.
+   *
+   * @param tillerNamespace the Kubernetes namespace in which Tiller
+   * may be found; may be {@code null} in which case {@code
+   * kube-system} will be used by the {@link
+   * #createTiller(DefaultKubernetesClient)} method instead
+   */
+  public void setTillerNamespace(String tillerNamespace) {
+    this.tillerNamespace = tillerNamespace;
+  }
+
+  /**
+   * Returns the port on which Tiller may be found.
+   *
+   * @return the port on which Tiller may be found; normally {@code
+   * 44134}
+   */
+  public int getTillerPort() {
+    return this.tillerPort;
+  }
+
+  /**
+   * Sets the port on which Tiller may be found.
+   *
+   * @param tillerPort the port on which Tiller may be found; normally
+   * {@code 44134}
+   */
+  public void setTillerPort(final int tillerPort) {
+    this.tillerPort = tillerPort;
+  }
+
+  /**
+   * Returns the Kubernetes labels that Tiller Pods have.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the Kubernetes labels that Tiller Pods have, or {@code
+   * null}
+   */
+  public Map<String, String> getTillerLabels() {
+    return this.tillerLabels;
+  }
+
+  /**
+   * Sets the Kubernetes labels that Tiller Pods have.
+   *
+   * <p>Tiller Pods are normally labeled with {@code app = helm} and
+   * {@code name = tiller}.</p>
+   *
+   * @param tillerLabels a {@link Map} containing the labels; may be
+   * {@code null}
+   */
+  public void setTillerLabels(final Map<String, String> tillerLabels) {
+    this.tillerLabels = tillerLabels;
+  }
+
+
+  /*
+   * Protected instance methods.
+   */
+  
+
+  /**
+   * Returns a shallow copy of this {@link AbstractReleaseMojo}, with
+   * which the {@link #execute(Callable)} method is invoked for one
+   * of several {@linkplain #getClientConfigurations() clusters}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>The copy shares this {@link AbstractReleaseMojo}'s
+   * configuration.  Overrides must give the copy its own instance of
+   * any mutable state that a single {@linkplain #execute(Callable)
+   * execution} uses and that is not replaced by that execution
+   * itself.</p>
+   *
+   * @return a new {@link AbstractReleaseMojo}; never {@code null}
+   */
+  @Override
+  protected AbstractReleaseMojo clone() {
+    try {
+      return (AbstractReleaseMojo)super.clone();
+    } catch (final CloneNotSupportedException cloneNotSupportedException) {
+      throw new InternalError(cloneNotSupportedException.getMessage(), cloneNotSupportedException);
+    }
+  }
+
+  /**
+   * Returns the {@link MavenSession} in effect.
+   *
+   * <p>This method may return {@code null}, notably when this mojo
+   * has been created by hand rather than by Maven.</p>
+   *
+   * @return the {@link MavenSession} in effect, or {@code null}
+   */
+  protected MavenSession getMavenSession() {
+    return this.mavenSession;
+  }
+
+  /**
+   * Returns the {@link MojoExecution} in effect.
+   *
+   * <p>This method may return {@code null}, notably when this mojo
+   * has been created by hand rather than by Maven.</p>
+   *
+   * @return the {@link MojoExecution} in effect, or {@code null}
+   */
+  protected MojoExecution getMojoExecution() {
+    return this.mojoExecution;
+  }
+
+  /**
+   * Records that the phase of this goal's execution with the supplied
+   * name began at the supplied {@linkplain System#nanoTime()
+   * nanosecond time} and has just ended, if {@linkplain
+   * #getReportTimings() timings are being reported}.
+   *
+   * <p>Recording the same phase more than once accumulates its
+   * duration.</p>
+   *
+   * @param phase the name of the phase, such as {@code discovery};
+   * must not be {@code null}
+   *
+   * @param startNanos the value of {@link System#nanoTime()} when the
+   * phase began
+   *
+   * @exception NullPointerException if {@code phase} is {@code null}
+   */
+  protected final void recordPhase(final String phase, final long startNanos) {
+    Objects.requireNonNull(phase);
+    final PhaseTimings phaseTimings = this.phaseTimings;
+    if (phaseTimings != null) {
+      phaseTimings.record(phase, startNanos);
+    }
+  }
+
+  /**
+   * Runs the supplied operation and supplies its result to the
+   * supplied {@link ReleaseOperationResultHandler}, either
+   * immediately or, if {@linkplain #getAsync() asynchronous
+   * execution} is in effect, in the background, handling the result
+   * only when it is awaited.
+   *
+   * <p>In the asynchronous case this method returns as soon as the
+   * operation has been submitted, and any failure of the operation or
+   * of the handling of its result is reported by the {@code await}
+   * goal or, failing that, when the Maven session ends, and fails the
+   * build.</p>
+   *
+   * @param <T> the type of the operation's result
+   *
+   * @param description a human-readable description of the
+   * operation, used in log and error messages; must not be {@code
+   * null}
+   *
+   * @param operation the operation to run, which typically waits for
+   * a {@link java.util.concurrent.Future} returned by a {@link
+   * ReleaseManager}; must not be {@code null}
+   *
+   * @param resultHandler the {@link ReleaseOperationResultHandler}
+   * that will handle the operation's result; must not be {@code
+   * null}
+   *
+   * @exception NullPointerException if any parameter is {@code null}
+   *
+   * @exception Exception if the operation was run immediately and it
+   * or the handling of its result failed
+   */
+  protected final <T> void submit(final String description, final Callable<? extends T> operation, final ReleaseOperationResultHandler<? super T> resultHandler) throws Exception {
+    Objects.requireNonNull(description);
+    Objects.requireNonNull(operation);
+    Objects.requireNonNull(resultHandler);
+    final PendingReleaseOperations pendingReleaseOperations = this.pendingReleaseOperations;
+    if (pendingReleaseOperations == null) {
+      resultHandler.handle(operation.call());
+    } else {
+      pendingReleaseOperations.submit(description, operation, resultHandler);
+      final Log log = this.getLog();
+      if (log != null && log.isInfoEnabled()) {
+        log.info(description + ": submitted asynchronously");
+      }
+    }
+  }
+
+  /**
+   * Issues the supplied operation and supplies its result to the
+   * supplied {@link ReleaseOperationResultHandler}, either
+   * immediately or, if a {@linkplain #getMavenSession() Maven
+   * session} is available and {@linkplain #getPoolReleaseManagers()
+   * pooling is enabled}, once every execution of this goal in the
+   * reactor has completed.
+   *
+   * <p>In the latter case this method returns as soon as the
+   * operation has been registered.  At the end of the {@linkplain
+   * AggregatedReleaseOperations#executionCompleted(MavenSession,
+   * MojoExecution) last execution} of this goal, whichever project
+   * and thread it runs on, every operation registered for this goal
+   * by any project is issued at once over the session's pooled {@link
+   * ReleaseManager}s and then awaited, and any failure causes that
+   * execution to fail.  Operations still registered when the Maven
+   * session ends, as happens when the build stops before every
+   * execution of this goal has run, are discarded without being
+   * issued, and the build fails.</p>
+   *
+   * @param <T> the type of the operation's result
+   *
+   * @param description a human-readable description of the
+   * operation, used in log and error messages; must not be {@code
+   * null}
+   *
+   * @param releaseManagerCallable the {@link Callable} supplied to
+   * the {@link #execute(Callable)} method; must not be {@code null}
+   *
+   * @param operation the operation, which issues a request to Tiller
+   * using the {@link ReleaseManager} it is supplied with and returns a
+   * {@link Future} representing its response; must not be {@code
+   * null}
+   *
+   * @param resultHandler the {@link ReleaseOperationResultHandler}
+   * that will handle the operation's result; must not be {@code
+   * null}
+   *
+   * @exception NullPointerException if any parameter is {@code null}
+   *
+   * @exception Exception if the operation was run immediately and it
+   * or the handling of its result failed
+   *
+   * @see #execute()
+   */
+  protected final <T> void aggregate(final String description, final Callable<ReleaseManager> releaseManagerCallable, final ReleaseManagerOperation<? extends Future<? extends T>> operation, final ReleaseOperationResultHandler<? super T> resultHandler) throws Exception {
+    Objects.requireNonNull(description);
+    Objects.requireNonNull(releaseManagerCallable);
+    Objects.requireNonNull(operation);
+    Objects.requireNonNull(resultHandler);
+    final Log log = this.getLog();
+    assert log != null;
+    final MavenSession session = this.getMavenSession();
+    if (session == null || !this.getPoolReleaseManagers()) {
+      if (log.isWarnEnabled()) {
+        log.warn("Aggregated execution requires a Maven session and pooled ReleaseManagers; executing immediately");
+      }
+      final ReleaseManager releaseManager = releaseManagerCallable.call();
+      if (releaseManager == null) {
+        throw new IllegalStateException("releaseManagerCallable.call() == null");
+      }
+      final Future<? extends T> future = operation.execute(releaseManager);
+      if (future == null) {
+        throw new IllegalStateException("operation.execute(releaseManager) == null");
+      }
+      this.submit(description, future::get, resultHandler);
+    } else {
+      final AggregatedReleaseOperations aggregatedReleaseOperations = AggregatedReleaseOperations.getInstance(session, log);
+      aggregatedReleaseOperations.register(this.getMojoExecution(), description, releaseManagerCallable, operation, resultHandler);
+      if (log.isInfoEnabled()) {
+        log.info(description + ": deferred until every execution of this goal has completed");
+      }
+    }
+  }
+
+  /**
+   * Performs a release-oriented task using a {@link ReleaseManager}
+   * {@linkplain Callable#call() available} from the supplied {@link
+   * Callable}.
+   *
+   * @param releaseManagerCallable the {@link Callable} that will
+   * provide a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @exception Exception if an error occurs
+   */
+  protected abstract void execute(final Callable<ReleaseManager> releaseManagerCallable) throws Exception;
+
+  /**
+   * Arranges for the supplied {@link Callable} to begin acquiring its
+   * {@link ReleaseManager} on a background thread, so that connecting
+   * to Tiller overlaps with whatever work the caller performs before
+   * it invokes the {@link Callable}'s {@link Callable#call() call()}
+   * method.
+   *
+   * <p>A subsequent invocation of the {@link Callable#call() call()}
+   * method will wait for the background connection attempt to
+   * complete and will return its result or throw its exception.</p>
+   *
+   * <p>This implementation does nothing if the supplied {@link
+   * Callable} was not supplied to the {@link #execute(Callable)}
+   * method by this class, or if it has already yielded a {@link
+   * ReleaseManager}.</p>
+   *
+   * @param releaseManagerCallable the {@link Callable} that will
+   * provide a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code releaseManagerCallable}
+   * is {@code null}
+   *
+   * @see #execute(Callable)
+   */
+  protected void connectInBackground(final Callable<ReleaseManager> releaseManagerCallable) {
+    Objects.requireNonNull(releaseManagerCallable);
+    if (releaseManagerCallable instanceof ReleaseManagerCallable) {
+      ((ReleaseManagerCallable)releaseManagerCallable).connectInBackground();
+    }
+  }
+
+  /**
+   * Acquires a {@link ReleaseManager} from the supplied {@link
+   * Callable}, passes it to the supplied {@link
+   * ReleaseManagerOperation} and returns the result, retrying with
+   * randomized exponential backoff if the attempt fails because
+   * Tiller could not be reached.
+   *
+   * <p>This method must only be used for idempotent operations, such
+   * as retrieving information about releases, since an operation
+   * whose connection fails may or may not have been performed by
+   * Tiller.</p>
+   *
+   * <p>Before each retry, if the supplied {@link Callable} was
+   * supplied to the {@link #execute(Callable)} method by this class,
+   * the {@link ReleaseManager} whose attempt failed is discarded, so
+   * that the next attempt uses a new connection to Tiller.</p>
+   *
+   * <p>Retries stop once an attempt succeeds, once an attempt fails
+   * with a {@link Throwable} that is not {@linkplain
+   * #isTransient(Throwable) transient}, once the {@linkplain
+   * #getRetryMaxAttempts() maximum number of attempts} has been made,
+   * or once the next retry would begin after the {@linkplain
+   * #getRetryDeadline() retry deadline}.  In each of these last
+   * cases the most recent failure is thrown.</p>
+   *
+   * @param <T> the type of the result
+   *
+   * @param releaseManagerCallable the {@link Callable} that will
+   * provide a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param operation the {@link ReleaseManagerOperation} to perform;
+   * must not be {@code null}
+   *
+   * @return the result of the operation; may be {@code null}
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   *
+   * @exception Exception if the operation fails
+   */
+  protected final <T> T executeWithRetries(final Callable<ReleaseManager> releaseManagerCallable, final ReleaseManagerOperation<T> operation) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    Objects.requireNonNull(operation);
+    final Log log = this.getLog();
+    assert log != null;
+    final int maxAttempts = Math.max(1, this.getRetryMaxAttempts());
+    final long deadline = System.currentTimeMillis() + this.getRetryDeadline();
+    final long maxBackoff = Math.max(0L, this.getRetryMaxBackoff());
+    long backoff = Math.min(maxBackoff, Math.max(1L, this.getRetryInitialBackoff()));
+    for (int attempt = 1; ; attempt++) {
+      ReleaseManager releaseManager = null;
+      try {
+        releaseManager = releaseManagerCallable.call();
+        if (releaseManager == null) {
+          throw new IllegalStateException("releaseManagerCallable.call() == null");
+        }
+        return operation.execute(releaseManager);
+      } catch (final Exception exception) {
+        // Equal jitter: wait a random time between half the backoff
+        // and the whole backoff.
+        final long sleepTime = backoff / 2L + ThreadLocalRandom.current().nextLong(backoff / 2L + 1L);
+        if (attempt >= maxAttempts || System.currentTimeMillis() + sleepTime > deadline || !this.isTransient(exception)) {
+          throw exception;
+        }
+        if (log.isWarnEnabled()) {
+          log.warn("Attempt " + attempt + " of " + maxAttempts + " failed; retrying in " + sleepTime + " ms: " + exception);
+        }
+        if (releaseManager != null && releaseManagerCallable instanceof ReleaseManagerCallable) {
+          try {
+            ((ReleaseManagerCallable)releaseManagerCallable).reset(releaseManager);
+          } catch (final IOException ioException) {
+            if (log.isDebugEnabled()) {
+              log.debug("Failed to close ReleaseManager " + releaseManager, ioException);
+            }
+          }
+        }
+        Thread.sleep(sleepTime);
+        backoff = Math.min(maxBackoff, backoff * 2L);
+      }
+    }
+  }
+
+  /**
+   * {@linkplain AggregatedReleaseOperations#deploy(MojoExecution,
+   * Log) Deploys} the operations registered with the supplied {@link
+   * AggregatedReleaseOperations} on behalf of the goal represented by
+   * the supplied {@link MojoExecution}.
+   *
+   * @param aggregatedReleaseOperations the {@link
+   * AggregatedReleaseOperations} to deploy; must not be {@code null}
+   *
+   * @param mojoExecution the {@link MojoExecution} whose goal's
+   * operations should be deployed; may be {@code null}
+   *
+   * @exception MojoExecutionException if any operation failed or the
+   * current thread was interrupted
+   */
+  private final void deploy(final AggregatedReleaseOperations aggregatedReleaseOperations, final MojoExecution mojoExecution) throws MojoExecutionException {
+    assert aggregatedReleaseOperations != null;
+    final Log log = this.getLog();
+    assert log != null;
+    final List<Exception> failures;
+    try {
+      failures = aggregatedReleaseOperations.deploy(mojoExecution, log);
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException(interruptedException.getMessage(), interruptedException);
+    }
+    assert failures != null;
+    if (!failures.isEmpty()) {
+      final MojoExecutionException throwMe = new MojoExecutionException(failures.size() + " aggregated release operation(s) failed", failures.get(0));
+      for (int i = 1; i < failures.size(); i++) {
+        throwMe.addSuppressed(failures.get(i));
+      }
+      throw throwMe;
+    }
+  }
+
+  /**
+   * Returns {@code true} if the supplied {@link Throwable} represents
+   * a failure that may not recur if the operation that caused it is
+   * retried over a new connection to Tiller.
+   *
+   * <p>This implementation returns {@code true} if the supplied
+   * {@link Throwable}, or any {@link Throwable} in its {@linkplain
+   * Throwable#getCause() cause chain}, is a gRPC {@link
+   * StatusRuntimeException} or {@link StatusException} bearing a
+   * {@link Status.Code#UNAVAILABLE UNAVAILABLE} status code, a {@link
+   * KubernetesClientException}, or an {@link IOException} that is not
+   * an {@link InterruptedIOException}.</p>
+   *
+   * @param throwable the {@link Throwable} to inspect; may be {@code
+   * null} in which case {@code false} will be returned
+   *
+   * @return {@code true} if the failure is transient; {@code false}
+   * otherwise
+   *
+   * @see #executeWithRetries(Callable, ReleaseManagerOperation)
+   */
+  protected boolean isTransient(final Throwable throwable) {
+    Throwable t = throwable;
+    while (t != null) {
+      final Status status;
+      if (t instanceof StatusRuntimeException) {
+        status = ((StatusRuntimeException)t).getStatus();
+      } else if (t instanceof StatusException) {
+        status = ((StatusException)t).getStatus();
+      } else {
+        status = null;
+      }
+      if (status != null) {
+        return Status.Code.UNAVAILABLE.equals(status.getCode());
+      } else if (t instanceof InterruptedIOException) {
+        return false;
+      } else if (t instanceof IOException || t instanceof KubernetesClientException) {
+        return true;
+      }
+      final Throwable cause = t.getCause();
+      t = cause == t ? null : cause;
+    }
+    return false;
+  }
+
+  /**
+   * Creates a {@link DefaultKubernetesClient} for communicating with
+   * Kubernetes clusters.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Overrides of this method must not return {@code null}.</p>
+   *
+   * <p>The default implementation passes the return value of the
+   * {@link #getClientConfiguration()} method to the {@link
+   * #createClient(Config)} method and returns the result.</p>
+   *
+   * @return a new, non-{@code null} {@link DefaultKubernetesClient}
+   *
+   * @exception IOException if there was a problem creating the client
+   */
+  protected DefaultKubernetesClient createClient() throws IOException {
+    return this.createClient(this.getClientConfiguration());
+  }
+
+  /**
+   * Creates a {@link DefaultKubernetesClient} for communicating with
+   * the Kubernetes cluster described by the supplied {@link Config}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Overrides of this method must not return {@code null}.</p>
+   *
+   * <p>The default implementation {@linkplain
+   * DefaultKubernetesClient#DefaultKubernetesClient(Config) uses} the
+   * supplied {@link Config}, unless it is {@code null}, in which case
+   * a new {@link DefaultKubernetesClient} is created using an
+   * {@linkplain Config#autoConfigure(String) automatically
+   * determined} {@link Config} that is cached for the lifetime of the
+   * JVM and refreshed when the kubeconfig file changes.</p>
+   *
+   * @param config the {@link Config} describing the cluster; may be
+   * {@code null}
+   *
+   * @return a new, non-{@code null} {@link DefaultKubernetesClient}
+   *
+   * @exception IOException if there was a problem creating the client
+   */
+  protected DefaultKubernetesClient createClient(final Config config) throws IOException {
+    final DefaultKubernetesClient client;
+    if (config == null) {
+      client = new DefaultKubernetesClient(ConfigCache.getConfig(this.getLog()));
+    } else {
+      client = new DefaultKubernetesClient(config);
+    }
+    return client;
+  }
+
+  /**
+   * Creates a {@link Tiller} and returns it.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Overrides of this method must not return {@code null}.</p>
+   *
+   * <p>The default implementation passes the return value of the
+   * {@link #getClientConfiguration()} method to the {@link
+   * #createTiller(Config)} method and returns the result.</p>
+   *
+   * @return a new {@link Tiller}; never {@code null}
+   *
+   * @exception IOException if there was a problem creating a {@link
+   * Tiller}
+   */
+  protected Tiller createTiller() throws IOException {
+    return this.createTiller(this.getClientConfiguration());
+  }
+
+  /**
+   * Creates a {@link Tiller} for communicating with the Tiller server
+   * in the Kubernetes cluster described by the supplied {@link
+   * Config} and returns it.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Overrides of this method must not return {@code null}.</p>
+   *
+   * <p>If a {@linkplain #getTillerHost() Tiller host} has been
+   * specified, this implementation {@linkplain #createChannel(String,
+   * int) creates a channel} to it directly.  Otherwise, if a
+   * {@linkplain #getTillerTunnelDaemon() Tiller tunnel daemon} is to
+   * be used and the supplied {@link Config} is {@code null}, this
+   * implementation
+   * {@linkplain TillerTunnelDaemon#acquire(String, String, int, Map,
+   * long, long, Log) acquires a tunnel} and creates a channel to it.
+   * In both of these cases the resulting {@link Tiller} is
+   * {@linkplain #awaitReadiness(Tiller) probed for readiness} before
+   * it is returned.  Otherwise this implementation passes the result
+   * of invoking the {@link #createClient(Config)} method to the
+   * {@link #createTiller(DefaultKubernetesClient)} method and returns
+   * the result.</p>
+   *
+   * @param config the {@link Config} describing the cluster; may be
+   * {@code null}
+   *
+   * @return a new {@link Tiller}; never {@code null}
+   *
+   * @exception IOException if there was a problem creating a {@link
+   * Tiller}
+   */
+  protected Tiller createTiller(final Config config) throws IOException {
+    final Tiller returnValue;
+    final String tillerHost = this.getTillerHost();
+    if (tillerHost != null && !tillerHost.isEmpty()) {
+      final long start = System.nanoTime();
+      returnValue = new Tiller(this.createChannel(tillerHost, this.getTillerPort()));
+      this.awaitReadiness(returnValue);
+      this.recordPhase("channel", start);
+    } else if (this.getTillerTunnelDaemon() && config == null) {
+      String tillerNamespace = this.getTillerNamespace();
+      if (tillerNamespace == null || tillerNamespace.isEmpty()) {
+        tillerNamespace = Tiller.DEFAULT_NAMESPACE;
+      }
+      long start = System.nanoTime();
+      final InetSocketAddress address =
+        TillerTunnelDaemon.acquire(ConfigCache.getConfig(this.getLog()).getMasterUrl(),
+                                   tillerNamespace,
+                                   this.getTillerPort(),
+                                   this.getTillerLabels(),
+                                   this.getTillerTunnelIdleTimeout(),
+                                   TimeUnit.SECONDS.toMillis(30L),
+                                   this.getLog());
+      assert address != null;
+      this.recordPhase("tunnel", start);
+      start = System.nanoTime();
+      returnValue = new Tiller(this.createChannel(address.getHostString(), address.getPort()));
+      this.awaitReadiness(returnValue);
+      this.recordPhase("channel", start);
+    } else {
+      final long start = System.nanoTime();
+      final DefaultKubernetesClient client = this.createClient(config);
+      this.recordPhase("client", start);
+      returnValue = this.createTiller(client);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Creates a new {@link ManagedChannel} connected to a Tiller
+   * server listening on the supplied host and port and returns it.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Overrides of this method must not return {@code null}.</p>
+   *
+   * <p>This implementation builds a plaintext channel honoring the
+   * {@linkplain #getTillerMaxInboundMessageSize() maximum inbound
+   * message size}, {@linkplain #getTillerKeepAliveTime() keepalive
+   * time}, {@linkplain #getTillerCompression() compression} and,
+   * when the underlying transport is Netty, {@linkplain
+   * #getTillerInitialFlowControlWindow() initial flow-control window}
+   * settings, limits concurrent requests with the session's {@link
+   * TillerConcurrencyGovernor} if {@linkplain
+   * #getTillerConcurrencyGovernor() so configured}, and asks it to {@linkplain
+   * ManagedChannel#getState(boolean) begin connecting} right away so
+   * that connection setup overlaps with whatever the caller does
+   * next.</p>
+   *
+   * <p>Every {@link Tiller} created by the {@link #createTiller()}
+   * and {@link #createTiller(DefaultKubernetesClient)} methods uses a
+   * channel created by this method.</p>
+   *
+   * @param host the host name or IP address at which Tiller may be
+   * reached; must not be {@code null}
+   *
+   * @param port the port on which Tiller may be reached
+   *
+   * @return a new {@link ManagedChannel}; never {@code null}
+   *
+   * @exception NullPointerException if {@code host} is {@code null}
+   */
+  protected ManagedChannel createChannel(final String host, final int port) {
+    Objects.requireNonNull(host);
+    final ManagedChannelBuilder<?> builder = ManagedChannelBuilder.forAddress(host, port);
+    assert builder != null;
+    builder.idleTimeout(5L, TimeUnit.SECONDS);
+
+    final long keepAliveTime = this.getTillerKeepAliveTime();
+    if (keepAliveTime > 0L) {
+      builder.keepAliveTime(keepAliveTime, TimeUnit.SECONDS);
+    }
+
+    final int maxInboundMessageSize = this.getTillerMaxInboundMessageSize();
+    builder.maxInboundMessageSize(maxInboundMessageSize > 0 ? maxInboundMessageSize : Tiller.MAX_MESSAGE_SIZE);
+
+    final String compression = this.getTillerCompression();
+    if (compression != null && !compression.isEmpty()) {
+      builder.intercept(new ClientInterceptor() {
+          @Override
+          public final <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(final MethodDescriptor<ReqT, RespT> method, final CallOptions callOptions, final Channel next) {
+            return next.newCall(method, callOptions.withCompression(compression));
+          }
+        });
+    }
+
+    final int initialFlowControlWindow = this.getTillerInitialFlowControlWindow();
+    if (initialFlowControlWindow > 0 && builder instanceof NettyChannelBuilder) {
+      ((NettyChannelBuilder)builder).flowControlWindow(initialFlowControlWindow);
+    }
+
+    if (this.getTillerConcurrencyGovernor()) {
+      final TillerConcurrencyGovernor governor =
+        TillerConcurrencyGovernor.getInstance(this.getMavenSession(),
+                                              this.getTillerListConcurrency(),
+                                              this.getTillerReadConcurrency(),
+                                              this.getTillerMutateConcurrency(),
+                                              this.getTillerLatencyTolerance());
+      final Log log = this.getLog();
+      if (log != null && log.isDebugEnabled()) {
+        log.debug("Limiting concurrent Tiller requests: " + governor);
+      }
+      builder.intercept(governor);
+    }
+
+    builder.usePlaintext(true);
+    final ManagedChannel channel = builder.build();
+    assert channel != null;
+    channel.getState(true);
+    return channel;
+  }
+
+  /**
+   * Waits for the supplied {@link Tiller} to report that it is ready
+   * to serve requests, {@linkplain Tiller#close() closing} it if it
+   * does not do so within the {@linkplain #getTillerConnectTimeout()
+   * connect timeout}.
+   *
+   * <p>This implementation issues a <a
+   * href="https://github.com/grpc/grpc/blob/master/doc/health-checking.md">gRPC
+   * health check</a>, waiting for the underlying channel to become
+   * ready first.  A Tiller server that does not implement the health
+   * checking service is considered ready once it answers.</p>
+   *
+   * @param tiller the {@link Tiller} to probe; must not be {@code
+   * null}
+   *
+   * @exception NullPointerException if {@code tiller} is {@code null}
+   *
+   * @exception IOException if Tiller is not ready in time
+   */
+  protected void awaitReadiness(final Tiller tiller) throws IOException {
+    Objects.requireNonNull(tiller);
+    HealthCheckResponse.ServingStatus servingStatus = null;
+    IOException ioException = null;
+    try {
+      final HealthCheckResponse response = tiller.getHealthBlockingStub()
+        .withWaitForReady()
+        .withDeadlineAfter(this.getTillerConnectTimeout(), TimeUnit.SECONDS)
+        .check(HealthCheckRequest.getDefaultInstance());
+      assert response != null;
+      servingStatus = response.getStatus();
+    } catch (final StatusRuntimeException statusRuntimeException) {
+      final Status status = statusRuntimeException.getStatus();
+      if (status != null && Status.Code.UNIMPLEMENTED.equals(status.getCode())) {
+        servingStatus = HealthCheckResponse.ServingStatus.SERVING;
+      } else {
+        ioException = new IOException("Tiller is not ready: " + status, statusRuntimeException);
+      }
+    }
+    if (ioException == null && !HealthCheckResponse.ServingStatus.SERVING.equals(servingStatus)) {
+      ioException = new IOException("Tiller is not ready: " + servingStatus);
+    }
+    if (ioException != null) {
+      try {
+        tiller.close();
+      } catch (final IOException suppressMe) {
+        ioException.addSuppressed(suppressMe);
+      }
+      throw ioException;
+    }
+  }
+
+  /**
+   * Creates a {@link Tiller} and returns it.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Overrides of this method must not return {@code null}.</p>
+   *
+   * <p>This implementation uses the supplied {@link
+   * DefaultKubernetesClient} to find the first ready Tiller pod in
+   * the {@linkplain #getTillerNamespace() Tiller namespace} bearing
+   * the {@linkplain #getTillerLabels() Tiller labels}, forwards a
+   * local port to its {@linkplain #getTillerPort() Tiller port}, and
+   * returns a {@link Tiller} whose channel to the forwarded port is
+   * {@linkplain #createChannel(String, int) created by this mojo}.
+   * This is what the <a
+   * href="https://microbean.github.io/microbean-helm/apidocs/org/microbean/helm/Tiller.html#Tiller-T-">corresponding
+   * <code>Tiller</code> constructor</a> does, but discovery and
+   * port forwarding are {@linkplain #recordPhase(String, long) timed}
+   * separately.</p>
+   *
+   * <p>If the {@linkplain #getTillerPodCacheTtl() Tiller pod cache}
+   * is enabled, the name of the Tiller pod is taken from it when
+   * possible, and no discovery query is issued.  If Tiller cannot be
+   * reached through a cached pod, the cache entry is evicted and the
+   * pod is discovered afresh.</p>
+   *
+   * @param client the {@link DefaultKubernetesClient} to use to
+   * communicate with a Kubernetes cluster; must not be {@code null}
+   *
+   * @return a new {@link Tiller}; never {@code null}
+   *
+   * @exception NullPointerException if {@code client} is {@code null}
+   *
+   * @exception IOException if there was a problem creating a {@link
+   * Tiller}
+   */
+  protected Tiller createTiller(final DefaultKubernetesClient client) throws IOException {
+    Objects.requireNonNull(client);
+    return this.createTiller(client, this.getTillerPodCacheTtl() > 0L);
+  }
+
+  /**
+   * Creates a {@link Tiller} by way of a forwarded port and returns
+   * it.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param client the {@link DefaultKubernetesClient} to use to
+   * communicate with a Kubernetes cluster; must not be {@code null}
+   *
+   * @param useCachedPod whether the name of the Tiller pod may be
+   * taken from the {@link TillerPodCache}
+   *
+   * @return a new {@link Tiller}; never {@code null}
+   *
+   * @exception IOException if there was a problem creating a {@link
+   * Tiller}
+   *
+   * @see #createTiller(DefaultKubernetesClient)
+   */
+  private final Tiller createTiller(final DefaultKubernetesClient client, final boolean useCachedPod) throws IOException {
+    assert client != null;
+    final Log log = this.getLog();
+    assert log != null;
+    String tillerNamespace = this.getTillerNamespace();
+    if (tillerNamespace == null || tillerNamespace.isEmpty()) {
+      tillerNamespace = Tiller.DEFAULT_NAMESPACE;
+    }
+    Map<String, String> tillerLabels = this.getTillerLabels();
+    if (tillerLabels == null) {
+      tillerLabels = Tiller.DEFAULT_LABELS;
+    }
+    final int tillerPort = this.getTillerPort();
+    final Config configuration = client.getConfiguration();
+    final String masterUrl = configuration == null ? null : configuration.getMasterUrl();
+    final long podCacheTtl = TimeUnit.SECONDS.toMillis(this.getTillerPodCacheTtl());
+
+    String podName = null;
+    if (useCachedPod) {
+      podName = TillerPodCache.get(masterUrl, tillerNamespace, tillerPort, tillerLabels, podCacheTtl);
+      if (podName != null && log.isDebugEnabled()) {
+        log.debug("Using cached Tiller pod " + podName + " in namespace " + tillerNamespace);
+      }
+    }
+    final boolean cachedPod = podName != null;
+
+    long start;
+    if (podName == null) {
+      start = System.nanoTime();
+      final Pod pod = Pods.getFirstReadyPod(client.pods().inNamespace(tillerNamespace).withLabels(tillerLabels));
+      this.recordPhase("discovery", start);
+      if (pod == null) {
+        throw new IOException("No ready Tiller pod found in namespace " + tillerNamespace + " with labels " + tillerLabels);
+      }
+      final ObjectMeta metadata = pod.getMetadata();
+      if (metadata == null) {
+        throw new IllegalStateException("pod.getMetadata() == null");
+      }
+      podName = metadata.getName();
+      if (podCacheTtl > 0L) {
+        TillerPodCache.put(masterUrl, tillerNamespace, tillerPort, tillerLabels, pod);
+      }
+    }
+    assert podName != null;
+
+    start = System.nanoTime();
+    LocalPortForward portForward = null;
+    RuntimeException portForwardFailure = null;
+    try {
+      portForward = client.pods().inNamespace(tillerNamespace).withName(podName).portForward(tillerPort);
+    } catch (final RuntimeException runtimeException) {
+      portForwardFailure = runtimeException;
+    }
+    this.recordPhase("portForward", start);
+    if (portForward == null) {
+      if (cachedPod) {
+        return this.retryWithoutCachedPod(client, masterUrl, tillerNamespace, tillerPort, tillerLabels, podName, portForwardFailure);
+      } else if (portForwardFailure != null) {
+        throw portForwardFailure;
+      }
+      throw new IOException("Could not forward a local port to port " + tillerPort + " of Tiller pod " + podName + " in namespace " + tillerNamespace);
+    }
+
+    final LocalPortForward forwardedPort = portForward;
+    final Tiller returnValue;
+    try {
+      returnValue = new Tiller(forwardedPort) {
+          @Override
+          protected final ManagedChannel buildChannel(final LocalPortForward portForward) {
+            Objects.requireNonNull(portForward);
+            return createChannel(portForward.getLocalAddress().getHostAddress(), portForward.getLocalPort());
+          }
+
+          @Override
+          public final Config getConfiguration() {
+            return configuration;
+          }
+        };
+    } catch (final RuntimeException runtimeException) {
+      try {
+        forwardedPort.close();
+      } catch (final IOException suppressMe) {
+        runtimeException.addSuppressed(suppressMe);
+      }
+      throw runtimeException;
+    }
+
+    if (cachedPod) {
+      // A port-forward to a pod that no longer exists only fails
+      // once it is used, so make sure the cached pod is still
+      // serving before handing it out.
+      start = System.nanoTime();
+      IOException readinessFailure = null;
+      try {
+        this.awaitReadiness(returnValue);
+      } catch (final IOException ioException) {
+        readinessFailure = ioException;
+      }
+      this.recordPhase("readiness", start);
+      if (readinessFailure != null) {
+        return this.retryWithoutCachedPod(client, masterUrl, tillerNamespace, tillerPort, tillerLabels, podName, readinessFailure);
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * {@linkplain TillerPodCache#evict(String, String, int, Map)
+   * Evicts} a Tiller pod that could not be reached from the {@link
+   * TillerPodCache} and then creates a {@link Tiller} by discovering
+   * the Tiller pod afresh.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param client the {@link DefaultKubernetesClient} to use to
+   * communicate with a Kubernetes cluster; must not be {@code null}
+   *
+   * @param masterUrl the Kubernetes API server URL; may be {@code
+   * null}
+   *
+   * @param tillerNamespace the Kubernetes namespace housing Tiller
+   *
+   * @param tillerPort the port on which Tiller listens
+   *
+   * @param tillerLabels the labels Tiller pods bear
+   *
+   * @param podName the name of the unreachable pod; must not be
+   * {@code null}
+   *
+   * @param cause the reason the pod could not be reached; may be
+   * {@code null}
+   *
+   * @return a new {@link Tiller}; never {@code null}
+   *
+   * @exception IOException if there was a problem creating a {@link
+   * Tiller}
+   */
+  private final Tiller retryWithoutCachedPod(final DefaultKubernetesClient client,
+                                             final String masterUrl,
+                                             final String tillerNamespace,
+                                             final int tillerPort,
+                                             final Map<String, String> tillerLabels,
+                                             final String podName,
+                                             final Exception cause)
+    throws IOException {
+    TillerPodCache.evict(masterUrl, tillerNamespace, tillerPort, tillerLabels);
+    final Log log = this.getLog();
+    if (log != null && log.isDebugEnabled()) {
+      log.debug("Cached Tiller pod " + podName + " in namespace " + tillerNamespace + " could not be reached; discovering Tiller afresh", cause);
+    }
+    return this.createTiller(client, false);
+  }
+
+  /**
+   * Creates a {@link ReleaseManager} and returns it.
    *
    * <p>This method never returns {@code null}.</p>
    *
@@ -424,6 +2257,244 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
     }
   }
   
+  /**
+   * Calls the {@link #execute(Callable)} method with the supplied
+   * {@link ReleaseManagerCallable} and then {@linkplain
+   * ReleaseManagerCallable#close() closes} it.
+   *
+   * @param releaseManagerCallable the {@link ReleaseManagerCallable}
+   * to use; must not be {@code null}
+   *
+   * @exception MojoExecutionException if there was a problem
+   * executing this mojo
+   *
+   * @exception MojoFailureException if the mojo executed properly,
+   * but the job it was to perform failed in some way
+   */
+  private final void executeWith(final ReleaseManagerCallable releaseManagerCallable) throws MojoExecutionException, MojoFailureException {
+    assert releaseManagerCallable != null;
+    Throwable throwable = null;
+    long start = System.nanoTime();
+    try {
+      this.execute(releaseManagerCallable);
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      final MojoExecutionException mojoExecutionException = new MojoExecutionException(interruptedException.getMessage(), interruptedException);
+      throwable = mojoExecutionException;
+      throw mojoExecutionException;
+    } catch (final RuntimeException | MojoExecutionException | MojoFailureException throwMe) {
+      throwable = throwMe;
+      throw throwMe;
+    } catch (final Exception otherStuff) {
+      final MojoExecutionException mojoExecutionException = new MojoExecutionException(otherStuff.getMessage(), otherStuff);
+      throwable = mojoExecutionException;
+      throw mojoExecutionException;
+    } finally {
+      this.recordPhase("execute", start);
+      start = System.nanoTime();
+      try {
+        releaseManagerCallable.close();
+      } catch (final IOException ioException) {
+        if (throwable != null) {
+          throwable.addSuppressed(ioException);
+        } else {
+          throw new MojoExecutionException(ioException.getMessage(), ioException);
+        }
+      } finally {
+        this.recordPhase("close", start);
+      }
+    }
+  }
+
+  /**
+   * Executes this mojo against each Kubernetes cluster described by
+   * the supplied {@link Config}s.
+   *
+   * <p>Each cluster is worked with by its own {@linkplain #clone()
+   * copy} of this {@link AbstractReleaseMojo}, which records its own
+   * {@linkplain #recordPhase(String, long) phase timings}.
+   * Connections to all clusters' Tiller servers are {@linkplain
+   * ReleaseManagerCallable#connectInBackground() begun in parallel}
+   * right away.  The {@link #execute(Callable)} method of each copy
+   * is then invoked, with at most {@linkplain
+   * #getClusterConcurrency() cluster concurrency} invocations in
+   * flight at any time.  Once all invocations have completed, the
+   * outcome, duration and phase timings of each are reported.</p>
+   *
+   * @param pool the {@link ReleaseManagerPool} to use; may be {@code
+   * null}
+   *
+   * @param clientConfigurations the {@link Config}s describing the
+   * clusters; must not be {@code null}
+   *
+   * @exception MojoExecutionException if execution against at least
+   * one cluster failed; failures for individual clusters are
+   * {@linkplain Throwable#addSuppressed(Throwable) suppressed}
+   */
+  private final void executeAcrossClusters(final ReleaseManagerPool pool, final List<? extends Config> clientConfigurations) throws MojoExecutionException {
+    assert clientConfigurations != null;
+    final Log log = this.getLog();
+    assert log != null;
+    final int size = clientConfigurations.size();
+    final List<AbstractReleaseMojo> copies = new ArrayList<>(size);
+    final List<ReleaseManagerCallable> releaseManagerCallables = new ArrayList<>(size);
+    for (final Config clientConfiguration : clientConfigurations) {
+      final AbstractReleaseMojo copy = this.clone();
+      assert copy != null;
+      copy.phaseTimings = this.getReportTimings() ? new PhaseTimings() : null;
+      copies.add(copy);
+      final ReleaseManagerCallable releaseManagerCallable = copy.new ReleaseManagerCallable(pool, clientConfiguration);
+      releaseManagerCallable.connectInBackground();
+      releaseManagerCallables.add(releaseManagerCallable);
+    }
+    final int concurrency = Math.max(1, Math.min(size, this.getClusterConcurrency()));
+    final ExecutorService executorService = Executors.newFixedThreadPool(concurrency, runnable -> {
+        final Thread thread = new Thread(runnable, "helm-maven-plugin cluster worker");
+        thread.setDaemon(true);
+        return thread;
+      });
+    try {
+      final List<Future<Long>> futures = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        final AbstractReleaseMojo copy = copies.get(i);
+        final ReleaseManagerCallable releaseManagerCallable = releaseManagerCallables.get(i);
+        futures.add(executorService.submit(() -> {
+              final long start = System.nanoTime();
+              copy.executeWith(releaseManagerCallable);
+              return Long.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }));
+      }
+      MojoExecutionException failure = null;
+      int failures = 0;
+      for (int i = 0; i < size; i++) {
+        final String cluster = describeCluster(clientConfigurations.get(i), i);
+        try {
+          final Long elapsed = futures.get(i).get();
+          if (log.isInfoEnabled()) {
+            log.info(cluster + ": succeeded in " + elapsed + " ms");
+          }
+        } catch (final ExecutionException executionException) {
+          failures++;
+          Throwable cause = executionException.getCause();
+          if (cause == null) {
+            cause = executionException;
+          }
+          if (log.isErrorEnabled()) {
+            log.error(cluster + ": failed: " + cause.getMessage());
+          }
+          if (failure == null) {
+            failure = new MojoExecutionException(cluster + ": " + cause.getMessage(), cause);
+          } else {
+            failure.addSuppressed(cause);
+          }
+        }
+        final PhaseTimings phaseTimings = copies.get(i).phaseTimings;
+        if (phaseTimings != null) {
+          this.reportTimings(phaseTimings, cluster, i);
+        }
+      }
+      if (failure != null) {
+        throw new MojoExecutionException("Execution failed against " + failures + " of " + size + " clusters", failure);
+      }
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException(interruptedException.getMessage(), interruptedException);
+    } finally {
+      executorService.shutdownNow();
+      for (final ReleaseManagerCallable releaseManagerCallable : releaseManagerCallables) {
+        try {
+          releaseManagerCallable.close();
+        } catch (final IOException ioException) {
+          if (log.isWarnEnabled()) {
+            log.warn(ioException);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a human-readable description of the Kubernetes cluster
+   * described by the supplied {@link Config}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param config the {@link Config} describing the cluster; may be
+   * {@code null}
+   *
+   * @param index the zero-based index of the cluster in the
+   * {@linkplain #getClientConfigurations() list of client
+   * configurations}
+   *
+   * @return a non-{@code null} description
+   */
+  private static final String describeCluster(final Config config, final int index) {
+    final String masterUrl = config == null ? null : config.getMasterUrl();
+    final StringBuilder sb = new StringBuilder("Cluster ").append(index + 1);
+    if (masterUrl != null) {
+      sb.append(" (").append(masterUrl).append(')');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Logs the supplied {@link PhaseTimings} at {@code INFO} level and
+   * writes them to a file in the {@linkplain #getTimingsDirectory()
+   * timings directory}, if there is one.
+   *
+   * <p>A failure to write the file is logged as a warning and does
+   * not otherwise affect the build.</p>
+   *
+   * @param phaseTimings the {@link PhaseTimings} to report; must not
+   * be {@code null}
+   *
+   * @param cluster a description of the cluster to which the
+   * supplied {@link PhaseTimings} pertain, or {@code null} if this
+   * goal was executed against a single cluster
+   *
+   * @param clusterIndex the zero-based index of that cluster in the
+   * {@linkplain #getClientConfigurations() list of client
+   * configurations}; ignored if {@code cluster} is {@code null}
+   */
+  private final void reportTimings(final PhaseTimings phaseTimings, final String cluster, final int clusterIndex) {
+    assert phaseTimings != null;
+    if (!phaseTimings.isEmpty()) {
+      final Log log = this.getLog();
+      assert log != null;
+      if (log.isInfoEnabled()) {
+        log.info((cluster == null ? "" : cluster + ": ") + "Phase timings: " + phaseTimings.toSummary());
+      }
+      final File timingsDirectory = this.getTimingsDirectory();
+      final MavenSession session = this.getMavenSession();
+      // Don't litter the current directory with a target directory
+      // when there is no real project.
+      if (timingsDirectory != null && (session == null || session.getRequest() == null || session.getRequest().isProjectPresent())) {
+        final MojoExecution mojoExecution = this.getMojoExecution();
+        final String goal;
+        final String executionId;
+        if (mojoExecution == null) {
+          goal = this.getClass().getSimpleName();
+          executionId = null;
+        } else {
+          goal = mojoExecution.getGoal();
+          executionId = mojoExecution.getExecutionId();
+        }
+        final StringBuilder fileName = new StringBuilder(String.valueOf(goal)).append('-').append(String.valueOf(executionId));
+        if (cluster != null) {
+          fileName.append("-cluster").append(clusterIndex + 1);
+        }
+        fileName.append(".json");
+        try {
+          phaseTimings.write(timingsDirectory.toPath().resolve(fileName.toString().replaceAll("[^A-Za-z0-9._-]", "_")), goal, executionId);
+        } catch (final IOException | RuntimeException warnMe) {
+          if (log.isWarnEnabled()) {
+            log.warn("Could not write phase timings to " + timingsDirectory, warnMe);
+          }
+        }
+      }
+    }
+  }
+
 
   /*
    * Inner and nested classes.
@@ -433,8 +2504,8 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
   /**
    * A {@link Callable} whose {@link #call()} method yields the same
    * {@link ReleaseManager} for every invocation, {@linkplain
-   * AbstractReleaseMojo#createReleaseManager(Tiller) creating one} if
-   * necessary.
+   * AbstractReleaseMojo#createReleaseManager(Tiller) creating one} or
+   * acquiring one from a {@link ReleaseManagerPool} if necessary.
    *
    * @author <a href="https://about.me/lairdnelson"
    * target="_parent">Laird Nelson</a>
@@ -445,7 +2516,7 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
    *
    * @see AbstractReleaseMojo#createClient()
    */
-  private final class ReleaseManagerCallable implements Callable<ReleaseManager> {
+  private final class ReleaseManagerCallable implements Callable<ReleaseManager>, Closeable {
 
 
     /*
@@ -453,16 +2524,53 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
      */
 
 
+    /**
+     * The {@link ReleaseManagerPool} from which {@link
+     * ReleaseManager}s should be acquired.
+     *
+     * <p>This field may be {@code null}, in which case {@link
+     * ReleaseManager}s will be created directly and {@linkplain
+     * #close() closed} by this {@link ReleaseManagerCallable}.</p>
+     */
+    private final ReleaseManagerPool pool;
+
     /**
      * The {@link ReleaseManager} to return from the {@link #call()}
      * method.
      *
      * <p>This field may be {@code null}.</p>
      *
-     * @sed #call()
+     * @see #call()
      */
     private ReleaseManager releaseManager;
 
+    /**
+     * A {@link FutureTask} acquiring a {@link ReleaseManager} on a
+     * background thread.
+     *
+     * <p>This field may be {@code null}.</p>
+     *
+     * @see #connectInBackground()
+     */
+    private FutureTask<ReleaseManager> connection;
+
+    /**
+     * The {@link ReleaseManagerPool.Key} under which {@link
+     * ReleaseManager}s are pooled.
+     *
+     * <p>This field is {@code null} if and only if the {@link #pool}
+     * field is {@code null}.</p>
+     */
+    private final ReleaseManagerPool.Key key;
+
+    /**
+     * The {@link Config} describing the Kubernetes cluster in which
+     * Tiller may be found.
+     *
+     * <p>This field may be {@code null}.</p>
+     */
+    private final Config clientConfiguration;
+
 
     /*
      * Constructors.
@@ -471,9 +2579,38 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
 
     /**
      * Creates a new {@link ReleaseManagerCallable}.
+     *
+     * @param pool the {@link ReleaseManagerPool} from which {@link
+     * ReleaseManager}s should be acquired; may be {@code null}
+     *
+     * @param clientConfiguration the {@link Config} describing the
+     * Kubernetes cluster in which Tiller may be found; may be {@code
+     * null}
      */
-    private ReleaseManagerCallable() {
+    private ReleaseManagerCallable(final ReleaseManagerPool pool, final Config clientConfiguration) {
       super();
+      this.pool = pool;
+      this.clientConfiguration = clientConfiguration;
+      if (pool == null) {
+        this.key = null;
+      } else {
+        this.key = new ReleaseManagerPool.Key(clientConfiguration,
+                                              getTillerHost(),
+                                              getTillerNamespace(),
+                                              getTillerPort(),
+                                              getTillerLabels(),
+                                              getTillerTunnelDaemon(),
+                                              getTillerPodCacheTtl(),
+                                              Arrays.asList(getTillerMaxInboundMessageSize(),
+                                                            getTillerKeepAliveTime(),
+                                                            getTillerCompression(),
+                                                            getTillerInitialFlowControlWindow(),
+                                                            getTillerConcurrencyGovernor(),
+                                                            getTillerListConcurrency(),
+                                                            getTillerReadConcurrency(),
+                                                            getTillerMutateConcurrency(),
+                                                            getTillerLatencyTolerance()));
+      }
     }
 
 
@@ -482,10 +2619,30 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
      */
 
 
+    /**
+     * Begins acquiring a {@link ReleaseManager} on a new daemon
+     * {@link Thread}, unless one has already been acquired or is
+     * being acquired.
+     *
+     * @see #call()
+     */
+    private final synchronized void connectInBackground() {
+      if (this.releaseManager == null && this.connection == null) {
+        this.connection = new FutureTask<>(this::acquire);
+        final Thread thread = new Thread(this.connection, "helm-maven-plugin Tiller connection");
+        thread.setDaemon(true);
+        thread.start();
+      }
+    }
+
     /**
      * Returns a {@link ReleaseManager}, {@linkplain
      * AbstractReleaseMojo#createReleaseManager(Tiller) creating one}
-     * if necessary.
+     * or acquiring one from a {@link ReleaseManagerPool} if
+     * necessary.
+     *
+     * <p>If a {@linkplain #connectInBackground() background connection
+     * attempt} is underway, this method waits for it to complete.</p>
      *
      * <p>This method never returns {@code null}.</p>
      *
@@ -495,12 +2652,135 @@ public abstract class AbstractReleaseMojo extends AbstractHelmMojo {
      * ReleaseManager}
      */
     @Override
-    public final ReleaseManager call() throws IOException {
+    public final synchronized ReleaseManager call() throws IOException {
       if (this.releaseManager == null) {
-        this.releaseManager = createReleaseManager(createTiller(createClient()));
+        if (this.connection == null) {
+          this.releaseManager = this.acquire();
+        } else {
+          final long start = System.nanoTime();
+          try {
+            this.releaseManager = this.connection.get();
+          } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException throwMe = new InterruptedIOException(interruptedException.getMessage());
+            throwMe.initCause(interruptedException);
+            throw throwMe;
+          } catch (final ExecutionException executionException) {
+            // Let a later invocation try again.
+            this.connection = null;
+            final Throwable cause = executionException.getCause();
+            if (cause instanceof IOException) {
+              throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+              throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+              throw (Error)cause;
+            } else {
+              throw new IOException(cause == null ? executionException.getMessage() : cause.getMessage(), cause);
+            }
+          } finally {
+            recordPhase("connectWait", start);
+          }
+        }
       }
       return this.releaseManager;
     }
+
+    /**
+     * Creates or acquires a new {@link ReleaseManager} and returns it.
+     *
+     * <p>This method never returns {@code null}.</p>
+     *
+     * @return a {@link ReleaseManager}; never {@code null}
+     *
+     * @exception IOException if there was a problem creating a {@link
+     * ReleaseManager}
+     */
+    private final ReleaseManager acquire() throws IOException {
+      final long start = System.nanoTime();
+      final ReleaseManager returnValue;
+      if (this.pool == null) {
+        returnValue = createReleaseManager(createTiller(this.clientConfiguration));
+      } else {
+        returnValue = this.pool.get(this.key, () -> createReleaseManager(createTiller(this.clientConfiguration)));
+      }
+      if (returnValue == null) {
+        throw new IllegalStateException("createReleaseManager(createTiller()) == null");
+      }
+      recordPhase("connect", start);
+      return returnValue;
+    }
+
+    /**
+     * Discards the supplied {@link ReleaseManager}, which must have
+     * been returned by the {@link #call()} method, so that the next
+     * invocation of the {@link #call()} method creates or acquires a
+     * new one.
+     *
+     * <p>If there is a {@link ReleaseManagerPool}, the supplied {@link
+     * ReleaseManager} is {@linkplain
+     * ReleaseManagerPool#evict(ReleaseManagerPool.Key, ReleaseManager)
+     * evicted} from it but not closed, since other callers may still
+     * be using it; the pool closes it when the session ends.
+     * Otherwise it is {@linkplain ReleaseManager#close() closed}
+     * immediately.</p>
+     *
+     * @param releaseManager the {@link ReleaseManager} to discard,
+     * typically because its connection to Tiller failed; must not be
+     * {@code null}
+     *
+     * @exception IOException if the {@link ReleaseManager} could not
+     * be closed
+     */
+    private final synchronized void reset(final ReleaseManager releaseManager) throws IOException {
+      Objects.requireNonNull(releaseManager);
+      if (releaseManager == this.releaseManager) {
+        this.releaseManager = null;
+        this.connection = null;
+        if (this.pool == null) {
+          releaseManager.close();
+        } else {
+          this.pool.evict(this.key, releaseManager);
+        }
+      }
+    }
+
+    /**
+     * {@linkplain ReleaseManager#close() Closes} the {@link
+     * ReleaseManager} returned by the {@link #call()} method, unless
+     * it was acquired from a {@link ReleaseManagerPool}, in which
+     * case the pool is responsible for closing it.
+     *
+     * <p>If a {@linkplain #connectInBackground() background connection
+     * attempt} whose result was never retrieved is underway, this
+     * method waits for it to complete so that any {@link
+     * ReleaseManager} it produces is not leaked.</p>
+     *
+     * @exception IOException if the {@link ReleaseManager} could not
+     * be closed
+     */
+    @Override
+    public final synchronized void close() throws IOException {
+      if (this.releaseManager == null && this.connection != null) {
+        try {
+          this.releaseManager = this.connection.get();
+        } catch (final InterruptedException interruptedException) {
+          Thread.currentThread().interrupt();
+        } catch (final ExecutionException nothingToClose) {
+          // The failure was never observed by a caller, and there is
+          // no ReleaseManager to close.
+        } finally {
+          this.connection = null;
+        }
+      }
+      if (this.pool == null && this.releaseManager != null) {
+        try {
+          this.releaseManager.close();
+        } finally {
+          this.releaseManager = null;
+        }
+      }
+    }
     
   }
   
@@ -0,0 +1,303 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A concurrency limit that adapts itself to the load a server can
+ * bear using an additive-increase/multiplicative-decrease (AIMD)
+ * algorithm.
+ *
+ * <p>Callers {@linkplain #acquire(Runnable) acquire} a permit before
+ * issuing a request and {@linkplain #release(long, boolean) release}
+ * it once the request has completed, reporting how long it took and
+ * whether the server signalled that it was overloaded.  Acquisition
+ * never blocks: a caller supplies a {@link Runnable} that is run as
+ * soon as a permit has been granted to it, which may be immediately
+ * or, if no permit is available, later on the thread that releases
+ * one.  Waiting callers are granted permits in the order in which
+ * they asked for them.  The limit grows by
+ * roughly one permit per round trip while requests complete promptly
+ * and the limit is being used, and shrinks by a constant factor
+ * whenever the server signals overload or, if a latency tolerance is
+ * in effect, a request takes more than that many times as long as
+ * the fastest request recently observed.</p>
+ *
+ * <p>Instances of this class are safe for use by multiple
+ * threads.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see TillerConcurrencyGovernor
+ */
+final class AdaptiveConcurrencyLimit {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The factor by which the limit is multiplied when overload is
+   * detected.
+   */
+  private static final double DECREASE_FACTOR = 0.75D;
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The name of this {@link AdaptiveConcurrencyLimit}, used in {@link
+   * #toString()}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String name;
+
+  /**
+   * The largest value the limit may take.
+   */
+  private final int maxLimit;
+
+  /**
+   * The multiple of the fastest recently observed latency beyond
+   * which a request is considered to indicate overload, or {@code 0}
+   * if latency is not to be considered.
+   */
+  private final double latencyTolerance;
+
+  /**
+   * The current limit.
+   *
+   * <p>This field is guarded by {@code this}.</p>
+   */
+  private double limit;
+
+  /**
+   * The number of permits currently acquired.
+   *
+   * <p>This field is guarded by {@code this}.</p>
+   */
+  private int inFlight;
+
+  /**
+   * The fastest latency, in nanoseconds, recently observed, or {@link
+   * Long#MAX_VALUE} if none has been observed.
+   *
+   * <p>This field is guarded by {@code this}.</p>
+   */
+  private long minLatencyNanos;
+
+  /**
+   * The {@link Runnable}s waiting for a permit, in the order in which
+   * they {@linkplain #acquire(Runnable) asked for one}.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by {@code this}.</p>
+   */
+  private final Deque<Runnable> waiters;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link AdaptiveConcurrencyLimit}.
+   *
+   * @param name the name of this {@link AdaptiveConcurrencyLimit};
+   * must not be {@code null}
+   *
+   * @param maxLimit the largest value the limit may take; values
+   * less than {@code 1} are treated as {@code 1}; the limit starts at
+   * half this value
+   *
+   * @param latencyTolerance the multiple of the fastest recently
+   * observed latency beyond which a request is considered to indicate
+   * overload; values less than or equal to {@code 1} mean that
+   * latency is not considered
+   *
+   * @exception NullPointerException if {@code name} is {@code null}
+   */
+  AdaptiveConcurrencyLimit(final String name, final int maxLimit, final double latencyTolerance) {
+    super();
+    this.name = Objects.requireNonNull(name);
+    this.maxLimit = Math.max(1, maxLimit);
+    this.latencyTolerance = latencyTolerance > 1.0D ? latencyTolerance : 0.0D;
+    this.limit = Math.max(1.0D, Math.ceil(this.maxLimit / 2.0D));
+    this.minLatencyNanos = Long.MAX_VALUE;
+    this.waiters = new ArrayDeque<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Acquires a permit on behalf of the supplied {@link Runnable} and
+   * {@linkplain Runnable#run() runs} it once the permit has been
+   * granted, without blocking.
+   *
+   * <p>If a permit is available and no other {@link Runnable} is
+   * waiting, the supplied {@link Runnable} is run immediately on the
+   * current thread.  Otherwise it is queued and run later, on the
+   * thread that {@linkplain #release(long, boolean) releases} the
+   * permit it is granted, unless it is {@linkplain #cancel(Runnable)
+   * cancelled} first.  Either way the {@link Runnable} owns the
+   * permit once it runs and must arrange for it to be released.</p>
+   *
+   * @param onAcquired the {@link Runnable} to run once a permit has
+   * been granted; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code onAcquired} is {@code
+   * null}
+   *
+   * @see #cancel(Runnable)
+   *
+   * @see #release(long, boolean)
+   */
+  final void acquire(final Runnable onAcquired) {
+    Objects.requireNonNull(onAcquired);
+    synchronized (this) {
+      if (!this.waiters.isEmpty() || this.inFlight >= (int)this.limit) {
+        this.waiters.addLast(onAcquired);
+        return;
+      }
+      this.inFlight++;
+    }
+    onAcquired.run();
+  }
+
+  /**
+   * Withdraws the supplied {@link Runnable}'s request for a permit if
+   * it is still waiting for one.
+   *
+   * @param onAcquired a {@link Runnable} previously supplied to the
+   * {@link #acquire(Runnable)} method; may be {@code null}
+   *
+   * @return {@code true} if the {@link Runnable} was still waiting
+   * and so will never be run; {@code false} if it has been or is
+   * about to be run, in which case it owns a permit
+   */
+  final synchronized boolean cancel(final Runnable onAcquired) {
+    return onAcquired != null && this.waiters.removeFirstOccurrence(onAcquired);
+  }
+
+  /**
+   * Releases a permit previously {@linkplain #acquire(Runnable)
+   * acquired}, adjusts the limit in light of the outcome of the
+   * request it covered, and runs any waiting {@link Runnable}s that
+   * can now be granted permits.
+   *
+   * @param latencyNanos the number of nanoseconds the request took,
+   * or a negative value if it did not complete successfully and so
+   * its latency is meaningless
+   *
+   * @param overloaded whether the server signalled that it was
+   * overloaded
+   */
+  final void release(final long latencyNanos, final boolean overloaded) {
+    final List<Runnable> admitted;
+    synchronized (this) {
+      final boolean limited = !this.waiters.isEmpty() || this.inFlight >= (int)this.limit;
+      this.inFlight--;
+      boolean decrease = overloaded;
+      if (!decrease && latencyNanos >= 0L && this.latencyTolerance > 0.0D) {
+        // Let the baseline creep upwards so that a permanent change in
+        // the server's speed is eventually accepted.
+        this.minLatencyNanos = Math.min(latencyNanos, this.minLatencyNanos == Long.MAX_VALUE ? Long.MAX_VALUE : this.minLatencyNanos + this.minLatencyNanos / 100L);
+        decrease = latencyNanos > this.minLatencyNanos * this.latencyTolerance;
+      }
+      if (decrease) {
+        this.limit = Math.max(1.0D, this.limit * DECREASE_FACTOR);
+      } else if (limited && latencyNanos >= 0L) {
+        this.limit = Math.min(this.maxLimit, this.limit + 1.0D / this.limit);
+      }
+      if (this.waiters.isEmpty() || this.inFlight >= (int)this.limit) {
+        admitted = Collections.emptyList();
+      } else {
+        admitted = new ArrayList<>();
+        while (!this.waiters.isEmpty() && this.inFlight < (int)this.limit) {
+          this.inFlight++;
+          admitted.add(this.waiters.removeFirst());
+        }
+      }
+    }
+    // Run outside the lock, since each may issue a request.
+    for (final Runnable onAcquired : admitted) {
+      onAcquired.run();
+    }
+  }
+
+  /**
+   * Returns the current limit.
+   *
+   * @return the current limit; always at least {@code 1}
+   */
+  final synchronized int getLimit() {
+    return (int)this.limit;
+  }
+
+  /**
+   * Returns the number of permits currently acquired.
+   *
+   * @return the number of permits currently acquired
+   */
+  final synchronized int getInFlight() {
+    return this.inFlight;
+  }
+
+  /**
+   * Returns the number of {@link Runnable}s {@linkplain
+   * #acquire(Runnable) waiting} for a permit.
+   *
+   * @return the number of waiting {@link Runnable}s
+   */
+  final synchronized int getWaiting() {
+    return this.waiters.size();
+  }
+
+  /**
+   * Returns a {@link String} representation of this {@link
+   * AdaptiveConcurrencyLimit}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link String} representation of this
+   * {@link AdaptiveConcurrencyLimit}
+   */
+  @Override
+  public final synchronized String toString() {
+    return this.name + " (limit " + (int)this.limit + " of " + this.maxLimit + ", " + this.inFlight + " in flight, " + this.waiters.size() + " waiting)";
+  }
+
+}
@@ -0,0 +1,622 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+
+import org.apache.maven.plugin.MojoExecution;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.project.MavenProject;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * A {@link Closeable} registry of release operations whose execution
+ * has been {@linkplain AbstractReleaseMojo#aggregate(String,
+ * Callable, ReleaseManagerOperation, ReleaseOperationResultHandler)
+ * deferred} until the end of a reactor build, and that lives for the
+ * duration of a {@link MavenSession}.
+ *
+ * <p>Operations are registered on behalf of the goal whose
+ * execution registers them, and are not run until they are
+ * {@linkplain #deploy(MojoExecution, Log) deployed}, at which point
+ * all of that goal's operations are issued to Tiller at once and
+ * then awaited.  Mojos {@linkplain #executionCompleted(MavenSession,
+ * MojoExecution) report} each completed execution so that the last
+ * execution of a goal in the reactor, whichever project and thread
+ * it runs on, can deploy the operations registered for that goal.
+ * Any operations still registered when the session ends, as happens
+ * when a build stops before every bound execution has run, are
+ * discarded rather than deployed, so that a failed build does not
+ * apply only part of a release, and fail the build.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #getInstance(MavenSession, Log)
+ */
+final class AggregatedReleaseOperations implements Closeable {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The {@link AggregatedReleaseOperations} instances in effect,
+   * indexed by the {@link MavenExecutionRequest} of the {@link
+   * MavenSession} they belong to.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by itself.</p>
+   */
+  private static final Map<MavenExecutionRequest, AggregatedReleaseOperations> instances = new WeakHashMap<>();
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The operations that have been registered but not yet deployed,
+   * in registration order, indexed by a key identifying the goal on
+   * whose behalf they were registered.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by itself.</p>
+   *
+   * @see #getGoalKey(MojoExecution)
+   */
+  private final Map<String, List<AggregatedReleaseOperation<?>>> operations;
+
+  /**
+   * The number of executions of each goal that have yet to
+   * {@linkplain #executionCompleted(MavenSession, MojoExecution)
+   * complete}, indexed by a key identifying the goal and how it was
+   * invoked.
+   *
+   * @see #getGoalKey(MojoExecution)
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by itself.</p>
+   */
+  private final Map<String, Integer> remainingExecutions;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link AggregatedReleaseOperations}.
+   */
+  private AggregatedReleaseOperations() {
+    super();
+    this.operations = new LinkedHashMap<>();
+    this.remainingExecutions = new HashMap<>();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the {@link AggregatedReleaseOperations} belonging to the
+   * supplied {@link MavenSession}, creating it and arranging for it
+   * to be {@linkplain #close() closed} when the session ends if
+   * necessary.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param session the {@link MavenSession} in effect; must not be
+   * {@code null}
+   *
+   * @param log a {@link Log} used to report failures when the session
+   * ends; may be {@code null}
+   *
+   * @return a non-{@code null} {@link AggregatedReleaseOperations}
+   *
+   * @exception NullPointerException if {@code session} is {@code
+   * null}
+   *
+   * @exception IllegalArgumentException if {@code session} has no
+   * {@link MavenExecutionRequest}
+   */
+  static final AggregatedReleaseOperations getInstance(final MavenSession session, final Log log) {
+    Objects.requireNonNull(session);
+    final MavenExecutionRequest request = session.getRequest();
+    if (request == null) {
+      throw new IllegalArgumentException("session", new IllegalStateException("session.getRequest() == null"));
+    }
+    AggregatedReleaseOperations returnValue = null;
+    synchronized (instances) {
+      returnValue = instances.get(request);
+      if (returnValue == null) {
+        returnValue = new AggregatedReleaseOperations();
+        instances.put(request, returnValue);
+        SessionClosingExecutionListener.register(session, returnValue, log);
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the number of executions of the goal represented by the
+   * supplied {@link MojoExecution} that the supplied {@link
+   * MavenSession} will perform.
+   *
+   * <p>A goal invoked directly from the command line executes once
+   * per project in the reactor.  A goal bound to the lifecycle
+   * executes once per {@link PluginExecution} naming it in the build
+   * plugins of each project in the reactor.  This method always
+   * returns at least {@code 1}.</p>
+   *
+   * @param session the {@link MavenSession} in effect; must not be
+   * {@code null}
+   *
+   * @param mojoExecution the {@link MojoExecution} in effect; must
+   * not be {@code null}
+   *
+   * @return the number of executions of the goal; always {@code 1}
+   * or greater
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  static final int countExecutions(final MavenSession session, final MojoExecution mojoExecution) {
+    Objects.requireNonNull(session);
+    Objects.requireNonNull(mojoExecution);
+    final List<MavenProject> projects = session.getProjects();
+    int returnValue = 0;
+    if (projects != null) {
+      if (MojoExecution.Source.CLI.equals(mojoExecution.getSource())) {
+        returnValue = projects.size();
+      } else {
+        final String goal = mojoExecution.getGoal();
+        for (final MavenProject project : projects) {
+          if (project != null) {
+            final List<Plugin> plugins = project.getBuildPlugins();
+            if (plugins != null) {
+              for (final Plugin plugin : plugins) {
+                if (plugin != null && Objects.equals(mojoExecution.getGroupId(), plugin.getGroupId()) && Objects.equals(mojoExecution.getArtifactId(), plugin.getArtifactId())) {
+                  final List<PluginExecution> executions = plugin.getExecutions();
+                  if (executions != null) {
+                    for (final PluginExecution execution : executions) {
+                      if (execution != null) {
+                        final List<String> goals = execution.getGoals();
+                        if (goals != null && goals.contains(goal)) {
+                          returnValue++;
+                        }
+                      }
+                    }
+                  }
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+    return Math.max(1, returnValue);
+  }
+
+  /**
+   * Returns a key identifying the goal represented by the supplied
+   * {@link MojoExecution} and how it was invoked.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param mojoExecution the {@link MojoExecution} in question; may
+   * be {@code null}, in which case the empty string is returned
+   *
+   * @return a non-{@code null} key
+   */
+  static final String getGoalKey(final MojoExecution mojoExecution) {
+    if (mojoExecution == null) {
+      return "";
+    }
+    return mojoExecution.getGroupId() + ":" + mojoExecution.getArtifactId() + ":" + mojoExecution.getGoal() + ":" + mojoExecution.getSource();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Records that the execution represented by the supplied {@link
+   * MojoExecution} has completed, successfully or not, and returns
+   * {@code true} if it was the last execution of its goal that the
+   * supplied {@link MavenSession} will perform, in which case the
+   * caller should {@linkplain #deploy(MojoExecution, Log) deploy} any
+   * operations registered for that goal.
+   *
+   * <p>Executions are counted rather than compared with the last
+   * project in the reactor, because that project need not bind the
+   * goal at all and because, in parallel builds, it need not be the
+   * last to finish.  Once every expected execution has completed,
+   * this method returns {@code true} for any further ones too, so
+   * that operations registered by executions that were not foreseen
+   * are still deployed promptly.</p>
+   *
+   * <p>Every execution of a goal that may register operations must be
+   * reported, including those that register none, since they count
+   * towards the total.</p>
+   *
+   * <p>This method is safe for concurrent use by multiple
+   * threads.</p>
+   *
+   * @param session the {@link MavenSession} in effect; must not be
+   * {@code null}
+   *
+   * @param mojoExecution the {@link MojoExecution} that has
+   * completed; may be {@code null} in which case the number of
+   * executions cannot be determined and {@code true} is returned
+   *
+   * @return {@code true} if registered operations should now be
+   * deployed; {@code false} otherwise
+   *
+   * @exception NullPointerException if {@code session} is {@code
+   * null}
+   *
+   * @see #countExecutions(MavenSession, MojoExecution)
+   */
+  final boolean executionCompleted(final MavenSession session, final MojoExecution mojoExecution) {
+    Objects.requireNonNull(session);
+    final boolean returnValue;
+    if (mojoExecution == null) {
+      returnValue = true;
+    } else {
+      final String key = getGoalKey(mojoExecution);
+      synchronized (this.remainingExecutions) {
+        final Integer remaining = this.remainingExecutions.get(key);
+        final int newRemaining = (remaining == null ? countExecutions(session, mojoExecution) : remaining.intValue()) - 1;
+        this.remainingExecutions.put(key, Integer.valueOf(newRemaining));
+        returnValue = newRemaining <= 0;
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Registers the supplied operation for later {@linkplain
+   * #deploy(MojoExecution, Log) deployment} on behalf of the goal
+   * represented by the supplied {@link MojoExecution}.
+   *
+   * @param <T> the type of the operation's result
+   *
+   * @param mojoExecution the {@link MojoExecution} registering the
+   * operation; may be {@code null}
+   *
+   * @param description a human-readable description of the
+   * operation, used in log and error messages; must not be {@code
+   * null}
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * the {@link ReleaseManager} with which the operation will be
+   * performed; must not be {@code null} and must remain usable until
+   * the operation is deployed
+   *
+   * @param operation the operation, which issues a request to Tiller
+   * and returns a {@link Future} representing its response; must not
+   * be {@code null}
+   *
+   * @param resultHandler the {@link ReleaseOperationResultHandler}
+   * that will handle the operation's result; must not be {@code
+   * null}
+   *
+   * @exception NullPointerException if {@code description}, {@code
+   * releaseManagerCallable}, {@code operation} or {@code
+   * resultHandler} is {@code null}
+   */
+  final <T> void register(final MojoExecution mojoExecution, final String description, final Callable<ReleaseManager> releaseManagerCallable, final ReleaseManagerOperation<? extends Future<? extends T>> operation, final ReleaseOperationResultHandler<? super T> resultHandler) {
+    final AggregatedReleaseOperation<T> aggregatedOperation = new AggregatedReleaseOperation<>(description, releaseManagerCallable, operation, resultHandler);
+    synchronized (this.operations) {
+      this.operations.computeIfAbsent(getGoalKey(mojoExecution), k -> new ArrayList<>()).add(aggregatedOperation);
+    }
+  }
+
+  /**
+   * Returns {@code true} if any operations are registered on behalf
+   * of the goal represented by the supplied {@link MojoExecution}.
+   *
+   * @param mojoExecution the {@link MojoExecution} in question; may
+   * be {@code null}
+   *
+   * @return {@code true} if any operations are registered for the
+   * goal; {@code false} otherwise
+   */
+  final boolean hasOperations(final MojoExecution mojoExecution) {
+    synchronized (this.operations) {
+      return this.operations.containsKey(getGoalKey(mojoExecution));
+    }
+  }
+
+  /**
+   * Issues every operation registered so far on behalf of the goal
+   * represented by the supplied {@link MojoExecution} to Tiller,
+   * waits for all of them to complete, handles the results of those
+   * that succeeded and returns the failures of those that did not.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Every operation is issued before any is awaited, so that the
+   * operations proceed concurrently.  Operations registered on behalf
+   * of other goals are left alone.</p>
+   *
+   * @param mojoExecution the {@link MojoExecution} whose goal's
+   * operations should be deployed; may be {@code null}
+   *
+   * @param log a {@link Log} used to report the outcome of each
+   * operation; may be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of failures, each of
+   * which is a {@link Exception} whose message includes the
+   * description of the operation that failed
+   *
+   * @exception InterruptedException if the current thread was
+   * interrupted while waiting
+   */
+  final List<Exception> deploy(final MojoExecution mojoExecution, final Log log) throws InterruptedException {
+    final String key = getGoalKey(mojoExecution);
+    final List<Exception> returnValue = new ArrayList<>();
+    List<AggregatedReleaseOperation<?>> operations;
+    do {
+      synchronized (this.operations) {
+        operations = this.operations.remove(key);
+      }
+      if (operations == null) {
+        operations = Collections.emptyList();
+      }
+      if (!operations.isEmpty() && log != null && log.isInfoEnabled()) {
+        log.info("Deploying " + operations.size() + " aggregated release operation(s)");
+      }
+      final List<AggregatedReleaseOperation<?>> issuedOperations = new ArrayList<>(operations.size());
+      for (final AggregatedReleaseOperation<?> operation : operations) {
+        try {
+          operation.issue();
+          issuedOperations.add(operation);
+        } catch (final Exception exception) {
+          if (log != null && log.isErrorEnabled()) {
+            log.error(operation.description + ": failed: " + exception.getMessage());
+          }
+          returnValue.add(new Exception(operation.description + ": " + exception.getMessage(), exception));
+        }
+      }
+      for (final AggregatedReleaseOperation<?> operation : issuedOperations) {
+        try {
+          operation.complete();
+          if (log != null && log.isDebugEnabled()) {
+            log.debug(operation.description + ": completed");
+          }
+        } catch (final InterruptedException interruptedException) {
+          for (final AggregatedReleaseOperation<?> abandonedOperation : issuedOperations) {
+            abandonedOperation.cancel();
+          }
+          throw interruptedException;
+        } catch (final Exception exception) {
+          if (log != null && log.isErrorEnabled()) {
+            log.error(operation.description + ": failed: " + exception.getMessage());
+          }
+          returnValue.add(new Exception(operation.description + ": " + exception.getMessage(), exception));
+        }
+      }
+    } while (!operations.isEmpty());
+    return returnValue;
+  }
+
+  /**
+   * Discards any operations that are still registered, without
+   * issuing them to Tiller, and reports them.
+   *
+   * <p>Operations are still registered only if the build ended before
+   * the last execution of their goal, usually because an earlier
+   * execution failed.  Deploying them then would apply only part of
+   * a release to the cluster.</p>
+   *
+   * @exception IOException if any operations were discarded; each
+   * discarded operation is described by an {@link IllegalStateException}
+   * {@linkplain Throwable#getSuppressed() suppressed} by it
+   */
+  @Override
+  public final void close() throws IOException {
+    final List<AggregatedReleaseOperation<?>> discardedOperations = new ArrayList<>();
+    synchronized (this.operations) {
+      for (final List<AggregatedReleaseOperation<?>> operations : this.operations.values()) {
+        discardedOperations.addAll(operations);
+      }
+      this.operations.clear();
+    }
+    if (!discardedOperations.isEmpty()) {
+      final IOException throwMe = new IOException(discardedOperations.size() + " aggregated Helm operation(s) were not deployed because the build ended before the last execution of their goal");
+      for (final AggregatedReleaseOperation<?> operation : discardedOperations) {
+        throwMe.addSuppressed(new IllegalStateException(operation.description + ": not deployed"));
+      }
+      throw throwMe;
+    }
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * A registered operation together with the means of performing it
+   * and the {@link ReleaseOperationResultHandler} that will handle
+   * its result.
+   *
+   * @param <T> the type of the operation's result
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   */
+  private static final class AggregatedReleaseOperation<T> {
+
+    /**
+     * A human-readable description of the operation.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final String description;
+
+    /**
+     * A {@link Callable} that will return the {@link ReleaseManager}
+     * with which the operation will be performed.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Callable<ReleaseManager> releaseManagerCallable;
+
+    /**
+     * The operation itself.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final ReleaseManagerOperation<? extends Future<? extends T>> operation;
+
+    /**
+     * The {@link ReleaseOperationResultHandler} that will handle the
+     * operation's result.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final ReleaseOperationResultHandler<? super T> resultHandler;
+
+    /**
+     * The {@link Future} representing the operation once it has been
+     * {@linkplain #issue() issued}.
+     *
+     * <p>This field may be {@code null}.</p>
+     */
+    private Future<? extends T> future;
+
+    /**
+     * Creates a new {@link AggregatedReleaseOperation}.
+     *
+     * @param description a human-readable description of the
+     * operation; must not be {@code null}
+     *
+     * @param releaseManagerCallable a {@link Callable} that will
+     * return the {@link ReleaseManager} with which the operation will
+     * be performed; must not be {@code null}
+     *
+     * @param operation the operation itself; must not be {@code null}
+     *
+     * @param resultHandler the {@link ReleaseOperationResultHandler}
+     * that will handle the operation's result; must not be {@code
+     * null}
+     */
+    private AggregatedReleaseOperation(final String description, final Callable<ReleaseManager> releaseManagerCallable, final ReleaseManagerOperation<? extends Future<? extends T>> operation, final ReleaseOperationResultHandler<? super T> resultHandler) {
+      super();
+      this.description = Objects.requireNonNull(description);
+      this.releaseManagerCallable = Objects.requireNonNull(releaseManagerCallable);
+      this.operation = Objects.requireNonNull(operation);
+      this.resultHandler = Objects.requireNonNull(resultHandler);
+    }
+
+    /**
+     * Issues the operation to Tiller without waiting for it to
+     * complete.
+     *
+     * @exception Exception if the operation could not be issued
+     */
+    private final void issue() throws Exception {
+      final ReleaseManager releaseManager = this.releaseManagerCallable.call();
+      if (releaseManager == null) {
+        throw new IllegalStateException("releaseManagerCallable.call() == null");
+      }
+      final Future<? extends T> future = this.operation.execute(releaseManager);
+      if (future == null) {
+        throw new IllegalStateException("operation.execute(releaseManager) == null");
+      }
+      this.future = future;
+    }
+
+    /**
+     * Waits for the {@linkplain #issue() issued} operation to
+     * complete and handles its result.
+     *
+     * @exception InterruptedException if the current thread was
+     * interrupted while waiting
+     *
+     * @exception Exception if the operation or the handling of its
+     * result failed
+     */
+    private final void complete() throws Exception {
+      assert this.future != null;
+      final T result;
+      try {
+        result = this.future.get();
+      } catch (final ExecutionException executionException) {
+        final Throwable cause = executionException.getCause();
+        if (cause instanceof Exception) {
+          throw (Exception)cause;
+        } else if (cause instanceof Error) {
+          throw (Error)cause;
+        } else {
+          throw executionException;
+        }
+      }
+      this.resultHandler.handle(result);
+    }
+
+    /**
+     * Cancels the {@linkplain #issue() issued} operation if it has not
+     * yet completed.
+     */
+    private final void cancel() {
+      if (this.future != null) {
+        this.future.cancel(true);
+      }
+    }
+
+  }
+
+}
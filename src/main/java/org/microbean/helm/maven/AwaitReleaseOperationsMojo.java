@@ -0,0 +1,159 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.List;
+
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * Waits for every release operation that has been {@linkplain
+ * AbstractReleaseMojo#getAsync() submitted asynchronously} so far in
+ * the current Maven session to complete, and fails if any of them
+ * failed.
+ *
+ * <p>Operations that are still pending when the session ends are
+ * awaited then, and any failures among them fail the build, but only
+ * after every project has been built; binding this goal to a
+ * lifecycle phase is the way to have them fail the build at a
+ * particular point.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see AbstractReleaseMojo#getAsync()
+ */
+@Mojo(name = "await", threadSafe = true)
+public class AwaitReleaseOperationsMojo extends AbstractHelmMojo {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * Whether to skip execution.
+   */
+  @Parameter(defaultValue = "false", property = "helm.skip")
+  private boolean skip;
+
+  /**
+   * The {@link MavenSession} in effect.
+   */
+  @Parameter(defaultValue = "${session}", readonly = true)
+  private MavenSession mavenSession;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link AwaitReleaseOperationsMojo}.
+   */
+  public AwaitReleaseOperationsMojo() {
+    super();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Waits for all pending asynchronous release operations to
+   * complete and handles their results.
+   *
+   * @exception MojoExecutionException if any operation failed, or if
+   * the current thread was interrupted while waiting
+   */
+  @Override
+  public void execute() throws MojoExecutionException {
+    final Log log = this.getLog();
+    assert log != null;
+
+    if (this.getSkip()) {
+      if (log.isDebugEnabled()) {
+        log.debug("Skipping execution by request.");
+      }
+      return;
+    }
+
+    final MavenSession session = this.mavenSession;
+    final PendingReleaseOperations pendingReleaseOperations = session == null ? null : PendingReleaseOperations.get(session);
+    if (pendingReleaseOperations == null) {
+      if (log.isInfoEnabled()) {
+        log.info("No asynchronous release operations were submitted.");
+      }
+      return;
+    }
+
+    final List<Exception> failures;
+    try {
+      failures = pendingReleaseOperations.await(log);
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException(interruptedException.getMessage(), interruptedException);
+    }
+    assert failures != null;
+    if (!failures.isEmpty()) {
+      final MojoExecutionException throwMe = new MojoExecutionException(failures.size() + " asynchronous release operation(s) failed", failures.get(0));
+      for (int i = 1; i < failures.size(); i++) {
+        throwMe.addSuppressed(failures.get(i));
+      }
+      throw throwMe;
+    }
+    if (log.isInfoEnabled()) {
+      log.info("All asynchronous release operations completed successfully.");
+    }
+  }
+
+  /**
+   * Returns {@code true} if this goal's execution should be skipped.
+   *
+   * @return {@code true} if this goal's execution should be skipped;
+   * {@code false} otherwise
+   *
+   * @see #setSkip(boolean)
+   */
+  public boolean getSkip() {
+    return this.skip;
+  }
+
+  /**
+   * Sets whether this goal's execution should be skipped.
+   *
+   * @param skip if {@code true}, this goal's execution will be
+   * skipped
+   *
+   * @see #getSkip()
+   */
+  public void setSkip(final boolean skip) {
+    this.skip = skip;
+  }
+
+}
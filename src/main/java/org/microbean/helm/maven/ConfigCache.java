@@ -0,0 +1,227 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A JVM-wide cache of {@linkplain Config#autoConfigure(String)
+ * automatically determined} Kubernetes client {@link Config}s.
+ *
+ * <p>Automatic configuration parses the kubeconfig file and reads
+ * the service account token, which for large kubeconfig files is
+ * expensive enough to show up when many goals run in a single
+ * build.  This class performs it once and reuses the result until
+ * one of the inputs it was derived from changes.</p>
+ *
+ * <p>A cached {@link Config} is considered stale when the path, last
+ * modification time or size of the kubeconfig file changes, when
+ * the last modification time of the service account token changes,
+ * or when a {@code kubernetes.*} system property changes.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #getConfig(Log)
+ */
+final class ConfigCache {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The values describing the inputs from which the {@link #config}
+   * field's value was derived.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * <p>This field is guarded by the {@link ConfigCache} class
+   * monitor.</p>
+   */
+  private static List<Object> key;
+
+  /**
+   * The cached {@link Config}.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * <p>This field is guarded by the {@link ConfigCache} class
+   * monitor.</p>
+   */
+  private static Config config;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ConfigCache}.
+   */
+  private ConfigCache() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a new {@link Config} equal to the one that {@link
+   * Config#autoConfigure(String)} would return if invoked with a
+   * {@code null} argument, reusing the result of an earlier
+   * invocation if its inputs have not changed.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Each invocation of this method returns a distinct copy of the
+   * cached {@link Config}, so callers may modify it freely.</p>
+   *
+   * @param log a {@link Log} used to report how long configuration
+   * took; may be {@code null}
+   *
+   * @return a new, non-{@code null} {@link Config}
+   */
+  static final Config getConfig(final Log log) {
+    final long start = System.nanoTime();
+    final Path kubeconfig = getKubeconfigPath();
+    final List<Object> currentKey = new ArrayList<>();
+    currentKey.add(kubeconfig.toString());
+    addAttributes(currentKey, kubeconfig);
+    addAttributes(currentKey, Paths.get(Config.KUBERNETES_SERVICE_ACCOUNT_TOKEN_PATH));
+    currentKey.add(getKubernetesSystemProperties());
+    final boolean cached;
+    final Config returnValue;
+    synchronized (ConfigCache.class) {
+      cached = config != null && currentKey.equals(key);
+      if (!cached) {
+        config = Config.autoConfigure(null);
+        key = Collections.unmodifiableList(currentKey);
+      }
+      assert config != null;
+      returnValue = new ConfigBuilder(config).build();
+    }
+    if (log != null) {
+      final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      if (cached) {
+        if (log.isDebugEnabled()) {
+          log.debug("Reused cached Kubernetes client configuration derived from " + kubeconfig + " in " + elapsedMillis + " ms");
+        }
+      } else if (log.isInfoEnabled()) {
+        log.info("Resolved Kubernetes client configuration from " + kubeconfig + " in " + elapsedMillis + " ms");
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the {@link Path} of the kubeconfig file that {@link
+   * Config#autoConfigure(String)} will consult.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the {@link Path} of the kubeconfig file; never {@code
+   * null}
+   */
+  private static final Path getKubeconfigPath() {
+    String kubeconfig = System.getProperty(Config.KUBERNETES_KUBECONFIG_FILE);
+    if (kubeconfig == null || kubeconfig.isEmpty()) {
+      kubeconfig = System.getenv("KUBECONFIG");
+    }
+    final Path returnValue;
+    if (kubeconfig == null || kubeconfig.isEmpty()) {
+      returnValue = Paths.get(System.getProperty("user.home"), ".kube", "config");
+    } else {
+      returnValue = Paths.get(kubeconfig);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Adds the last modification time and size of the file identified
+   * by the supplied {@link Path} to the supplied {@link List}, or
+   * {@code null}s if the file cannot be read.
+   *
+   * @param values the {@link List} to add to; must not be {@code
+   * null}
+   *
+   * @param path the {@link Path} of the file in question; must not be
+   * {@code null}
+   */
+  private static final void addAttributes(final List<Object> values, final Path path) {
+    assert values != null;
+    assert path != null;
+    BasicFileAttributes attributes = null;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (final IOException | SecurityException noSuchFile) {
+      attributes = null;
+    }
+    if (attributes == null) {
+      values.add(null);
+      values.add(null);
+    } else {
+      values.add(attributes.lastModifiedTime());
+      values.add(Long.valueOf(attributes.size()));
+    }
+  }
+
+  /**
+   * Returns a {@link Map} of all system properties whose names begin
+   * with {@code kubernetes.}, since these also influence automatic
+   * configuration.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link Map} of system properties
+   */
+  private static final Map<String, String> getKubernetesSystemProperties() {
+    final Map<String, String> returnValue = new TreeMap<>();
+    for (final String name : System.getProperties().stringPropertyNames()) {
+      if (name.startsWith("kubernetes.")) {
+        returnValue.put(name, System.getProperty(name));
+      }
+    }
+    return returnValue;
+  }
+
+}
@@ -0,0 +1,485 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.net.URL;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+
+import hapi.chart.ChartOuterClass.Chart;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import hapi.services.tiller.Tiller.InstallReleaseRequest;
+import hapi.services.tiller.Tiller.InstallReleaseResponse;
+import hapi.services.tiller.Tiller.ListReleasesRequest;
+import hapi.services.tiller.Tiller.ListReleasesResponse;
+import hapi.services.tiller.Tiller.UpdateReleaseRequest;
+import hapi.services.tiller.Tiller.UpdateReleaseResponse;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * Deploys several releases in an order that respects the
+ * {@linkplain ReleaseDefinition#getDependsOn() dependencies} declared
+ * between them, installing releases that do not yet exist and
+ * updating those that do.  A release whose every revision has
+ * {@linkplain Status.Code#FAILED failed}, which Tiller cannot
+ * update, is installed again under the same name.
+ *
+ * <p>The releases form a directed acyclic graph.  Releases are
+ * deployed one topological level at a time: every release in a
+ * level is deployed concurrently, and a level is not started until
+ * every release in the previous level has been deployed.  Any
+ * release that another release depends on is deployed with {@link
+ * #getWait() wait} semantics so that it is ready before its
+ * dependents are deployed.</p>
+ *
+ * <p>Deployment stops at the first failure: releases in the failing
+ * level that have not yet been started are skipped, as are all
+ * subsequent levels.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ReleaseDefinition#getDependsOn()
+ */
+@Mojo(name = "deploy", threadSafe = true)
+public class DeployReleasesMojo extends AbstractBatchReleaseMojo {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * Whether updates should be forced.
+   */
+  @Parameter(defaultValue = "false", property = "helm.force")
+  private boolean force;
+
+  /**
+   * Whether Pods should be recreated as part of updates.
+   */
+  @Parameter(defaultValue = "false", property = "helm.recreate")
+  private boolean recreate;
+
+  /**
+   * The {@link Status.Code}s of releases that already exist, indexed
+   * by release name: {@link Status.Code#DEPLOYED} for releases with a
+   * deployed revision, which will therefore be updated rather than
+   * installed, and {@link Status.Code#FAILED} for releases whose
+   * revisions have all failed, which will be installed again under
+   * the same name.
+   *
+   * <p>This field is never {@code null} during an execution.</p>
+   *
+   * @see #getExistingReleaseStatuses(Callable, Collection)
+   */
+  private volatile Map<String, Status.Code> existingReleaseStatuses;
+
+  /**
+   * The names of releases that other releases depend on and that
+   * will therefore be waited for.
+   *
+   * <p>This field is never {@code null} during an execution.</p>
+   */
+  private volatile Set<String> dependedUponReleaseNames;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link DeployReleasesMojo}.
+   */
+  public DeployReleasesMojo() {
+    super();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation arranges the {@linkplain #getReleases()
+   * configured releases} into {@linkplain #getLevels(Collection)
+   * topological levels} and deploys each level in turn.</p>
+   *
+   * @exception MojoExecutionException if a release has no name,
+   * shares its name with another release, depends on an unknown
+   * release, participates in a dependency cycle, or could not be
+   * deployed
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    final Log log = this.getLog();
+    assert log != null;
+
+    final List<ReleaseDefinition> releases = this.getReleases();
+    if (releases == null || releases.isEmpty()) {
+      if (log.isInfoEnabled()) {
+        log.info("No releases configured; skipping execution");
+      }
+      return;
+    }
+
+    final List<List<ReleaseDefinition>> levels = this.getLevels(releases);
+    assert levels != null;
+
+    final Set<String> dependedUponReleaseNames = new HashSet<>();
+    for (final ReleaseDefinition release : releases) {
+      final Collection<String> dependsOn = release.getDependsOn();
+      if (dependsOn != null) {
+        dependedUponReleaseNames.addAll(dependsOn);
+      }
+    }
+
+    this.connectInBackground(releaseManagerCallable);
+    try {
+      this.dependedUponReleaseNames = dependedUponReleaseNames;
+      this.existingReleaseStatuses = this.getExistingReleaseStatuses(releaseManagerCallable, releases);
+      final int levelCount = levels.size();
+      for (int i = 0; i < levelCount; i++) {
+        final List<ReleaseDefinition> level = levels.get(i);
+        if (log.isInfoEnabled()) {
+          log.info("Deploying level " + (i + 1) + " of " + levelCount + ": " + level);
+        }
+        try {
+          this.execute(releaseManagerCallable, level, true);
+        } catch (final MojoExecutionException mojoExecutionException) {
+          if (i + 1 < levelCount && log.isWarnEnabled()) {
+            log.warn("Skipping " + (levelCount - i - 1) + " remaining level(s) because level " + (i + 1) + " failed");
+          }
+          throw mojoExecutionException;
+        }
+      }
+    } finally {
+      this.existingReleaseStatuses = null;
+      this.dependedUponReleaseNames = null;
+      this.clearCharts();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation <a
+   * href="https://github.com/kubernetes/helm/blob/master/docs/using_helm.md#helm-upgrade-and-helm-rollback-upgrading-a-release-and-recovering-on-failure">updates</a>
+   * the release if it has a {@linkplain Status.Code#DEPLOYED
+   * deployed} revision and otherwise <a
+   * href="https://github.com/kubernetes/helm/blob/master/docs/using_helm.md#helm-install-installing-a-package">installs</a>
+   * it, reusing its name if all of its revisions have {@linkplain
+   * Status.Code#FAILED failed}.</p>
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable, final ReleaseDefinition releaseDefinition) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    Objects.requireNonNull(releaseDefinition);
+    final Log log = this.getLog();
+    assert log != null;
+
+    final Map<String, Status.Code> existingReleaseStatuses = this.existingReleaseStatuses;
+    final Set<String> dependedUponReleaseNames = this.dependedUponReleaseNames;
+    if (existingReleaseStatuses == null || dependedUponReleaseNames == null) {
+      throw new IllegalStateException("execute(Callable) has not been called");
+    }
+
+    final URL chartUrl = releaseDefinition.getChartUrl();
+    if (chartUrl == null) {
+      throw new MojoExecutionException("Missing chartUrl for release " + releaseDefinition);
+    }
+    final Chart.Builder chartBuilder = this.loadChart(chartUrl);
+    assert chartBuilder != null;
+
+    final String releaseName = releaseDefinition.getReleaseName();
+    // Dependents may only be deployed once this release is ready.
+    final boolean wait = this.getWait() || dependedUponReleaseNames.contains(releaseName);
+
+    final ReleaseManager releaseManager = releaseManagerCallable.call();
+    if (releaseManager == null) {
+      throw new IllegalStateException("releaseManagerCallable.call() == null");
+    }
+
+    final Status.Code existingReleaseStatus = existingReleaseStatuses.get(releaseName);
+    if (Status.Code.DEPLOYED.equals(existingReleaseStatus)) {
+      final UpdateReleaseRequest.Builder requestBuilder = this.createUpdateReleaseRequest(releaseDefinition);
+      assert requestBuilder != null;
+      requestBuilder.setForce(this.getForce());
+      requestBuilder.setRecreate(this.getRecreate());
+      requestBuilder.setWait(wait);
+      if (log.isInfoEnabled()) {
+        log.info("Updating release " + releaseName);
+      }
+      final UpdateReleaseResponse updateReleaseResponse = this.await(releaseManager.update(requestBuilder, chartBuilder), releaseDefinition);
+      assert updateReleaseResponse != null;
+      if (log.isInfoEnabled()) {
+        final Release release = updateReleaseResponse.getRelease();
+        assert release != null;
+        log.info("Updated release " + release.getName());
+      }
+    } else {
+      final InstallReleaseRequest.Builder requestBuilder = this.createInstallReleaseRequest(releaseDefinition);
+      assert requestBuilder != null;
+      requestBuilder.setWait(wait);
+      if (Status.Code.FAILED.equals(existingReleaseStatus)) {
+        // Tiller will not update a release with no deployed revision
+        // ("has no deployed releases"), but will install over one
+        // whose latest revision failed if asked to reuse its name.
+        requestBuilder.setReuseName(true);
+        if (log.isInfoEnabled()) {
+          log.info("Reinstalling failed release " + releaseName);
+        }
+      } else if (log.isInfoEnabled()) {
+        log.info("Installing release " + releaseName);
+      }
+      final InstallReleaseResponse installReleaseResponse = this.await(releaseManager.install(requestBuilder, chartBuilder), releaseDefinition);
+      assert installReleaseResponse != null;
+      if (log.isInfoEnabled()) {
+        final Release release = installReleaseResponse.getRelease();
+        assert release != null;
+        log.info("Installed release " + release.getName());
+      }
+    }
+  }
+
+  /**
+   * Arranges the supplied {@link ReleaseDefinition}s into
+   * topological levels such that every release depends only on
+   * releases in earlier levels, and returns them.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Within a level, releases appear in the order in which they
+   * were supplied.</p>
+   *
+   * @param releases the {@link ReleaseDefinition}s to arrange; must
+   * not be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of levels, each of which
+   * is a non-{@code null}, non-empty {@link List} of {@link
+   * ReleaseDefinition}s
+   *
+   * @exception NullPointerException if {@code releases} is {@code
+   * null}
+   *
+   * @exception MojoExecutionException if a release is {@code null},
+   * has no name, shares its name with another release, depends on an
+   * unknown release, or participates in a dependency cycle
+   */
+  protected List<List<ReleaseDefinition>> getLevels(final Collection<? extends ReleaseDefinition> releases) throws MojoExecutionException {
+    Objects.requireNonNull(releases);
+    final Map<String, ReleaseDefinition> releasesByName = new LinkedHashMap<>();
+    for (final ReleaseDefinition release : releases) {
+      if (release == null) {
+        throw new MojoExecutionException("Invalid release definition: null");
+      }
+      final String releaseName = release.getReleaseName();
+      if (releaseName == null || releaseName.isEmpty()) {
+        throw new MojoExecutionException("Missing releaseName for release " + release);
+      }
+      if (releasesByName.put(releaseName, release) != null) {
+        throw new MojoExecutionException("Duplicate releaseName: " + releaseName);
+      }
+    }
+
+    final Map<String, Set<String>> unmetDependencies = new LinkedHashMap<>();
+    for (final ReleaseDefinition release : releasesByName.values()) {
+      final Set<String> dependencies = new HashSet<>();
+      final Collection<String> dependsOn = release.getDependsOn();
+      if (dependsOn != null) {
+        for (final String dependency : dependsOn) {
+          if (!releasesByName.containsKey(dependency)) {
+            throw new MojoExecutionException("Release " + release.getReleaseName() + " depends on unknown release " + dependency);
+          }
+          dependencies.add(dependency);
+        }
+      }
+      unmetDependencies.put(release.getReleaseName(), dependencies);
+    }
+
+    final List<List<ReleaseDefinition>> returnValue = new ArrayList<>();
+    while (!unmetDependencies.isEmpty()) {
+      final List<ReleaseDefinition> level = new ArrayList<>();
+      for (final Map.Entry<String, Set<String>> entry : unmetDependencies.entrySet()) {
+        if (entry.getValue().isEmpty()) {
+          level.add(releasesByName.get(entry.getKey()));
+        }
+      }
+      if (level.isEmpty()) {
+        throw new MojoExecutionException("Dependency cycle detected among releases " + unmetDependencies.keySet());
+      }
+      for (final ReleaseDefinition release : level) {
+        unmetDependencies.remove(release.getReleaseName());
+      }
+      for (final Set<String> dependencies : unmetDependencies.values()) {
+        for (final ReleaseDefinition release : level) {
+          dependencies.remove(release.getReleaseName());
+        }
+      }
+      returnValue.add(Collections.unmodifiableList(level));
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the {@link Status.Code}s of those of the supplied
+   * releases that already exist, indexed by release name.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>List requests whose filter covers all of the supplied
+   * releases are issued, following each response's {@linkplain
+   * ListReleasesResponse#getNext() next offset} until there are no
+   * more pages, so that releases with several matching revisions do
+   * not crowd others out of a page.  A release with a {@linkplain
+   * Status.Code#DEPLOYED deployed} revision is mapped to {@link
+   * Status.Code#DEPLOYED}, and can be updated.  A release whose
+   * listed revisions have all {@linkplain Status.Code#FAILED failed},
+   * such as one whose first installation failed, is mapped to {@link
+   * Status.Code#FAILED}, and must be installed again instead.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param releases the {@link ReleaseDefinition}s in question; must
+   * not be {@code null}
+   *
+   * @return a non-{@code null} {@link Map} of {@link Status.Code}s
+   * indexed by release name
+   *
+   * @exception Exception if the releases could not be listed
+   */
+  private final Map<String, Status.Code> getExistingReleaseStatuses(final Callable<ReleaseManager> releaseManagerCallable, final Collection<? extends ReleaseDefinition> releases) throws Exception {
+    assert releaseManagerCallable != null;
+    assert releases != null;
+    final StringBuilder filter = new StringBuilder("^(");
+    boolean first = true;
+    for (final ReleaseDefinition release : releases) {
+      if (!first) {
+        filter.append('|');
+      }
+      first = false;
+      // Release names are DNS subdomains, so only dots need escaping.
+      filter.append(release.getReleaseName().replace(".", "\\."));
+    }
+    filter.append(")$");
+    final ListReleasesRequest.Builder requestBuilder = ListReleasesRequest.newBuilder()
+      .setFilter(filter.toString())
+      .setLimit(Math.max(1, releases.size()))
+      .addStatusCodes(Status.Code.DEPLOYED)
+      .addStatusCodes(Status.Code.FAILED);
+    final Map<String, Status.Code> returnValue = new HashMap<>();
+    String offset = "";
+    do {
+      final ListReleasesRequest request = requestBuilder.setOffset(offset).build();
+      offset = this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+          String next = "";
+          final Iterator<? extends ListReleasesResponse> listReleasesResponseIterator = releaseManager.list(request);
+          assert listReleasesResponseIterator != null;
+          while (listReleasesResponseIterator.hasNext()) {
+            final ListReleasesResponse response = listReleasesResponseIterator.next();
+            assert response != null;
+            for (final Release release : response.getReleasesList()) {
+              final Status.Code statusCode = release.getInfo().getStatus().getCode();
+              // Any deployed revision makes the release updatable.
+              returnValue.merge(release.getName(), statusCode, (a, b) -> Status.Code.DEPLOYED.equals(a) ? a : b);
+            }
+            next = response.getNext();
+          }
+          return next;
+        });
+    } while (offset != null && !offset.isEmpty());
+    return returnValue;
+  }
+
+  /**
+   * Returns {@code true} if updates should be forced.
+   *
+   * @return {@code true} if updates should be forced
+   *
+   * @see #setForce(boolean)
+   */
+  public boolean getForce() {
+    return this.force;
+  }
+
+  /**
+   * Sets whether updates should be forced.
+   *
+   * @param force whether updates should be forced
+   *
+   * @see #getForce()
+   */
+  public void setForce(final boolean force) {
+    this.force = force;
+  }
+
+  /**
+   * Returns {@code true} if Pods should be recreated as part of
+   * updates.
+   *
+   * @return {@code true} if Pods should be recreated as part of
+   * updates
+   *
+   * @see #setRecreate(boolean)
+   */
+  public boolean getRecreate() {
+    return this.recreate;
+  }
+
+  /**
+   * Sets whether Pods should be recreated as part of updates.
+   *
+   * @param recreate whether Pods should be recreated as part of
+   * updates
+   *
+   * @see #getRecreate()
+   */
+  public void setRecreate(final boolean recreate) {
+    this.recreate = recreate;
+  }
+
+}
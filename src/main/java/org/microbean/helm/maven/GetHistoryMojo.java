@@ -16,12 +16,13 @@
  */
 package org.microbean.helm.maven;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 
 import hapi.services.tiller.Tiller.GetHistoryRequest;
@@ -40,7 +41,7 @@ import org.microbean.helm.ReleaseManager;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "history")
+@Mojo(name = "history", threadSafe = true)
 public class GetHistoryMojo extends AbstractSingleReleaseMojo {
 
 
@@ -62,7 +63,7 @@ public class GetHistoryMojo extends AbstractSingleReleaseMojo {
    * each item in the history.
    */
   @Parameter(alias = "releaseHistoryListenersList")
-  private List<ReleaseHistoryListener> releaseHistoryListeners;
+  private volatile List<ReleaseHistoryListener> releaseHistoryListeners;
   
 
   /*
@@ -97,8 +98,8 @@ public class GetHistoryMojo extends AbstractSingleReleaseMojo {
     final Log log = this.getLog();
     assert log != null;
 
-    final Collection<? extends ReleaseHistoryListener> listeners = this.getReleaseHistoryListenersList();
-    if (listeners == null || listeners.isEmpty()) {
+    final Collection<? extends ReleaseHistoryListener> listeners = Arrays.asList(this.getReleaseHistoryListeners());
+    if (listeners.isEmpty()) {
       if (log.isInfoEnabled()) {
         log.info("Skipping execution because there are no ReleaseHistoryListeners specified.");
       }
@@ -115,26 +116,24 @@ public class GetHistoryMojo extends AbstractSingleReleaseMojo {
       requestBuilder.setName(releaseName);
     }
 
-    final ReleaseManager releaseManager = releaseManagerCallable.call();
-    if (releaseManager == null) {
-      throw new IllegalStateException("releaseManagerCallable.call() == null");
-    }
-
     if (log.isInfoEnabled()) {
       log.info("Retrieving history for release " + releaseName);
     }
-    
-    final Future<GetHistoryResponse> getHistoryResponseFuture = releaseManager.getHistory(requestBuilder.build());
-    assert getHistoryResponseFuture != null;
-    final GetHistoryResponse getHistoryResponse = getHistoryResponseFuture.get();
-    assert getHistoryResponse != null;
-
-    final ReleaseHistoryEvent event = new ReleaseHistoryEvent(this, getHistoryResponse);
-    for (final ReleaseHistoryListener listener : listeners) {
-      if (listener != null) {
-        listener.releaseHistoryRetrieved(event);
-      }
-    }
+
+    final GetHistoryRequest request = requestBuilder.build();
+    this.submit("Retrieving history for release " + releaseName, () -> this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+          final Future<GetHistoryResponse> getHistoryResponseFuture = releaseManager.getHistory(request);
+          assert getHistoryResponseFuture != null;
+          return getHistoryResponseFuture.get();
+        }), getHistoryResponse -> {
+        assert getHistoryResponse != null;
+        final ReleaseHistoryEvent event = new ReleaseHistoryEvent(this, getHistoryResponse);
+        for (final ReleaseHistoryListener listener : listeners) {
+          if (listener != null) {
+            listener.releaseHistoryRetrieved(event);
+          }
+        }
+      });
     
   }
 
@@ -178,10 +177,10 @@ public class GetHistoryMojo extends AbstractSingleReleaseMojo {
    *
    * @see #getReleaseHistoryListenersList()
    */
-  public void addReleaseHistoryListener(final ReleaseHistoryListener listener) {
+  public synchronized void addReleaseHistoryListener(final ReleaseHistoryListener listener) {
     if (listener != null) {
       if (this.releaseHistoryListeners == null) {
-        this.releaseHistoryListeners = new ArrayList<>();      
+        this.releaseHistoryListeners = new CopyOnWriteArrayList<>();      
       }
       this.releaseHistoryListeners.add(listener);
     }
@@ -198,7 +197,7 @@ public class GetHistoryMojo extends AbstractSingleReleaseMojo {
    *
    * @see #getReleaseHistoryListenersList()
    */
-  public void removeReleaseHistoryListener(final ReleaseHistoryListener listener) {
+  public synchronized void removeReleaseHistoryListener(final ReleaseHistoryListener listener) {
     if (listener != null && this.releaseHistoryListeners != null) {
       this.releaseHistoryListeners.remove(listener);
     }
@@ -16,12 +16,13 @@
  */
 package org.microbean.helm.maven;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 
 import hapi.services.tiller.Tiller.GetReleaseContentRequest;
@@ -40,7 +41,7 @@ import org.microbean.helm.ReleaseManager;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "content")
+@Mojo(name = "content", threadSafe = true)
 public class GetReleaseContentMojo extends AbstractSingleVersionedReleaseMojo {
 
 
@@ -55,7 +56,7 @@ public class GetReleaseContentMojo extends AbstractSingleVersionedReleaseMojo {
    * content retrieval.
    */
   @Parameter(alias = "releaseContentListenersList")
-  private List<ReleaseContentListener> releaseContentListeners;
+  private volatile List<ReleaseContentListener> releaseContentListeners;
   
 
   /*
@@ -95,8 +96,8 @@ public class GetReleaseContentMojo extends AbstractSingleVersionedReleaseMojo {
       throw new IllegalStateException("version was not specified");
     }
     
-    final Collection<? extends ReleaseContentListener> listeners = this.getReleaseContentListenersList();
-    if (listeners == null || listeners.isEmpty()) {
+    final Collection<? extends ReleaseContentListener> listeners = Arrays.asList(this.getReleaseContentListeners());
+    if (listeners.isEmpty()) {
       if (log.isInfoEnabled()) {
         log.info("Skipping execution because there are no ReleaseContentListeners specified.");
       }
@@ -113,26 +114,24 @@ public class GetReleaseContentMojo extends AbstractSingleVersionedReleaseMojo {
 
     requestBuilder.setVersion(version.intValue());
 
-    final ReleaseManager releaseManager = releaseManagerCallable.call();
-    if (releaseManager == null) {
-      throw new IllegalStateException("releaseManagerCallable.call() == null");
-    }
-
     if (log.isInfoEnabled()) {
       log.info("Retrieving content for release " + releaseName);
     }
-    
-    final Future<GetReleaseContentResponse> getReleaseContentResponseFuture = releaseManager.getContent(requestBuilder.build());
-    assert getReleaseContentResponseFuture != null;
-    final GetReleaseContentResponse getReleaseContentResponse = getReleaseContentResponseFuture.get();
-    assert getReleaseContentResponse != null;
-
-    final ReleaseContentEvent event = new ReleaseContentEvent(this, getReleaseContentResponse);
-    for (final ReleaseContentListener listener : listeners) {
-      if (listener != null) {
-        listener.releaseContentRetrieved(event);
-      }
-    }
+
+    final GetReleaseContentRequest request = requestBuilder.build();
+    this.submit("Retrieving content for release " + releaseName, () -> this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+          final Future<GetReleaseContentResponse> getReleaseContentResponseFuture = releaseManager.getContent(request);
+          assert getReleaseContentResponseFuture != null;
+          return getReleaseContentResponseFuture.get();
+        }), getReleaseContentResponse -> {
+        assert getReleaseContentResponse != null;
+        final ReleaseContentEvent event = new ReleaseContentEvent(this, getReleaseContentResponse);
+        for (final ReleaseContentListener listener : listeners) {
+          if (listener != null) {
+            listener.releaseContentRetrieved(event);
+          }
+        }
+      });
     
   }
 
@@ -154,10 +153,10 @@ public class GetReleaseContentMojo extends AbstractSingleVersionedReleaseMojo {
    *
    * @see #getReleaseContentListenersList()
    */
-  public void addReleaseContentListener(final ReleaseContentListener listener) {
+  public synchronized void addReleaseContentListener(final ReleaseContentListener listener) {
     if (listener != null) {
       if (this.releaseContentListeners == null) {
-        this.releaseContentListeners = new ArrayList<>();      
+        this.releaseContentListeners = new CopyOnWriteArrayList<>();      
       }
       this.releaseContentListeners.add(listener);
     }
@@ -174,7 +173,7 @@ public class GetReleaseContentMojo extends AbstractSingleVersionedReleaseMojo {
    *
    * @see #getReleaseContentListenersList()
    */
-  public void removeReleaseContentListener(final ReleaseContentListener listener) {
+  public synchronized void removeReleaseContentListener(final ReleaseContentListener listener) {
     if (listener != null && this.releaseContentListeners != null) {
       this.releaseContentListeners.remove(listener);
     }
@@ -16,12 +16,13 @@
  */
 package org.microbean.helm.maven;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Future;
 
 import hapi.services.tiller.Tiller.GetReleaseStatusRequest;
@@ -40,7 +41,7 @@ import org.microbean.helm.ReleaseManager;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "status")
+@Mojo(name = "status", threadSafe = true)
 public class GetReleaseStatusMojo extends AbstractSingleVersionedReleaseMojo {
 
 
@@ -56,7 +57,7 @@ public class GetReleaseStatusMojo extends AbstractSingleVersionedReleaseMojo {
    * the status retrieval.
    */
   @Parameter(alias = "releaseStatusListenersList")
-  private List<ReleaseStatusListener> releaseStatusListeners;
+  private volatile List<ReleaseStatusListener> releaseStatusListeners;
   
 
   /*
@@ -97,8 +98,8 @@ public class GetReleaseStatusMojo extends AbstractSingleVersionedReleaseMojo {
       throw new IllegalStateException("version was not specified");
     }
     
-    final Collection<? extends ReleaseStatusListener> listeners = this.getReleaseStatusListenersList();
-    if (listeners == null || listeners.isEmpty()) {
+    final Collection<? extends ReleaseStatusListener> listeners = Arrays.asList(this.getReleaseStatusListeners());
+    if (listeners.isEmpty()) {
       if (log.isInfoEnabled()) {
         log.info("Skipping execution because there are no ReleaseStatusListeners specified.");
       }
@@ -115,26 +116,24 @@ public class GetReleaseStatusMojo extends AbstractSingleVersionedReleaseMojo {
 
     requestBuilder.setVersion(version.intValue());
 
-    final ReleaseManager releaseManager = releaseManagerCallable.call();
-    if (releaseManager == null) {
-      throw new IllegalStateException("releaseManagerCallable.call() == null");
-    }
-
     if (log.isInfoEnabled()) {
       log.info("Retrieving status for release " + releaseName);
     }
-    
-    final Future<GetReleaseStatusResponse> getReleaseStatusResponseFuture = releaseManager.getStatus(requestBuilder.build());
-    assert getReleaseStatusResponseFuture != null;
-    final GetReleaseStatusResponse getReleaseStatusResponse = getReleaseStatusResponseFuture.get();
-    assert getReleaseStatusResponse != null;
-
-    final ReleaseStatusEvent event = new ReleaseStatusEvent(this, getReleaseStatusResponse);
-    for (final ReleaseStatusListener listener : listeners) {
-      if (listener != null) {
-        listener.releaseStatusRetrieved(event);
-      }
-    }
+
+    final GetReleaseStatusRequest request = requestBuilder.build();
+    this.submit("Retrieving status for release " + releaseName, () -> this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+          final Future<GetReleaseStatusResponse> getReleaseStatusResponseFuture = releaseManager.getStatus(request);
+          assert getReleaseStatusResponseFuture != null;
+          return getReleaseStatusResponseFuture.get();
+        }), getReleaseStatusResponse -> {
+        assert getReleaseStatusResponse != null;
+        final ReleaseStatusEvent event = new ReleaseStatusEvent(this, getReleaseStatusResponse);
+        for (final ReleaseStatusListener listener : listeners) {
+          if (listener != null) {
+            listener.releaseStatusRetrieved(event);
+          }
+        }
+      });
     
   }
 
@@ -156,10 +155,10 @@ public class GetReleaseStatusMojo extends AbstractSingleVersionedReleaseMojo {
    *
    * @see #getReleaseStatusListenersList()
    */
-  public void addReleaseStatusListener(final ReleaseStatusListener listener) {
+  public synchronized void addReleaseStatusListener(final ReleaseStatusListener listener) {
     if (listener != null) {
       if (this.releaseStatusListeners == null) {
-        this.releaseStatusListeners = new ArrayList<>();      
+        this.releaseStatusListeners = new CopyOnWriteArrayList<>();      
       }
       this.releaseStatusListeners.add(listener);
     }
@@ -176,7 +175,7 @@ public class GetReleaseStatusMojo extends AbstractSingleVersionedReleaseMojo {
    *
    * @see #getReleaseStatusListenersList()
    */
-  public void removeReleaseStatusListener(final ReleaseStatusListener listener) {
+  public synchronized void removeReleaseStatusListener(final ReleaseStatusListener listener) {
     if (listener != null && this.releaseStatusListeners != null) {
       this.releaseStatusListeners.remove(listener);
     }
@@ -0,0 +1,623 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import hapi.services.tiller.Tiller.GetReleaseStatusRequest;
+import hapi.services.tiller.Tiller.GetReleaseStatusResponse;
+import hapi.services.tiller.Tiller.ListReleasesRequest;
+import hapi.services.tiller.Tiller.ListReleasesResponse;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * Retrieves the statuses of many releases at once, keeping at most
+ * {@linkplain #getMaxInFlight() <code>maxInFlight</code>} status
+ * requests outstanding at any given time.
+ *
+ * <p>The releases whose statuses are retrieved are those {@linkplain
+ * #getReleaseNames() named explicitly}, together with those matching
+ * the {@linkplain #getFilter() filter} if one is supplied.  Each
+ * status is delivered to the {@linkplain
+ * #getReleaseStatusListenersList() registered
+ * <code>ReleaseStatusListener</code>s} as its own {@link
+ * ReleaseStatusEvent}, in the order in which the statuses arrive,
+ * so that one slow release does not hold up the others.</p>
+ *
+ * <p>Each release's status is retrieved at the version {@linkplain
+ * #getReleaseVersions() configured for it}, or otherwise at the
+ * {@linkplain #getVersion() common version}, which by default
+ * ({@code 0}) denotes the latest version.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see GetReleaseStatusMojo
+ */
+@Mojo(name = "status-batch", threadSafe = true)
+public class GetReleaseStatusesMojo extends GetReleaseStatusMojo {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The name of a single additional release whose status should be
+   * retrieved.
+   *
+   * @see #getReleaseName()
+   *
+   * @see #setReleaseName(String)
+   */
+  /*
+   * This field shadows the AbstractSingleReleaseMojo#releaseName
+   * field on purpose to relax its "required" nature.
+   */
+  @Parameter
+  private String releaseName;
+
+  /**
+   * The names of the releases whose statuses should be retrieved.
+   */
+  @Parameter
+  private List<String> releaseNames;
+
+  /**
+   * A {@link Map} of versions indexed by the names of the releases
+   * to which they apply.  Releases not present in this {@link Map}
+   * have their statuses retrieved at the {@linkplain #getVersion()
+   * common version}.
+   */
+  @Parameter
+  private Map<String, Integer> releaseVersions;
+
+  /**
+   * A regular expression selecting further releases whose statuses
+   * should be retrieved, exactly as accepted by the {@code list}
+   * goal's {@code filter} parameter.
+   */
+  @Parameter
+  private String filter;
+
+  /**
+   * The namespace from which releases matching the {@linkplain
+   * #getFilter() filter} will be listed.
+   */
+  @Parameter
+  private String namespace;
+
+  /**
+   * A {@link List} of <a
+   * href="https://microbean.github.io/microbean-helm/apidocs/hapi/release/StatusOuterClass.Status.Code.html">{@code
+   * StatusOuterClass.Status.Code}</a>s.  Releases matching the
+   * {@linkplain #getFilter() filter} must have one of these status
+   * codes to be included.
+   */
+  @Parameter
+  private List<Status.Code> statusCodes;
+
+  /**
+   * The maximum number of status requests that may be outstanding at
+   * once.
+   */
+  @Parameter(defaultValue = "16", property = "helm.status.maxInFlight")
+  private int maxInFlight;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link GetReleaseStatusesMojo}.
+   */
+  public GetReleaseStatusesMojo() {
+    super();
+  }
+
+
+  /*
+   * Protected instance methods.
+   */
+
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation issues one status request per
+   * {@linkplain #getReleaseNames(Callable) selected release}, keeping
+   * at most {@linkplain #getMaxInFlight() <code>maxInFlight</code>}
+   * of them outstanding, and {@linkplain
+   * ReleaseStatusListener#releaseStatusRetrieved(ReleaseStatusEvent)
+   * notifies} registered {@link ReleaseStatusListener}s of each
+   * result as soon as it arrives, whichever release it belongs to.  A
+   * request that fails transiently is retried on its own; other
+   * failures are reported together once every release has been
+   * processed.</p>
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    final Log log = this.getLog();
+    assert log != null;
+
+    final Collection<? extends ReleaseStatusListener> listeners = Arrays.asList(this.getReleaseStatusListeners());
+    if (listeners.isEmpty()) {
+      if (log.isInfoEnabled()) {
+        log.info("Skipping execution because there are no ReleaseStatusListeners specified.");
+      }
+      return;
+    }
+
+    final Set<String> releaseNames = this.getReleaseNames(releaseManagerCallable);
+    assert releaseNames != null;
+    if (releaseNames.isEmpty()) {
+      if (log.isInfoEnabled()) {
+        log.info("Skipping execution because no releases were named or matched.");
+      }
+      return;
+    }
+
+    if (log.isInfoEnabled()) {
+      log.info("Retrieving status for " + releaseNames.size() + " releases");
+    }
+
+    final int maxInFlight = Math.max(1, Math.min(releaseNames.size(), this.getMaxInFlight()));
+    final ExecutorService executorService = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+        final Thread thread = new Thread(runnable, "helm-maven-plugin status worker");
+        thread.setDaemon(true);
+        return thread;
+      });
+    try {
+      final CompletionService<GetReleaseStatusResponse> completionService = new ExecutorCompletionService<>(executorService);
+      final Map<Future<GetReleaseStatusResponse>, GetReleaseStatusRequest> inFlight = new HashMap<>();
+      MojoExecutionException failure = null;
+      int failures = 0;
+      final Iterator<String> releaseNamesIterator = releaseNames.iterator();
+      while (releaseNamesIterator.hasNext() || !inFlight.isEmpty()) {
+        if (releaseNamesIterator.hasNext() && inFlight.size() < maxInFlight) {
+          final String releaseName = releaseNamesIterator.next();
+          final GetReleaseStatusRequest request = GetReleaseStatusRequest.newBuilder()
+            .setName(releaseName)
+            .setVersion(this.getVersion(releaseName))
+            .build();
+          inFlight.put(completionService.submit(() -> this.getStatus(releaseManagerCallable, request)), request);
+        } else {
+          final Future<GetReleaseStatusResponse> future = completionService.take();
+          final GetReleaseStatusRequest request = inFlight.remove(future);
+          assert request != null;
+          try {
+            final GetReleaseStatusResponse response = future.get();
+            assert response != null;
+            final ReleaseStatusEvent event = new ReleaseStatusEvent(this, response);
+            for (final ReleaseStatusListener listener : listeners) {
+              if (listener != null) {
+                listener.releaseStatusRetrieved(event);
+              }
+            }
+          } catch (final ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause == null) {
+              cause = executionException;
+            }
+            failures++;
+            if (log.isErrorEnabled()) {
+              log.error("Release " + request.getName() + ": failed: " + cause.getMessage());
+            }
+            if (failure == null) {
+              failure = new MojoExecutionException("Release " + request.getName() + ": " + cause.getMessage(), cause);
+            } else {
+              failure.addSuppressed(cause);
+            }
+          }
+        }
+      }
+      if (failure != null) {
+        throw new MojoExecutionException("Failed to retrieve status for " + failures + " of " + releaseNames.size() + " releases", failure);
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns the version at which the status of the release with the
+   * supplied name should be retrieved.
+   *
+   * <p>The version {@linkplain #getReleaseVersions() configured for
+   * the release} is returned if there is one; otherwise the
+   * {@linkplain #getVersion() common version} is returned, and if
+   * that is {@code null} then {@code 0}, denoting the latest version,
+   * is returned.</p>
+   *
+   * @param releaseName the name of the release; must not be {@code
+   * null}
+   *
+   * @return the version at which to retrieve the release's status
+   *
+   * @exception NullPointerException if {@code releaseName} is {@code
+   * null}
+   *
+   * @see #getReleaseVersions()
+   *
+   * @see #getVersion()
+   */
+  protected int getVersion(final String releaseName) {
+    Objects.requireNonNull(releaseName);
+    Integer returnValue = null;
+    final Map<String, Integer> releaseVersions = this.getReleaseVersions();
+    if (releaseVersions != null) {
+      returnValue = releaseVersions.get(releaseName);
+    }
+    if (returnValue == null) {
+      returnValue = this.getVersion();
+    }
+    return returnValue == null ? 0 : returnValue.intValue();
+  }
+
+  /**
+   * Returns the names of the releases whose statuses should be
+   * retrieved, in the order in which they should be retrieved.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>The {@linkplain #getReleaseName() release name} and the
+   * {@linkplain #getReleaseNames() release names} are returned
+   * first, followed by the names of any releases matching the
+   * {@linkplain #getFilter() filter}.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link Set} of release names
+   *
+   * @exception Exception if releases matching the filter could not
+   * be listed
+   */
+  protected Set<String> getReleaseNames(final Callable<ReleaseManager> releaseManagerCallable) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    final Set<String> returnValue = new LinkedHashSet<>();
+    final String releaseName = this.getReleaseName();
+    if (releaseName != null && !releaseName.isEmpty()) {
+      returnValue.add(releaseName);
+    }
+    final Collection<String> releaseNames = this.getReleaseNames();
+    if (releaseNames != null) {
+      for (final String name : releaseNames) {
+        if (name != null && !name.isEmpty()) {
+          returnValue.add(name);
+        }
+      }
+    }
+    final String filter = this.getFilter();
+    if (filter != null) {
+      final ListReleasesRequest.Builder requestBuilder = ListReleasesRequest.newBuilder();
+      assert requestBuilder != null;
+      requestBuilder.setFilter(filter);
+
+      String namespace = this.getNamespace();
+      if (namespace == null || namespace.isEmpty()) {
+        final io.fabric8.kubernetes.client.Config configuration = this.getClientConfiguration();
+        if (configuration == null) {
+          namespace = "default";
+        } else {
+          namespace = configuration.getNamespace();
+          if (namespace == null || namespace.isEmpty()) {
+            namespace = "default";
+          }
+        }
+      }
+      this.validateNamespace(namespace);
+      requestBuilder.setNamespace(namespace);
+
+      final Iterable<Status.Code> statusCodes = this.getStatusCodes();
+      if (statusCodes != null) {
+        requestBuilder.addAllStatusCodes(statusCodes);
+      }
+
+      final Set<String> matchingReleaseNames = this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+          final Set<String> names = new LinkedHashSet<>();
+          String offset = "";
+          do {
+            requestBuilder.setOffset(offset);
+            final Iterator<? extends ListReleasesResponse> listReleasesResponseIterator = releaseManager.list(requestBuilder.build());
+            assert listReleasesResponseIterator != null;
+            offset = "";
+            while (listReleasesResponseIterator.hasNext()) {
+              final ListReleasesResponse response = listReleasesResponseIterator.next();
+              assert response != null;
+              for (final Release release : response.getReleasesList()) {
+                names.add(release.getName());
+              }
+              offset = response.getNext();
+            }
+          } while (offset != null && !offset.isEmpty());
+          return names;
+        });
+      assert matchingReleaseNames != null;
+      returnValue.addAll(matchingReleaseNames);
+    }
+    return returnValue;
+  }
+
+
+  /*
+   * Private instance methods.
+   */
+
+
+  /**
+   * Issues the supplied {@link GetReleaseStatusRequest} and waits for
+   * its result, {@linkplain #executeWithRetries(Callable,
+   * ReleaseManagerOperation) with retries} if it could not be issued
+   * or failed {@linkplain #isTransient(Throwable) transiently}.
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param request the {@link GetReleaseStatusRequest} to issue; must
+   * not be {@code null}
+   *
+   * @return a non-{@code null} {@link GetReleaseStatusResponse}
+   *
+   * @exception Exception if the status could not be retrieved
+   */
+  private final GetReleaseStatusResponse getStatus(final Callable<ReleaseManager> releaseManagerCallable, final GetReleaseStatusRequest request) throws Exception {
+    assert releaseManagerCallable != null;
+    assert request != null;
+    return this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+        final Future<GetReleaseStatusResponse> getReleaseStatusResponseFuture = releaseManager.getStatus(request);
+        assert getReleaseStatusResponseFuture != null;
+        return getReleaseStatusResponseFuture.get();
+      });
+  }
+
+
+  /*
+   * Public instance methods.
+   */
+
+
+  /**
+   * Returns the name of a single additional release whose status
+   * should be retrieved.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the name of a release, or {@code null}
+   *
+   * @see #setReleaseName(String)
+   */
+  @Override
+  public String getReleaseName() {
+    return this.releaseName;
+  }
+
+  /**
+   * Sets the name of a single additional release whose status should
+   * be retrieved.
+   *
+   * @param releaseName the name of a release; may be {@code null}
+   *
+   * @see #getReleaseName()
+   */
+  @Override
+  public void setReleaseName(final String releaseName) {
+    if (releaseName != null && !releaseName.isEmpty()) {
+      this.validateReleaseName(releaseName);
+    }
+    this.releaseName = releaseName;
+  }
+
+  /**
+   * Returns the names of the releases whose statuses should be
+   * retrieved.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link List} of release names, or {@code null}
+   *
+   * @see #setReleaseNames(List)
+   */
+  public List<String> getReleaseNames() {
+    return this.releaseNames;
+  }
+
+  /**
+   * Sets the names of the releases whose statuses should be
+   * retrieved.
+   *
+   * @param releaseNames a {@link List} of release names; may be
+   * {@code null}
+   *
+   * @see #getReleaseNames()
+   */
+  public void setReleaseNames(final List<String> releaseNames) {
+    this.releaseNames = releaseNames;
+  }
+
+  /**
+   * Returns a {@link Map} of versions indexed by the names of the
+   * releases to which they apply.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link Map} of versions indexed by release name, or
+   * {@code null}
+   *
+   * @see #setReleaseVersions(Map)
+   *
+   * @see #getVersion(String)
+   */
+  public Map<String, Integer> getReleaseVersions() {
+    return this.releaseVersions;
+  }
+
+  /**
+   * Sets the {@link Map} of versions indexed by the names of the
+   * releases to which they apply.
+   *
+   * @param releaseVersions a {@link Map} of versions indexed by
+   * release name; may be {@code null}
+   *
+   * @see #getReleaseVersions()
+   */
+  public void setReleaseVersions(final Map<String, Integer> releaseVersions) {
+    this.releaseVersions = releaseVersions;
+  }
+
+  /**
+   * Returns the regular expression selecting further releases whose
+   * statuses should be retrieved.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a regular expression, or {@code null}
+   *
+   * @see #setFilter(String)
+   */
+  public String getFilter() {
+    return this.filter;
+  }
+
+  /**
+   * Sets the regular expression selecting further releases whose
+   * statuses should be retrieved.
+   *
+   * @param filter a regular expression; may be {@code null}
+   *
+   * @see #getFilter()
+   */
+  public void setFilter(final String filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * Returns the <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * from which releases matching the {@linkplain #getFilter() filter}
+   * will be listed.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a namespace, or {@code null}
+   *
+   * @see #setNamespace(String)
+   */
+  public String getNamespace() {
+    return this.namespace;
+  }
+
+  /**
+   * Sets the <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * from which releases matching the {@linkplain #getFilter() filter}
+   * will be listed.
+   *
+   * @param namespace a namespace; may be {@code null}
+   *
+   * @see #getNamespace()
+   */
+  public void setNamespace(final String namespace) {
+    this.namespace = namespace;
+  }
+
+  /**
+   * Returns the {@link List} of {@link Status.Code} instances one of
+   * which releases matching the {@linkplain #getFilter() filter} must
+   * have.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link List} of {@link Status.Code}s, or {@code null}
+   *
+   * @see #setStatusCodes(List)
+   */
+  public List<Status.Code> getStatusCodes() {
+    return this.statusCodes;
+  }
+
+  /**
+   * Sets the {@link List} of {@link Status.Code} instances one of
+   * which releases matching the {@linkplain #getFilter() filter} must
+   * have.
+   *
+   * @param statusCodes a {@link List} of {@link Status.Code}s; may be
+   * {@code null}
+   *
+   * @see #getStatusCodes()
+   */
+  public void setStatusCodes(final List<Status.Code> statusCodes) {
+    this.statusCodes = statusCodes;
+  }
+
+  /**
+   * Returns the maximum number of status requests that may be
+   * outstanding at once.
+   *
+   * @return the maximum number of outstanding status requests
+   *
+   * @see #setMaxInFlight(int)
+   */
+  public int getMaxInFlight() {
+    return this.maxInFlight;
+  }
+
+  /**
+   * Sets the maximum number of status requests that may be
+   * outstanding at once.
+   *
+   * @param maxInFlight the maximum number of outstanding status
+   * requests; values less than {@code 1} are treated as {@code 1}
+   *
+   * @see #getMaxInFlight()
+   */
+  public void setMaxInFlight(final int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+}
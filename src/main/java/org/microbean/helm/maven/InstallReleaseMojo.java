@@ -16,16 +16,9 @@
  */
 package org.microbean.helm.maven;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-
 import java.net.URI;
 import java.net.URL;
 
-import java.nio.charset.StandardCharsets;
-
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -70,7 +63,7 @@ import org.microbean.helm.chart.URLChartLoader;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "install")
+@Mojo(name = "install", threadSafe = true)
 public class InstallReleaseMojo extends AbstractMutatingReleaseMojo {
 
 
@@ -161,6 +154,16 @@ public class InstallReleaseMojo extends AbstractMutatingReleaseMojo {
   )
   private URL chartUrl;
 
+  /**
+   * Whether this execution should only register the release
+   * operation, leaving it to be performed, concurrently with those
+   * registered by other projects, once every execution of this goal
+   * in the reactor has completed.  Requires {@code
+   * poolReleaseManagers} to be {@code true}.
+   */
+  @Parameter(defaultValue = "false", property = "helm.aggregate")
+  private boolean aggregate;
+
   
   /*
    * Constructors.
@@ -232,6 +235,11 @@ public class InstallReleaseMojo extends AbstractMutatingReleaseMojo {
       if (log.isDebugEnabled()) {
         log.debug("chartUrl: " + chartUrl);
       }
+
+      if (!this.getAggregate()) {
+        // Connect to Tiller while the chart and values are loaded.
+        this.connectInBackground(releaseManagerCallable);
+      }
       
       Chart.Builder chartBuilder = null;
       try (final AbstractChartLoader<URL> chartLoader = this.createChartLoader()) {
@@ -272,23 +280,7 @@ public class InstallReleaseMojo extends AbstractMutatingReleaseMojo {
       requestBuilder.setReuseName(this.getReuseReleaseName());
       requestBuilder.setTimeout(this.getTimeout());
 
-      String valuesYaml = this.getValuesYaml();
-      if (valuesYaml == null || valuesYaml.isEmpty()) {
-        final URI valuesYamlUri = this.getValuesYamlUri();
-        if (valuesYamlUri != null) {
-          final URL yamlUrl = valuesYamlUri.toURL();
-          assert yamlUrl != null;
-          try (final Reader reader = new BufferedReader(new InputStreamReader(yamlUrl.openStream(), StandardCharsets.UTF_8))) {
-            final StringBuilder sb = new StringBuilder();
-            final char[] buffer = new char[4096];
-            int charsRead = -1;
-            while ((charsRead = reader.read(buffer, 0, buffer.length)) >= 0) {
-              sb.append(buffer, 0, charsRead);
-            }
-            valuesYaml = sb.toString();
-          }
-        }
-      }
+      final String valuesYaml = this.readValuesYaml(this.getValuesYaml(), this.getValuesYamlUri());
       if (valuesYaml != null && !valuesYaml.isEmpty()) {
         final hapi.chart.ConfigOuterClass.Config.Builder values = requestBuilder.getValuesBuilder();
         assert values != null;
@@ -297,22 +289,31 @@ public class InstallReleaseMojo extends AbstractMutatingReleaseMojo {
       
       requestBuilder.setWait(this.getWait());
       
-      final ReleaseManager releaseManager = releaseManagerCallable.call();
-      if (releaseManager == null) {
-        throw new IllegalStateException("releaseManagerCallable.call() == null");
-      }
-      
-      if (log.isInfoEnabled()) {
-        log.info("Installing release " + requestBuilder.getName());
-      }
-      final Future<InstallReleaseResponse> installReleaseResponseFuture = releaseManager.install(requestBuilder, chartBuilder);
-      assert installReleaseResponseFuture != null;
-      final InstallReleaseResponse installReleaseResponse = installReleaseResponseFuture.get();
-      assert installReleaseResponse != null;
-      if (log.isInfoEnabled()) {
-        final Release release = installReleaseResponse.getRelease();
-        assert release != null;
-        log.info("Installed release " + release.getName());
+      final String description = "Installing release " + requestBuilder.getName();
+      final ReleaseOperationResultHandler<InstallReleaseResponse> resultHandler = installReleaseResponse -> {
+        assert installReleaseResponse != null;
+        if (log.isInfoEnabled()) {
+          final Release release = installReleaseResponse.getRelease();
+          assert release != null;
+          log.info("Installed release " + release.getName());
+        }
+      };
+
+      if (this.getAggregate()) {
+        final Chart.Builder aggregatedChartBuilder = chartBuilder;
+        this.aggregate(description, releaseManagerCallable, releaseManager -> releaseManager.install(requestBuilder, aggregatedChartBuilder), resultHandler);
+      } else {
+        final ReleaseManager releaseManager = releaseManagerCallable.call();
+        if (releaseManager == null) {
+          throw new IllegalStateException("releaseManagerCallable.call() == null");
+        }
+
+        if (log.isInfoEnabled()) {
+          log.info(description);
+        }
+        final Future<InstallReleaseResponse> installReleaseResponseFuture = releaseManager.install(requestBuilder, chartBuilder);
+        assert installReleaseResponseFuture != null;
+        this.submit(description, installReleaseResponseFuture::get, resultHandler);
       }
     }
   }
@@ -512,6 +513,37 @@ public class InstallReleaseMojo extends AbstractMutatingReleaseMojo {
   public void setValuesYamlUri(final URI valuesYamlUri) {
     this.valuesYamlUri = valuesYamlUri;
   }
+
+  /**
+   * Returns {@code true} if this execution should only register the
+   * release operation, leaving it to be performed once every
+   * execution of this goal in the reactor has completed.
+   *
+   * @return {@code true} if the release operation should be
+   * aggregated; {@code false} otherwise
+   *
+   * @see #setAggregate(boolean)
+   *
+   * @see #aggregate(String, Callable, ReleaseManagerOperation,
+   * ReleaseOperationResultHandler)
+   */
+  public boolean getAggregate() {
+    return this.aggregate;
+  }
+
+  /**
+   * Sets whether this execution should only register the release
+   * operation, leaving it to be performed once every execution of
+   * this goal in the reactor has completed.
+   *
+   * @param aggregate whether the release operation should be
+   * aggregated
+   *
+   * @see #getAggregate()
+   */
+  public void setAggregate(final boolean aggregate) {
+    this.aggregate = aggregate;
+  }
   
   /**
    * {@inheritDoc}
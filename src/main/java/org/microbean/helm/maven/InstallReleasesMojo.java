@@ -0,0 +1,118 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.net.URL;
+
+import java.util.Objects;
+
+import java.util.concurrent.Callable;
+
+import hapi.chart.ChartOuterClass.Chart;
+
+import hapi.release.ReleaseOuterClass.Release;
+
+import hapi.services.tiller.Tiller.InstallReleaseRequest;
+import hapi.services.tiller.Tiller.InstallReleaseResponse;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.plugins.annotations.Mojo;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * <a
+ * href="https://github.com/kubernetes/helm/blob/master/docs/using_helm.md#helm-install-installing-a-package">Installs</a>
+ * several charts, and hence creates several releases, at once over a
+ * single connection to Tiller.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see InstallReleaseMojo
+ */
+@Mojo(name = "install-batch", threadSafe = true)
+public class InstallReleasesMojo extends AbstractBatchReleaseMojo {
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link InstallReleasesMojo}.
+   */
+  public InstallReleasesMojo() {
+    super();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation <a
+   * href="https://github.com/kubernetes/helm/blob/master/docs/using_helm.md#helm-install-installing-a-package">installs</a>
+   * the <a
+   * href="https://docs.helm.sh/developing_charts/#charts">chart</a>
+   * residing at the {@linkplain ReleaseDefinition#getChartUrl()
+   * indicated URL} and thus creates a <a
+   * href="https://docs.helm.sh/glossary/#release">release</a>.</p>
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable, final ReleaseDefinition releaseDefinition) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    Objects.requireNonNull(releaseDefinition);
+    final Log log = this.getLog();
+    assert log != null;
+
+    final URL chartUrl = releaseDefinition.getChartUrl();
+    if (chartUrl == null) {
+      throw new MojoExecutionException("Missing chartUrl for release " + releaseDefinition);
+    }
+    final Chart.Builder chartBuilder = this.loadChart(chartUrl);
+    assert chartBuilder != null;
+
+    final InstallReleaseRequest.Builder requestBuilder = this.createInstallReleaseRequest(releaseDefinition);
+    assert requestBuilder != null;
+
+    final ReleaseManager releaseManager = releaseManagerCallable.call();
+    if (releaseManager == null) {
+      throw new IllegalStateException("releaseManagerCallable.call() == null");
+    }
+
+    if (log.isInfoEnabled()) {
+      log.info("Installing release " + releaseDefinition);
+    }
+    final InstallReleaseResponse installReleaseResponse = this.await(releaseManager.install(requestBuilder, chartBuilder), releaseDefinition);
+    assert installReleaseResponse != null;
+    if (log.isInfoEnabled()) {
+      final Release release = installReleaseResponse.getRelease();
+      assert release != null;
+      log.info("Installed release " + release.getName());
+    }
+  }
+
+}
@@ -16,16 +16,34 @@
  */
 package org.microbean.helm.maven;
 
+import java.io.IOException;
+
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import java.util.function.Function;
+
 import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.ReleaseOuterClass.ReleaseOrBuilder;
 import hapi.release.StatusOuterClass.Status;
 
 import hapi.services.tiller.Tiller.ListReleasesRequest;
@@ -33,6 +51,13 @@ import hapi.services.tiller.Tiller.ListReleasesResponse;
 import hapi.services.tiller.Tiller.ListSort.SortBy;
 import hapi.services.tiller.Tiller.ListSort.SortOrder;
 
+import io.fabric8.kubernetes.api.model.Namespace;
+import io.fabric8.kubernetes.api.model.NamespaceList;
+
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
 import org.apache.maven.plugin.logging.Log;
 
 import org.apache.maven.plugins.annotations.Mojo;
@@ -47,7 +72,7 @@ import org.microbean.helm.ReleaseManager;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "list")
+@Mojo(name = "list", threadSafe = true)
 public class ListReleasesMojo extends AbstractReleaseMojo {
 
 
@@ -65,7 +90,9 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
   private String filter;
 
   /**
-   * The maximum number of releases to retrieve.
+   * The maximum number of releases to retrieve, or, if {@linkplain
+   * #getAutoPaginate() auto-pagination} is enabled, the maximum
+   * number of releases to retrieve in each page.
    */
   @Parameter(defaultValue = "256")
   private long limit;
@@ -76,9 +103,40 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
   @Parameter
   private String namespace;
 
+  /**
+   * Additional namespaces from which releases will be listed.  If
+   * this or {@code namespaceSelector} is specified, every matching
+   * namespace (together with {@code namespace}, if it is specified)
+   * is listed in full, concurrently, and the results are merged into
+   * a single stream ordered by {@code sortBy} and {@code sortOrder}.
+   * In that case every page is always listed, so {@code
+   * autoPaginate} has no effect, and {@code offset} must not be
+   * specified.
+   */
+  @Parameter
+  private List<String> namespaces;
+
+  /**
+   * Labels that namespaces must have, all of them with the given
+   * values, for releases to be listed from them.  Matching
+   * namespaces are added to any specified by {@code namespaces}.
+   */
+  @Parameter
+  private Map<String, String> namespaceSelector;
+
+  /**
+   * The maximum number of namespaces whose releases will be listed
+   * at the same time when {@code namespaces} or {@code
+   * namespaceSelector} is specified.
+   */
+  @Parameter(defaultValue = "8", property = "helm.list.namespaceConcurrency")
+  private int namespaceConcurrency;
+
   /**
    * The next release name in the list; used to offset from the start
-   * value.
+   * value.  May not be specified together with {@code namespaces} or
+   * {@code namespaceSelector}, since a release name designates a
+   * position in only one namespace's list.
    */
   @Parameter
   private String offset;
@@ -115,6 +173,64 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
   @Parameter
   private List<Status.Code> statusCodes;
 
+  /**
+   * Whether to keep listing releases, one page of at most {@code
+   * limit} releases at a time, until there are no more.  While the
+   * releases in one page are being delivered to listeners, the next
+   * page is retrieved in the background.  Ignored if {@code
+   * namespaces} or {@code namespaceSelector} is specified, in which
+   * case every page is always listed.
+   */
+  @Parameter(defaultValue = "false", property = "helm.list.autoPaginate")
+  private boolean autoPaginate;
+
+  /**
+   * Whether to notify listeners of each release individually, via
+   * <a
+   * href="apidocs/org/microbean/helm/maven/ReleaseDiscoveryListener.html#singleReleaseDiscovered-org.microbean.helm.maven.SingleReleaseDiscoveryEvent-">{@code
+   * ReleaseDiscoveryListener#singleReleaseDiscovered(SingleReleaseDiscoveryEvent)}</a>,
+   * rather than of each retrieved page of releases, so that each
+   * page can be garbage collected while its releases are still being
+   * processed.
+   */
+  @Parameter(defaultValue = "false", property = "helm.list.streamReleases")
+  private boolean streamReleases;
+
+  /**
+   * Whether to reduce each release to a compact <a
+   * href="apidocs/org/microbean/helm/maven/ReleaseSummary.html">{@code
+   * ReleaseSummary}</a> before notifying listeners of it via <a
+   * href="apidocs/org/microbean/helm/maven/ReleaseDiscoveryListener.html#releaseSummaryDiscovered-org.microbean.helm.maven.ReleaseSummaryEvent-">{@code
+   * ReleaseDiscoveryListener#releaseSummaryDiscovered(ReleaseSummaryEvent)}</a>.
+   * Enabling this implies {@code streamReleases}.
+   */
+  @Parameter(defaultValue = "false", property = "helm.list.summarizeReleases")
+  private boolean summarizeReleases;
+
+  /**
+   * Whether listeners should be notified on separate worker threads,
+   * so that retrieving releases overlaps with processing them.  Each
+   * listener is always notified in order.
+   */
+  @Parameter(defaultValue = "false", property = "helm.list.asyncListenerDispatch")
+  private boolean asyncListenerDispatch;
+
+  /**
+   * The maximum number of worker threads on which listeners will be
+   * notified if {@code asyncListenerDispatch} is {@code true}.
+   */
+  @Parameter(defaultValue = "4", property = "helm.list.listenerThreads")
+  private int listenerThreads;
+
+  /**
+   * The number of notifications that may be pending for each
+   * listener worker thread before retrieval of further releases
+   * waits for listeners to catch up, if {@code
+   * asyncListenerDispatch} is {@code true}.
+   */
+  @Parameter(defaultValue = "256", property = "helm.list.listenerQueueCapacity")
+  private int listenerQueueCapacity;
+
   /**
    * A {@link List} of <a
    * href="apidocs/org/microbean/helm/maven/ReleaseDiscoveryListener.html">{@code
@@ -122,7 +238,7 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
    * each release in the list created by this goal.
    */
   @Parameter(alias = "releaseDiscoveryListenersList")
-  private List<ReleaseDiscoveryListener> releaseDiscoveryListeners;
+  private volatile List<ReleaseDiscoveryListener> releaseDiscoveryListeners;
   
 
   /*
@@ -158,8 +274,8 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
     final Log log = this.getLog();
     assert log != null;
 
-    final Collection<? extends ReleaseDiscoveryListener> listeners = this.getReleaseDiscoveryListenersList();
-    if (listeners == null || listeners.isEmpty()) {
+    final Collection<? extends ReleaseDiscoveryListener> listeners = Arrays.asList(this.getReleaseDiscoveryListeners());
+    if (listeners.isEmpty()) {
       if (log.isInfoEnabled()) {
         log.info("Skipping execution because there are no ReleaseDiscoveryListeners specified.");
       }
@@ -211,28 +327,624 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
       requestBuilder.addAllStatusCodes(statusCodes);
     }
 
-    final ReleaseManager releaseManager = releaseManagerCallable.call();
-    if (releaseManager == null) {
-      throw new IllegalStateException("releaseManagerCallable.call() == null");
+    final Collection<String> namespaceList = this.getNamespaces();
+    final Map<String, String> namespaceSelector = this.getNamespaceSelector();
+    if (offset != null && !offset.isEmpty() && ((namespaceList != null && !namespaceList.isEmpty()) || (namespaceSelector != null && !namespaceSelector.isEmpty()))) {
+      // Release names are unique across namespaces, and Tiller fails
+      // a listing whose offset is not among its results.
+      throw new MojoExecutionException("offset (" + offset + ") may not be specified together with namespaces or namespaceSelector");
+    }
+
+    final Set<String> namespaces = this.resolveNamespaces();
+    if (namespaces != null && namespaces.isEmpty()) {
+      if (log.isInfoEnabled()) {
+        log.info("Skipping execution because no namespaces matched.");
+      }
+      return;
     }
 
     if (log.isInfoEnabled()) {
-      log.info("Listing releases in namespace " + namespace);
+      if (namespaces == null) {
+        log.info("Listing releases in namespace " + namespace);
+      } else {
+        log.info("Listing releases in namespaces " + namespaces);
+      }
+    }
+
+    final boolean summarizeReleases = this.getSummarizeReleases();
+    final boolean streamReleases = summarizeReleases || this.getStreamReleases();
+    final int listenerThreads = this.getAsyncListenerDispatch() ? this.getListenerThreads() : 0;
+    try (final ListenerDispatcher<ReleaseDiscoveryListener> dispatcher = new ListenerDispatcher<>("helm-maven-plugin release listener", listeners, listenerThreads, this.getListenerQueueCapacity())) {
+      if (namespaces != null) {
+        this.listNamespaces(releaseManagerCallable, requestBuilder, namespaces, streamReleases, summarizeReleases, dispatcher);
+      } else if (this.getAutoPaginate()) {
+        this.listAllPages(releaseManagerCallable, requestBuilder, streamReleases, summarizeReleases, dispatcher);
+      } else {
+        final ListReleasesRequest request = requestBuilder.build();
+        // If the listing has to be retried, responses that have already
+        // been delivered to listeners are skipped.
+        final int[] deliveredResponses = new int[1];
+        this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+            final Iterator<? extends ListReleasesResponse> listReleasesResponseIterator = releaseManager.list(request);
+            assert listReleasesResponseIterator != null;
+            int responseIndex = 0;
+            while (listReleasesResponseIterator.hasNext()) {
+              ListReleasesResponse response = listReleasesResponseIterator.next();
+              assert response != null;
+              if (responseIndex++ >= deliveredResponses[0]) {
+                if (streamReleases) {
+                  final Deque<Release> releases = new ArrayDeque<>(response.getReleasesList());
+                  final long total = response.getTotal();
+                  response = null; // let the page be collected
+                  this.fireSingleReleaseDiscovered(releases, total, summarizeReleases, dispatcher);
+                } else {
+                  final ReleaseDiscoveryEvent event = new ReleaseDiscoveryEvent(this, response);
+                  dispatcher.dispatch(listener -> listener.releaseDiscovered(event));
+                }
+                deliveredResponses[0]++;
+              }
+            }
+            return null;
+          });
+      }
     }
     
-    final Iterator<? extends ListReleasesResponse> listReleasesResponseIterator = releaseManager.list(requestBuilder.build());
-    assert listReleasesResponseIterator != null;
-    while (listReleasesResponseIterator.hasNext()) {
-      final ListReleasesResponse response = listReleasesResponseIterator.next();
-      assert response != null;
-      final ReleaseDiscoveryEvent event = new ReleaseDiscoveryEvent(this, response);
-      for (final ReleaseDiscoveryListener listener : listeners) {
-        if (listener != null) {
-          listener.releaseDiscovered(event);
+  }
+
+
+  /**
+   * Lists every page of releases described by the supplied {@link
+   * ListReleasesRequest.Builder}, following each page's {@linkplain
+   * ListReleasesResponse#getNext() next offset}, and notifies the
+   * supplied listeners of each page in order.
+   *
+   * <p>Each page is retrieved in the background, with {@linkplain
+   * #executeWithRetries(Callable, ReleaseManagerOperation) retries},
+   * as soon as the offset at which it begins is known, so that
+   * retrieving a page overlaps with the delivery of its predecessor
+   * to listeners.  At most two pages are held in memory at once.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param requestBuilder a {@link ListReleasesRequest.Builder}
+   * describing the first page; must not be {@code null}; its offset
+   * will be changed
+   *
+   * @param streamReleases whether listeners should be notified of
+   * each release individually
+   *
+   * @param summarizeReleases whether each release should be reduced
+   * to a {@link ReleaseSummary} before listeners are notified of it;
+   * ignored if {@code streamReleases} is {@code false}
+   *
+   * @param dispatcher the {@link ListenerDispatcher} through which
+   * {@link ReleaseDiscoveryListener}s will be notified; must not be
+   * {@code null}
+   *
+   * @exception Exception if a page could not be retrieved or a
+   * listener failed
+   */
+  private final void listAllPages(final Callable<ReleaseManager> releaseManagerCallable, final ListReleasesRequest.Builder requestBuilder, final boolean streamReleases, final boolean summarizeReleases, final ListenerDispatcher<ReleaseDiscoveryListener> dispatcher) throws Exception {
+    assert releaseManagerCallable != null;
+    assert requestBuilder != null;
+    assert dispatcher != null;
+    final Log log = this.getLog();
+    assert log != null;
+
+    final ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "helm-maven-plugin release page prefetch");
+        thread.setDaemon(true);
+        return thread;
+      });
+    try {
+      Future<List<ListReleasesResponse>> page = executorService.submit(this.createPageTask(releaseManagerCallable, requestBuilder.build()));
+      int pageCount = 0;
+      int releaseCount = 0;
+      while (page != null) {
+        final List<ListReleasesResponse> responses = getResult(page);
+        assert responses != null;
+        pageCount++;
+
+        final String currentOffset = requestBuilder.getOffset();
+        final String next = responses.isEmpty() ? null : responses.get(responses.size() - 1).getNext();
+        if (next == null || next.isEmpty() || next.equals(currentOffset)) {
+          page = null;
+        } else {
+          requestBuilder.setOffset(next);
+          page = executorService.submit(this.createPageTask(releaseManagerCallable, requestBuilder.build()));
+        }
+
+        final int size = responses.size();
+        for (int i = 0; i < size; i++) {
+          // Drop each response from the page as it is delivered so
+          // that it can be collected.
+          final ListReleasesResponse response = responses.set(i, null);
+          assert response != null;
+          releaseCount += response.getReleasesCount();
+          if (streamReleases) {
+            this.fireSingleReleaseDiscovered(new ArrayDeque<>(response.getReleasesList()), response.getTotal(), summarizeReleases, dispatcher);
+          } else {
+            final ReleaseDiscoveryEvent event = new ReleaseDiscoveryEvent(this, response);
+            dispatcher.dispatch(listener -> listener.releaseDiscovered(event));
+          }
         }
       }
+      if (log.isInfoEnabled()) {
+        log.info("Listed " + releaseCount + " releases in " + pageCount + " page(s)");
+      }
+    } finally {
+      executorService.shutdownNow();
     }
-    
+  }
+
+  /**
+   * Notifies the supplied listeners of each {@link Release} in the
+   * supplied {@link Deque}, removing each one from the {@link Deque}
+   * before its {@link SingleReleaseDiscoveryEvent} is fired so that
+   * it can be collected once all listeners have processed it.
+   *
+   * @param releases a {@link Deque} of {@link Release}s; must not be
+   * {@code null}; will be emptied
+   *
+   * @param total the total number of releases matching the listing
+   * criteria, as reported by Tiller
+   *
+   * @param summarizeReleases whether each {@link Release} should be
+   * reduced to a {@link ReleaseSummary} and delivered in a {@link
+   * ReleaseSummaryEvent} instead
+   *
+   * @param dispatcher the {@link ListenerDispatcher} through which
+   * {@link ReleaseDiscoveryListener}s will be notified; must not be
+   * {@code null}
+   *
+   * @exception InterruptedException if the current thread was
+   * interrupted while waiting for a listener to catch up
+   *
+   * @see
+   * ReleaseDiscoveryListener#singleReleaseDiscovered(SingleReleaseDiscoveryEvent)
+   *
+   * @see
+   * ReleaseDiscoveryListener#releaseSummaryDiscovered(ReleaseSummaryEvent)
+   */
+  private final void fireSingleReleaseDiscovered(final Deque<Release> releases, final long total, final boolean summarizeReleases, final ListenerDispatcher<ReleaseDiscoveryListener> dispatcher) throws InterruptedException {
+    assert releases != null;
+    assert dispatcher != null;
+    Release release;
+    while ((release = releases.poll()) != null) {
+      this.fireSingleReleaseDiscovered(release, total, summarizeReleases, dispatcher);
+    }
+  }
+
+  /**
+   * Notifies listeners of the supplied {@link Release}, either in a
+   * {@link SingleReleaseDiscoveryEvent} or, if {@code
+   * summarizeReleases} is {@code true}, in a {@link
+   * ReleaseSummaryEvent}.
+   *
+   * @param release the {@link Release} that was discovered; must not
+   * be {@code null}
+   *
+   * @param total the total number of releases matching the listing
+   * criteria
+   *
+   * @param summarizeReleases whether the {@link Release} should be
+   * reduced to a {@link ReleaseSummary}
+   *
+   * @param dispatcher the {@link ListenerDispatcher} through which
+   * {@link ReleaseDiscoveryListener}s will be notified; must not be
+   * {@code null}
+   *
+   * @exception InterruptedException if the current thread was
+   * interrupted while waiting for a listener to catch up
+   */
+  private final void fireSingleReleaseDiscovered(final Release release, final long total, final boolean summarizeReleases, final ListenerDispatcher<ReleaseDiscoveryListener> dispatcher) throws InterruptedException {
+    assert release != null;
+    assert dispatcher != null;
+    if (summarizeReleases) {
+      final ReleaseSummaryEvent event = new ReleaseSummaryEvent(this, ReleaseSummary.of(release), total);
+      dispatcher.dispatch(listener -> listener.releaseSummaryDiscovered(event));
+    } else {
+      final SingleReleaseDiscoveryEvent event = new SingleReleaseDiscoveryEvent(this, release, total);
+      dispatcher.dispatch(listener -> listener.singleReleaseDiscovered(event));
+    }
+  }
+
+  /**
+   * Returns the namespaces from which releases should be listed and
+   * merged, or {@code null} if only the single namespace identified
+   * by the {@link #getNamespace()} method should be listed.
+   *
+   * <p>This method returns {@code null} if neither {@linkplain
+   * #getNamespaces() additional namespaces} nor a {@linkplain
+   * #getNamespaceSelector() namespace selector} is specified.</p>
+   *
+   * @return a {@link Set} of namespaces in the order in which they
+   * were specified or discovered, or {@code null}
+   *
+   * @exception IOException if a Kubernetes client could not be
+   * created
+   *
+   * @exception IllegalArgumentException if any namespace is
+   * invalid
+   *
+   * @see #validateNamespace(String)
+   */
+  private final Set<String> resolveNamespaces() throws IOException {
+    final Collection<String> namespaces = this.getNamespaces();
+    final Map<String, String> namespaceSelector = this.getNamespaceSelector();
+    final boolean selectNamespaces = namespaceSelector != null && !namespaceSelector.isEmpty();
+    if ((namespaces == null || namespaces.isEmpty()) && !selectNamespaces) {
+      return null;
+    }
+    final Set<String> returnValue = new LinkedHashSet<>();
+    final String namespace = this.getNamespace();
+    if (namespace != null && !namespace.isEmpty()) {
+      returnValue.add(namespace);
+    }
+    if (namespaces != null) {
+      for (final String ns : namespaces) {
+        if (ns != null && !ns.isEmpty()) {
+          returnValue.add(ns);
+        }
+      }
+    }
+    if (selectNamespaces) {
+      try (final DefaultKubernetesClient client = this.createClient()) {
+        final NamespaceList namespaceList = client.namespaces().withLabels(namespaceSelector).list();
+        if (namespaceList != null) {
+          final Collection<? extends Namespace> items = namespaceList.getItems();
+          if (items != null) {
+            for (final Namespace item : items) {
+              if (item != null && item.getMetadata() != null) {
+                returnValue.add(item.getMetadata().getName());
+              }
+            }
+          }
+        }
+      }
+    }
+    for (final String ns : returnValue) {
+      this.validateNamespace(ns);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Lists every release in each of the supplied namespaces,
+   * concurrently, and notifies listeners of them in a single stream
+   * ordered according to the {@linkplain
+   * ListReleasesRequest#getSortBy() sort criterion} and {@linkplain
+   * ListReleasesRequest#getSortOrder() sort order} of the supplied
+   * {@link ListReleasesRequest.Builder}.
+   *
+   * <p>Tiller returns each namespace's releases already sorted, so
+   * the per-namespace results are combined with a k-way merge over
+   * one {@link NamespaceCursor} per namespace.  Each cursor holds
+   * only the page of releases it is currently delivering and
+   * retrieves the following page in the background, so at most two
+   * pages per namespace are held in memory at once.  Releases from
+   * different namespaces that sort equally are delivered in
+   * namespace order.</p>
+   *
+   * <p>If {@code summarizeReleases} is {@code true}, each release is
+   * reduced to the information a {@link ReleaseSummary} and the sort
+   * criterion need as soon as its page arrives, before it is
+   * buffered.</p>
+   *
+   * <p>If {@code streamReleases} is {@code false}, the merged releases
+   * are delivered in {@link ReleaseDiscoveryEvent}s of at most
+   * {@linkplain #getLimit() limit} releases each.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param requestBuilder a {@link ListReleasesRequest.Builder}
+   * describing the listing; must not be {@code null}; its namespace
+   * and offset are ignored, and every namespace is listed from its
+   * first release
+   *
+   * @param namespaces the namespaces to list; must not be {@code
+   * null}
+   *
+   * @param streamReleases whether listeners should be notified of
+   * each release individually
+   *
+   * @param summarizeReleases whether each release should be reduced
+   * to a {@link ReleaseSummary} before listeners are notified of it;
+   * ignored if {@code streamReleases} is {@code false}
+   *
+   * @param dispatcher the {@link ListenerDispatcher} through which
+   * {@link ReleaseDiscoveryListener}s will be notified; must not be
+   * {@code null}
+   *
+   * @exception Exception if a namespace could not be listed or a
+   * listener failed
+   */
+  private final void listNamespaces(final Callable<ReleaseManager> releaseManagerCallable, final ListReleasesRequest.Builder requestBuilder, final Collection<? extends String> namespaces, final boolean streamReleases, final boolean summarizeReleases, final ListenerDispatcher<ReleaseDiscoveryListener> dispatcher) throws Exception {
+    assert releaseManagerCallable != null;
+    assert requestBuilder != null;
+    assert namespaces != null;
+    assert dispatcher != null;
+    final Log log = this.getLog();
+    assert log != null;
+
+    final boolean summarize = streamReleases && summarizeReleases;
+    final int threads = Math.max(1, Math.min(this.getNamespaceConcurrency(), namespaces.size()));
+    final ExecutorService executorService = Executors.newFixedThreadPool(threads, runnable -> {
+        final Thread thread = new Thread(runnable, "helm-maven-plugin namespace release list");
+        thread.setDaemon(true);
+        return thread;
+      });
+    try {
+      final Comparator<? super ReleaseOrBuilder> comparator = createComparator(requestBuilder.getSortBy(), requestBuilder.getSortOrder());
+      final List<NamespaceCursor> namespaceCursors = new ArrayList<>(namespaces.size());
+      for (final String namespace : namespaces) {
+        final ListReleasesRequest.Builder namespaceRequestBuilder = requestBuilder.clone().setNamespace(namespace);
+        namespaceCursors.add(new NamespaceCursor(namespaceCursors.size(),
+                                                 comparator,
+                                                 executorService,
+                                                 offset -> this.createNamespacePageTask(releaseManagerCallable, namespaceRequestBuilder.clone().setOffset(offset).build(), summarize),
+                                                 ""));
+      }
+
+      // Every namespace's first page must be present before the
+      // first release can be chosen.
+      long total = 0L;
+      final PriorityQueue<NamespaceCursor> cursors = new PriorityQueue<>(Math.max(1, namespaceCursors.size()));
+      for (final NamespaceCursor cursor : namespaceCursors) {
+        final boolean hasReleases = cursor.fill();
+        total += cursor.getTotal();
+        if (hasReleases) {
+          cursors.add(cursor);
+        }
+      }
+
+      final long limit = this.getLimit();
+      final ListReleasesResponse.Builder pageBuilder = streamReleases ? null : ListReleasesResponse.newBuilder();
+      long releaseCount = 0L;
+      Release release;
+      while ((release = NamespaceCursor.poll(cursors)) != null) {
+        releaseCount++;
+        if (pageBuilder == null) {
+          this.fireSingleReleaseDiscovered(release, total, summarizeReleases, dispatcher);
+        } else {
+          pageBuilder.addReleases(release);
+          if (limit > 0L && pageBuilder.getReleasesCount() >= limit) {
+            this.firePageDiscovered(pageBuilder, total, dispatcher);
+          }
+        }
+      }
+      if (pageBuilder != null && pageBuilder.getReleasesCount() > 0) {
+        this.firePageDiscovered(pageBuilder, total, dispatcher);
+      }
+      if (log.isInfoEnabled()) {
+        log.info("Listed " + releaseCount + " releases in " + namespaceCursors.size() + " namespace(s)");
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Notifies listeners of the releases accumulated in the supplied
+   * {@link ListReleasesResponse.Builder} in a single {@link
+   * ReleaseDiscoveryEvent}, and then {@linkplain
+   * ListReleasesResponse.Builder#clear() clears} it.
+   *
+   * @param pageBuilder the {@link ListReleasesResponse.Builder}
+   * holding the releases to deliver; must not be {@code null}
+   *
+   * @param total the total number of releases matching the listing
+   * criteria
+   *
+   * @param dispatcher the {@link ListenerDispatcher} through which
+   * {@link ReleaseDiscoveryListener}s will be notified; must not be
+   * {@code null}
+   *
+   * @exception InterruptedException if the current thread was
+   * interrupted while waiting for a listener to catch up
+   */
+  private final void firePageDiscovered(final ListReleasesResponse.Builder pageBuilder, final long total, final ListenerDispatcher<ReleaseDiscoveryListener> dispatcher) throws InterruptedException {
+    assert pageBuilder != null;
+    assert dispatcher != null;
+    final ListReleasesResponse response = pageBuilder
+      .setCount(pageBuilder.getReleasesCount())
+      .setTotal(total)
+      .build();
+    pageBuilder.clear();
+    final ReleaseDiscoveryEvent event = new ReleaseDiscoveryEvent(this, response);
+    dispatcher.dispatch(listener -> listener.releaseDiscovered(event));
+  }
+
+  /**
+   * Returns a {@link Callable} that retrieves, with {@linkplain
+   * #executeWithRetries(Callable, ReleaseManagerOperation) retries},
+   * the page of releases described by the supplied {@link
+   * ListReleasesRequest} and combines its {@link
+   * ListReleasesResponse}s into one.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>The combined {@link ListReleasesResponse} carries every
+   * release on the page, in order, together with the {@linkplain
+   * ListReleasesResponse#getNext() next offset} and {@linkplain
+   * ListReleasesResponse#getTotal() total} reported by Tiller.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param request the {@link ListReleasesRequest} describing the
+   * page; must not be {@code null}
+   *
+   * @param summarizeReleases whether each release should be
+   * {@linkplain #summarize(Release) reduced} to what a {@link
+   * ReleaseSummary} needs before it is returned
+   *
+   * @return a non-{@code null} {@link Callable}
+   */
+  private final Callable<ListReleasesResponse> createNamespacePageTask(final Callable<ReleaseManager> releaseManagerCallable, final ListReleasesRequest request, final boolean summarizeReleases) {
+    assert releaseManagerCallable != null;
+    assert request != null;
+    final Callable<List<ListReleasesResponse>> pageTask = this.createPageTask(releaseManagerCallable, request);
+    return () -> {
+      final List<ListReleasesResponse> responses = pageTask.call();
+      assert responses != null;
+      final ListReleasesResponse.Builder builder = ListReleasesResponse.newBuilder();
+      final int size = responses.size();
+      for (int i = 0; i < size; i++) {
+        // Drop each response once its releases have been copied so
+        // that, when summarizing, the full releases can be collected.
+        final ListReleasesResponse response = responses.set(i, null);
+        assert response != null;
+        if (summarizeReleases) {
+          for (final Release release : response.getReleasesList()) {
+            builder.addReleases(summarize(release));
+          }
+        } else {
+          builder.addAllReleases(response.getReleasesList());
+        }
+        builder.setNext(response.getNext());
+        builder.setTotal(response.getTotal());
+      }
+      return builder.setCount(builder.getReleasesCount()).build();
+    };
+  }
+
+  /**
+   * Returns a {@link Callable} that retrieves, with {@linkplain
+   * #executeWithRetries(Callable, ReleaseManagerOperation) retries},
+   * every {@link ListReleasesResponse} making up the page of releases
+   * described by the supplied {@link ListReleasesRequest}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param request the {@link ListReleasesRequest} describing the
+   * page; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link Callable}
+   */
+  private final Callable<List<ListReleasesResponse>> createPageTask(final Callable<ReleaseManager> releaseManagerCallable, final ListReleasesRequest request) {
+    assert releaseManagerCallable != null;
+    assert request != null;
+    return () -> this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+        final List<ListReleasesResponse> returnValue = new ArrayList<>();
+        final Iterator<? extends ListReleasesResponse> listReleasesResponseIterator = releaseManager.list(request);
+        assert listReleasesResponseIterator != null;
+        while (listReleasesResponseIterator.hasNext()) {
+          final ListReleasesResponse response = listReleasesResponseIterator.next();
+          assert response != null;
+          returnValue.add(response);
+        }
+        return returnValue;
+      });
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the result of the supplied {@link Future}, waiting for it
+   * if necessary, and unwrapping any {@link ExecutionException} it
+   * throws.
+   *
+   * @param <T> the type of the result
+   *
+   * @param future the {@link Future} whose result should be returned;
+   * must not be {@code null}
+   *
+   * @return the result of the {@link Future}, which may be {@code
+   * null}
+   *
+   * @exception Exception if the computation failed; its cause is
+   * thrown if possible
+   */
+  private static final <T> T getResult(final Future<T> future) throws Exception {
+    assert future != null;
+    try {
+      return future.get();
+    } catch (final ExecutionException executionException) {
+      final Throwable cause = executionException.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception)cause;
+      } else if (cause instanceof Error) {
+        throw (Error)cause;
+      } else {
+        throw executionException;
+      }
+    }
+  }
+
+  /**
+   * Returns a {@link Comparator} ordering releases the way Tiller
+   * does for the supplied {@link SortBy} and {@link SortOrder}.
+   *
+   * <p>If {@code sortBy} is neither {@link SortBy#NAME NAME} nor
+   * {@link SortBy#LAST_RELEASED LAST_RELEASED}, Tiller does not sort
+   * releases, and the returned {@link Comparator} considers all
+   * releases equal.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param sortBy the {@link SortBy} in effect; may be {@code null}
+   *
+   * @param sortOrder the {@link SortOrder} in effect; may be {@code
+   * null}
+   *
+   * @return a non-{@code null} {@link Comparator}
+   */
+  private static final Comparator<ReleaseOrBuilder> createComparator(final SortBy sortBy, final SortOrder sortOrder) {
+    final Comparator<ReleaseOrBuilder> comparator;
+    if (sortBy == null) {
+      comparator = (r1, r2) -> 0;
+    } else {
+      switch (sortBy) {
+      case NAME:
+        comparator = Comparator.comparing(ReleaseOrBuilder::getName);
+        break;
+      case LAST_RELEASED:
+        comparator = Comparator.<ReleaseOrBuilder>comparingLong(r -> r.getInfoOrBuilder().getLastDeployedOrBuilder().getSeconds())
+          .thenComparingInt(r -> r.getInfoOrBuilder().getLastDeployedOrBuilder().getNanos());
+        break;
+      default:
+        comparator = (r1, r2) -> 0;
+        break;
+      }
+    }
+    if (SortOrder.DESC.equals(sortOrder)) {
+      return comparator.reversed();
+    }
+    return comparator;
+  }
+
+  /**
+   * Returns a skeletal {@link Release} carrying only the information
+   * held by a {@link ReleaseSummary} of the supplied {@link Release}
+   * together with its last deployment time, by which releases may be
+   * {@linkplain #createComparator(SortBy, SortOrder) sorted}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param release the {@link Release} to summarize; must not be
+   * {@code null}
+   *
+   * @return a new, skeletal {@link Release}; never {@code null}
+   *
+   * @see ReleaseSummary#toRelease()
+   */
+  static final Release summarize(final Release release) {
+    assert release != null;
+    final Release.Builder builder = ReleaseSummary.of(release).toRelease().toBuilder();
+    if (release.hasInfo() && release.getInfo().hasLastDeployed()) {
+      builder.getInfoBuilder().setLastDeployed(release.getInfo().getLastDeployed());
+    }
+    return builder.build();
   }
 
 
@@ -453,6 +1165,270 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
     this.statusCodes = statusCodes;
   }
 
+  /**
+   * Returns {@code true} if releases should be listed page by page
+   * until there are no more.
+   *
+   * <p>The value returned by this method is ignored when releases are
+   * listed from {@linkplain #getNamespaces() several namespaces},
+   * since every page of each of them is then listed.</p>
+   *
+   * @return {@code true} if all pages of releases should be listed;
+   * {@code false} if only the page beginning at the {@linkplain
+   * #getOffset() offset} should be
+   *
+   * @see #setAutoPaginate(boolean)
+   */
+  public boolean getAutoPaginate() {
+    return this.autoPaginate;
+  }
+
+  /**
+   * Sets whether releases should be listed page by page until there
+   * are no more.
+   *
+   * @param autoPaginate whether all pages of releases should be
+   * listed
+   *
+   * @see #getAutoPaginate()
+   */
+  public void setAutoPaginate(final boolean autoPaginate) {
+    this.autoPaginate = autoPaginate;
+  }
+
+  /**
+   * Returns {@code true} if listeners should be notified of each
+   * release individually rather than of each retrieved page of
+   * releases.
+   *
+   * @return {@code true} if listeners should be notified of each
+   * release individually
+   *
+   * @see #setStreamReleases(boolean)
+   *
+   * @see
+   * ReleaseDiscoveryListener#singleReleaseDiscovered(SingleReleaseDiscoveryEvent)
+   */
+  public boolean getStreamReleases() {
+    return this.streamReleases;
+  }
+
+  /**
+   * Sets whether listeners should be notified of each release
+   * individually rather than of each retrieved page of releases.
+   *
+   * @param streamReleases whether listeners should be notified of
+   * each release individually
+   *
+   * @see #getStreamReleases()
+   */
+  public void setStreamReleases(final boolean streamReleases) {
+    this.streamReleases = streamReleases;
+  }
+
+  /**
+   * Returns the namespaces, in addition to the {@linkplain
+   * #getNamespace() namespace}, from which releases will be listed
+   * and merged.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the additional namespaces from which releases will be
+   * listed, or {@code null}
+   *
+   * @see #setNamespaces(List)
+   *
+   * @see #getNamespaceSelector()
+   */
+  public List<String> getNamespaces() {
+    return this.namespaces;
+  }
+
+  /**
+   * Sets the namespaces, in addition to the {@linkplain
+   * #getNamespace() namespace}, from which releases will be listed
+   * and merged.
+   *
+   * @param namespaces the additional namespaces from which releases
+   * will be listed; may be {@code null}
+   *
+   * @see #getNamespaces()
+   */
+  public void setNamespaces(final List<String> namespaces) {
+    this.namespaces = namespaces;
+  }
+
+  /**
+   * Returns the labels, with their values, that namespaces must have
+   * for releases to be listed from them.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the labels that selected namespaces must have, or {@code
+   * null}
+   *
+   * @see #setNamespaceSelector(Map)
+   *
+   * @see #getNamespaces()
+   */
+  public Map<String, String> getNamespaceSelector() {
+    return this.namespaceSelector;
+  }
+
+  /**
+   * Sets the labels, with their values, that namespaces must have
+   * for releases to be listed from them.
+   *
+   * @param namespaceSelector the labels that selected namespaces
+   * must have; may be {@code null}
+   *
+   * @see #getNamespaceSelector()
+   */
+  public void setNamespaceSelector(final Map<String, String> namespaceSelector) {
+    this.namespaceSelector = namespaceSelector;
+  }
+
+  /**
+   * Returns the maximum number of namespaces whose releases will be
+   * listed at the same time.
+   *
+   * @return the maximum number of namespaces listed concurrently
+   *
+   * @see #setNamespaceConcurrency(int)
+   */
+  public int getNamespaceConcurrency() {
+    return this.namespaceConcurrency;
+  }
+
+  /**
+   * Sets the maximum number of namespaces whose releases will be
+   * listed at the same time.
+   *
+   * @param namespaceConcurrency the maximum number of namespaces
+   * listed concurrently; values less than {@code 1} are treated as
+   * {@code 1}
+   *
+   * @see #getNamespaceConcurrency()
+   */
+  public void setNamespaceConcurrency(final int namespaceConcurrency) {
+    this.namespaceConcurrency = namespaceConcurrency;
+  }
+
+  /**
+   * Returns {@code true} if each release should be reduced to a
+   * {@link ReleaseSummary} before listeners are notified of it.
+   *
+   * <p>If this method returns {@code true}, listeners are notified
+   * of each release individually regardless of the value returned by
+   * the {@link #getStreamReleases()} method.</p>
+   *
+   * @return {@code true} if releases should be summarized
+   *
+   * @see #setSummarizeReleases(boolean)
+   *
+   * @see
+   * ReleaseDiscoveryListener#releaseSummaryDiscovered(ReleaseSummaryEvent)
+   */
+  public boolean getSummarizeReleases() {
+    return this.summarizeReleases;
+  }
+
+  /**
+   * Sets whether each release should be reduced to a {@link
+   * ReleaseSummary} before listeners are notified of it.
+   *
+   * @param summarizeReleases whether releases should be summarized
+   *
+   * @see #getSummarizeReleases()
+   */
+  public void setSummarizeReleases(final boolean summarizeReleases) {
+    this.summarizeReleases = summarizeReleases;
+  }
+
+  /**
+   * Returns {@code true} if listeners should be notified on separate
+   * worker threads.
+   *
+   * @return {@code true} if listeners should be notified
+   * asynchronously
+   *
+   * @see #setAsyncListenerDispatch(boolean)
+   *
+   * @see #getListenerThreads()
+   *
+   * @see #getListenerQueueCapacity()
+   */
+  public boolean getAsyncListenerDispatch() {
+    return this.asyncListenerDispatch;
+  }
+
+  /**
+   * Sets whether listeners should be notified on separate worker
+   * threads.
+   *
+   * @param asyncListenerDispatch whether listeners should be notified
+   * asynchronously
+   *
+   * @see #getAsyncListenerDispatch()
+   */
+  public void setAsyncListenerDispatch(final boolean asyncListenerDispatch) {
+    this.asyncListenerDispatch = asyncListenerDispatch;
+  }
+
+  /**
+   * Returns the maximum number of worker threads on which listeners
+   * will be notified if {@linkplain #getAsyncListenerDispatch()
+   * asynchronous listener dispatch} is enabled.
+   *
+   * @return the maximum number of listener worker threads
+   *
+   * @see #setListenerThreads(int)
+   */
+  public int getListenerThreads() {
+    return this.listenerThreads;
+  }
+
+  /**
+   * Sets the maximum number of worker threads on which listeners
+   * will be notified if {@linkplain #getAsyncListenerDispatch()
+   * asynchronous listener dispatch} is enabled.
+   *
+   * @param listenerThreads the maximum number of listener worker
+   * threads
+   *
+   * @see #getListenerThreads()
+   */
+  public void setListenerThreads(final int listenerThreads) {
+    this.listenerThreads = listenerThreads;
+  }
+
+  /**
+   * Returns the number of notifications that may be pending for each
+   * listener worker thread before retrieval of further releases
+   * waits.
+   *
+   * @return the capacity of each listener worker thread's queue
+   *
+   * @see #setListenerQueueCapacity(int)
+   */
+  public int getListenerQueueCapacity() {
+    return this.listenerQueueCapacity;
+  }
+
+  /**
+   * Sets the number of notifications that may be pending for each
+   * listener worker thread before retrieval of further releases
+   * waits.
+   *
+   * @param listenerQueueCapacity the capacity of each listener worker
+   * thread's queue
+   *
+   * @see #getListenerQueueCapacity()
+   */
+  public void setListenerQueueCapacity(final int listenerQueueCapacity) {
+    this.listenerQueueCapacity = listenerQueueCapacity;
+  }
+
   /**
    * Adds a {@link ReleaseDiscoveryListener} that will be {@linkplain
    * ReleaseDiscoveryListener#releaseDiscovered(ReleaseDiscoveryEvent)
@@ -465,10 +1441,10 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
    *
    * @see #getReleaseDiscoveryListenersList()
    */
-  public void addReleaseDiscoveryListener(final ReleaseDiscoveryListener listener) {
+  public synchronized void addReleaseDiscoveryListener(final ReleaseDiscoveryListener listener) {
     if (listener != null) {
       if (this.releaseDiscoveryListeners == null) {
-        this.releaseDiscoveryListeners = new ArrayList<>();      
+        this.releaseDiscoveryListeners = new CopyOnWriteArrayList<>();      
       }
       this.releaseDiscoveryListeners.add(listener);
     }
@@ -485,7 +1461,7 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
    *
    * @see #getReleaseDiscoveryListenersList()
    */
-  public void removeReleaseDiscoveryListener(final ReleaseDiscoveryListener listener) {
+  public synchronized void removeReleaseDiscoveryListener(final ReleaseDiscoveryListener listener) {
     if (listener != null && this.releaseDiscoveryListeners != null) {
       this.releaseDiscoveryListeners.remove(listener);
     }
@@ -560,4 +1536,252 @@ public class ListReleasesMojo extends AbstractReleaseMojo {
     this.releaseDiscoveryListeners = releaseDiscoveryListeners;
   }
 
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * A position within the sorted releases listed from one namespace,
+   * used to {@linkplain #listNamespaces(Callable,
+   * ListReleasesRequest.Builder, Collection, boolean, boolean,
+   * ListenerDispatcher) merge} the releases listed from several.
+   *
+   * <p>A {@link NamespaceCursor} holds only the page of releases it
+   * is currently delivering.  As soon as a page arrives, the page
+   * that follows it, if any, is requested in the background, so that
+   * at most two pages are held at once.</p>
+   *
+   * <p>{@link NamespaceCursor}s are ordered by their next releases,
+   * and then by the order in which their namespaces were
+   * listed.</p>
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   *
+   * @see #poll(Queue)
+   */
+  static final class NamespaceCursor implements Comparable<NamespaceCursor> {
+
+
+    /*
+     * Instance fields.
+     */
+
+
+    /**
+     * The position of the namespace among those being listed.
+     */
+    private final int index;
+
+    /**
+     * The {@link Comparator} ordering releases.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Comparator<? super ReleaseOrBuilder> comparator;
+
+    /**
+     * The {@link ExecutorService} on which pages are retrieved.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final ExecutorService executorService;
+
+    /**
+     * A {@link Function} returning a {@link Callable} that retrieves
+     * the page beginning at the offset supplied to it.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Function<? super String, ? extends Callable<ListReleasesResponse>> pageTaskFactory;
+
+    /**
+     * The releases of the current page not yet delivered, in order.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Deque<Release> releases;
+
+    /**
+     * The offset at which the most recently requested page begins.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private String offset;
+
+    /**
+     * The page being retrieved in the background, or {@code null} if
+     * every page has been retrieved.
+     */
+    private Future<ListReleasesResponse> nextPage;
+
+    /**
+     * The total number of releases in the namespace, as reported by
+     * Tiller with the first page.
+     */
+    private long total;
+
+    /**
+     * Whether the first page has arrived.
+     */
+    private boolean started;
+
+
+    /*
+     * Constructors.
+     */
+
+
+    /**
+     * Creates a new {@link NamespaceCursor} and requests its first
+     * page.
+     *
+     * @param index the position of the namespace among those being
+     * listed
+     *
+     * @param comparator the {@link Comparator} ordering releases;
+     * must not be {@code null}
+     *
+     * @param executorService the {@link ExecutorService} on which
+     * pages will be retrieved; must not be {@code null}
+     *
+     * @param pageTaskFactory a {@link Function} returning a {@link
+     * Callable} that retrieves the page beginning at the offset
+     * supplied to it; must not be {@code null}
+     *
+     * @param offset the offset at which the first page begins; may
+     * be {@code null} or empty to begin with the first release
+     *
+     * @exception NullPointerException if {@code comparator}, {@code
+     * executorService} or {@code pageTaskFactory} is {@code null}
+     */
+    NamespaceCursor(final int index,
+                    final Comparator<? super ReleaseOrBuilder> comparator,
+                    final ExecutorService executorService,
+                    final Function<? super String, ? extends Callable<ListReleasesResponse>> pageTaskFactory,
+                    final String offset) {
+      super();
+      this.index = index;
+      this.comparator = Objects.requireNonNull(comparator);
+      this.executorService = Objects.requireNonNull(executorService);
+      this.pageTaskFactory = Objects.requireNonNull(pageTaskFactory);
+      this.releases = new ArrayDeque<>();
+      this.offset = offset == null ? "" : offset;
+      this.nextPage = executorService.submit(pageTaskFactory.apply(this.offset));
+    }
+
+
+    /*
+     * Instance methods.
+     */
+
+
+    /**
+     * Ensures that the current page holds at least one undelivered
+     * release, waiting for the next page if necessary, and returns
+     * {@code true} if it does.
+     *
+     * <p>Whenever a page arrives, the page that follows it is
+     * requested in the background unless Tiller reported no
+     * {@linkplain ListReleasesResponse#getNext() next offset} or
+     * reported the offset of the page itself.</p>
+     *
+     * @return {@code true} if this {@link NamespaceCursor} has a
+     * release to deliver; {@code false} if it is exhausted
+     *
+     * @exception Exception if a page could not be retrieved
+     */
+    final boolean fill() throws Exception {
+      while (this.releases.isEmpty() && this.nextPage != null) {
+        final ListReleasesResponse page = getResult(this.nextPage);
+        assert page != null;
+        this.nextPage = null;
+        if (!this.started) {
+          this.started = true;
+          this.total = page.getTotal();
+        }
+        this.releases.addAll(page.getReleasesList());
+        final String next = page.getNext();
+        if (next != null && !next.isEmpty() && !next.equals(this.offset)) {
+          this.offset = next;
+          this.nextPage = this.executorService.submit(this.pageTaskFactory.apply(next));
+        }
+      }
+      return !this.releases.isEmpty();
+    }
+
+    /**
+     * Returns the total number of releases in the namespace, as
+     * reported by Tiller with the first page, or {@code 0} if the
+     * first page has not yet {@linkplain #fill() arrived}.
+     *
+     * @return the total number of releases in the namespace
+     */
+    final long getTotal() {
+      return this.total;
+    }
+
+    /**
+     * Compares this {@link NamespaceCursor} to the supplied one by
+     * their next releases and then by their positions.
+     *
+     * <p>Both {@link NamespaceCursor}s must have been {@linkplain
+     * #fill() filled}.</p>
+     *
+     * @param her the {@link NamespaceCursor} to compare; must not be
+     * {@code null}
+     *
+     * @return a negative number, zero or a positive number if this
+     * {@link NamespaceCursor} is less than, equal to or greater than
+     * the supplied one
+     */
+    @Override
+    public final int compareTo(final NamespaceCursor her) {
+      final int returnValue = this.comparator.compare(this.releases.peekFirst(), her.releases.peekFirst());
+      if (returnValue != 0) {
+        return returnValue;
+      }
+      return Integer.compare(this.index, her.index);
+    }
+
+    /**
+     * Removes and returns the next release in merged order from the
+     * supplied {@link Queue} of {@linkplain #fill() filled} {@link
+     * NamespaceCursor}s, returning the {@link NamespaceCursor} it
+     * came from to the {@link Queue} unless it is exhausted.
+     *
+     * <p>This method may return {@code null}.</p>
+     *
+     * @param cursors a {@link Queue}, ordinarily a {@link
+     * PriorityQueue}, holding {@link NamespaceCursor}s that each have
+     * a release to deliver; must not be {@code null}
+     *
+     * @return the next {@link Release}, or {@code null} if every
+     * {@link NamespaceCursor} is exhausted
+     *
+     * @exception NullPointerException if {@code cursors} is {@code
+     * null}
+     *
+     * @exception Exception if a page could not be retrieved
+     */
+    static final Release poll(final Queue<NamespaceCursor> cursors) throws Exception {
+      final NamespaceCursor cursor = cursors.poll();
+      final Release returnValue;
+      if (cursor == null) {
+        returnValue = null;
+      } else {
+        returnValue = cursor.releases.poll();
+        assert returnValue != null;
+        if (cursor.fill()) {
+          cursors.add(cursor);
+        }
+      }
+      return returnValue;
+    }
+
+  }
+
 }
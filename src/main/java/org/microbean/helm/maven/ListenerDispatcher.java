@@ -0,0 +1,311 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import java.util.function.Consumer;
+
+/**
+ * An {@link AutoCloseable} that delivers notifications to a fixed
+ * set of listeners, either synchronously in the calling thread or
+ * asynchronously on a bounded number of worker threads.
+ *
+ * <p>In asynchronous mode each listener is assigned to exactly one
+ * worker, so every listener receives its notifications in the order
+ * in which they were {@linkplain #dispatch(Consumer) dispatched}.
+ * Each worker has a bounded queue; when it is full, {@link
+ * #dispatch(Consumer)} blocks until there is room, so that a slow
+ * listener applies backpressure to whatever is producing
+ * notifications instead of causing them to accumulate without
+ * limit.</p>
+ *
+ * <p>If a listener throws an exception, no further notifications
+ * are delivered to any listener and the exception is rethrown by the
+ * next call to {@link #dispatch(Consumer)} or by {@link
+ * #close()}.</p>
+ *
+ * @param <L> the type of listener
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ListReleasesMojo#getAsyncListenerDispatch()
+ */
+final class ListenerDispatcher<L> implements AutoCloseable {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * A {@link Runnable} that, when taken from a worker's queue,
+   * causes that worker to stop.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private static final Runnable STOP = () -> {};
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The listeners to notify, in notification order.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final List<L> listeners;
+
+  /**
+   * The {@link ExecutorService} running the workers, or {@code null}
+   * if notifications are delivered synchronously.
+   */
+  private final ExecutorService executorService;
+
+  /**
+   * The queue of each worker, indexed by worker number.
+   *
+   * <p>This field is never {@code null}.  It is empty if
+   * notifications are delivered synchronously.</p>
+   */
+  private final List<BlockingQueue<Runnable>> queues;
+
+  /**
+   * The {@link Future} representing each worker, indexed by worker
+   * number.
+   *
+   * <p>This field is never {@code null}.  It is empty if
+   * notifications are delivered synchronously.</p>
+   */
+  private final List<Future<?>> workers;
+
+  /**
+   * The first {@link RuntimeException} or {@link Error} thrown by a
+   * listener on a worker thread, if any.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final AtomicReference<Throwable> failure;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ListenerDispatcher}.
+   *
+   * @param name a name used to identify worker threads; must not be
+   * {@code null}
+   *
+   * @param listeners the listeners to notify; must not be {@code
+   * null}; {@code null} elements are ignored
+   *
+   * @param threads the maximum number of worker threads to use; if
+   * less than {@code 1}, notifications will be delivered
+   * synchronously in the thread that {@linkplain #dispatch(Consumer)
+   * dispatches} them
+   *
+   * @param queueCapacity the number of notifications each worker
+   * may have pending before {@link #dispatch(Consumer)} blocks; will
+   * be treated as {@code 1} if less than {@code 1}
+   *
+   * @exception NullPointerException if {@code name} or {@code
+   * listeners} is {@code null}
+   */
+  ListenerDispatcher(final String name, final Collection<? extends L> listeners, final int threads, final int queueCapacity) {
+    super();
+    Objects.requireNonNull(name);
+    Objects.requireNonNull(listeners);
+    this.listeners = new ArrayList<>(listeners.size());
+    for (final L listener : listeners) {
+      if (listener != null) {
+        this.listeners.add(listener);
+      }
+    }
+    this.failure = new AtomicReference<>();
+    final int workerCount = Math.min(threads, this.listeners.size());
+    if (workerCount < 1) {
+      this.executorService = null;
+      this.queues = new ArrayList<>(0);
+      this.workers = new ArrayList<>(0);
+    } else {
+      final AtomicInteger threadNumber = new AtomicInteger();
+      this.executorService = Executors.newFixedThreadPool(workerCount, runnable -> {
+          final Thread thread = new Thread(runnable, name + " " + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+      this.queues = new ArrayList<>(workerCount);
+      this.workers = new ArrayList<>(workerCount);
+      for (int i = 0; i < workerCount; i++) {
+        final BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.queues.add(queue);
+        this.workers.add(this.executorService.submit(() -> {
+              this.work(queue);
+              return null;
+            }));
+      }
+    }
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Delivers a notification to every listener by supplying each of
+   * them, in order, to the supplied {@link Consumer}.
+   *
+   * <p>In asynchronous mode this method returns once the
+   * notification has been queued for every listener, blocking while
+   * a worker's queue is full.</p>
+   *
+   * @param notification a {@link Consumer} that notifies the
+   * listener supplied to it; must not be {@code null}; must be safe
+   * to invoke from multiple threads at once
+   *
+   * @exception NullPointerException if {@code notification} is
+   * {@code null}
+   *
+   * @exception InterruptedException if the calling thread was
+   * interrupted while waiting for room in a worker's queue
+   *
+   * @exception RuntimeException if a listener previously threw it
+   *
+   * @exception Error if a listener previously threw it
+   */
+  final void dispatch(final Consumer<? super L> notification) throws InterruptedException {
+    Objects.requireNonNull(notification);
+    this.rethrowFailure();
+    final int size = this.listeners.size();
+    if (this.queues.isEmpty()) {
+      for (int i = 0; i < size; i++) {
+        notification.accept(this.listeners.get(i));
+      }
+    } else {
+      final int workerCount = this.queues.size();
+      for (int i = 0; i < size; i++) {
+        final L listener = this.listeners.get(i);
+        this.queues.get(i % workerCount).put(() -> notification.accept(listener));
+      }
+    }
+  }
+
+  /**
+   * Waits for every notification that has been {@linkplain
+   * #dispatch(Consumer) dispatched} to be delivered, and then stops
+   * all worker threads.
+   *
+   * <p>If the calling thread is interrupted while waiting,
+   * notifications that have not yet been delivered are abandoned,
+   * worker threads are interrupted and the calling thread's interrupt
+   * status is restored before this method returns.</p>
+   *
+   * @exception RuntimeException if a listener threw it
+   *
+   * @exception Error if a listener threw it
+   */
+  @Override
+  public final void close() {
+    if (this.executorService != null) {
+      try {
+        for (final BlockingQueue<Runnable> queue : this.queues) {
+          queue.put(STOP);
+        }
+        for (final Future<?> worker : this.workers) {
+          try {
+            worker.get();
+          } catch (final ExecutionException executionException) {
+            // work() records failures itself; this cannot happen
+            this.failure.compareAndSet(null, executionException.getCause());
+          }
+        }
+      } catch (final InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+      } finally {
+        this.executorService.shutdownNow();
+      }
+    }
+    this.rethrowFailure();
+  }
+
+  /**
+   * Delivers the notifications in the supplied queue, in order,
+   * until {@link #STOP} is taken from it.
+   *
+   * <p>Once any listener has failed, notifications continue to be
+   * taken from the queue but are discarded, so that threads blocked
+   * in {@link #dispatch(Consumer)} are released.</p>
+   *
+   * @param queue the queue to drain; must not be {@code null}
+   *
+   * @exception InterruptedException if the worker was interrupted
+   */
+  private final void work(final BlockingQueue<Runnable> queue) throws InterruptedException {
+    assert queue != null;
+    Runnable task;
+    while ((task = queue.take()) != STOP) {
+      if (this.failure.get() == null) {
+        try {
+          task.run();
+        } catch (final RuntimeException | Error throwable) {
+          this.failure.compareAndSet(null, throwable);
+        }
+      }
+    }
+  }
+
+  /**
+   * Rethrows the first {@link RuntimeException} or {@link Error}
+   * thrown by a listener on a worker thread, if there is one.
+   *
+   * @exception RuntimeException if a listener threw it
+   *
+   * @exception Error if a listener threw it
+   */
+  private final void rethrowFailure() {
+    final Throwable failure = this.failure.get();
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException)failure;
+    } else if (failure instanceof Error) {
+      throw (Error)failure;
+    }
+  }
+
+}
@@ -67,7 +67,7 @@ import org.microbean.helm.chart.TapeArchiveChartWriter;
  *
  * @see #execute()
  */
-@Mojo(name = "package")
+@Mojo(name = "package", threadSafe = true)
 public class PackageMojo extends AbstractHelmMojo implements Disposable {
 
 
@@ -98,11 +98,27 @@ public class PackageMojo extends AbstractHelmMojo implements Disposable {
   @Parameter(required = true, defaultValue = "file:${project.basedir}/src/helm/charts/${project.artifactId}/")
   private String chartContentsUri;
   
+  /**
+   * The {@link AbstractChartLoader} with which to load the chart.  If
+   * omitted, a new {@link URLChartLoader} is created by each
+   * execution.
+   *
+   * <p>This field is read once per execution and may be {@code
+   * null}.</p>
+   */
   @Parameter
-  private AbstractChartLoader<URL> chartLoader;
+  private volatile AbstractChartLoader<URL> chartLoader;
 
+  /**
+   * The {@link AbstractChartWriter} with which to write the chart.  If
+   * omitted, a new {@link TapeArchiveChartWriter} writing to the
+   * chart target URI is created by each execution.
+   *
+   * <p>This field is read once per execution and may be {@code
+   * null}.</p>
+   */
   @Parameter
-  private AbstractChartWriter chartWriter;
+  private volatile AbstractChartWriter chartWriter;
 
   @Parameter
   private URI chartTargetUri;
@@ -0,0 +1,399 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A {@link Closeable} tracker of release operations that were
+ * {@linkplain AbstractReleaseMojo#getAsync() submitted
+ * asynchronously} and that lives for the duration of a {@link
+ * MavenSession}.
+ *
+ * <p>Operations are run in the background as soon as they are
+ * {@linkplain #submit(String, Callable, ReleaseOperationResultHandler)
+ * submitted}.  Their results are {@linkplain
+ * ReleaseOperationResultHandler#handle(Object) handled}, in
+ * submission order, on the thread that {@linkplain #await(Log)
+ * awaits} them.  Any operations still pending when the session ends
+ * are awaited then, before the session's pooled {@link
+ * org.microbean.helm.ReleaseManager}s are closed, and their failures
+ * {@linkplain SessionClosingExecutionListener fail the build}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #getInstance(MavenSession, Log)
+ *
+ * @see AwaitReleaseOperationsMojo
+ */
+final class PendingReleaseOperations implements Closeable {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The {@link PendingReleaseOperations} instances in effect, indexed
+   * by the {@link MavenExecutionRequest} of the {@link MavenSession}
+   * they belong to.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by itself.</p>
+   */
+  private static final Map<MavenExecutionRequest, PendingReleaseOperations> instances = new WeakHashMap<>();
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link ExecutorService} on which operations are run.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final ExecutorService executorService;
+
+  /**
+   * The operations that have been submitted but not yet awaited, in
+   * submission order.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by itself.</p>
+   */
+  private final List<PendingReleaseOperation<?>> pendingOperations;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link PendingReleaseOperations}.
+   */
+  private PendingReleaseOperations() {
+    super();
+    this.pendingOperations = new ArrayList<>();
+    this.executorService = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "helm-maven-plugin asynchronous operation");
+        thread.setDaemon(true);
+        return thread;
+      });
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the {@link PendingReleaseOperations} belonging to the
+   * supplied {@link MavenSession}, creating it and arranging for it
+   * to be {@linkplain #close() closed} when the session ends if
+   * necessary.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Callers that also use a {@link ReleaseManagerPool} must obtain
+   * it first, so that pending operations are awaited before pooled
+   * {@link org.microbean.helm.ReleaseManager}s are closed.</p>
+   *
+   * @param session the {@link MavenSession} in effect; must not be
+   * {@code null}
+   *
+   * @param log a {@link Log} used to report failures when the session
+   * ends; may be {@code null}
+   *
+   * @return a non-{@code null} {@link PendingReleaseOperations}
+   *
+   * @exception NullPointerException if {@code session} is {@code
+   * null}
+   *
+   * @exception IllegalArgumentException if {@code session} has no
+   * {@link MavenExecutionRequest}
+   */
+  static final PendingReleaseOperations getInstance(final MavenSession session, final Log log) {
+    Objects.requireNonNull(session);
+    final MavenExecutionRequest request = session.getRequest();
+    if (request == null) {
+      throw new IllegalArgumentException("session", new IllegalStateException("session.getRequest() == null"));
+    }
+    PendingReleaseOperations returnValue = null;
+    synchronized (instances) {
+      returnValue = instances.get(request);
+      if (returnValue == null) {
+        returnValue = new PendingReleaseOperations();
+        instances.put(request, returnValue);
+        SessionClosingExecutionListener.register(session, returnValue, log);
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the {@link PendingReleaseOperations} belonging to the
+   * supplied {@link MavenSession}, or {@code null} if no operation has
+   * ever been submitted asynchronously during it.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @param session the {@link MavenSession} in effect; must not be
+   * {@code null}
+   *
+   * @return a {@link PendingReleaseOperations}, or {@code null}
+   *
+   * @exception NullPointerException if {@code session} is {@code
+   * null}
+   */
+  static final PendingReleaseOperations get(final MavenSession session) {
+    Objects.requireNonNull(session);
+    final MavenExecutionRequest request = session.getRequest();
+    final PendingReleaseOperations returnValue;
+    if (request == null) {
+      returnValue = null;
+    } else {
+      synchronized (instances) {
+        returnValue = instances.get(request);
+      }
+    }
+    return returnValue;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Runs the supplied operation in the background and arranges for
+   * its result to be supplied to the supplied {@link
+   * ReleaseOperationResultHandler} when it is {@linkplain #await(Log)
+   * awaited}.
+   *
+   * @param <T> the type of the operation's result
+   *
+   * @param description a human-readable description of the
+   * operation, used in log and error messages; must not be {@code
+   * null}
+   *
+   * @param operation the operation to run; must not be {@code null}
+   *
+   * @param resultHandler the {@link ReleaseOperationResultHandler}
+   * that will handle the operation's result; must not be {@code
+   * null}
+   *
+   * @exception NullPointerException if any parameter is {@code null}
+   */
+  final <T> void submit(final String description, final Callable<? extends T> operation, final ReleaseOperationResultHandler<? super T> resultHandler) {
+    Objects.requireNonNull(description);
+    Objects.requireNonNull(operation);
+    Objects.requireNonNull(resultHandler);
+    final Future<? extends T> future = this.executorService.submit(operation);
+    synchronized (this.pendingOperations) {
+      this.pendingOperations.add(new PendingReleaseOperation<T>(description, future, resultHandler));
+    }
+  }
+
+  /**
+   * Waits for every operation submitted so far to complete, handles
+   * the results of those that succeeded and returns the failures of
+   * those that did not.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param log a {@link Log} used to report the outcome of each
+   * operation; may be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of failures, each of
+   * which is a {@link Exception} whose message includes the
+   * description of the operation that failed
+   *
+   * @exception InterruptedException if the current thread was
+   * interrupted while waiting
+   */
+  final List<Exception> await(final Log log) throws InterruptedException {
+    final List<Exception> returnValue = new ArrayList<>();
+    List<PendingReleaseOperation<?>> operations;
+    do {
+      synchronized (this.pendingOperations) {
+        operations = new ArrayList<>(this.pendingOperations);
+        this.pendingOperations.clear();
+      }
+      for (final PendingReleaseOperation<?> operation : operations) {
+        try {
+          operation.complete();
+          if (log != null && log.isDebugEnabled()) {
+            log.debug(operation.description + ": completed");
+          }
+        } catch (final InterruptedException interruptedException) {
+          synchronized (this.pendingOperations) {
+            this.pendingOperations.addAll(0, operations.subList(operations.indexOf(operation), operations.size()));
+          }
+          throw interruptedException;
+        } catch (final Exception exception) {
+          if (log != null && log.isErrorEnabled()) {
+            log.error(operation.description + ": failed: " + exception.getMessage());
+          }
+          returnValue.add(new Exception(operation.description + ": " + exception.getMessage(), exception));
+        }
+      }
+    } while (!operations.isEmpty());
+    return returnValue;
+  }
+
+  /**
+   * {@linkplain #await(Log) Awaits} any operations that are still
+   * pending and releases this {@link PendingReleaseOperations}'s
+   * resources.
+   *
+   * @exception IOException if any pending operation failed; each
+   * failure is {@linkplain Throwable#getSuppressed() suppressed} by
+   * it
+   */
+  @Override
+  public final void close() throws IOException {
+    try {
+      final List<Exception> failures = this.await(null);
+      if (!failures.isEmpty()) {
+        final IOException throwMe = new IOException(failures.size() + " asynchronous Helm operation(s) failed");
+        for (final Exception failure : failures) {
+          throwMe.addSuppressed(failure);
+        }
+        throw throwMe;
+      }
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+    } finally {
+      this.executorService.shutdownNow();
+    }
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * A submitted operation together with the {@link
+   * ReleaseOperationResultHandler} that will handle its result.
+   *
+   * @param <T> the type of the operation's result
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   */
+  private static final class PendingReleaseOperation<T> {
+
+    /**
+     * A human-readable description of the operation.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final String description;
+
+    /**
+     * The {@link Future} representing the operation.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Future<? extends T> future;
+
+    /**
+     * The {@link ReleaseOperationResultHandler} that will handle the
+     * operation's result.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final ReleaseOperationResultHandler<? super T> resultHandler;
+
+    /**
+     * Creates a new {@link PendingReleaseOperation}.
+     *
+     * @param description a human-readable description of the
+     * operation; must not be {@code null}
+     *
+     * @param future the {@link Future} representing the operation;
+     * must not be {@code null}
+     *
+     * @param resultHandler the {@link ReleaseOperationResultHandler}
+     * that will handle the operation's result; must not be {@code
+     * null}
+     */
+    private PendingReleaseOperation(final String description, final Future<? extends T> future, final ReleaseOperationResultHandler<? super T> resultHandler) {
+      super();
+      this.description = Objects.requireNonNull(description);
+      this.future = Objects.requireNonNull(future);
+      this.resultHandler = Objects.requireNonNull(resultHandler);
+    }
+
+    /**
+     * Waits for the operation to complete and handles its result.
+     *
+     * @exception InterruptedException if the current thread was
+     * interrupted while waiting
+     *
+     * @exception Exception if the operation or the handling of its
+     * result failed
+     */
+    private final void complete() throws Exception {
+      final T result;
+      try {
+        result = this.future.get();
+      } catch (final ExecutionException executionException) {
+        final Throwable cause = executionException.getCause();
+        if (cause instanceof Exception) {
+          throw (Exception)cause;
+        } else if (cause instanceof Error) {
+          throw (Error)cause;
+        } else {
+          throw executionException;
+        }
+      }
+      this.resultHandler.handle(result);
+    }
+
+  }
+
+}
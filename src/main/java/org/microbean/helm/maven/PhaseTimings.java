@@ -0,0 +1,237 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A record of how long each named phase of a mojo execution took.
+ *
+ * <p>Phases are reported in the order in which they were first
+ * {@linkplain #record(String, long) recorded}.  Recording the same
+ * phase more than once accumulates its duration.</p>
+ *
+ * <p>Instances of this class are safe for use by multiple
+ * threads.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see AbstractReleaseMojo#getReportTimings()
+ */
+final class PhaseTimings {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The durations, in nanoseconds, of each phase, indexed by phase
+   * name, in order of first recording.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by {@code this}.</p>
+   */
+  private final Map<String, Long> nanos;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link PhaseTimings}.
+   */
+  PhaseTimings() {
+    super();
+    this.nanos = new LinkedHashMap<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Records that the phase with the supplied name began at the
+   * supplied {@linkplain System#nanoTime() nanosecond time} and has
+   * just ended.
+   *
+   * @param phase the name of the phase; must not be {@code null}
+   *
+   * @param startNanos the value of {@link System#nanoTime()} when
+   * the phase began
+   *
+   * @exception NullPointerException if {@code phase} is {@code null}
+   */
+  final void record(final String phase, final long startNanos) {
+    Objects.requireNonNull(phase);
+    final long elapsed = System.nanoTime() - startNanos;
+    synchronized (this) {
+      this.nanos.merge(phase, Long.valueOf(elapsed), Long::sum);
+    }
+  }
+
+  /**
+   * Returns {@code true} if no phases have been recorded.
+   *
+   * @return {@code true} if no phases have been recorded; {@code
+   * false} otherwise
+   */
+  final synchronized boolean isEmpty() {
+    return this.nanos.isEmpty();
+  }
+
+  /**
+   * Returns a single-line, human-readable summary of the recorded
+   * phases, e.g. {@code client=12 ms, discovery=40 ms}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} summary
+   */
+  final synchronized String toSummary() {
+    final StringBuilder sb = new StringBuilder();
+    for (final Map.Entry<String, Long> entry : this.nanos.entrySet()) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append(entry.getKey()).append('=').append(TimeUnit.NANOSECONDS.toMillis(entry.getValue().longValue())).append(" ms");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Writes the recorded phases as a JSON object to the file
+   * identified by the supplied {@link Path}, creating its parent
+   * directories if necessary.
+   *
+   * <p>The object has a {@code goal} member, an {@code executionId}
+   * member and a {@code phases} member whose value is an object
+   * mapping each phase name to its duration in milliseconds.</p>
+   *
+   * @param path the {@link Path} of the file to write; must not be
+   * {@code null}
+   *
+   * @param goal the goal whose execution was timed; may be {@code
+   * null}
+   *
+   * @param executionId the identifier of the execution that was
+   * timed; may be {@code null}
+   *
+   * @exception NullPointerException if {@code path} is {@code null}
+   *
+   * @exception IOException if the file could not be written
+   */
+  final void write(final Path path, final String goal, final String executionId) throws IOException {
+    Objects.requireNonNull(path);
+    final Path parent = path.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    final StringBuilder sb = new StringBuilder("{\n  \"goal\": ");
+    appendJsonString(sb, goal);
+    sb.append(",\n  \"executionId\": ");
+    appendJsonString(sb, executionId);
+    sb.append(",\n  \"phases\": {");
+    synchronized (this) {
+      boolean first = true;
+      for (final Map.Entry<String, Long> entry : this.nanos.entrySet()) {
+        sb.append(first ? "\n    " : ",\n    ");
+        first = false;
+        appendJsonString(sb, entry.getKey());
+        sb.append(": ").append(TimeUnit.NANOSECONDS.toMillis(entry.getValue().longValue()));
+      }
+    }
+    sb.append("\n  }\n}\n");
+    try (final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      writer.write(sb.toString());
+    }
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Appends the supplied {@link String} to the supplied {@link
+   * StringBuilder} as a JSON string literal, or {@code null} if it is
+   * {@code null}.
+   *
+   * @param sb the {@link StringBuilder} to append to; must not be
+   * {@code null}
+   *
+   * @param s the {@link String} to append; may be {@code null}
+   */
+  private static final void appendJsonString(final StringBuilder sb, final String s) {
+    assert sb != null;
+    if (s == null) {
+      sb.append("null");
+    } else {
+      sb.append('"');
+      final int length = s.length();
+      for (int i = 0; i < length; i++) {
+        final char c = s.charAt(i);
+        switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        case '\r':
+          sb.append("\\r");
+          break;
+        case '\t':
+          sb.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            sb.append(String.format("\\u%04x", Integer.valueOf(c)));
+          } else {
+            sb.append(c);
+          }
+          break;
+        }
+      }
+      sb.append('"');
+    }
+  }
+
+}
@@ -0,0 +1,363 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.net.URI;
+import java.net.URL;
+
+import java.util.List;
+
+/**
+ * A description of a single <a
+ * href="https://docs.helm.sh/glossary/#release">Helm release</a>
+ * to be worked with by an {@link AbstractBatchReleaseMojo}.
+ *
+ * <p>Instances of this class are typically configured by Maven from
+ * the nested elements of a {@code <releases>} element.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see AbstractBatchReleaseMojo#getReleases()
+ */
+public class ReleaseDefinition {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * A {@link URL} representing the chart from which the release is
+   * to be created.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * @see #getChartUrl()
+   *
+   * @see #setChartUrl(URL)
+   */
+  private URL chartUrl;
+
+  /**
+   * The name of the release.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * @see #getReleaseName()
+   *
+   * @see #setReleaseName(String)
+   */
+  private String releaseName;
+
+  /**
+   * The <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * into which the release will be installed.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * @see #getReleaseNamespace()
+   *
+   * @see #setReleaseNamespace(String)
+   */
+  private String releaseNamespace;
+
+  /**
+   * Whether to reuse the release name for repeated installations.
+   *
+   * @see #getReuseReleaseName()
+   *
+   * @see #setReuseReleaseName(boolean)
+   */
+  private boolean reuseReleaseName;
+
+  /**
+   * YAML-formatted values to supply when working with the release.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * @see #getValuesYaml()
+   *
+   * @see #setValuesYaml(String)
+   */
+  private String valuesYaml;
+
+  /**
+   * A URI identifying a document containing YAML-formatted values to
+   * supply when working with the release.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * @see #getValuesYamlUri()
+   *
+   * @see #setValuesYamlUri(URI)
+   */
+  private URI valuesYamlUri;
+
+  /**
+   * The names of the releases that must be deployed and ready before
+   * this release is deployed.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * @see #getDependsOn()
+   *
+   * @see #setDependsOn(List)
+   */
+  private List<String> dependsOn;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ReleaseDefinition}.
+   */
+  public ReleaseDefinition() {
+    super();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns a {@link URL} identifying the Helm chart from which the
+   * release is to be created.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link URL} to a Helm chart, or {@code null}
+   *
+   * @see #setChartUrl(URL)
+   */
+  public URL getChartUrl() {
+    return this.chartUrl;
+  }
+
+  /**
+   * Sets the {@link URL} identifying the Helm chart from which the
+   * release is to be created.
+   *
+   * @param chartUrl the {@link URL} identifying a Helm chart; may be
+   * {@code null}
+   *
+   * @see #getChartUrl()
+   */
+  public void setChartUrl(final URL chartUrl) {
+    this.chartUrl = chartUrl;
+  }
+
+  /**
+   * Returns the name of the release.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the name of the release, or {@code null}
+   *
+   * @see #setReleaseName(String)
+   */
+  public String getReleaseName() {
+    return this.releaseName;
+  }
+
+  /**
+   * Sets the name of the release.
+   *
+   * @param releaseName the name of the release; may be {@code null}
+   *
+   * @see #getReleaseName()
+   */
+  public void setReleaseName(final String releaseName) {
+    this.releaseName = releaseName;
+  }
+
+  /**
+   * Returns the <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * into which the release will be installed.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the namespace into which the release will be installed,
+   * or {@code null}
+   *
+   * @see #setReleaseNamespace(String)
+   */
+  public String getReleaseNamespace() {
+    return this.releaseNamespace;
+  }
+
+  /**
+   * Sets the <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * into which the release will be installed.
+   *
+   * @param releaseNamespace the namespace into which the release
+   * will be installed; may be {@code null}
+   *
+   * @see #getReleaseNamespace()
+   */
+  public void setReleaseNamespace(final String releaseNamespace) {
+    this.releaseNamespace = releaseNamespace;
+  }
+
+  /**
+   * Returns {@code true} if the {@linkplain #getReleaseName() release
+   * name} should be reused across installations.
+   *
+   * @return {@code true} if the release name should be reused across
+   * installations; {@code false} otherwise
+   *
+   * @see #setReuseReleaseName(boolean)
+   */
+  public boolean getReuseReleaseName() {
+    return this.reuseReleaseName;
+  }
+
+  /**
+   * Sets whether the {@linkplain #getReleaseName() release name}
+   * should be reused across installations.
+   *
+   * @param reuseReleaseName whether the release name should be
+   * reused across installations
+   *
+   * @see #getReuseReleaseName()
+   */
+  public void setReuseReleaseName(final boolean reuseReleaseName) {
+    this.reuseReleaseName = reuseReleaseName;
+  }
+
+  /**
+   * Returns a YAML {@link String} representing the values to use to
+   * customize the release.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a YAML {@link String}, or {@code null}
+   *
+   * @see #setValuesYaml(String)
+   */
+  public String getValuesYaml() {
+    return this.valuesYaml;
+  }
+
+  /**
+   * Sets the YAML {@link String} representing the values to use to
+   * customize the release.
+   *
+   * <p>If both this property and the {@linkplain #getValuesYamlUri()
+   * <code>valuesYamlUri</code> property} are set, this property is
+   * preferred if its value is non-{@code null} and non-empty.</p>
+   *
+   * @param valuesYaml a YAML {@link String}; may be {@code null}
+   *
+   * @see #getValuesYaml()
+   */
+  public void setValuesYaml(final String valuesYaml) {
+    this.valuesYaml = valuesYaml;
+  }
+
+  /**
+   * Returns a {@link URI} identifying a YAML document containing the
+   * values to use to customize the release.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link URI}, or {@code null}
+   *
+   * @see #setValuesYamlUri(URI)
+   */
+  public URI getValuesYamlUri() {
+    return this.valuesYamlUri;
+  }
+
+  /**
+   * Sets the {@link URI} identifying a YAML document containing the
+   * values to use to customize the release.
+   *
+   * @param valuesYamlUri a {@link URI}; may be {@code null}
+   *
+   * @see #getValuesYamlUri()
+   */
+  public void setValuesYamlUri(final URI valuesYamlUri) {
+    this.valuesYamlUri = valuesYamlUri;
+  }
+
+  /**
+   * Returns the names of the releases that must be deployed and ready
+   * before this release is deployed.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link List} of release names, or {@code null}
+   *
+   * @see #setDependsOn(List)
+   *
+   * @see DeployReleasesMojo
+   */
+  public List<String> getDependsOn() {
+    return this.dependsOn;
+  }
+
+  /**
+   * Sets the names of the releases that must be deployed and ready
+   * before this release is deployed.
+   *
+   * @param dependsOn a {@link List} of release names; may be {@code
+   * null}
+   *
+   * @see #getDependsOn()
+   *
+   * @see DeployReleasesMojo
+   */
+  public void setDependsOn(final List<String> dependsOn) {
+    this.dependsOn = dependsOn;
+  }
+
+  /**
+   * Returns a {@link String} representation of this {@link
+   * ReleaseDefinition}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link String} representation of this
+   * {@link ReleaseDefinition}
+   */
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    final String releaseName = this.getReleaseName();
+    if (releaseName == null || releaseName.isEmpty()) {
+      sb.append("<generated>");
+    } else {
+      sb.append(releaseName);
+    }
+    final URL chartUrl = this.getChartUrl();
+    if (chartUrl != null) {
+      sb.append(" (").append(chartUrl).append(')');
+    }
+    return sb.toString();
+  }
+
+}
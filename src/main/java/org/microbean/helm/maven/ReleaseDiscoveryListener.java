@@ -18,6 +18,11 @@ package org.microbean.helm.maven;
 
 import java.util.EventListener;
 
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.ReleaseOuterClass.ReleaseOrBuilder;
+
+import hapi.services.tiller.Tiller.ListReleasesResponse;
+
 /**
  * An {@link EventListener} that is notified when a <a
  * href="https://docs.helm.sh/glossary/#release">Helm release</a> has
@@ -45,5 +50,73 @@ public interface ReleaseDiscoveryListener extends EventListener {
    * @see ListReleasesMojo
    */
   public void releaseDiscovered(final ReleaseDiscoveryEvent event);
+
+  /**
+   * Called when a single <a
+   * href="https://docs.helm.sh/glossary/#release">Helm release</a>
+   * has been {@linkplain ListReleasesMojo retrieved} and {@linkplain
+   * ListReleasesMojo#getStreamReleases() release streaming} is
+   * enabled.
+   *
+   * <p>The default implementation wraps the release in a {@link
+   * ListReleasesResponse} containing only that release and passes it
+   * to the {@link #releaseDiscovered(ReleaseDiscoveryEvent)} method,
+   * so that existing listeners continue to work.  Implementations
+   * that process releases individually should override this
+   * method.</p>
+   *
+   * @param event the {@link SingleReleaseDiscoveryEvent} describing
+   * the release discovery; may be {@code null} in which case no
+   * action will be taken
+   *
+   * @see SingleReleaseDiscoveryEvent
+   *
+   * @see ListReleasesMojo#getStreamReleases()
+   */
+  public default void singleReleaseDiscovered(final SingleReleaseDiscoveryEvent event) {
+    if (event != null) {
+      final ReleaseOrBuilder releaseOrBuilder = event.getReleaseOrBuilder();
+      final Release release;
+      if (releaseOrBuilder instanceof Release) {
+        release = (Release)releaseOrBuilder;
+      } else {
+        release = ((Release.Builder)releaseOrBuilder).build();
+      }
+      final ListReleasesResponse response = ListReleasesResponse.newBuilder()
+        .setCount(1L)
+        .setTotal(event.getTotal())
+        .addReleases(release)
+        .build();
+      this.releaseDiscovered(new ReleaseDiscoveryEvent(event.getSource(), response));
+    }
+  }
+
+  /**
+   * Called when a single <a
+   * href="https://docs.helm.sh/glossary/#release">Helm release</a>
+   * has been {@linkplain ListReleasesMojo retrieved} and {@linkplain
+   * ListReleasesMojo#getSummarizeReleases() summarized}.
+   *
+   * <p>The default implementation passes a {@linkplain
+   * ReleaseSummary#toRelease() skeletal <code>Release</code>} built
+   * from the summary to the {@link
+   * #singleReleaseDiscovered(SingleReleaseDiscoveryEvent)} method, so
+   * that existing listeners continue to work.  Implementations that
+   * process {@link ReleaseSummary} instances should override this
+   * method.</p>
+   *
+   * @param event the {@link ReleaseSummaryEvent} describing the
+   * release discovery; may be {@code null} in which case no action
+   * will be taken
+   *
+   * @see ReleaseSummaryEvent
+   *
+   * @see ListReleasesMojo#getSummarizeReleases()
+   */
+  public default void releaseSummaryDiscovered(final ReleaseSummaryEvent event) {
+    if (event != null) {
+      this.singleReleaseDiscovered(new SingleReleaseDiscoveryEvent(event.getSource(), event.getReleaseSummary().toRelease(), event.getTotal()));
+    }
+  }
   
 }
@@ -0,0 +1,141 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * An in-memory record of which releases are known to exist, indexed
+ * by the {@link ReleaseManager} through which that was learned, so
+ * that the {@link UpsertReleaseMojo} can choose whether to try an
+ * update or an installation first.
+ *
+ * <p>Because {@linkplain AbstractReleaseMojo#getPoolReleaseManagers()
+ * pooled} {@link ReleaseManager}s are shared by every execution in a
+ * Maven session that talks to the same Tiller server, and are closed
+ * when the session ends, entries naturally apply to one Tiller
+ * server and last no longer than the session.  Entries are only
+ * hints: releases may be installed or deleted outside the build, so
+ * callers must still cope with a wrong guess.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see UpsertReleaseMojo
+ */
+final class ReleaseExistenceCache {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * Whether releases are known to exist, indexed by the {@link
+   * ReleaseManager} through which that was learned and then by
+   * release name.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by itself.</p>
+   */
+  private static final Map<ReleaseManager, Map<String, Boolean>> existence = new WeakHashMap<>();
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ReleaseExistenceCache}.
+   */
+  private ReleaseExistenceCache() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns {@link Boolean#TRUE} if the named release is known to
+   * exist, {@link Boolean#FALSE} if it is known not to exist or to
+   * have been deleted, and {@code null} if nothing is known about
+   * it.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @param releaseManager the {@link ReleaseManager} through which
+   * the release would be reached; must not be {@code null}
+   *
+   * @param releaseName the name of the release; may be {@code null}
+   * in which case {@code null} is returned
+   *
+   * @return whether the release is known to exist, or {@code null}
+   *
+   * @exception NullPointerException if {@code releaseManager} is
+   * {@code null}
+   */
+  static final Boolean get(final ReleaseManager releaseManager, final String releaseName) {
+    Objects.requireNonNull(releaseManager);
+    Boolean returnValue = null;
+    if (releaseName != null) {
+      synchronized (existence) {
+        final Map<String, Boolean> releases = existence.get(releaseManager);
+        if (releases != null) {
+          returnValue = releases.get(releaseName);
+        }
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Records whether the named release exists.
+   *
+   * @param releaseManager the {@link ReleaseManager} through which
+   * that was learned; must not be {@code null}
+   *
+   * @param releaseName the name of the release; may be {@code null}
+   * in which case no action is taken
+   *
+   * @param exists whether the release exists; a release that has
+   * been deleted but not purged does not exist for the purposes of
+   * this class
+   *
+   * @exception NullPointerException if {@code releaseManager} is
+   * {@code null}
+   */
+  static final void put(final ReleaseManager releaseManager, final String releaseName, final boolean exists) {
+    Objects.requireNonNull(releaseManager);
+    if (releaseName != null && !releaseName.isEmpty()) {
+      synchronized (existence) {
+        existence.computeIfAbsent(releaseManager, rm -> new HashMap<>()).put(releaseName, Boolean.valueOf(exists));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,54 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * An operation that uses a {@link ReleaseManager} to produce a
+ * result.
+ *
+ * <p>Operations passed to the {@link
+ * AbstractReleaseMojo#executeWithRetries(java.util.concurrent.Callable,
+ * ReleaseManagerOperation)} method may be invoked more than once, so
+ * they should be idempotent.</p>
+ *
+ * @param <T> the type of the result
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see AbstractReleaseMojo#executeWithRetries(java.util.concurrent.Callable,
+ * ReleaseManagerOperation)
+ */
+@FunctionalInterface
+public interface ReleaseManagerOperation<T> {
+
+  /**
+   * Performs this operation using the supplied {@link
+   * ReleaseManager} and returns its result.
+   *
+   * @param releaseManager the {@link ReleaseManager} to use; must not
+   * be {@code null}
+   *
+   * @return the result of the operation; may be {@code null}
+   *
+   * @exception Exception if an error occurs
+   */
+  public T execute(final ReleaseManager releaseManager) throws Exception;
+  
+}
@@ -0,0 +1,484 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import io.fabric8.kubernetes.client.Config;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * A {@link Closeable} pool of {@link ReleaseManager}s that lives for
+ * the duration of a {@link MavenSession} and that hands out the same
+ * {@link ReleaseManager} to every {@link AbstractReleaseMojo} that
+ * asks for one using an equal {@link Key}.
+ *
+ * <p>All pooled {@link ReleaseManager}s, including those that have
+ * been {@linkplain #evict(Key, ReleaseManager) evicted}, are
+ * {@linkplain ReleaseManager#close() closed} exactly once, when the
+ * session ends.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #getInstance(MavenSession, Log)
+ *
+ * @see SessionClosingExecutionListener
+ */
+final class ReleaseManagerPool implements Closeable {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The {@link ReleaseManagerPool} instances in effect, indexed by
+   * the {@link MavenExecutionRequest} of the {@link MavenSession}
+   * they belong to.
+   *
+   * <p>The request is used as the key, rather than the session,
+   * because Maven clones the session for each project in a parallel
+   * build, while the request is shared.</p>
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private static final Map<MavenExecutionRequest, ReleaseManagerPool> instances = new WeakHashMap<>();
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link FutureTask}s producing pooled {@link
+   * ReleaseManager}s, indexed by {@link Key}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Map<Key, FutureTask<ReleaseManager>> releaseManagers;
+
+  /**
+   * {@link ReleaseManager}s that have been {@linkplain #evict(Key,
+   * ReleaseManager) evicted} but that may still be in use, and that
+   * will be {@linkplain ReleaseManager#close() closed} when this
+   * {@link ReleaseManagerPool} is {@linkplain #close() closed}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Collection<ReleaseManager> evictedReleaseManagers;
+
+  /**
+   * Whether this {@link ReleaseManagerPool} has been {@linkplain
+   * #close() closed}.
+   */
+  private volatile boolean closed;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ReleaseManagerPool}.
+   */
+  private ReleaseManagerPool() {
+    super();
+    this.releaseManagers = new ConcurrentHashMap<>();
+    this.evictedReleaseManagers = new ConcurrentLinkedQueue<>();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the {@link ReleaseManagerPool} associated with the
+   * supplied {@link MavenSession}, creating it and {@linkplain
+   * SessionClosingExecutionListener#register(MavenSession, Closeable,
+   * Log) arranging for it to be closed} when the session ends if
+   * necessary.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param session the {@link MavenSession} in effect; must not be
+   * {@code null}
+   *
+   * @param log a {@link Log} used to report problems encountered
+   * while closing; may be {@code null}
+   *
+   * @return a non-{@code null} {@link ReleaseManagerPool}
+   *
+   * @exception NullPointerException if {@code session} is {@code
+   * null}
+   */
+  static final ReleaseManagerPool getInstance(final MavenSession session, final Log log) {
+    Objects.requireNonNull(session);
+    final MavenExecutionRequest request = session.getRequest();
+    if (request == null) {
+      throw new IllegalArgumentException("session", new IllegalStateException("session.getRequest() == null"));
+    }
+    ReleaseManagerPool returnValue = null;
+    synchronized (instances) {
+      returnValue = instances.get(request);
+      if (returnValue == null) {
+        returnValue = new ReleaseManagerPool();
+        instances.put(request, returnValue);
+        SessionClosingExecutionListener.register(session, returnValue, log);
+      }
+    }
+    return returnValue;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the {@link ReleaseManager} pooled under the supplied
+   * {@link Key}, using the supplied {@link Callable} to create it if
+   * necessary.
+   *
+   * <p>Concurrent callers supplying equal {@link Key}s will wait for
+   * a single invocation of a {@link Callable} to complete.  If that
+   * invocation fails, the failure is not cached and a subsequent call
+   * will try again.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param key the {@link Key} identifying the {@link ReleaseManager};
+   * must not be {@code null}
+   *
+   * @param factory a {@link Callable} that will create a new {@link
+   * ReleaseManager} if necessary; must not be {@code null} and must
+   * not return {@code null}
+   *
+   * @return a non-{@code null} {@link ReleaseManager}
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   *
+   * @exception IllegalStateException if this {@link
+   * ReleaseManagerPool} has been {@linkplain #close() closed}
+   *
+   * @exception IOException if the {@link ReleaseManager} could not be
+   * created
+   */
+  final ReleaseManager get(final Key key, final Callable<? extends ReleaseManager> factory) throws IOException {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(factory);
+    if (this.closed) {
+      throw new IllegalStateException("closed");
+    }
+    final FutureTask<ReleaseManager> newTask = new FutureTask<>(factory::call);
+    FutureTask<ReleaseManager> task = this.releaseManagers.putIfAbsent(key, newTask);
+    if (task == null) {
+      task = newTask;
+      task.run();
+    }
+    try {
+      final ReleaseManager returnValue = task.get();
+      if (returnValue == null) {
+        throw new IllegalStateException("factory.call() == null");
+      }
+      return returnValue;
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      final InterruptedIOException throwMe = new InterruptedIOException(interruptedException.getMessage());
+      throwMe.initCause(interruptedException);
+      throw throwMe;
+    } catch (final ExecutionException executionException) {
+      this.releaseManagers.remove(key, task);
+      final Throwable cause = executionException.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException)cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      } else if (cause instanceof Error) {
+        throw (Error)cause;
+      } else {
+        throw new IOException(cause == null ? executionException.getMessage() : cause.getMessage(), cause);
+      }
+    }
+  }
+
+  /**
+   * Removes the supplied {@link ReleaseManager} from this {@link
+   * ReleaseManagerPool} if it is the one pooled under the supplied
+   * {@link Key}, so that the next call to the {@link #get(Key,
+   * Callable)} method with an equal {@link Key} creates a new one.
+   *
+   * <p>The supplied {@link ReleaseManager} is not {@linkplain
+   * ReleaseManager#close() closed}, because other mojo executions,
+   * asynchronous operations or cluster workers that acquired it
+   * earlier may still be using it.  It is closed, along with every
+   * other {@link ReleaseManager} this pool has handed out, when this
+   * pool is {@linkplain #close() closed}.  Callers must not close it
+   * themselves.</p>
+   *
+   * @param key the {@link Key} under which the {@link
+   * ReleaseManager} was pooled; must not be {@code null}
+   *
+   * @param releaseManager the {@link ReleaseManager} to remove, which
+   * is typically one whose connection has failed; must not be {@code
+   * null}
+   *
+   * @return {@code true} if the {@link ReleaseManager} was removed;
+   * {@code false} if it was not pooled under the supplied {@link
+   * Key}, perhaps because another caller already removed it
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  final boolean evict(final Key key, final ReleaseManager releaseManager) {
+    Objects.requireNonNull(key);
+    Objects.requireNonNull(releaseManager);
+    boolean returnValue = false;
+    final FutureTask<ReleaseManager> task = this.releaseManagers.get(key);
+    if (task != null && task.isDone() && !task.isCancelled()) {
+      try {
+        if (task.get() == releaseManager) {
+          returnValue = this.releaseManagers.remove(key, task);
+          if (returnValue) {
+            this.evictedReleaseManagers.add(releaseManager);
+          }
+        }
+      } catch (final InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+      } catch (final ExecutionException failedTask) {
+        // The task did not produce the supplied ReleaseManager.
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * {@linkplain ReleaseManager#close() Closes} every {@link
+   * ReleaseManager} that this {@link ReleaseManagerPool} has handed
+   * out, including those that have been {@linkplain #evict(Key,
+   * ReleaseManager) evicted}.
+   *
+   * <p>This method is idempotent.</p>
+   *
+   * @exception IOException if at least one {@link ReleaseManager}
+   * could not be closed; subsequent failures are {@linkplain
+   * Throwable#addSuppressed(Throwable) suppressed}
+   */
+  @Override
+  public final void close() throws IOException {
+    this.closed = true;
+    final Collection<FutureTask<ReleaseManager>> tasks = new ArrayList<>(this.releaseManagers.values());
+    this.releaseManagers.clear();
+    final Collection<ReleaseManager> releaseManagers = new ArrayList<>(this.evictedReleaseManagers);
+    this.evictedReleaseManagers.clear();
+    for (final FutureTask<ReleaseManager> task : tasks) {
+      if (task != null && task.isDone() && !task.isCancelled()) {
+        ReleaseManager releaseManager = null;
+        try {
+          releaseManager = task.get();
+        } catch (final InterruptedException | ExecutionException nothingToClose) {
+          if (nothingToClose instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+          }
+          releaseManager = null;
+        }
+        if (releaseManager != null) {
+          releaseManagers.add(releaseManager);
+        }
+      }
+    }
+    IOException ioException = null;
+    for (final ReleaseManager releaseManager : releaseManagers) {
+      try {
+        releaseManager.close();
+      } catch (final IOException closeFailure) {
+        if (ioException == null) {
+          ioException = closeFailure;
+        } else {
+          ioException.addSuppressed(closeFailure);
+        }
+      }
+    }
+    if (ioException != null) {
+      throw ioException;
+    }
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * An immutable value object identifying the Tiller server, and the
+   * means of reaching it, that a pooled {@link ReleaseManager} talks
+   * to.
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   */
+  static final class Key {
+
+
+    /*
+     * Instance fields.
+     */
+
+
+    /**
+     * The values that together make up this {@link Key}.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final List<Object> values;
+
+
+    /*
+     * Constructors.
+     */
+
+
+    /**
+     * Creates a new {@link Key}.
+     *
+     * @param config the {@link Config} describing how to connect to
+     * a Kubernetes cluster; may be {@code null} in which case it is
+     * understood that the {@link Config} will be determined
+     * automatically
+     *
+     * @param tillerHost the host at which Tiller may be reached
+     * directly; may be {@code null} in which case it is understood
+     * that Tiller will be found by way of the Kubernetes API
+     *
+     * @param tillerNamespace the namespace in which Tiller may be
+     * found; may be {@code null}
+     *
+     * @param tillerPort the port on which Tiller may be reached
+     *
+     * @param tillerLabels the labels Tiller pods bear; may be {@code
+     * null}
+     *
+     * @param tillerTunnelDaemon whether Tiller is reached through a
+     * {@linkplain TillerTunnelDaemon tunnel daemon} shared across
+     * Maven invocations
+     *
+     * @param tillerPodCacheTtl the number of seconds for which a
+     * discovered Tiller pod name may be {@linkplain TillerPodCache
+     * cached}
+     *
+     * @param channelSettings an {@link Object} describing the settings
+     * of the gRPC channel used to talk to Tiller; must implement
+     * {@link Object#equals(Object)} and {@link Object#hashCode()}
+     * appropriately; may be {@code null}
+     */
+    Key(final Config config,
+        final String tillerHost,
+        final String tillerNamespace,
+        final int tillerPort,
+        final Map<String, String> tillerLabels,
+        final boolean tillerTunnelDaemon,
+        final long tillerPodCacheTtl,
+        final Object channelSettings) {
+      super();
+      final List<Object> values = new ArrayList<>();
+      if (config == null) {
+        values.add(null);
+      } else {
+        values.add(Arrays.asList(config.getMasterUrl(),
+                                 config.getUsername(),
+                                 config.getPassword(),
+                                 config.getOauthToken(),
+                                 config.getCaCertFile(),
+                                 config.getCaCertData(),
+                                 config.getClientCertFile(),
+                                 config.getClientCertData(),
+                                 config.getClientKeyFile(),
+                                 config.getClientKeyData(),
+                                 config.getClientKeyPassphrase(),
+                                 Boolean.valueOf(config.isTrustCerts())));
+      }
+      values.add(tillerHost);
+      values.add(tillerNamespace);
+      values.add(Integer.valueOf(tillerPort));
+      if (tillerLabels == null || tillerLabels.isEmpty()) {
+        values.add(null);
+      } else {
+        values.add(Collections.unmodifiableMap(new TreeMap<>(tillerLabels)));
+      }
+      values.add(Boolean.valueOf(tillerTunnelDaemon));
+      values.add(Long.valueOf(tillerPodCacheTtl));
+      values.add(channelSettings);
+      this.values = Collections.unmodifiableList(values);
+    }
+
+
+    /*
+     * Instance methods.
+     */
+
+
+    @Override
+    public final int hashCode() {
+      return this.values.hashCode();
+    }
+
+    @Override
+    public final boolean equals(final Object other) {
+      if (other == this) {
+        return true;
+      } else if (other instanceof Key) {
+        return this.values.equals(((Key)other).values);
+      } else {
+        return false;
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,49 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+/**
+ * A handler of the result of a release operation, such as the
+ * notification of listeners or the logging of a newly installed
+ * release.
+ *
+ * <p>When {@linkplain AbstractReleaseMojo#getAsync() asynchronous
+ * execution} is in effect, handlers are invoked when pending
+ * operations are awaited rather than when the goal that submitted
+ * them executes.</p>
+ *
+ * @param <T> the type of the result
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see AbstractReleaseMojo#submit(String, java.util.concurrent.Callable,
+ * ReleaseOperationResultHandler)
+ */
+@FunctionalInterface
+public interface ReleaseOperationResultHandler<T> {
+
+  /**
+   * Handles the supplied result of a successful release operation.
+   *
+   * @param result the result of the operation; may be {@code null}
+   *
+   * @exception Exception if an error occurs
+   */
+  public void handle(final T result) throws Exception;
+
+}
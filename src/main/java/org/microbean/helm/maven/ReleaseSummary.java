@@ -0,0 +1,361 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.Serializable;
+
+import java.util.Objects;
+
+import hapi.chart.ChartOuterClass.Chart;
+import hapi.chart.ChartOuterClass.ChartOrBuilder;
+
+import hapi.chart.MetadataOuterClass.Metadata;
+import hapi.chart.MetadataOuterClass.MetadataOrBuilder;
+
+import hapi.release.InfoOuterClass.Info;
+import hapi.release.InfoOuterClass.InfoOrBuilder;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.ReleaseOuterClass.ReleaseOrBuilder;
+
+import hapi.release.StatusOuterClass.Status;
+import hapi.release.StatusOuterClass.StatusOrBuilder;
+
+/**
+ * An immutable, compact summary of a <a
+ * href="https://docs.helm.sh/glossary/#release">Helm release</a>
+ * holding only its name, namespace, version, status and chart name
+ * and version.
+ *
+ * <p>A {@link ReleaseSummary} retains none of the chart templates,
+ * values or rendered manifest carried by a {@link Release}.  Its
+ * namespace and chart name and version, which are typically shared
+ * by many releases, are {@linkplain String#intern() interned}, and
+ * its status is held as a {@link Status.Code} constant, so that a
+ * large number of {@link ReleaseSummary} instances can be retained
+ * cheaply.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #of(ReleaseOrBuilder)
+ *
+ * @see ReleaseSummaryEvent
+ *
+ * @see ListReleasesMojo#getSummarizeReleases()
+ */
+public final class ReleaseSummary implements Serializable {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The version of this class for {@linkplain Serializable
+   * serialization} purposes.
+   */
+  private static final long serialVersionUID = 1L;
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The name of the release.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String name;
+
+  /**
+   * The namespace of the release.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String namespace;
+
+  /**
+   * The version of the release.
+   */
+  private final int version;
+
+  /**
+   * The {@link Status.Code} of the release.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Status.Code statusCode;
+
+  /**
+   * The name of the chart from which the release was created.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String chartName;
+
+  /**
+   * The version of the chart from which the release was created.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String chartVersion;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ReleaseSummary}.
+   *
+   * @param name the name of the release; must not be {@code null}
+   *
+   * @param namespace the namespace of the release; must not be
+   * {@code null}
+   *
+   * @param version the version of the release
+   *
+   * @param statusCode the {@link Status.Code} of the release; must
+   * not be {@code null}
+   *
+   * @param chartName the name of the chart from which the release was
+   * created; must not be {@code null}
+   *
+   * @param chartVersion the version of the chart from which the
+   * release was created; must not be {@code null}
+   *
+   * @exception NullPointerException if any parameter is {@code null}
+   */
+  public ReleaseSummary(final String name,
+                        final String namespace,
+                        final int version,
+                        final Status.Code statusCode,
+                        final String chartName,
+                        final String chartVersion) {
+    super();
+    this.name = Objects.requireNonNull(name);
+    this.namespace = Objects.requireNonNull(namespace).intern();
+    this.version = version;
+    this.statusCode = Objects.requireNonNull(statusCode);
+    this.chartName = Objects.requireNonNull(chartName).intern();
+    this.chartVersion = Objects.requireNonNull(chartVersion).intern();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the name of the release.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the name of the release; never {@code null}
+   */
+  public final String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the namespace of the release.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the namespace of the release; never {@code null}
+   */
+  public final String getNamespace() {
+    return this.namespace;
+  }
+
+  /**
+   * Returns the version of the release.
+   *
+   * @return the version of the release
+   */
+  public final int getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Returns the {@link Status.Code} of the release.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the {@link Status.Code} of the release; never {@code
+   * null}
+   */
+  public final Status.Code getStatusCode() {
+    return this.statusCode;
+  }
+
+  /**
+   * Returns the name of the chart from which the release was
+   * created.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the name of the chart; never {@code null}
+   */
+  public final String getChartName() {
+    return this.chartName;
+  }
+
+  /**
+   * Returns the version of the chart from which the release was
+   * created.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the version of the chart; never {@code null}
+   */
+  public final String getChartVersion() {
+    return this.chartVersion;
+  }
+
+  /**
+   * Returns a new {@link Release} carrying only the information held
+   * by this {@link ReleaseSummary}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a new, skeletal {@link Release}; never {@code null}
+   */
+  public final Release toRelease() {
+    return Release.newBuilder()
+      .setName(this.getName())
+      .setNamespace(this.getNamespace())
+      .setVersion(this.getVersion())
+      .setInfo(Info.newBuilder()
+               .setStatus(Status.newBuilder()
+                          .setCode(this.getStatusCode())))
+      .setChart(Chart.newBuilder()
+                .setMetadata(Metadata.newBuilder()
+                             .setName(this.getChartName())
+                             .setVersion(this.getChartVersion())))
+      .build();
+  }
+
+  /**
+   * Returns a hashcode for this {@link ReleaseSummary}.
+   *
+   * @return a hashcode for this {@link ReleaseSummary}
+   */
+  @Override
+  public final int hashCode() {
+    return Objects.hash(this.getName(), this.getNamespace(), Integer.valueOf(this.getVersion()), this.getStatusCode(), this.getChartName(), this.getChartVersion());
+  }
+
+  /**
+   * Returns {@code true} if the supplied {@link Object} is a {@link
+   * ReleaseSummary} equal to this one.
+   *
+   * @param other the {@link Object} to test; may be {@code null}
+   *
+   * @return {@code true} if the supplied {@link Object} is a {@link
+   * ReleaseSummary} equal to this one; {@code false} otherwise
+   */
+  @Override
+  public final boolean equals(final Object other) {
+    if (other == this) {
+      return true;
+    } else if (other instanceof ReleaseSummary) {
+      final ReleaseSummary her = (ReleaseSummary)other;
+      return
+        this.getVersion() == her.getVersion() &&
+        this.getStatusCode() == her.getStatusCode() &&
+        this.getName().equals(her.getName()) &&
+        this.getNamespace().equals(her.getNamespace()) &&
+        this.getChartName().equals(her.getChartName()) &&
+        this.getChartVersion().equals(her.getChartVersion());
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * Returns a {@link String} representation of this {@link
+   * ReleaseSummary}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link String} representation of this
+   * {@link ReleaseSummary}
+   */
+  @Override
+  public final String toString() {
+    return new StringBuilder(this.getNamespace()).append('/').append(this.getName())
+      .append(" v").append(this.getVersion())
+      .append(' ').append(this.getStatusCode())
+      .append(" (").append(this.getChartName()).append('-').append(this.getChartVersion()).append(')')
+      .toString();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a new {@link ReleaseSummary} summarizing the supplied
+   * {@link ReleaseOrBuilder}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param release the {@link ReleaseOrBuilder} to summarize; must
+   * not be {@code null}
+   *
+   * @return a new {@link ReleaseSummary}; never {@code null}
+   *
+   * @exception NullPointerException if {@code release} is {@code
+   * null}
+   */
+  public static final ReleaseSummary of(final ReleaseOrBuilder release) {
+    Objects.requireNonNull(release);
+    Status.Code statusCode = Status.Code.UNKNOWN;
+    if (release.hasInfo()) {
+      final InfoOrBuilder info = release.getInfoOrBuilder();
+      assert info != null;
+      if (info.hasStatus()) {
+        final StatusOrBuilder status = info.getStatusOrBuilder();
+        assert status != null;
+        statusCode = status.getCode();
+      }
+    }
+    String chartName = "";
+    String chartVersion = "";
+    if (release.hasChart()) {
+      final ChartOrBuilder chart = release.getChartOrBuilder();
+      assert chart != null;
+      if (chart.hasMetadata()) {
+        final MetadataOrBuilder metadata = chart.getMetadataOrBuilder();
+        assert metadata != null;
+        chartName = metadata.getName();
+        chartVersion = metadata.getVersion();
+      }
+    }
+    return new ReleaseSummary(release.getName(), release.getNamespace(), release.getVersion(), statusCode, chartName, chartVersion);
+  }
+
+}
@@ -0,0 +1,150 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.Serializable; // for javadoc only
+
+import java.util.EventObject; // for javadoc only
+import java.util.Objects;
+
+/**
+ * An {@link AbstractReleaseEvent} describing the discovery of a
+ * single <a href="https://docs.helm.sh/glossary/#release">Helm
+ * release</a>, {@linkplain ReleaseSummary summarized}, performed by
+ * a {@link ListReleasesMojo} instance.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ReleaseDiscoveryListener#releaseSummaryDiscovered(ReleaseSummaryEvent)
+ *
+ * @see ListReleasesMojo#getSummarizeReleases()
+ */
+public class ReleaseSummaryEvent extends AbstractReleaseEvent {
+
+  
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The version of this class for {@linkplain Serializable
+   * serialization} purposes.
+   */
+  private static final long serialVersionUID = 1L;
+    
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link ReleaseSummary} describing the discovered release.
+   *
+   * <p>This field will never be {@code null}.</p>
+   *
+   * @see #getReleaseSummary()
+   */
+  private final ReleaseSummary releaseSummary;
+
+  /**
+   * The total number of releases matching the listing criteria, as
+   * reported by Tiller.
+   *
+   * @see #getTotal()
+   */
+  private final long total;
+  
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ReleaseSummaryEvent}.
+   *
+   * @param source the {@link ListReleasesMojo} responsible for
+   * retrieving the release; must not be {@code null}
+   *
+   * @param releaseSummary the {@link ReleaseSummary} describing the
+   * discovered release; must not be {@code null}
+   *
+   * @param total the total number of releases matching the listing
+   * criteria, as reported by Tiller
+   *
+   * @exception IllegalArgumentException if {@code source} is {@code
+   * null}; thrown by the {@link EventObject#EventObject(Object)}
+   * constructor
+   *
+   * @exception NullPointerException if {@code releaseSummary} is
+   * {@code null}
+   */
+  public ReleaseSummaryEvent(final ListReleasesMojo source, final ReleaseSummary releaseSummary, final long total) {
+    super(source);
+    Objects.requireNonNull(releaseSummary);
+    this.releaseSummary = releaseSummary;
+    this.total = total;
+  }
+
+  
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the {@link ReleaseSummary} describing the discovered
+   * release.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the {@link ReleaseSummary} describing the discovered
+   * release; never {@code null}
+   */
+  public final ReleaseSummary getReleaseSummary() {
+    return this.releaseSummary;
+  }
+
+  /**
+   * Returns the total number of releases matching the listing
+   * criteria, as reported by Tiller.
+   *
+   * @return the total number of releases matching the listing
+   * criteria
+   */
+  public final long getTotal() {
+    return this.total;
+  }
+  
+  /**
+   * Returns the {@link ListReleasesMojo} responsible for firing this
+   * event.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the {@link ListReleasesMojo} responsible for firing this
+   * event; never {@code null}
+   */
+  @Override
+  public final ListReleasesMojo getSource() {
+    return (ListReleasesMojo)super.getSource();
+  }
+  
+}
@@ -41,7 +41,7 @@ import org.microbean.helm.ReleaseManager;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "rollback")
+@Mojo(name = "rollback", threadSafe = true)
 public class RollbackReleaseMojo extends AbstractForceableMutatingReleaseMojo {
 
 
@@ -121,13 +121,14 @@ public class RollbackReleaseMojo extends AbstractForceableMutatingReleaseMojo {
     }
     final Future<RollbackReleaseResponse> rollbackReleaseResponseFuture = releaseManager.rollback(requestBuilder.build());
     assert rollbackReleaseResponseFuture != null;
-    final RollbackReleaseResponse rollbackReleaseResponse = rollbackReleaseResponseFuture.get();
-    assert rollbackReleaseResponse != null;
-    if (log.isInfoEnabled()) {
-      final Release release = rollbackReleaseResponse.getRelease();
-      assert release != null;
-      log.info("Rolled back release " + release.getName());
-    }
+    this.submit("Rolling back release " + requestBuilder.getName(), rollbackReleaseResponseFuture::get, rollbackReleaseResponse -> {
+        assert rollbackReleaseResponse != null;
+        if (log.isInfoEnabled()) {
+          final Release release = rollbackReleaseResponse.getRelease();
+          assert release != null;
+          log.info("Rolled back release " + release.getName());
+        }
+      });
     
   }
 
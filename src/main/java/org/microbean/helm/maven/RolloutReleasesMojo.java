@@ -0,0 +1,736 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.net.URL;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import hapi.chart.ChartOuterClass.Chart;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import hapi.services.tiller.Tiller.ListReleasesRequest;
+import hapi.services.tiller.Tiller.ListReleasesResponse;
+import hapi.services.tiller.Tiller.RollbackReleaseRequest;
+import hapi.services.tiller.Tiller.RollbackReleaseResponse;
+import hapi.services.tiller.Tiller.UpdateReleaseRequest;
+import hapi.services.tiller.Tiller.UpdateReleaseResponse;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * <a
+ * href="https://docs.helm.sh/using_helm/#helm-upgrade-and-helm-rollback-upgrading-a-release-and-recovering-on-failure">Updates</a>
+ * several existing releases in successive waves, such as a single
+ * canary release, then a handful, then all the rest.
+ *
+ * <p>The {@linkplain #getWaves() wave sizes} determine how many of
+ * the {@linkplain #getReleases() configured releases}, taken in
+ * order, are updated in each wave; any releases left over once the
+ * sizes are exhausted form a final wave.  The releases in a wave are
+ * updated concurrently.  Once a wave has been updated, the status of
+ * each of its releases is checked, and the rollout continues with
+ * the next wave only if every one of them is {@linkplain
+ * Status.Code#DEPLOYED deployed}.</p>
+ *
+ * <p>The rollout stops at the first failure.  If {@linkplain
+ * #getRollbackOnFailure() so configured}, every release whose update
+ * was attempted is then <a
+ * href="https://docs.helm.sh/using_helm/#helm-upgrade-and-helm-rollback-upgrading-a-release-and-recovering-on-failure">rolled
+ * back</a>, concurrently, to the version it had before the rollout
+ * began.</p>
+ *
+ * <p>Every release must already exist; this goal never installs
+ * releases.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see RollbackReleaseMojo
+ */
+@Mojo(name = "rollout", threadSafe = true)
+public class RolloutReleasesMojo extends AbstractBatchReleaseMojo {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The number of releases to update in each wave, e.g. {@code 1,5}
+   * to update one release, then five, then all the rest.  If not
+   * specified, all releases are updated in a single wave.
+   */
+  @Parameter(property = "helm.rollout.waves")
+  private List<Integer> waves;
+
+  /**
+   * Whether every release whose update was attempted should be rolled
+   * back to its prior version if the rollout fails.
+   */
+  @Parameter(defaultValue = "false", property = "helm.rollout.rollbackOnFailure")
+  private boolean rollbackOnFailure;
+
+  /**
+   * Whether updates and rollbacks should be forced.
+   */
+  @Parameter(defaultValue = "false", property = "helm.force")
+  private boolean force;
+
+  /**
+   * Whether Pods should be recreated as part of updates and
+   * rollbacks.
+   */
+  @Parameter(defaultValue = "false", property = "helm.recreate")
+  private boolean recreate;
+
+  /**
+   * The versions the releases being rolled out had before the
+   * rollout began, indexed by release name.
+   *
+   * <p>This field is never {@code null} during an execution.</p>
+   */
+  private volatile Map<String, Integer> priorVersions;
+
+  /**
+   * The names of releases whose update has been attempted.
+   *
+   * <p>This field is never {@code null} during an execution.</p>
+   */
+  private volatile Set<String> attemptedReleaseNames;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link RolloutReleasesMojo}.
+   */
+  public RolloutReleasesMojo() {
+    super();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation divides the {@linkplain #getReleases()
+   * configured releases} into {@linkplain #getWaves(List) waves} and
+   * updates and verifies each wave in turn, {@linkplain
+   * #getRollbackOnFailure() optionally} rolling back on failure.</p>
+   *
+   * @exception MojoExecutionException if a release has no name,
+   * shares its name with another release, does not exist, or could
+   * not be updated, or if a wave size is invalid
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    final Log log = this.getLog();
+    assert log != null;
+
+    final List<ReleaseDefinition> releases = this.getReleases();
+    if (releases == null || releases.isEmpty()) {
+      if (log.isInfoEnabled()) {
+        log.info("No releases configured; skipping execution");
+      }
+      return;
+    }
+
+    final Set<String> releaseNames = new HashSet<>();
+    for (final ReleaseDefinition release : releases) {
+      if (release == null) {
+        throw new MojoExecutionException("Invalid release definition: null");
+      }
+      final String releaseName = release.getReleaseName();
+      if (releaseName == null || releaseName.isEmpty()) {
+        throw new MojoExecutionException("Missing releaseName for release " + release);
+      }
+      if (!releaseNames.add(releaseName)) {
+        throw new MojoExecutionException("Duplicate releaseName: " + releaseName);
+      }
+    }
+
+    final List<List<ReleaseDefinition>> waves = this.getWaves(releases);
+    assert waves != null;
+
+    this.connectInBackground(releaseManagerCallable);
+    try {
+      final Map<String, Release> existingReleases = this.getExistingReleases(releaseManagerCallable, releases);
+      assert existingReleases != null;
+      final Map<String, Integer> priorVersions = new HashMap<>();
+      final List<String> missingReleaseNames = new ArrayList<>();
+      for (final ReleaseDefinition release : releases) {
+        final String releaseName = release.getReleaseName();
+        final Release existingRelease = existingReleases.get(releaseName);
+        if (existingRelease == null) {
+          missingReleaseNames.add(releaseName);
+        } else {
+          priorVersions.put(releaseName, Integer.valueOf(existingRelease.getVersion()));
+        }
+      }
+      if (!missingReleaseNames.isEmpty()) {
+        throw new MojoExecutionException("Releases not found: " + missingReleaseNames);
+      }
+      this.priorVersions = priorVersions;
+      this.attemptedReleaseNames = ConcurrentHashMap.newKeySet();
+
+      final int waveCount = waves.size();
+      for (int i = 0; i < waveCount; i++) {
+        final List<ReleaseDefinition> wave = waves.get(i);
+        if (log.isInfoEnabled()) {
+          log.info("Rolling out wave " + (i + 1) + " of " + waveCount + ": " + wave);
+        }
+        try {
+          this.execute(releaseManagerCallable, wave, true);
+          if (!this.getDryRun()) {
+            this.verify(releaseManagerCallable, wave, i + 1);
+          }
+        } catch (final MojoExecutionException mojoExecutionException) {
+          if (i + 1 < waveCount && log.isWarnEnabled()) {
+            log.warn("Skipping " + (waveCount - i - 1) + " remaining wave(s) because wave " + (i + 1) + " failed");
+          }
+          if (this.getRollbackOnFailure() && !this.getDryRun()) {
+            this.rollback(releaseManagerCallable, releases, mojoExecutionException);
+          }
+          throw mojoExecutionException;
+        }
+      }
+    } finally {
+      this.priorVersions = null;
+      this.attemptedReleaseNames = null;
+      this.clearCharts();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation <a
+   * href="https://docs.helm.sh/using_helm/#helm-upgrade-and-helm-rollback-upgrading-a-release-and-recovering-on-failure">updates</a>
+   * the release.</p>
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable, final ReleaseDefinition releaseDefinition) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    Objects.requireNonNull(releaseDefinition);
+    final Log log = this.getLog();
+    assert log != null;
+
+    final Set<String> attemptedReleaseNames = this.attemptedReleaseNames;
+    if (attemptedReleaseNames == null) {
+      throw new IllegalStateException("execute(Callable) has not been called");
+    }
+
+    final URL chartUrl = releaseDefinition.getChartUrl();
+    if (chartUrl == null) {
+      throw new MojoExecutionException("Missing chartUrl for release " + releaseDefinition);
+    }
+    final Chart.Builder chartBuilder = this.loadChart(chartUrl);
+    assert chartBuilder != null;
+
+    final UpdateReleaseRequest.Builder requestBuilder = this.createUpdateReleaseRequest(releaseDefinition);
+    assert requestBuilder != null;
+    requestBuilder.setForce(this.getForce());
+    requestBuilder.setRecreate(this.getRecreate());
+
+    final ReleaseManager releaseManager = releaseManagerCallable.call();
+    if (releaseManager == null) {
+      throw new IllegalStateException("releaseManagerCallable.call() == null");
+    }
+
+    if (log.isInfoEnabled()) {
+      log.info("Updating release " + requestBuilder.getName());
+    }
+    attemptedReleaseNames.add(releaseDefinition.getReleaseName());
+    final UpdateReleaseResponse updateReleaseResponse = this.await(releaseManager.update(requestBuilder, chartBuilder), releaseDefinition);
+    assert updateReleaseResponse != null;
+    if (log.isInfoEnabled()) {
+      final Release release = updateReleaseResponse.getRelease();
+      assert release != null;
+      log.info("Updated release " + release.getName() + " to version " + release.getVersion());
+    }
+  }
+
+  /**
+   * Divides the supplied {@link ReleaseDefinition}s into waves
+   * according to the {@linkplain #getWaves() configured wave sizes}
+   * and returns them.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releases the {@link ReleaseDefinition}s to divide; must
+   * not be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of waves, each of which
+   * is a non-{@code null}, non-empty {@link List} of {@link
+   * ReleaseDefinition}s
+   *
+   * @exception NullPointerException if {@code releases} is {@code
+   * null}
+   *
+   * @exception MojoExecutionException if a wave size is {@code null}
+   * or less than {@code 1}
+   */
+  protected List<List<ReleaseDefinition>> getWaves(final List<? extends ReleaseDefinition> releases) throws MojoExecutionException {
+    Objects.requireNonNull(releases);
+    final List<List<ReleaseDefinition>> returnValue = new ArrayList<>();
+    final int size = releases.size();
+    int start = 0;
+    final Collection<? extends Integer> waveSizes = this.getWaves();
+    if (waveSizes != null) {
+      for (final Integer waveSize : waveSizes) {
+        if (waveSize == null || waveSize.intValue() < 1) {
+          throw new MojoExecutionException("Invalid wave size: " + waveSize);
+        }
+        if (start < size) {
+          final int end = Math.min(size, start + waveSize.intValue());
+          returnValue.add(Collections.unmodifiableList(new ArrayList<>(releases.subList(start, end))));
+          start = end;
+        }
+      }
+    }
+    if (start < size) {
+      returnValue.add(Collections.unmodifiableList(new ArrayList<>(releases.subList(start, size))));
+    }
+    return returnValue;
+  }
+
+  /**
+   * Checks that every release in the supplied wave is {@linkplain
+   * Status.Code#DEPLOYED deployed}.
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param wave the {@link ReleaseDefinition}s making up the wave;
+   * must not be {@code null}
+   *
+   * @param waveNumber the one-based number of the wave, used in
+   * messages
+   *
+   * @exception MojoExecutionException if a release in the wave is not
+   * deployed
+   *
+   * @exception Exception if the releases' statuses could not be
+   * retrieved
+   */
+  private final void verify(final Callable<ReleaseManager> releaseManagerCallable, final List<? extends ReleaseDefinition> wave, final int waveNumber) throws Exception {
+    assert releaseManagerCallable != null;
+    assert wave != null;
+    final Log log = this.getLog();
+    assert log != null;
+    final Map<String, Release> releases = this.getExistingReleases(releaseManagerCallable, wave);
+    assert releases != null;
+    final List<String> problems = getVerificationProblems(wave, releases);
+    assert problems != null;
+    if (!problems.isEmpty()) {
+      throw new MojoExecutionException("Wave " + waveNumber + " has releases that are not deployed: " + problems);
+    }
+    if (log.isInfoEnabled()) {
+      log.info("Verified that all " + wave.size() + " release(s) in wave " + waveNumber + " are deployed");
+    }
+  }
+
+  /**
+   * Rolls back, concurrently, every release among those supplied
+   * whose update was attempted to the version it had before the
+   * rollout began.
+   *
+   * <p>Failures to roll back a release are logged and {@linkplain
+   * Throwable#addSuppressed(Throwable) added} to the supplied {@link
+   * MojoExecutionException}.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param releases the {@link ReleaseDefinition}s being rolled out;
+   * must not be {@code null}
+   *
+   * @param failure the {@link MojoExecutionException} describing the
+   * failure of the rollout; must not be {@code null}
+   */
+  private final void rollback(final Callable<ReleaseManager> releaseManagerCallable, final List<? extends ReleaseDefinition> releases, final MojoExecutionException failure) {
+    assert releaseManagerCallable != null;
+    assert releases != null;
+    assert failure != null;
+    final Log log = this.getLog();
+    assert log != null;
+
+    final Map<String, Integer> priorVersions = this.priorVersions;
+    final Set<String> attemptedReleaseNames = this.attemptedReleaseNames;
+    assert priorVersions != null;
+    assert attemptedReleaseNames != null;
+
+    final List<ReleaseDefinition> rollbacks = getRollbacks(releases, attemptedReleaseNames);
+    assert rollbacks != null;
+    if (rollbacks.isEmpty()) {
+      return;
+    }
+    if (log.isInfoEnabled()) {
+      log.info("Rolling back " + rollbacks.size() + " release(s)");
+    }
+
+    final List<Future<RollbackReleaseResponse>> futures = new ArrayList<>(rollbacks.size());
+    try {
+      final ReleaseManager releaseManager = releaseManagerCallable.call();
+      if (releaseManager == null) {
+        throw new IllegalStateException("releaseManagerCallable.call() == null");
+      }
+      for (final ReleaseDefinition release : rollbacks) {
+        final RollbackReleaseRequest.Builder requestBuilder = RollbackReleaseRequest.newBuilder();
+        assert requestBuilder != null;
+        requestBuilder.setDisableHooks(this.getDisableHooks());
+        requestBuilder.setForce(this.getForce());
+        requestBuilder.setName(release.getReleaseName());
+        requestBuilder.setRecreate(this.getRecreate());
+        requestBuilder.setTimeout(this.getTimeout());
+        requestBuilder.setVersion(priorVersions.get(release.getReleaseName()).intValue());
+        requestBuilder.setWait(this.getWait());
+        futures.add(releaseManager.rollback(requestBuilder.build()));
+      }
+    } catch (final Exception exception) {
+      if (log.isErrorEnabled()) {
+        log.error("Could not roll back releases: " + exception.getMessage());
+      }
+      failure.addSuppressed(exception);
+    }
+
+    final int size = futures.size();
+    for (int i = 0; i < size; i++) {
+      final ReleaseDefinition release = rollbacks.get(i);
+      try {
+        final RollbackReleaseResponse rollbackReleaseResponse = this.await(futures.get(i), release);
+        assert rollbackReleaseResponse != null;
+        if (log.isInfoEnabled()) {
+          log.info("Rolled back release " + release.getReleaseName() + " to version " + priorVersions.get(release.getReleaseName()));
+        }
+      } catch (final InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+        failure.addSuppressed(interruptedException);
+        break;
+      } catch (final Exception exception) {
+        Throwable cause = exception;
+        if (exception instanceof ExecutionException && exception.getCause() != null) {
+          cause = exception.getCause();
+        }
+        if (log.isErrorEnabled()) {
+          log.error("Could not roll back release " + release.getReleaseName() + ": " + cause.getMessage());
+        }
+        failure.addSuppressed(cause);
+      }
+    }
+  }
+
+  /**
+   * Returns the latest revisions of those of the supplied releases
+   * that exist, indexed by name.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>List requests whose filter covers all of the supplied
+   * releases are issued, following each response's {@linkplain
+   * ListReleasesResponse#getNext() next offset} until there are no
+   * more pages.  Tiller lists every matching revision of a release,
+   * so where several revisions of a release are listed, the one
+   * with the {@linkplain Release#getVersion() highest version} is
+   * kept.</p>
+   *
+   * @param releaseManagerCallable a {@link Callable} that will return
+   * a {@link ReleaseManager}; must not be {@code null}
+   *
+   * @param releases the {@link ReleaseDefinition}s in question; must
+   * not be {@code null}
+   *
+   * @return a non-{@code null} {@link Map} of {@link Release}s
+   * indexed by name
+   *
+   * @exception Exception if the releases could not be listed
+   */
+  private final Map<String, Release> getExistingReleases(final Callable<ReleaseManager> releaseManagerCallable, final Collection<? extends ReleaseDefinition> releases) throws Exception {
+    assert releaseManagerCallable != null;
+    assert releases != null;
+    final StringBuilder filter = new StringBuilder("^(");
+    boolean first = true;
+    for (final ReleaseDefinition release : releases) {
+      if (!first) {
+        filter.append('|');
+      }
+      first = false;
+      // Release names are DNS subdomains, so only dots need escaping.
+      filter.append(release.getReleaseName().replace(".", "\\."));
+    }
+    filter.append(")$");
+    final ListReleasesRequest.Builder requestBuilder = ListReleasesRequest.newBuilder()
+      .setFilter(filter.toString())
+      .setLimit(Math.max(1, releases.size()))
+      .addStatusCodes(Status.Code.DEPLOYED)
+      .addStatusCodes(Status.Code.FAILED)
+      .addStatusCodes(Status.Code.PENDING_UPGRADE)
+      .addStatusCodes(Status.Code.PENDING_ROLLBACK);
+    final Map<String, Release> returnValue = new HashMap<>();
+    String offset = "";
+    do {
+      final ListReleasesRequest request = requestBuilder.setOffset(offset).build();
+      offset = this.executeWithRetries(releaseManagerCallable, releaseManager -> {
+          String next = "";
+          final Iterator<? extends ListReleasesResponse> listReleasesResponseIterator = releaseManager.list(request);
+          assert listReleasesResponseIterator != null;
+          while (listReleasesResponseIterator.hasNext()) {
+            final ListReleasesResponse response = listReleasesResponseIterator.next();
+            assert response != null;
+            for (final Release release : response.getReleasesList()) {
+              putLatest(returnValue, release);
+            }
+            next = response.getNext();
+          }
+          return next;
+        });
+    } while (offset != null && !offset.isEmpty());
+    return returnValue;
+  }
+
+
+  /**
+   * Returns the number of releases to update in each wave.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the wave sizes, or {@code null} if all releases should be
+   * updated in a single wave
+   *
+   * @see #setWaves(List)
+   */
+  public List<Integer> getWaves() {
+    return this.waves;
+  }
+
+  /**
+   * Sets the number of releases to update in each wave.
+   *
+   * @param waves the wave sizes; may be {@code null} in which case
+   * all releases will be updated in a single wave
+   *
+   * @see #getWaves()
+   */
+  public void setWaves(final List<Integer> waves) {
+    this.waves = waves;
+  }
+
+  /**
+   * Returns {@code true} if every release whose update was attempted
+   * should be rolled back to its prior version if the rollout fails.
+   *
+   * @return {@code true} if releases should be rolled back on
+   * failure
+   *
+   * @see #setRollbackOnFailure(boolean)
+   */
+  public boolean getRollbackOnFailure() {
+    return this.rollbackOnFailure;
+  }
+
+  /**
+   * Sets whether every release whose update was attempted should be
+   * rolled back to its prior version if the rollout fails.
+   *
+   * @param rollbackOnFailure whether releases should be rolled back
+   * on failure
+   *
+   * @see #getRollbackOnFailure()
+   */
+  public void setRollbackOnFailure(final boolean rollbackOnFailure) {
+    this.rollbackOnFailure = rollbackOnFailure;
+  }
+
+  /**
+   * Returns {@code true} if updates and rollbacks should be forced.
+   *
+   * @return {@code true} if updates and rollbacks should be forced
+   *
+   * @see #setForce(boolean)
+   */
+  public boolean getForce() {
+    return this.force;
+  }
+
+  /**
+   * Sets whether updates and rollbacks should be forced.
+   *
+   * @param force whether updates and rollbacks should be forced
+   *
+   * @see #getForce()
+   */
+  public void setForce(final boolean force) {
+    this.force = force;
+  }
+
+  /**
+   * Returns {@code true} if Pods should be recreated as part of
+   * updates and rollbacks.
+   *
+   * @return {@code true} if Pods should be recreated
+   *
+   * @see #setRecreate(boolean)
+   */
+  public boolean getRecreate() {
+    return this.recreate;
+  }
+
+  /**
+   * Sets whether Pods should be recreated as part of updates and
+   * rollbacks.
+   *
+   * @param recreate whether Pods should be recreated
+   *
+   * @see #getRecreate()
+   */
+  public void setRecreate(final boolean recreate) {
+    this.recreate = recreate;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Adds the supplied {@link Release} to the supplied {@link Map},
+   * indexed by its name, unless the {@link Map} already holds a
+   * revision of it with a {@linkplain Release#getVersion() version}
+   * at least as high.
+   *
+   * @param releases the {@link Map} to add to; must not be {@code
+   * null}
+   *
+   * @param release the {@link Release} to add; must not be {@code
+   * null}
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  static final void putLatest(final Map<String, Release> releases, final Release release) {
+    Objects.requireNonNull(releases);
+    Objects.requireNonNull(release);
+    releases.merge(release.getName(), release, (existing, candidate) -> candidate.getVersion() > existing.getVersion() ? candidate : existing);
+  }
+
+  /**
+   * Returns descriptions of the problems that prevent the supplied
+   * wave from being considered successfully rolled out, given the
+   * latest revisions of its releases.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>A release is a problem if it has no revision or if its latest
+   * revision is not {@linkplain Status.Code#DEPLOYED deployed}.</p>
+   *
+   * @param wave the {@link ReleaseDefinition}s making up the wave;
+   * must not be {@code null}
+   *
+   * @param releases the latest revisions of the wave's releases,
+   * indexed by name; must not be {@code null}
+   *
+   * @return a non-{@code null}, possibly empty {@link List} of
+   * problem descriptions, in wave order
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  static final List<String> getVerificationProblems(final Collection<? extends ReleaseDefinition> wave, final Map<? extends String, ? extends Release> releases) {
+    Objects.requireNonNull(wave);
+    Objects.requireNonNull(releases);
+    final List<String> returnValue = new ArrayList<>();
+    for (final ReleaseDefinition releaseDefinition : wave) {
+      final String releaseName = releaseDefinition.getReleaseName();
+      final Release release = releases.get(releaseName);
+      if (release == null) {
+        returnValue.add(releaseName + " (not found)");
+      } else {
+        final Status.Code code = release.getInfo().getStatus().getCode();
+        if (!Status.Code.DEPLOYED.equals(code)) {
+          returnValue.add(releaseName + " (" + code + ")");
+        }
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns those of the supplied releases whose update was
+   * attempted and that must therefore be rolled back, in the order
+   * in which they were supplied.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releases the {@link ReleaseDefinition}s being rolled out;
+   * must not be {@code null}
+   *
+   * @param attemptedReleaseNames the names of the releases whose
+   * update was attempted; must not be {@code null}
+   *
+   * @return a non-{@code null}, possibly empty {@link List} of {@link
+   * ReleaseDefinition}s
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  static final List<ReleaseDefinition> getRollbacks(final Collection<? extends ReleaseDefinition> releases, final Set<? extends String> attemptedReleaseNames) {
+    Objects.requireNonNull(releases);
+    Objects.requireNonNull(attemptedReleaseNames);
+    final List<ReleaseDefinition> returnValue = new ArrayList<>();
+    for (final ReleaseDefinition release : releases) {
+      if (attemptedReleaseNames.contains(release.getReleaseName())) {
+        returnValue.add(release);
+      }
+    }
+    return returnValue;
+  }
+
+}
@@ -0,0 +1,327 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * An {@link ExecutionListener} that forwards all events to the {@link
+ * ExecutionListener} it replaced and that {@linkplain
+ * Closeable#close() closes} a series of {@link Closeable}s when the
+ * {@link MavenSession} it is associated with {@linkplain
+ * #sessionEnded(ExecutionEvent) ends}.
+ *
+ * <p>Maven consults the {@linkplain
+ * MavenExecutionRequest#getExecutionListener() execution listener of
+ * the current request} each time it fires an event, so installing
+ * an instance of this class from within a mojo is sufficient to
+ * receive the {@linkplain ExecutionEvent.Type#SessionEnded session
+ * end event} without the plugin being registered as a build
+ * extension.</p>
+ *
+ * <p>Registered {@link Closeable}s are closed before the event is
+ * forwarded to the {@link ExecutionListener} this one replaced,
+ * which is ordinarily the one that reports the outcome of the build
+ * from the {@linkplain MavenSession#getResult() session's result}.
+ * A failure to close a registered {@link Closeable} is therefore
+ * {@linkplain MavenExecutionResult#addException(Throwable) added} to
+ * that result in time to be reported, and fails the build.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #register(MavenSession, Closeable, Log)
+ */
+final class SessionClosingExecutionListener implements ExecutionListener {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link ExecutionListener} that was installed before this
+   * one.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private final ExecutionListener delegate;
+
+  /**
+   * The {@link Closeable}s to {@linkplain Closeable#close() close},
+   * in reverse order of registration, when the session ends.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Deque<Closeable> closeables;
+
+  /**
+   * The {@link Log} to use to report problems encountered while
+   * {@linkplain Closeable#close() closing} registered {@link
+   * Closeable}s.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private final Log log;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link SessionClosingExecutionListener}.
+   *
+   * @param delegate the {@link ExecutionListener} to forward events
+   * to; may be {@code null}
+   *
+   * @param log the {@link Log} to use to report problems; may be
+   * {@code null}
+   */
+  private SessionClosingExecutionListener(final ExecutionListener delegate, final Log log) {
+    super();
+    this.delegate = delegate;
+    this.log = log;
+    this.closeables = new ArrayDeque<>();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Arranges for the supplied {@link Closeable} to be {@linkplain
+   * Closeable#close() closed} when the supplied {@link MavenSession}
+   * ends.
+   *
+   * @param session the {@link MavenSession} whose end should trigger
+   * closing; must not be {@code null}
+   *
+   * @param closeable the {@link Closeable} to close; must not be
+   * {@code null}
+   *
+   * @param log a {@link Log} used to report problems encountered
+   * while closing; may be {@code null}
+   *
+   * @exception NullPointerException if {@code session} or {@code
+   * closeable} is {@code null}
+   */
+  static final void register(final MavenSession session, final Closeable closeable, final Log log) {
+    Objects.requireNonNull(session);
+    Objects.requireNonNull(closeable);
+    final MavenExecutionRequest request = session.getRequest();
+    if (request == null) {
+      throw new IllegalArgumentException("session", new IllegalStateException("session.getRequest() == null"));
+    }
+    synchronized (request) {
+      final ExecutionListener existingListener = request.getExecutionListener();
+      final SessionClosingExecutionListener listener;
+      if (existingListener instanceof SessionClosingExecutionListener) {
+        listener = (SessionClosingExecutionListener)existingListener;
+      } else {
+        listener = new SessionClosingExecutionListener(existingListener, log);
+        request.setExecutionListener(listener);
+      }
+      synchronized (listener.closeables) {
+        listener.closeables.push(closeable);
+      }
+    }
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * {@linkplain Closeable#close() Closes} all registered {@link
+   * Closeable}s in reverse order of registration, and then forwards
+   * the supplied {@link ExecutionEvent} to the {@link
+   * ExecutionListener} this {@link SessionClosingExecutionListener}
+   * replaced.
+   *
+   * <p>Any exception thrown while closing a {@link Closeable} is
+   * logged and {@linkplain
+   * MavenExecutionResult#addException(Throwable) added} to the
+   * {@linkplain MavenSession#getResult() result} of the {@linkplain
+   * ExecutionEvent#getSession() session} that ended, before that
+   * result is reported, which causes the build to fail.</p>
+   *
+   * @param event the {@link ExecutionEvent} describing the end of
+   * the session; may be {@code null}
+   */
+  @Override
+  public final void sessionEnded(final ExecutionEvent event) {
+    try {
+      Closeable closeable = null;
+      do {
+        synchronized (this.closeables) {
+          closeable = this.closeables.poll();
+        }
+        if (closeable != null) {
+          try {
+            closeable.close();
+          } catch (final IOException | RuntimeException exception) {
+            if (this.log != null && this.log.isErrorEnabled()) {
+              this.log.error(exception);
+            }
+            final MavenSession session = event == null ? null : event.getSession();
+            final MavenExecutionResult result = session == null ? null : session.getResult();
+            if (result != null) {
+              result.addException(exception);
+            }
+          }
+        }
+      } while (closeable != null);
+    } finally {
+      if (this.delegate != null) {
+        this.delegate.sessionEnded(event);
+      }
+    }
+  }
+
+  @Override
+  public final void projectDiscoveryStarted(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.projectDiscoveryStarted(event);
+    }
+  }
+
+  @Override
+  public final void sessionStarted(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.sessionStarted(event);
+    }
+  }
+
+  @Override
+  public final void projectSkipped(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.projectSkipped(event);
+    }
+  }
+
+  @Override
+  public final void projectStarted(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.projectStarted(event);
+    }
+  }
+
+  @Override
+  public final void projectSucceeded(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.projectSucceeded(event);
+    }
+  }
+
+  @Override
+  public final void projectFailed(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.projectFailed(event);
+    }
+  }
+
+  @Override
+  public final void mojoSkipped(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.mojoSkipped(event);
+    }
+  }
+
+  @Override
+  public final void mojoStarted(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.mojoStarted(event);
+    }
+  }
+
+  @Override
+  public final void mojoSucceeded(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.mojoSucceeded(event);
+    }
+  }
+
+  @Override
+  public final void mojoFailed(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.mojoFailed(event);
+    }
+  }
+
+  @Override
+  public final void forkStarted(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.forkStarted(event);
+    }
+  }
+
+  @Override
+  public final void forkSucceeded(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.forkSucceeded(event);
+    }
+  }
+
+  @Override
+  public final void forkFailed(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.forkFailed(event);
+    }
+  }
+
+  @Override
+  public final void forkedProjectStarted(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.forkedProjectStarted(event);
+    }
+  }
+
+  @Override
+  public final void forkedProjectSucceeded(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.forkedProjectSucceeded(event);
+    }
+  }
+
+  @Override
+  public final void forkedProjectFailed(final ExecutionEvent event) {
+    if (this.delegate != null) {
+      this.delegate.forkedProjectFailed(event);
+    }
+  }
+
+}
@@ -0,0 +1,161 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.Serializable; // for javadoc only
+
+import java.util.EventObject; // for javadoc only
+import java.util.Objects;
+
+import hapi.release.ReleaseOuterClass.ReleaseOrBuilder;
+
+/**
+ * An {@link AbstractReleaseEvent} describing the discovery of a
+ * single <a href="https://docs.helm.sh/glossary/#release">Helm
+ * release</a> performed by a {@link ListReleasesMojo} instance.
+ *
+ * <p>Unlike a {@link ReleaseDiscoveryEvent}, which describes an
+ * entire page of releases, a {@link SingleReleaseDiscoveryEvent}
+ * refers only to the release it describes, so the rest of the page
+ * from which it came need not be retained while it is being
+ * processed.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ReleaseDiscoveryListener#singleReleaseDiscovered(SingleReleaseDiscoveryEvent)
+ *
+ * @see ListReleasesMojo#getStreamReleases()
+ */
+public class SingleReleaseDiscoveryEvent extends AbstractReleaseEvent {
+
+  
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The version of this class for {@linkplain Serializable
+   * serialization} purposes.
+   */
+  private static final long serialVersionUID = 1L;
+    
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link hapi.release.ReleaseOuterClass.ReleaseOrBuilder}
+   * representing the discovered release.
+   *
+   * <p>This field will never be {@code null}.</p>
+   *
+   * @see #getReleaseOrBuilder()
+   */
+  private final ReleaseOrBuilder releaseOrBuilder;
+
+  /**
+   * The total number of releases matching the listing criteria, as
+   * reported by Tiller.
+   *
+   * @see #getTotal()
+   */
+  private final long total;
+  
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link SingleReleaseDiscoveryEvent}.
+   *
+   * @param source the {@link ListReleasesMojo} responsible for
+   * retrieving the release; must not be {@code null}
+   *
+   * @param releaseOrBuilder the {@link
+   * hapi.release.ReleaseOuterClass.ReleaseOrBuilder} representing
+   * the discovered release; must not be {@code null}
+   *
+   * @param total the total number of releases matching the listing
+   * criteria, as reported by Tiller
+   *
+   * @exception IllegalArgumentException if {@code source} is {@code
+   * null}; thrown by the {@link EventObject#EventObject(Object)}
+   * constructor
+   *
+   * @exception NullPointerException if {@code releaseOrBuilder} is
+   * {@code null}
+   */
+  public SingleReleaseDiscoveryEvent(final ListReleasesMojo source, final ReleaseOrBuilder releaseOrBuilder, final long total) {
+    super(source);
+    Objects.requireNonNull(releaseOrBuilder);
+    this.releaseOrBuilder = releaseOrBuilder;
+    this.total = total;
+  }
+
+  
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the {@link
+   * hapi.release.ReleaseOuterClass.ReleaseOrBuilder} representing the
+   * discovered release.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the {@link
+   * hapi.release.ReleaseOuterClass.ReleaseOrBuilder} representing the
+   * discovered release; never {@code null}
+   */
+  public final ReleaseOrBuilder getReleaseOrBuilder() {
+    return this.releaseOrBuilder;
+  }
+
+  /**
+   * Returns the total number of releases matching the listing
+   * criteria, as reported by Tiller.
+   *
+   * @return the total number of releases matching the listing
+   * criteria
+   */
+  public final long getTotal() {
+    return this.total;
+  }
+  
+  /**
+   * Returns the {@link ListReleasesMojo} responsible for firing this
+   * event.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the {@link ListReleasesMojo} responsible for firing this
+   * event; never {@code null}
+   */
+  @Override
+  public final ListReleasesMojo getSource() {
+    return (ListReleasesMojo)super.getSource();
+  }
+  
+}
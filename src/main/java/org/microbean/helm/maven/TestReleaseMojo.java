@@ -16,13 +16,14 @@
  */
 package org.microbean.helm.maven;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import hapi.release.TestRunOuterClass.TestRun;
 
@@ -44,7 +45,7 @@ import org.microbean.helm.ReleaseManager;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "test")
+@Mojo(name = "test", threadSafe = true)
 public class TestReleaseMojo extends AbstractSingleReleaseMojo {
 
 
@@ -74,7 +75,7 @@ public class TestReleaseMojo extends AbstractSingleReleaseMojo {
    * results.
    */
   @Parameter(alias = "releaseTestListenersList")
-  private List<ReleaseTestListener> releaseTestListeners;
+  private volatile List<ReleaseTestListener> releaseTestListeners;
   
 
   /*
@@ -132,11 +133,11 @@ public class TestReleaseMojo extends AbstractSingleReleaseMojo {
     final Iterator<TestReleaseResponse> testReleaseResponses = releaseManager.test(requestBuilder.build());
     assert testReleaseResponses != null;
     if (testReleaseResponses.hasNext()) {
-      final List<ReleaseTestListener> listeners = this.getReleaseTestListenersList();
+      final List<ReleaseTestListener> listeners = Arrays.asList(this.getReleaseTestListeners());
       while (testReleaseResponses.hasNext()) {
         final TestReleaseResponse response = testReleaseResponses.next();
         assert response != null;
-        if (listeners != null && !listeners.isEmpty()) {
+        if (!listeners.isEmpty()) {
           final ReleaseTestEvent event = new ReleaseTestEvent(this, response);
           for (final ReleaseTestListener listener : listeners) {
             if (listener != null) {
@@ -219,10 +220,10 @@ public class TestReleaseMojo extends AbstractSingleReleaseMojo {
    *
    * @see #getReleaseTestListenersList()
    */
-  public void addReleaseTestListener(final ReleaseTestListener listener) {
+  public synchronized void addReleaseTestListener(final ReleaseTestListener listener) {
     if (listener != null) {
       if (this.releaseTestListeners == null) {
-        this.releaseTestListeners = new ArrayList<>();      
+        this.releaseTestListeners = new CopyOnWriteArrayList<>();      
       }
       this.releaseTestListeners.add(listener);
     }
@@ -239,7 +240,7 @@ public class TestReleaseMojo extends AbstractSingleReleaseMojo {
    *
    * @see #getReleaseTestListenersList()
    */
-  public void removeReleaseTestListener(final ReleaseTestListener listener) {
+  public synchronized void removeReleaseTestListener(final ReleaseTestListener listener) {
     if (listener != null && this.releaseTestListeners != null) {
       this.releaseTestListeners.remove(listener);
     }
@@ -0,0 +1,571 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import hapi.services.tiller.ReleaseServiceGrpc;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * A {@link ClientInterceptor} that bounds the number of concurrent
+ * requests made to Tiller with {@link AdaptiveConcurrencyLimit}s,
+ * one for each of three kinds of operation: listing releases,
+ * reading a release's status, content or history, and mutating a
+ * release.
+ *
+ * <p>A single instance is shared by every channel created during a
+ * {@link MavenSession} with equal settings, so the limits apply to
+ * all goals in a build taken together.  Read and list requests adapt
+ * to both observed latency and overload errors; mutating requests,
+ * whose latency depends chiefly on the charts being deployed, adapt
+ * only to overload errors.</p>
+ *
+ * <p>A request is considered to have signalled overload if it fails
+ * with a status of {@link Status.Code#UNAVAILABLE UNAVAILABLE},
+ * {@link Status.Code#DEADLINE_EXCEEDED DEADLINE_EXCEEDED} or {@link
+ * Status.Code#RESOURCE_EXHAUSTED RESOURCE_EXHAUSTED}.  Requests to
+ * services other than Tiller's release service, such as health
+ * checks, are not limited.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see AbstractReleaseMojo#getTillerConcurrencyGovernor()
+ */
+final class TillerConcurrencyGovernor implements ClientInterceptor {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The {@link TillerConcurrencyGovernor} instances in effect,
+   * indexed first by the {@link MavenExecutionRequest} of the {@link
+   * MavenSession} they belong to and then by their settings.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by itself.</p>
+   */
+  private static final Map<MavenExecutionRequest, Map<List<Object>, TillerConcurrencyGovernor>> instances = new WeakHashMap<>();
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link AdaptiveConcurrencyLimit} governing requests that list
+   * releases.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final AdaptiveConcurrencyLimit listLimit;
+
+  /**
+   * The {@link AdaptiveConcurrencyLimit} governing requests that read
+   * information about a single release.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final AdaptiveConcurrencyLimit readLimit;
+
+  /**
+   * The {@link AdaptiveConcurrencyLimit} governing requests that
+   * change releases.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final AdaptiveConcurrencyLimit mutateLimit;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link TillerConcurrencyGovernor}.
+   *
+   * @param maxListConcurrency the maximum number of concurrent list
+   * requests
+   *
+   * @param maxReadConcurrency the maximum number of concurrent read
+   * requests
+   *
+   * @param maxMutateConcurrency the maximum number of concurrent
+   * mutating requests
+   *
+   * @param latencyTolerance the multiple of the fastest recently
+   * observed latency beyond which a list or read request is
+   * considered to indicate overload
+   */
+  private TillerConcurrencyGovernor(final int maxListConcurrency, final int maxReadConcurrency, final int maxMutateConcurrency, final double latencyTolerance) {
+    super();
+    this.listLimit = new AdaptiveConcurrencyLimit("list", maxListConcurrency, latencyTolerance);
+    this.readLimit = new AdaptiveConcurrencyLimit("read", maxReadConcurrency, latencyTolerance);
+    this.mutateLimit = new AdaptiveConcurrencyLimit("mutate", maxMutateConcurrency, 0.0D);
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the {@link TillerConcurrencyGovernor} with the supplied
+   * settings belonging to the supplied {@link MavenSession}, creating
+   * it if necessary.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param session the {@link MavenSession} in effect; may be {@code
+   * null} in which case a new, unshared {@link
+   * TillerConcurrencyGovernor} is returned
+   *
+   * @param maxListConcurrency the maximum number of concurrent list
+   * requests
+   *
+   * @param maxReadConcurrency the maximum number of concurrent read
+   * requests
+   *
+   * @param maxMutateConcurrency the maximum number of concurrent
+   * mutating requests
+   *
+   * @param latencyTolerance the multiple of the fastest recently
+   * observed latency beyond which a list or read request is
+   * considered to indicate overload; values less than or equal to
+   * {@code 1} mean that latency is not considered
+   *
+   * @return a non-{@code null} {@link TillerConcurrencyGovernor}
+   */
+  static final TillerConcurrencyGovernor getInstance(final MavenSession session, final int maxListConcurrency, final int maxReadConcurrency, final int maxMutateConcurrency, final double latencyTolerance) {
+    final MavenExecutionRequest request = session == null ? null : session.getRequest();
+    TillerConcurrencyGovernor returnValue = null;
+    if (request == null) {
+      returnValue = new TillerConcurrencyGovernor(maxListConcurrency, maxReadConcurrency, maxMutateConcurrency, latencyTolerance);
+    } else {
+      final List<Object> settings = Arrays.asList(maxListConcurrency, maxReadConcurrency, maxMutateConcurrency, latencyTolerance);
+      synchronized (instances) {
+        returnValue = instances.computeIfAbsent(request, r -> new HashMap<>())
+          .computeIfAbsent(settings, s -> new TillerConcurrencyGovernor(maxListConcurrency, maxReadConcurrency, maxMutateConcurrency, latencyTolerance));
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns {@code true} if the supplied {@link Status} indicates
+   * that Tiller is overloaded.
+   *
+   * @param status the {@link Status} in question; must not be {@code
+   * null}
+   *
+   * @return {@code true} if the supplied {@link Status} indicates
+   * overload; {@code false} otherwise
+   */
+  private static final boolean isOverload(final Status status) {
+    assert status != null;
+    switch (status.getCode()) {
+    case UNAVAILABLE:
+    case DEADLINE_EXCEEDED:
+    case RESOURCE_EXHAUSTED:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the {@link AdaptiveConcurrencyLimit} governing the method
+   * with the supplied full name, or {@code null} if calls to it are
+   * not governed.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @param fullMethodName the full name of a gRPC method; may be
+   * {@code null}
+   *
+   * @return an {@link AdaptiveConcurrencyLimit}, or {@code null}
+   */
+  final AdaptiveConcurrencyLimit getLimit(final String fullMethodName) {
+    final AdaptiveConcurrencyLimit returnValue;
+    if (fullMethodName == null || !ReleaseServiceGrpc.SERVICE_NAME.equals(MethodDescriptor.extractFullServiceName(fullMethodName))) {
+      returnValue = null;
+    } else if (ReleaseServiceGrpc.getListReleasesMethod().getFullMethodName().equals(fullMethodName)) {
+      returnValue = this.listLimit;
+    } else if (ReleaseServiceGrpc.getInstallReleaseMethod().getFullMethodName().equals(fullMethodName) ||
+               ReleaseServiceGrpc.getUpdateReleaseMethod().getFullMethodName().equals(fullMethodName) ||
+               ReleaseServiceGrpc.getRollbackReleaseMethod().getFullMethodName().equals(fullMethodName) ||
+               ReleaseServiceGrpc.getUninstallReleaseMethod().getFullMethodName().equals(fullMethodName) ||
+               ReleaseServiceGrpc.getRunReleaseTestMethod().getFullMethodName().equals(fullMethodName)) {
+      returnValue = this.mutateLimit;
+    } else {
+      returnValue = this.readLimit;
+    }
+    return returnValue;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation returns a {@link ClientCall} that, when
+   * {@linkplain ClientCall#start(ClientCall.Listener, Metadata)
+   * started}, defers the start of the underlying call, without
+   * blocking, until the {@linkplain #getLimit(String) applicable
+   * limit} admits it, and that releases its permit when it
+   * closes.</p>
+   */
+  @Override
+  public final <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(final MethodDescriptor<ReqT, RespT> method, final CallOptions callOptions, final Channel next) {
+    final ClientCall<ReqT, RespT> call = next.newCall(method, callOptions);
+    final AdaptiveConcurrencyLimit limit = this.getLimit(method.getFullMethodName());
+    final ClientCall<ReqT, RespT> returnValue;
+    if (limit == null) {
+      returnValue = call;
+    } else {
+      returnValue = new GovernedClientCall<>(call, limit);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns a {@link String} representation of this {@link
+   * TillerConcurrencyGovernor}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link String} representation of this
+   * {@link TillerConcurrencyGovernor}
+   */
+  @Override
+  public final String toString() {
+    return this.listLimit + ", " + this.readLimit + ", " + this.mutateLimit;
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * A {@link ClientCall} that holds a permit from an {@link
+   * AdaptiveConcurrencyLimit} from the time it starts until the time
+   * it closes.
+   *
+   * <p>{@linkplain #start(ClientCall.Listener, Metadata) Starting} a
+   * {@link GovernedClientCall} never blocks.  If no permit is
+   * available, the underlying call is started later, on the thread
+   * that releases a permit, and any messages sent, requests made or
+   * half-closure signalled in the meantime are buffered and replayed
+   * in order once it has started.</p>
+   *
+   * @param <ReqT> the type of the request
+   *
+   * @param <RespT> the type of the response
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   */
+  private static final class GovernedClientCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+
+    /**
+     * The {@link AdaptiveConcurrencyLimit} from which a permit is
+     * acquired.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final AdaptiveConcurrencyLimit limit;
+
+    /**
+     * The {@link Runnable} that starts the underlying call once a
+     * permit has been granted.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Runnable starter;
+
+    /**
+     * Operations requested before the underlying call was started,
+     * in the order in which they were requested, or {@code null} once
+     * they have all been replayed and operations may be forwarded
+     * directly.
+     *
+     * <p>This field is guarded by {@code this}.</p>
+     */
+    private List<Runnable> pendingOperations;
+
+    /**
+     * Whether this call was cancelled before the underlying call was
+     * started.
+     *
+     * <p>This field is guarded by {@code this}.</p>
+     */
+    private boolean cancelled;
+
+    /**
+     * Whether the underlying call was started.
+     */
+    private volatile boolean started;
+
+    /**
+     * The {@link ClientCall.Listener} supplied to the {@link
+     * #start(ClientCall.Listener, Metadata)} method.
+     */
+    private volatile ClientCall.Listener<RespT> responseListener;
+
+    /**
+     * The headers supplied to the {@link #start(ClientCall.Listener,
+     * Metadata)} method.
+     */
+    private volatile Metadata headers;
+
+    /**
+     * Creates a new {@link GovernedClientCall}.
+     *
+     * @param delegate the {@link ClientCall} to forward to; must not
+     * be {@code null}
+     *
+     * @param limit the {@link AdaptiveConcurrencyLimit} from which a
+     * permit is acquired; must not be {@code null}
+     */
+    private GovernedClientCall(final ClientCall<ReqT, RespT> delegate, final AdaptiveConcurrencyLimit limit) {
+      super(delegate);
+      this.limit = Objects.requireNonNull(limit);
+      this.pendingOperations = new ArrayList<>();
+      this.starter = this::startDelegate;
+    }
+
+    /**
+     * Asks for a permit and starts the underlying call as soon as one
+     * is granted, which may be before this method returns.
+     *
+     * <p>This method never blocks.</p>
+     *
+     * @param responseListener the {@link ClientCall.Listener} to
+     * notify; must not be {@code null}
+     *
+     * @param headers the headers to send; must not be {@code null}
+     */
+    @Override
+    public final void start(final ClientCall.Listener<RespT> responseListener, final Metadata headers) {
+      this.responseListener = Objects.requireNonNull(responseListener);
+      this.headers = Objects.requireNonNull(headers);
+      this.limit.acquire(this.starter);
+    }
+
+    /**
+     * Starts the underlying call, now that a permit has been granted,
+     * and replays any operations requested in the meantime.
+     */
+    private final void startDelegate() {
+      synchronized (this) {
+        if (this.cancelled) {
+          // The listener has already been closed by cancel().
+          this.limit.release(-1L, false);
+          return;
+        }
+        this.started = true;
+      }
+      final long start = System.nanoTime();
+      final AtomicBoolean released = new AtomicBoolean();
+      try {
+        super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(this.responseListener) {
+            @Override
+            public final void onClose(final Status status, final Metadata trailers) {
+              if (released.compareAndSet(false, true)) {
+                limit.release(status.isOk() ? System.nanoTime() - start : -1L, isOverload(status));
+              }
+              super.onClose(status, trailers);
+            }
+          }, this.headers);
+      } catch (final RuntimeException | Error throwable) {
+        if (released.compareAndSet(false, true)) {
+          this.limit.release(-1L, false);
+        }
+        synchronized (this) {
+          this.pendingOperations = null;
+        }
+        this.responseListener.onClose(Status.fromThrowable(throwable), new Metadata());
+        return;
+      }
+      while (true) {
+        final List<Runnable> operations;
+        synchronized (this) {
+          operations = this.pendingOperations;
+          if (operations == null || operations.isEmpty()) {
+            this.pendingOperations = null;
+            break;
+          }
+          this.pendingOperations = new ArrayList<>();
+        }
+        for (final Runnable operation : operations) {
+          operation.run();
+        }
+      }
+    }
+
+    /**
+     * Runs the supplied operation now if the underlying call has been
+     * started and every earlier operation has been replayed, or
+     * buffers it for replay otherwise.
+     *
+     * @param operation the operation; must not be {@code null}
+     */
+    private final void forward(final Runnable operation) {
+      assert operation != null;
+      synchronized (this) {
+        if (this.pendingOperations != null) {
+          this.pendingOperations.add(operation);
+          return;
+        }
+      }
+      operation.run();
+    }
+
+    /**
+     * Forwards to the underlying call once it has started.
+     *
+     * @param numMessages the number of messages requested
+     */
+    @Override
+    public final void request(final int numMessages) {
+      this.forward(() -> super.request(numMessages));
+    }
+
+    /**
+     * Cancels the underlying call if it was started, or otherwise
+     * withdraws the request for a permit and closes the {@link
+     * ClientCall.Listener} with a status of {@link Status#CANCELLED}.
+     *
+     * @param message a human-readable reason for cancellation; may
+     * be {@code null}
+     *
+     * @param cause the cause of cancellation; may be {@code null}
+     */
+    @Override
+    public final void cancel(final String message, final Throwable cause) {
+      final boolean started;
+      synchronized (this) {
+        started = this.started;
+        if (!started) {
+          if (this.cancelled) {
+            return;
+          }
+          this.cancelled = true;
+          this.pendingOperations = null;
+        }
+      }
+      if (started) {
+        this.forward(() -> super.cancel(message, cause));
+      } else {
+        this.limit.cancel(this.starter);
+        final ClientCall.Listener<RespT> responseListener = this.responseListener;
+        if (responseListener != null) {
+          Status status = Status.CANCELLED;
+          if (message != null) {
+            status = status.withDescription(message);
+          }
+          if (cause != null) {
+            status = status.withCause(cause);
+          }
+          responseListener.onClose(status, new Metadata());
+        }
+      }
+    }
+
+    /**
+     * Forwards to the underlying call once it has started.
+     */
+    @Override
+    public final void halfClose() {
+      this.forward(super::halfClose);
+    }
+
+    /**
+     * Forwards to the underlying call once it has started.
+     *
+     * @param message the message to send; must not be {@code null}
+     */
+    @Override
+    public final void sendMessage(final ReqT message) {
+      this.forward(() -> super.sendMessage(message));
+    }
+
+    /**
+     * Forwards to the underlying call once it has started.
+     *
+     * @param enabled whether message compression should be enabled
+     */
+    @Override
+    public final void setMessageCompression(final boolean enabled) {
+      this.forward(() -> super.setMessageCompression(enabled));
+    }
+
+    /**
+     * Returns {@code false} until the underlying call has started and
+     * every buffered operation has been replayed, and forwards to the
+     * underlying call thereafter.
+     *
+     * @return {@code true} if the underlying call can accept more
+     * messages without buffering them
+     */
+    @Override
+    public final boolean isReady() {
+      synchronized (this) {
+        if (this.pendingOperations != null || this.cancelled) {
+          return false;
+        }
+      }
+      return super.isReady();
+    }
+
+  }
+
+}
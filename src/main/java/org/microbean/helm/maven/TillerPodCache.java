@@ -0,0 +1,234 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.nio.file.attribute.FileTime;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.Pod;
+
+/**
+ * An on-disk cache of the names of Tiller pods, shared by successive
+ * Maven invocations, so that the label-selector query that finds a
+ * ready Tiller pod need not be issued to the Kubernetes API server
+ * by every goal execution.
+ *
+ * <p>Each entry is a {@link Properties} file under {@code
+ * ~/.m2/helm-maven-plugin/pods} recording the name and resource
+ * version of the pod that was found.  An entry expires once its
+ * file's last-modified time is older than the time-to-live supplied
+ * to the {@link #get(String, String, int, Map, long)} method.
+ * Callers are expected to {@linkplain #evict(String, String, int,
+ * Map) evict} an entry if the pod it names turns out to be
+ * unusable.</p>
+ *
+ * <p>Problems reading or writing cache files are never fatal; they
+ * simply result in cache misses.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see AbstractReleaseMojo#getTillerPodCacheTtl()
+ */
+final class TillerPodCache {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The name of the property in a cache file whose value is the name
+   * of the Tiller pod.
+   */
+  private static final String POD_PROPERTY = "pod";
+
+  /**
+   * The name of the property in a cache file whose value is the
+   * resource version of the Tiller pod at the time it was found.
+   */
+  private static final String RESOURCE_VERSION_PROPERTY = "resourceVersion";
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link TillerPodCache}.
+   */
+  private TillerPodCache() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the name of the cached Tiller pod for the Tiller server
+   * described by the supplied parameters, or {@code null} if there
+   * is no such pod or its entry has expired.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @param masterUrl the Kubernetes API server URL; may be {@code
+   * null}
+   *
+   * @param tillerNamespace the Kubernetes namespace housing Tiller
+   *
+   * @param tillerPort the port on which Tiller listens
+   *
+   * @param tillerLabels the labels Tiller pods bear
+   *
+   * @param timeToLiveInMilliseconds the number of milliseconds for
+   * which an entry remains valid after it was {@linkplain #put(String,
+   * String, int, Map, Pod) stored}; if less than or equal to zero,
+   * this method always returns {@code null}
+   *
+   * @return the name of a Tiller pod, or {@code null}
+   */
+  static final String get(final String masterUrl, final String tillerNamespace, final int tillerPort, final Map<String, String> tillerLabels, final long timeToLiveInMilliseconds) {
+    String returnValue = null;
+    if (timeToLiveInMilliseconds > 0L) {
+      final Path cacheFile = getCacheFile(masterUrl, tillerNamespace, tillerPort, tillerLabels);
+      try {
+        final FileTime lastModifiedTime = Files.getLastModifiedTime(cacheFile);
+        if (System.currentTimeMillis() - lastModifiedTime.toMillis() < timeToLiveInMilliseconds) {
+          final Properties properties = new Properties();
+          try (final InputStream inputStream = Files.newInputStream(cacheFile)) {
+            properties.load(inputStream);
+          }
+          returnValue = properties.getProperty(POD_PROPERTY);
+          if (returnValue != null && returnValue.isEmpty()) {
+            returnValue = null;
+          }
+        }
+      } catch (final IOException | IllegalArgumentException | SecurityException noCacheFile) {
+        returnValue = null;
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Records the supplied {@link Pod} as the Tiller pod for the Tiller
+   * server described by the supplied parameters.
+   *
+   * @param masterUrl the Kubernetes API server URL; may be {@code
+   * null}
+   *
+   * @param tillerNamespace the Kubernetes namespace housing Tiller
+   *
+   * @param tillerPort the port on which Tiller listens
+   *
+   * @param tillerLabels the labels Tiller pods bear
+   *
+   * @param pod the {@link Pod} to record; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code pod} is {@code null}
+   */
+  static final void put(final String masterUrl, final String tillerNamespace, final int tillerPort, final Map<String, String> tillerLabels, final Pod pod) {
+    Objects.requireNonNull(pod);
+    final ObjectMeta metadata = pod.getMetadata();
+    if (metadata != null && metadata.getName() != null) {
+      final Properties properties = new Properties();
+      properties.setProperty(POD_PROPERTY, metadata.getName());
+      final String resourceVersion = metadata.getResourceVersion();
+      if (resourceVersion != null) {
+        properties.setProperty(RESOURCE_VERSION_PROPERTY, resourceVersion);
+      }
+      final Path cacheFile = getCacheFile(masterUrl, tillerNamespace, tillerPort, tillerLabels);
+      try {
+        Files.createDirectories(cacheFile.getParent());
+        final Path temporaryFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+          try (final OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+            properties.store(outputStream, "Tiller pod");
+          }
+          Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+          Files.deleteIfExists(temporaryFile);
+        }
+      } catch (final IOException | SecurityException | UnsupportedOperationException notCached) {
+        // Caching is an optimization only.
+      }
+    }
+  }
+
+  /**
+   * Removes any cached Tiller pod for the Tiller server described by
+   * the supplied parameters.
+   *
+   * @param masterUrl the Kubernetes API server URL; may be {@code
+   * null}
+   *
+   * @param tillerNamespace the Kubernetes namespace housing Tiller
+   *
+   * @param tillerPort the port on which Tiller listens
+   *
+   * @param tillerLabels the labels Tiller pods bear
+   */
+  static final void evict(final String masterUrl, final String tillerNamespace, final int tillerPort, final Map<String, String> tillerLabels) {
+    try {
+      Files.deleteIfExists(getCacheFile(masterUrl, tillerNamespace, tillerPort, tillerLabels));
+    } catch (final IOException | SecurityException ignored) {
+      // The entry will expire on its own.
+    }
+  }
+
+  /**
+   * Returns the {@link Path} of the cache file for the Tiller server
+   * described by the supplied parameters.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param masterUrl the Kubernetes API server URL; may be {@code
+   * null}
+   *
+   * @param tillerNamespace the Kubernetes namespace housing Tiller
+   *
+   * @param tillerPort the port on which Tiller listens
+   *
+   * @param tillerLabels the labels Tiller pods bear
+   *
+   * @return a non-{@code null} {@link Path}
+   */
+  private static final Path getCacheFile(final String masterUrl, final String tillerNamespace, final int tillerPort, final Map<String, String> tillerLabels) {
+    return Paths.get(System.getProperty("user.home"), ".m2", "helm-maven-plugin", "pods")
+      .resolve(TillerTunnelDaemon.digest(masterUrl, tillerNamespace, tillerPort, tillerLabels == null ? null : new TreeMap<>(tillerLabels)) + ".pod");
+  }
+
+}
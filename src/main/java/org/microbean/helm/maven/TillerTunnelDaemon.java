@@ -0,0 +1,673 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.nio.file.attribute.FileTime;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.Pod;
+
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.LocalPortForward;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.microbean.kubernetes.Pods;
+
+/**
+ * A long-lived, separate process that keeps a port forwarded to a
+ * Tiller pod so that successive Maven invocations can talk to Tiller
+ * over {@code localhost} without setting up a new port-forward each
+ * time.
+ *
+ * <p>A daemon is identified by a <em>tunnel file</em> residing
+ * under {@code ~/.m2/helm-maven-plugin/tunnels}.  The tunnel file
+ * contains the local address and port of the forwarded port.  Its
+ * last-modified time records the last time a Maven invocation {@linkplain
+ * #acquire(String, String, int, Map, long, long, Log) acquired} the
+ * tunnel; the daemon exits once that time is older than its idle
+ * timeout, or once the Tiller pod it forwards to is no longer
+ * ready.  A companion lock file ensures that at most one daemon
+ * serves a given tunnel file.  A second, <em>start lock</em> file
+ * is held by a Maven invocation while it decides whether to start a
+ * daemon and while it waits for that daemon to write the tunnel
+ * file, so that concurrent invocations neither start two daemons
+ * nor probe the daemon's lock while it is being acquired.</p>
+ *
+ * <p>The daemon always {@linkplain
+ * DefaultKubernetesClient#DefaultKubernetesClient() configures its
+ * Kubernetes client automatically}, i.e. from {@code ~/.kube/config},
+ * the environment or a service account.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #main(String[])
+ *
+ * @see AbstractReleaseMojo#getTillerTunnelDaemon()
+ */
+public final class TillerTunnelDaemon {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The name of the property in a tunnel file whose value is the
+   * local address of the forwarded port.
+   */
+  private static final String HOST_PROPERTY = "host";
+
+  /**
+   * The name of the property in a tunnel file whose value is the
+   * local forwarded port.
+   */
+  private static final String PORT_PROPERTY = "port";
+
+  /**
+   * The name of the property in a tunnel file whose value is the
+   * name of the Tiller pod being forwarded to.
+   */
+  private static final String POD_PROPERTY = "pod";
+
+  /**
+   * The number of milliseconds to wait between attempts to find a
+   * tunnel file written by a newly started daemon.
+   */
+  private static final long POLL_INTERVAL_IN_MILLISECONDS = 100L;
+
+  /**
+   * The number of milliseconds to wait for a TCP connection to a
+   * forwarded port to be established when checking whether it is
+   * still being served.
+   */
+  private static final int PROBE_TIMEOUT_IN_MILLISECONDS = 500;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link TillerTunnelDaemon}.
+   */
+  private TillerTunnelDaemon() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Runs a daemon that forwards a local port to a ready Tiller pod
+   * until it has been idle for a given amount of time.
+   *
+   * <p>The arguments are, in order:</p>
+   *
+   * <ol>
+   *
+   * <li>the path to the tunnel file to maintain</li>
+   *
+   * <li>the Kubernetes namespace housing Tiller</li>
+   *
+   * <li>the port on which Tiller listens</li>
+   *
+   * <li>the idle timeout, in seconds</li>
+   *
+   * <li>(optional) the labels Tiller pods bear, in {@code
+   * name=value,name=value} form</li>
+   *
+   * </ol>
+   *
+   * @param args the command line arguments; must not be {@code null}
+   *
+   * @exception Exception if an error occurs
+   */
+  public static final void main(final String[] args) throws Exception {
+    if (args == null || args.length < 4) {
+      throw new IllegalArgumentException("Usage: TillerTunnelDaemon tunnelFile tillerNamespace tillerPort idleTimeoutInSeconds [tillerLabels]");
+    }
+    final Path tunnelFile = Paths.get(args[0]).toAbsolutePath();
+    final String tillerNamespace = args[1];
+    final int tillerPort = Integer.parseInt(args[2]);
+    final long idleTimeoutInMilliseconds = TimeUnit.SECONDS.toMillis(Long.parseLong(args[3]));
+    final Map<String, String> tillerLabels = args.length > 4 ? parseLabels(args[4]) : null;
+    final long checkIntervalInMilliseconds = Math.max(1000L, Math.min(10000L, idleTimeoutInMilliseconds / 4L));
+
+    try (final FileChannel lockChannel = FileChannel.open(getLockFile(tunnelFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+         final FileLock lock = tryLock(lockChannel)) {
+      if (lock == null) {
+        // Another daemon is already serving this tunnel file.
+        return;
+      }
+      try (final DefaultKubernetesClient client = new DefaultKubernetesClient()) {
+        final Pod pod = Pods.getFirstReadyPod(client.pods().inNamespace(tillerNamespace).withLabels(getLabels(tillerLabels)));
+        if (pod == null) {
+          throw new IllegalStateException("No ready Tiller pod found in namespace " + tillerNamespace + " with labels " + getLabels(tillerLabels));
+        }
+        final String podName = pod.getMetadata().getName();
+        try (final LocalPortForward portForward = client.pods().inNamespace(tillerNamespace).withName(podName).portForward(tillerPort)) {
+          final InetAddress localAddress = portForward.getLocalAddress();
+          final Properties properties = new Properties();
+          properties.setProperty(HOST_PROPERTY, localAddress == null ? InetAddress.getLoopbackAddress().getHostAddress() : localAddress.getHostAddress());
+          properties.setProperty(PORT_PROPERTY, String.valueOf(portForward.getLocalPort()));
+          properties.setProperty(POD_PROPERTY, podName);
+          final Path temporaryFile = Files.createTempFile(tunnelFile.getParent(), tunnelFile.getFileName().toString(), ".tmp");
+          try (final OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+            properties.store(outputStream, "Tiller tunnel");
+          }
+          Files.move(temporaryFile, tunnelFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+          try {
+            while (true) {
+              Thread.sleep(checkIntervalInMilliseconds);
+              if (!portForward.isAlive()) {
+                break;
+              }
+              final FileTime lastAcquired;
+              try {
+                lastAcquired = Files.getLastModifiedTime(tunnelFile);
+              } catch (final NoSuchFileException tunnelFileRemoved) {
+                break;
+              }
+              if (System.currentTimeMillis() - lastAcquired.toMillis() > idleTimeoutInMilliseconds) {
+                break;
+              }
+              final Pod currentPod = client.pods().inNamespace(tillerNamespace).withName(podName).get();
+              if (currentPod == null || !Boolean.TRUE.equals(Pods.isReady(currentPod))) {
+                break;
+              }
+            }
+          } finally {
+            Files.deleteIfExists(tunnelFile);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the local address of a port forwarded to Tiller by a
+   * {@link TillerTunnelDaemon}, starting a new daemon if there is not
+   * already one serving a tunnel file identified by the supplied
+   * parameters.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param masterUrl the URL of the Kubernetes API server the daemon
+   * will talk to; used only to identify the tunnel file; may be
+   * {@code null}
+   *
+   * @param tillerNamespace the Kubernetes namespace housing Tiller;
+   * must not be {@code null}
+   *
+   * @param tillerPort the port on which Tiller listens
+   *
+   * @param tillerLabels the labels Tiller pods bear; may be {@code
+   * null}
+   *
+   * @param idleTimeoutInSeconds the number of seconds after which an
+   * unused daemon should exit
+   *
+   * @param startTimeoutInMilliseconds the number of milliseconds to
+   * wait for a newly started daemon to forward its port
+   *
+   * @param log a {@link Log} for reporting progress; may be {@code
+   * null}
+   *
+   * @return the non-{@code null} {@link InetSocketAddress} of the
+   * forwarded port
+   *
+   * @exception NullPointerException if {@code tillerNamespace} is
+   * {@code null}
+   *
+   * @exception IOException if the daemon could not be started or did
+   * not forward its port in time
+   */
+  static final InetSocketAddress acquire(final String masterUrl,
+                                         final String tillerNamespace,
+                                         final int tillerPort,
+                                         final Map<String, String> tillerLabels,
+                                         final long idleTimeoutInSeconds,
+                                         final long startTimeoutInMilliseconds,
+                                         final Log log)
+    throws IOException {
+    Objects.requireNonNull(tillerNamespace);
+    final Path tunnelsDirectory = Paths.get(System.getProperty("user.home"), ".m2", "helm-maven-plugin", "tunnels");
+    Files.createDirectories(tunnelsDirectory);
+    final Path tunnelFile = tunnelsDirectory.resolve(digest(masterUrl, tillerNamespace, tillerPort, getLabels(tillerLabels)) + ".tunnel");
+    assert tunnelFile != null;
+
+    InetSocketAddress address = read(tunnelFile);
+    if (address != null && isReachable(address)) {
+      touch(tunnelFile);
+      if (log != null && log.isDebugEnabled()) {
+        log.debug("Reusing Tiller tunnel daemon at " + address + " described by " + tunnelFile);
+      }
+      return address;
+    }
+
+    // Only one thread in this JVM may hold the start lock at a time;
+    // FileChannel#lock() would otherwise throw an
+    // OverlappingFileLockException.
+    synchronized (TillerTunnelDaemon.class) {
+      try (final FileChannel startLockChannel = FileChannel.open(getStartLockFile(tunnelFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        final FileLock startLock = startLockChannel.lock();
+        try {
+          // Another invocation may have started a daemon while this
+          // one was waiting for the start lock.
+          address = read(tunnelFile);
+          if (address != null && isReachable(address)) {
+            touch(tunnelFile);
+            return address;
+          }
+          if (!isLocked(tunnelFile)) {
+            // Any daemon that wrote the tunnel file is gone.
+            Files.deleteIfExists(tunnelFile);
+            start(tunnelFile, tillerNamespace, tillerPort, tillerLabels, idleTimeoutInSeconds, log);
+          }
+          return await(tunnelFile, startTimeoutInMilliseconds);
+        } finally {
+          startLock.release();
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits for a daemon to write a tunnel file describing a reachable
+   * forwarded port and returns its address.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param tunnelFile the tunnel file to wait for; must not be {@code
+   * null}
+   *
+   * @param timeoutInMilliseconds the number of milliseconds to wait
+   *
+   * @return the non-{@code null} {@link InetSocketAddress} of the
+   * forwarded port
+   *
+   * @exception IOException if the tunnel file did not describe a
+   * reachable port in time
+   */
+  private static final InetSocketAddress await(final Path tunnelFile, final long timeoutInMilliseconds) throws IOException {
+    final long deadline = System.currentTimeMillis() + timeoutInMilliseconds;
+    do {
+      try {
+        Thread.sleep(POLL_INTERVAL_IN_MILLISECONDS);
+      } catch (final InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+        final InterruptedIOException throwMe = new InterruptedIOException(interruptedException.getMessage());
+        throwMe.initCause(interruptedException);
+        throw throwMe;
+      }
+      final InetSocketAddress address = read(tunnelFile);
+      if (address != null && isReachable(address)) {
+        touch(tunnelFile);
+        return address;
+      }
+    } while (System.currentTimeMillis() < deadline);
+    throw new IOException("Timed out waiting for a Tiller tunnel daemon to write " + tunnelFile + "; see " + getLogFile(tunnelFile) + " for details");
+  }
+
+  /**
+   * Starts a new {@link TillerTunnelDaemon} process using the
+   * classpath of the class loader that loaded this class.
+   *
+   * @param tunnelFile the tunnel file the daemon should maintain;
+   * must not be {@code null}
+   *
+   * @param tillerNamespace the Kubernetes namespace housing Tiller;
+   * must not be {@code null}
+   *
+   * @param tillerPort the port on which Tiller listens
+   *
+   * @param tillerLabels the labels Tiller pods bear; may be {@code
+   * null}
+   *
+   * @param idleTimeoutInSeconds the number of seconds after which an
+   * unused daemon should exit
+   *
+   * @param log a {@link Log} for reporting progress; may be {@code
+   * null}
+   *
+   * @exception IOException if the process could not be started
+   */
+  private static final void start(final Path tunnelFile,
+                                  final String tillerNamespace,
+                                  final int tillerPort,
+                                  final Map<String, String> tillerLabels,
+                                  final long idleTimeoutInSeconds,
+                                  final Log log)
+    throws IOException {
+    final List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.add("-cp");
+    command.add(getClasspath());
+    command.add(TillerTunnelDaemon.class.getName());
+    command.add(tunnelFile.toString());
+    command.add(tillerNamespace);
+    command.add(String.valueOf(tillerPort));
+    command.add(String.valueOf(idleTimeoutInSeconds));
+    if (tillerLabels != null && !tillerLabels.isEmpty()) {
+      final StringBuilder labels = new StringBuilder();
+      for (final Map.Entry<String, String> entry : new TreeMap<>(tillerLabels).entrySet()) {
+        if (labels.length() > 0) {
+          labels.append(',');
+        }
+        labels.append(entry.getKey()).append('=').append(entry.getValue());
+      }
+      command.add(labels.toString());
+    }
+    final ProcessBuilder processBuilder = new ProcessBuilder(command);
+    processBuilder.redirectErrorStream(true);
+    processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(getLogFile(tunnelFile).toFile()));
+    if (log != null && log.isInfoEnabled()) {
+      log.info("Starting Tiller tunnel daemon for " + tunnelFile);
+    }
+    processBuilder.start().getOutputStream().close();
+  }
+
+  /**
+   * Returns a classpath suitable for running this class in a new
+   * Java virtual machine.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} classpath
+   */
+  private static final String getClasspath() {
+    final ClassLoader classLoader = TillerTunnelDaemon.class.getClassLoader();
+    if (classLoader instanceof URLClassLoader) {
+      final StringBuilder classpath = new StringBuilder();
+      for (final URL url : ((URLClassLoader)classLoader).getURLs()) {
+        if (url != null && "file".equals(url.getProtocol())) {
+          String path;
+          try {
+            path = new File(url.toURI()).getPath();
+          } catch (final URISyntaxException | IllegalArgumentException malformed) {
+            path = url.getPath();
+          }
+          if (classpath.length() > 0) {
+            classpath.append(File.pathSeparatorChar);
+          }
+          classpath.append(path);
+        }
+      }
+      return classpath.toString();
+    }
+    return System.getProperty("java.class.path", "");
+  }
+
+  /**
+   * Reads the address recorded in the supplied tunnel file.
+   *
+   * @param tunnelFile the tunnel file to read; must not be {@code
+   * null}
+   *
+   * @return an {@link InetSocketAddress}, or {@code null} if the
+   * tunnel file does not exist or is incomplete
+   *
+   * @exception IOException if the tunnel file could not be read
+   */
+  private static final InetSocketAddress read(final Path tunnelFile) throws IOException {
+    final Properties properties = new Properties();
+    try (final InputStream inputStream = Files.newInputStream(tunnelFile)) {
+      properties.load(inputStream);
+    } catch (final NoSuchFileException noTunnelFile) {
+      return null;
+    }
+    final String host = properties.getProperty(HOST_PROPERTY);
+    final String port = properties.getProperty(PORT_PROPERTY);
+    if (host == null || port == null) {
+      return null;
+    }
+    try {
+      return new InetSocketAddress(host, Integer.parseInt(port));
+    } catch (final IllegalArgumentException malformed) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns {@code true} if a TCP connection can be established to
+   * the supplied {@link InetSocketAddress}.
+   *
+   * @param address the {@link InetSocketAddress} to probe; must not
+   * be {@code null}
+   *
+   * @return {@code true} if the address is reachable; {@code false}
+   * otherwise
+   */
+  private static final boolean isReachable(final InetSocketAddress address) {
+    try (final Socket socket = new Socket()) {
+      socket.connect(address, PROBE_TIMEOUT_IN_MILLISECONDS);
+      return true;
+    } catch (final IOException unreachable) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns {@code true} if a daemon currently holds the lock
+   * associated with the supplied tunnel file.
+   *
+   * <p>This method briefly acquires the lock itself, so it must only
+   * be called while the {@linkplain #getStartLockFile(Path) start
+   * lock} is held, when no daemon can be in the middle of acquiring
+   * it.</p>
+   *
+   * @param tunnelFile the tunnel file; must not be {@code null}
+   *
+   * @return {@code true} if a daemon holds the lock; {@code false}
+   * otherwise
+   *
+   * @exception IOException if the lock file could not be opened
+   */
+  private static final boolean isLocked(final Path tunnelFile) throws IOException {
+    try (final FileChannel lockChannel = FileChannel.open(getLockFile(tunnelFile), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+         final FileLock lock = tryLock(lockChannel)) {
+      return lock == null;
+    }
+  }
+
+  /**
+   * Attempts to acquire an exclusive lock on the supplied {@link
+   * FileChannel} without blocking.
+   *
+   * @param channel the {@link FileChannel} to lock; must not be
+   * {@code null}
+   *
+   * @return a {@link FileLock}, or {@code null} if the lock is held
+   * elsewhere
+   *
+   * @exception IOException if an error occurs
+   */
+  private static final FileLock tryLock(final FileChannel channel) throws IOException {
+    try {
+      return channel.tryLock();
+    } catch (final OverlappingFileLockException heldByThisJvm) {
+      return null;
+    }
+  }
+
+  /**
+   * Records that the supplied tunnel file has just been used.
+   *
+   * @param tunnelFile the tunnel file; must not be {@code null}
+   *
+   * @exception IOException if the tunnel file could not be updated
+   */
+  private static final void touch(final Path tunnelFile) throws IOException {
+    try {
+      Files.setLastModifiedTime(tunnelFile, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (final NoSuchFileException raceWithExitingDaemon) {
+      // The next acquisition will start a new daemon.
+    }
+  }
+
+  /**
+   * Returns the lock file associated with the supplied tunnel file.
+   *
+   * @param tunnelFile the tunnel file; must not be {@code null}
+   *
+   * @return the lock file; never {@code null}
+   */
+  private static final Path getLockFile(final Path tunnelFile) {
+    return tunnelFile.resolveSibling(tunnelFile.getFileName() + ".lock");
+  }
+
+  /**
+   * Returns the start lock file associated with the supplied tunnel
+   * file.
+   *
+   * @param tunnelFile the tunnel file; must not be {@code null}
+   *
+   * @return the start lock file; never {@code null}
+   */
+  private static final Path getStartLockFile(final Path tunnelFile) {
+    return tunnelFile.resolveSibling(tunnelFile.getFileName() + ".start.lock");
+  }
+
+  /**
+   * Returns the file to which a daemon serving the supplied tunnel
+   * file writes its output.
+   *
+   * @param tunnelFile the tunnel file; must not be {@code null}
+   *
+   * @return the log file; never {@code null}
+   */
+  private static final Path getLogFile(final Path tunnelFile) {
+    return tunnelFile.resolveSibling(tunnelFile.getFileName() + ".log");
+  }
+
+  /**
+   * Returns a sorted copy of the supplied Tiller labels, or the
+   * labels Tiller pods normally bear ({@code app = helm} and {@code
+   * name = tiller}) if none are supplied.
+   *
+   * @param tillerLabels the labels; may be {@code null}
+   *
+   * @return a non-{@code null} {@link Map} of labels
+   */
+  private static final Map<String, String> getLabels(final Map<String, String> tillerLabels) {
+    if (tillerLabels == null || tillerLabels.isEmpty()) {
+      final Map<String, String> defaultLabels = new TreeMap<>();
+      defaultLabels.put("app", "helm");
+      defaultLabels.put("name", "tiller");
+      return defaultLabels;
+    }
+    return new TreeMap<>(tillerLabels);
+  }
+
+  /**
+   * Parses labels expressed in {@code name=value,name=value} form.
+   *
+   * @param labels the labels to parse; may be {@code null}
+   *
+   * @return a non-{@code null} {@link Map} of labels
+   */
+  private static final Map<String, String> parseLabels(final String labels) {
+    final Map<String, String> returnValue = new LinkedHashMap<>();
+    if (labels != null) {
+      for (final String pair : labels.split(",")) {
+        final int equalsIndex = pair.indexOf('=');
+        if (equalsIndex > 0) {
+          returnValue.put(pair.substring(0, equalsIndex), pair.substring(equalsIndex + 1));
+        }
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns a file-name-safe digest identifying the Tiller server
+   * described by the supplied parameters.
+   *
+   * <p>This method is also used by {@link TillerPodCache} to name
+   * its cache files.</p>
+   *
+   * @param masterUrl the Kubernetes API server URL; may be {@code
+   * null}
+   *
+   * @param tillerNamespace the Kubernetes namespace housing Tiller
+   *
+   * @param tillerPort the port on which Tiller listens
+   *
+   * @param tillerLabels the labels Tiller pods bear
+   *
+   * @return a non-{@code null} hexadecimal digest
+   */
+  static final String digest(final String masterUrl, final String tillerNamespace, final int tillerPort, final Map<String, String> tillerLabels) {
+    final String key = new StringBuilder(String.valueOf(masterUrl)).append('|').append(tillerNamespace).append('|').append(tillerPort).append('|').append(tillerLabels).toString();
+    try {
+      final byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+      final StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 16; i++) {
+        sb.append(String.format("%02x", Byte.valueOf(digest[i])));
+      }
+      return sb.toString();
+    } catch (final NoSuchAlgorithmException noSha256) {
+      throw new IllegalStateException(noSha256.getMessage(), noSha256);
+    }
+  }
+
+}
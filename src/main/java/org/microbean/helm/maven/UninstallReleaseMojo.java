@@ -39,7 +39,7 @@ import org.microbean.helm.ReleaseManager;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "uninstall")
+@Mojo(name = "uninstall", threadSafe = true)
 public class UninstallReleaseMojo extends AbstractSingleReleaseMojo {
 
 
@@ -127,13 +127,17 @@ public class UninstallReleaseMojo extends AbstractSingleReleaseMojo {
     }
     final Future<UninstallReleaseResponse> uninstallReleaseResponseFuture = releaseManager.uninstall(requestBuilder.build());
     assert uninstallReleaseResponseFuture != null;
-    final UninstallReleaseResponse uninstallReleaseResponse = uninstallReleaseResponseFuture.get();
-    assert uninstallReleaseResponse != null;
-    if (log.isInfoEnabled()) {
-      final Release release = uninstallReleaseResponse.getRelease();
-      assert release != null;
-      log.info("Uninstalled release " + release.getName());
-    }
+    this.submit("Uninstalling release " + requestBuilder.getName(), uninstallReleaseResponseFuture::get, uninstallReleaseResponse -> {
+        assert uninstallReleaseResponse != null;
+        // Lets the upsert goal install rather than update this
+        // release later in the session.
+        ReleaseExistenceCache.put(releaseManager, requestBuilder.getName(), false);
+        if (log.isInfoEnabled()) {
+          final Release release = uninstallReleaseResponse.getRelease();
+          assert release != null;
+          log.info("Uninstalled release " + release.getName());
+        }
+      });
     
   }
 
@@ -0,0 +1,575 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import hapi.services.tiller.Tiller.ListReleasesRequest;
+import hapi.services.tiller.Tiller.ListReleasesResponse;
+import hapi.services.tiller.Tiller.UninstallReleaseRequest;
+import hapi.services.tiller.Tiller.UninstallReleaseResponse;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import org.microbean.helm.ReleaseManager;
+
+/**
+ * Uninstalls every release matching a {@linkplain #getFilter()
+ * filter}, keeping at most {@linkplain #getConcurrency()
+ * <code>concurrency</code>} uninstallations outstanding at once.
+ *
+ * <p>Matching releases are uninstalled as they are listed, so
+ * uninstallation begins before the listing is complete.  If {@link
+ * #getDryRun() dryRun} is {@code true}, matching releases are only
+ * logged.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see UninstallReleaseMojo
+ */
+@Mojo(name = "uninstall-batch", threadSafe = true)
+public class UninstallReleasesMojo extends UninstallReleaseMojo {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The name of a single additional release to uninstall.
+   *
+   * @see #getReleaseName()
+   *
+   * @see #setReleaseName(String)
+   */
+  /*
+   * This field shadows the AbstractSingleReleaseMojo#releaseName
+   * field on purpose to relax its "required" nature.
+   */
+  @Parameter
+  private String releaseName;
+
+  /**
+   * The regular expression selecting the releases to uninstall,
+   * exactly as accepted by the {@code list} goal's {@code filter}
+   * parameter.  To uninstall every release, it must be specified
+   * explicitly as {@code .*}.
+   */
+  @Parameter(property = "helm.uninstall.filter")
+  private String filter;
+
+  /**
+   * The namespace from which releases matching the {@linkplain
+   * #getFilter() filter} will be listed.
+   */
+  @Parameter(property = "helm.uninstall.namespace")
+  private String namespace;
+
+  /**
+   * A {@link List} of <a
+   * href="https://microbean.github.io/microbean-helm/apidocs/hapi/release/StatusOuterClass.Status.Code.html">{@code
+   * StatusOuterClass.Status.Code}</a>s.  Releases matching the
+   * {@linkplain #getFilter() filter} must have one of these status
+   * codes to be uninstalled.
+   */
+  @Parameter
+  private List<Status.Code> statusCodes;
+
+  /**
+   * The maximum number of uninstallations that may be outstanding at
+   * once.
+   */
+  @Parameter(defaultValue = "8", property = "helm.uninstall.concurrency")
+  private int concurrency;
+
+  /**
+   * Whether to only log the releases that would be uninstalled.
+   */
+  @Parameter(defaultValue = "false", property = "helm.dryRun")
+  private boolean dryRun;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link UninstallReleasesMojo}.
+   */
+  public UninstallReleasesMojo() {
+    super();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation lists the releases matching the
+   * {@linkplain #getFilter() filter}, together with the {@linkplain
+   * #getReleaseName() named release} if there is one, and <a
+   * href="https://docs.helm.sh/using_helm/#helm-delete-deleting-a-release">uninstalls</a>
+   * each as soon as it is listed.  Failures are reported together
+   * once every matching release has been processed.</p>
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    final Log log = this.getLog();
+    assert log != null;
+
+    final String filter = this.getFilter();
+    final String releaseName = this.getReleaseName();
+    if ((filter == null || filter.isEmpty()) && (releaseName == null || releaseName.isEmpty())) {
+      throw new MojoExecutionException("Neither a filter nor a releaseName was specified");
+    }
+
+    final ReleaseManager releaseManager = releaseManagerCallable.call();
+    if (releaseManager == null) {
+      throw new IllegalStateException("releaseManagerCallable.call() == null");
+    }
+
+    final boolean dryRun = this.getDryRun();
+    final int concurrency = Math.max(1, this.getConcurrency());
+    final Deque<Map.Entry<String, Future<UninstallReleaseResponse>>> inFlight = new ArrayDeque<>(concurrency);
+    final Set<String> seen = new HashSet<>();
+    final int[] counts = new int[2]; // uninstalled, failed
+    MojoExecutionException failure = null;
+    try {
+      if (releaseName != null && !releaseName.isEmpty()) {
+        seen.add(releaseName);
+        failure = this.uninstall(releaseManager, releaseName, dryRun, inFlight, concurrency, counts, failure);
+      }
+
+      if (filter != null && !filter.isEmpty()) {
+        final ListReleasesRequest.Builder requestBuilder = ListReleasesRequest.newBuilder();
+        assert requestBuilder != null;
+        requestBuilder.setFilter(filter);
+
+        String namespace = this.getNamespace();
+        if (namespace == null || namespace.isEmpty()) {
+          final io.fabric8.kubernetes.client.Config configuration = this.getClientConfiguration();
+          if (configuration == null) {
+            namespace = "default";
+          } else {
+            namespace = configuration.getNamespace();
+            if (namespace == null || namespace.isEmpty()) {
+              namespace = "default";
+            }
+          }
+        }
+        this.validateNamespace(namespace);
+        requestBuilder.setNamespace(namespace);
+
+        final Iterable<Status.Code> statusCodes = this.getStatusCodes();
+        if (statusCodes != null) {
+          requestBuilder.addAllStatusCodes(statusCodes);
+        }
+
+        if (log.isInfoEnabled()) {
+          log.info((dryRun ? "Listing releases that would be uninstalled from namespace " : "Uninstalling releases from namespace ") + namespace + " matching " + filter);
+        }
+
+        // Offsets are release names, so uninstalling releases that
+        // have already been listed does not disturb paging.
+        String offset = "";
+        do {
+          requestBuilder.setOffset(offset);
+          final Iterator<? extends ListReleasesResponse> listReleasesResponseIterator = releaseManager.list(requestBuilder.build());
+          assert listReleasesResponseIterator != null;
+          offset = "";
+          while (listReleasesResponseIterator.hasNext()) {
+            final ListReleasesResponse response = listReleasesResponseIterator.next();
+            assert response != null;
+            for (final Release release : response.getReleasesList()) {
+              final String name = release.getName();
+              if (seen.add(name)) {
+                failure = this.uninstall(releaseManager, name, dryRun, inFlight, concurrency, counts, failure);
+              }
+            }
+            offset = response.getNext();
+          }
+        } while (offset != null && !offset.isEmpty());
+      }
+
+      while (!inFlight.isEmpty()) {
+        failure = this.complete(inFlight.removeFirst(), counts, failure);
+      }
+    } finally {
+      for (final Map.Entry<String, Future<UninstallReleaseResponse>> abandoned : inFlight) {
+        abandoned.getValue().cancel(true);
+      }
+    }
+
+    if (log.isInfoEnabled()) {
+      if (dryRun) {
+        log.info("Would uninstall " + seen.size() + " release(s)");
+      } else {
+        log.info("Uninstalled " + counts[0] + " release(s)");
+      }
+    }
+    if (failure != null) {
+      throw new MojoExecutionException("Failed to uninstall " + counts[1] + " of " + seen.size() + " releases", failure);
+    }
+  }
+
+  /**
+   * Starts uninstalling the release with the supplied name, first
+   * waiting for the oldest outstanding uninstallation to complete if
+   * {@code concurrency} uninstallations are already outstanding.
+   *
+   * @param releaseManager the {@link ReleaseManager} to use; must not
+   * be {@code null}
+   *
+   * @param releaseName the name of the release to uninstall; must
+   * not be {@code null}
+   *
+   * @param dryRun if {@code true}, the release is only logged
+   *
+   * @param inFlight the outstanding uninstallations, oldest first;
+   * must not be {@code null}
+   *
+   * @param concurrency the maximum number of outstanding
+   * uninstallations
+   *
+   * @param counts a two-element array holding the number of releases
+   * uninstalled and the number of failures so far; must not be {@code
+   * null}
+   *
+   * @param failure the {@link MojoExecutionException} accumulating
+   * failures so far; may be {@code null}
+   *
+   * @return the {@link MojoExecutionException} accumulating failures,
+   * or {@code null} if there have been none
+   *
+   * @exception InterruptedException if the current thread was
+   * interrupted while waiting
+   */
+  private final MojoExecutionException uninstall(final ReleaseManager releaseManager,
+                                                 final String releaseName,
+                                                 final boolean dryRun,
+                                                 final Deque<Map.Entry<String, Future<UninstallReleaseResponse>>> inFlight,
+                                                 final int concurrency,
+                                                 final int[] counts,
+                                                 MojoExecutionException failure)
+    throws InterruptedException {
+    assert releaseManager != null;
+    assert releaseName != null;
+    assert inFlight != null;
+    assert counts != null;
+    final Log log = this.getLog();
+    assert log != null;
+    if (dryRun) {
+      if (log.isInfoEnabled()) {
+        log.info("Would uninstall release " + releaseName);
+      }
+    } else {
+      while (inFlight.size() >= concurrency) {
+        failure = this.complete(inFlight.removeFirst(), counts, failure);
+      }
+      final UninstallReleaseRequest request = UninstallReleaseRequest.newBuilder()
+        .setName(releaseName)
+        .setDisableHooks(this.getDisableHooks())
+        .setPurge(this.getPurge())
+        .setTimeout(this.getTimeout())
+        .build();
+      if (log.isInfoEnabled()) {
+        log.info("Uninstalling release " + releaseName);
+      }
+      try {
+        final Future<UninstallReleaseResponse> future = releaseManager.uninstall(request);
+        assert future != null;
+        inFlight.addLast(new SimpleImmutableEntry<>(releaseName, future));
+      } catch (final Exception exception) {
+        failure = this.recordFailure(releaseName, exception, counts, failure);
+      }
+    }
+    return failure;
+  }
+
+  /**
+   * Waits for the supplied outstanding uninstallation to complete and
+   * records its outcome.
+   *
+   * @param entry the name of the release being uninstalled together
+   * with the {@link Future} representing its uninstallation; must not
+   * be {@code null}
+   *
+   * @param counts a two-element array holding the number of releases
+   * uninstalled and the number of failures so far; must not be {@code
+   * null}
+   *
+   * @param failure the {@link MojoExecutionException} accumulating
+   * failures so far; may be {@code null}
+   *
+   * @return the {@link MojoExecutionException} accumulating failures,
+   * or {@code null} if there have been none
+   *
+   * @exception InterruptedException if the current thread was
+   * interrupted while waiting
+   */
+  private final MojoExecutionException complete(final Map.Entry<String, Future<UninstallReleaseResponse>> entry, final int[] counts, final MojoExecutionException failure) throws InterruptedException {
+    assert entry != null;
+    assert counts != null;
+    final Log log = this.getLog();
+    assert log != null;
+    MojoExecutionException returnValue = failure;
+    try {
+      final UninstallReleaseResponse response = entry.getValue().get();
+      assert response != null;
+      counts[0]++;
+      if (log.isInfoEnabled()) {
+        log.info("Uninstalled release " + entry.getKey());
+      }
+    } catch (final ExecutionException executionException) {
+      final Throwable cause = executionException.getCause();
+      returnValue = this.recordFailure(entry.getKey(), cause == null ? executionException : cause, counts, failure);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Logs and records the failure to uninstall the release with the
+   * supplied name.
+   *
+   * @param releaseName the name of the release; must not be {@code
+   * null}
+   *
+   * @param cause the failure; must not be {@code null}
+   *
+   * @param counts a two-element array holding the number of releases
+   * uninstalled and the number of failures so far; must not be {@code
+   * null}
+   *
+   * @param failure the {@link MojoExecutionException} accumulating
+   * failures so far; may be {@code null}
+   *
+   * @return the non-{@code null} {@link MojoExecutionException}
+   * accumulating failures
+   */
+  private final MojoExecutionException recordFailure(final String releaseName, final Throwable cause, final int[] counts, final MojoExecutionException failure) {
+    assert releaseName != null;
+    assert cause != null;
+    assert counts != null;
+    final Log log = this.getLog();
+    assert log != null;
+    counts[1]++;
+    if (log.isErrorEnabled()) {
+      log.error("Release " + releaseName + ": failed: " + cause.getMessage());
+    }
+    final MojoExecutionException returnValue;
+    if (failure == null) {
+      returnValue = new MojoExecutionException("Release " + releaseName + ": " + cause.getMessage(), cause);
+    } else {
+      failure.addSuppressed(cause);
+      returnValue = failure;
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the name of a single additional release to uninstall.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the name of a release, or {@code null}
+   *
+   * @see #setReleaseName(String)
+   */
+  @Override
+  public String getReleaseName() {
+    return this.releaseName;
+  }
+
+  /**
+   * Sets the name of a single additional release to uninstall.
+   *
+   * @param releaseName the name of a release; may be {@code null}
+   *
+   * @see #getReleaseName()
+   */
+  @Override
+  public void setReleaseName(final String releaseName) {
+    if (releaseName != null && !releaseName.isEmpty()) {
+      this.validateReleaseName(releaseName);
+    }
+    this.releaseName = releaseName;
+  }
+
+  /**
+   * Returns the regular expression selecting the releases to
+   * uninstall.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a regular expression, or {@code null}
+   *
+   * @see #setFilter(String)
+   */
+  public String getFilter() {
+    return this.filter;
+  }
+
+  /**
+   * Sets the regular expression selecting the releases to uninstall.
+   *
+   * @param filter a regular expression; may be {@code null}
+   *
+   * @see #getFilter()
+   */
+  public void setFilter(final String filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * Returns the <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * from which releases matching the {@linkplain #getFilter() filter}
+   * will be listed.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a namespace, or {@code null}
+   *
+   * @see #setNamespace(String)
+   */
+  public String getNamespace() {
+    return this.namespace;
+  }
+
+  /**
+   * Sets the <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * from which releases matching the {@linkplain #getFilter() filter}
+   * will be listed.
+   *
+   * @param namespace a namespace; may be {@code null}
+   *
+   * @see #getNamespace()
+   */
+  public void setNamespace(final String namespace) {
+    this.namespace = namespace;
+  }
+
+  /**
+   * Returns the {@link List} of {@link Status.Code} instances one of
+   * which releases matching the {@linkplain #getFilter() filter} must
+   * have to be uninstalled.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link List} of {@link Status.Code}s, or {@code null}
+   *
+   * @see #setStatusCodes(List)
+   */
+  public List<Status.Code> getStatusCodes() {
+    return this.statusCodes;
+  }
+
+  /**
+   * Sets the {@link List} of {@link Status.Code} instances one of
+   * which releases matching the {@linkplain #getFilter() filter} must
+   * have to be uninstalled.
+   *
+   * @param statusCodes a {@link List} of {@link Status.Code}s; may be
+   * {@code null}
+   *
+   * @see #getStatusCodes()
+   */
+  public void setStatusCodes(final List<Status.Code> statusCodes) {
+    this.statusCodes = statusCodes;
+  }
+
+  /**
+   * Returns the maximum number of uninstallations that may be
+   * outstanding at once.
+   *
+   * @return the maximum number of outstanding uninstallations
+   *
+   * @see #setConcurrency(int)
+   */
+  public int getConcurrency() {
+    return this.concurrency;
+  }
+
+  /**
+   * Sets the maximum number of uninstallations that may be
+   * outstanding at once.
+   *
+   * @param concurrency the maximum number of outstanding
+   * uninstallations; values less than {@code 1} are treated as {@code
+   * 1}
+   *
+   * @see #getConcurrency()
+   */
+  public void setConcurrency(final int concurrency) {
+    this.concurrency = concurrency;
+  }
+
+  /**
+   * Returns whether the releases that would be uninstalled should
+   * only be logged.
+   *
+   * @return {@code true} if releases should only be logged; {@code
+   * false} otherwise
+   *
+   * @see #setDryRun(boolean)
+   */
+  public boolean getDryRun() {
+    return this.dryRun;
+  }
+
+  /**
+   * Sets whether the releases that would be uninstalled should only
+   * be logged.
+   *
+   * @param dryRun if {@code true}, releases will only be logged
+   *
+   * @see #getDryRun()
+   */
+  public void setDryRun(final boolean dryRun) {
+    this.dryRun = dryRun;
+  }
+
+}
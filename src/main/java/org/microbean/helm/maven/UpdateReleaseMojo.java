@@ -16,16 +16,9 @@
  */
 package org.microbean.helm.maven;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-
 import java.net.URI;
 import java.net.URL;
 
-import java.nio.charset.StandardCharsets;
-
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -68,7 +61,7 @@ import org.microbean.helm.chart.URLChartLoader;
  * @author <a href="https://about.me/lairdnelson"
  * target="_parent">Laird Nelson</a>
  */
-@Mojo(name = "update")
+@Mojo(name = "update", threadSafe = true)
 public class UpdateReleaseMojo extends AbstractForceableMutatingReleaseMojo {
 
 
@@ -142,6 +135,16 @@ public class UpdateReleaseMojo extends AbstractForceableMutatingReleaseMojo {
    */
   @Parameter(property = "helm.update.valuesYamlUri")
   private URI valuesYamlUri;
+
+  /**
+   * Whether this execution should only register the release
+   * operation, leaving it to be performed, concurrently with those
+   * registered by other projects, once every execution of this goal
+   * in the reactor has completed.  Requires {@code
+   * poolReleaseManagers} to be {@code true}.
+   */
+  @Parameter(defaultValue = "false", property = "helm.aggregate")
+  private boolean aggregate;
   
   
   /*
@@ -206,6 +209,11 @@ public class UpdateReleaseMojo extends AbstractForceableMutatingReleaseMojo {
       log.debug("chartUrl: " + chartUrl);
     }
 
+    if (!this.getAggregate()) {
+      // Connect to Tiller while the chart and values are loaded.
+      this.connectInBackground(releaseManagerCallable);
+    }
+
     Chart.Builder chartBuilder = null;
     try (final AbstractChartLoader<URL> chartLoader = this.createChartLoader()) {
       if (chartLoader == null) {
@@ -243,23 +251,7 @@ public class UpdateReleaseMojo extends AbstractForceableMutatingReleaseMojo {
     requestBuilder.setReuseValues(this.getReuseValues());
     requestBuilder.setTimeout(this.getTimeout());
 
-    String valuesYaml = this.getValuesYaml();
-    if (valuesYaml == null || valuesYaml.isEmpty()) {
-      final URI valuesYamlUri = this.getValuesYamlUri();
-      if (valuesYamlUri != null) {
-        final URL yamlUrl = valuesYamlUri.toURL();
-        assert yamlUrl != null;
-        try (final Reader reader = new BufferedReader(new InputStreamReader(yamlUrl.openStream(), StandardCharsets.UTF_8))) {
-          final StringBuilder sb = new StringBuilder();
-          final char[] buffer = new char[4096];
-          int charsRead = -1;
-          while ((charsRead = reader.read(buffer, 0, buffer.length)) >= 0) {
-            sb.append(buffer, 0, charsRead);
-          }
-          valuesYaml = sb.toString();
-        }
-      }
-    }
+    final String valuesYaml = this.readValuesYaml(this.getValuesYaml(), this.getValuesYamlUri());
     if (valuesYaml != null && !valuesYaml.isEmpty()) {
       final hapi.chart.ConfigOuterClass.Config.Builder values = requestBuilder.getValuesBuilder();
       assert values != null;
@@ -268,22 +260,31 @@ public class UpdateReleaseMojo extends AbstractForceableMutatingReleaseMojo {
     
     requestBuilder.setWait(this.getWait());
 
-    final ReleaseManager releaseManager = releaseManagerCallable.call();
-    if (releaseManager == null) {
-      throw new IllegalStateException("releaseManagerCallable.call() == null");
-    }
+    final String description = "Updating release " + requestBuilder.getName();
+    final ReleaseOperationResultHandler<UpdateReleaseResponse> resultHandler = updateReleaseResponse -> {
+      assert updateReleaseResponse != null;
+      if (log.isInfoEnabled()) {
+        final Release release = updateReleaseResponse.getRelease();
+        assert release != null;
+        log.info("Updated release " + release.getName());
+      }
+    };
+
+    if (this.getAggregate()) {
+      final Chart.Builder aggregatedChartBuilder = chartBuilder;
+      this.aggregate(description, releaseManagerCallable, releaseManager -> releaseManager.update(requestBuilder, aggregatedChartBuilder), resultHandler);
+    } else {
+      final ReleaseManager releaseManager = releaseManagerCallable.call();
+      if (releaseManager == null) {
+        throw new IllegalStateException("releaseManagerCallable.call() == null");
+      }
 
-    if (log.isInfoEnabled()) {
-      log.info("Updating release " + requestBuilder.getName());
-    }
-    final Future<UpdateReleaseResponse> updateReleaseResponseFuture = releaseManager.update(requestBuilder, chartBuilder);
-    assert updateReleaseResponseFuture != null;
-    final UpdateReleaseResponse updateReleaseResponse = updateReleaseResponseFuture.get();
-    assert updateReleaseResponse != null;
-    if (log.isInfoEnabled()) {
-      final Release release = updateReleaseResponse.getRelease();
-      assert release != null;
-      log.info("Updated release " + release.getName());
+      if (log.isInfoEnabled()) {
+        log.info(description);
+      }
+      final Future<UpdateReleaseResponse> updateReleaseResponseFuture = releaseManager.update(requestBuilder, chartBuilder);
+      assert updateReleaseResponseFuture != null;
+      this.submit(description, updateReleaseResponseFuture::get, resultHandler);
     }
     
   }
@@ -437,6 +438,37 @@ public class UpdateReleaseMojo extends AbstractForceableMutatingReleaseMojo {
     this.valuesYamlUri = valuesYamlUri;
   }
 
+  /**
+   * Returns {@code true} if this execution should only register the
+   * release operation, leaving it to be performed once every
+   * execution of this goal in the reactor has completed.
+   *
+   * @return {@code true} if the release operation should be
+   * aggregated; {@code false} otherwise
+   *
+   * @see #setAggregate(boolean)
+   *
+   * @see #aggregate(String, Callable, ReleaseManagerOperation,
+   * ReleaseOperationResultHandler)
+   */
+  public boolean getAggregate() {
+    return this.aggregate;
+  }
+
+  /**
+   * Sets whether this execution should only register the release
+   * operation, leaving it to be performed once every execution of
+   * this goal in the reactor has completed.
+   *
+   * @param aggregate whether the release operation should be
+   * aggregated
+   *
+   * @see #getAggregate()
+   */
+  public void setAggregate(final boolean aggregate) {
+    this.aggregate = aggregate;
+  }
+
   /**
    * Creates and returns an {@link AbstractChartLoader} capable of
    * loading a Helm chart from a {@link URL}.
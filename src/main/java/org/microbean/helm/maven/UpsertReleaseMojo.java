@@ -0,0 +1,837 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.net.URI;
+import java.net.URL;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Objects;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.inject.Inject;
+
+import hapi.chart.ChartOuterClass.Chart;
+
+import hapi.release.ReleaseOuterClass.Release;
+
+import hapi.services.tiller.Tiller.InstallReleaseRequest;
+import hapi.services.tiller.Tiller.InstallReleaseResponse;
+import hapi.services.tiller.Tiller.UpdateReleaseRequest;
+import hapi.services.tiller.Tiller.UpdateReleaseResponse;
+
+import io.grpc.Status;
+import io.grpc.StatusException;
+import io.grpc.StatusRuntimeException;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.plugin.logging.Log;
+
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import org.apache.maven.project.MavenProject;
+
+import org.microbean.helm.ReleaseManager;
+
+import org.microbean.helm.chart.AbstractChartLoader;
+import org.microbean.helm.chart.URLChartLoader;
+
+/**
+ * <a
+ * href="https://docs.helm.sh/using_helm/#helm-upgrade-and-helm-rollback-upgrading-a-release-and-recovering-on-failure">Updates
+ * a release</a> if it exists and otherwise <a
+ * href="https://github.com/kubernetes/helm/blob/master/docs/using_helm.md#helm-install-installing-a-package">installs
+ * it</a>, in the manner of {@code helm upgrade --install}.
+ *
+ * <p>The update is attempted first.  If Tiller reports that the
+ * release does not exist, or that it has no deployed versions
+ * because it was deleted without being purged, the release is
+ * installed instead, reusing its name in the latter case.  If the
+ * release is known to have been {@linkplain UninstallReleaseMojo
+ * uninstalled} earlier in the same Maven session over the same
+ * pooled {@link ReleaseManager}, the installation is attempted first
+ * instead, falling back to an update if Tiller reports that the
+ * release is still in use.  The chart is loaded only once and the
+ * same {@link ReleaseManager} is used for both attempts.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see InstallReleaseMojo
+ *
+ * @see UpdateReleaseMojo
+ */
+@Mojo(name = "upsert", threadSafe = true)
+public class UpsertReleaseMojo extends AbstractForceableMutatingReleaseMojo {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link MavenProject} in effect.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #UpsertReleaseMojo(MavenProject)
+   */
+  private final MavenProject project;
+
+  /**
+   * A {@link URL} to the chart to update or install the release
+   * with.  If omitted,
+   * <code>file:/${project.build.directory}/generated-sources/helm/charts/${project.artifactId}</code>
+   * will be used instead.
+   */
+  @Parameter(property = "helm.upsert.chartUrl")
+  private URL chartUrl;
+
+  /**
+   * The <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * into which the release will be installed if it does not exist.
+   */
+  @Parameter
+  private String releaseNamespace;
+
+  /**
+   * Whether to reuse the release name if the release must be
+   * installed.  It is strongly recommended that you not set this to
+   * {@code true} in production scenarios.
+   */
+  @Parameter(defaultValue = "false")
+  private boolean reuseReleaseName;
+
+  /**
+   * Whether values should be reset to the values built in to the
+   * chart when the release is updated.  Ignored if {@code
+   * reuseValues} is {@code true}.
+   */
+  @Parameter(defaultValue = "false", property = "helm.upsert.resetValues")
+  private boolean resetValues;
+
+  /**
+   * Whether values should be reused from the prior release, merged
+   * together with any additional values specified in the {@code
+   * valuesYaml} parameter, when the release is updated.  Ignored if
+   * {@code resetValues} is {@code true}.
+   */
+  @Parameter(property = "helm.upsert.reuseValues")
+  private boolean reuseValues;
+
+  /**
+   * YAML-formatted values to supply when updating or installing the
+   * release.
+   *
+   * If this parameter and the {@code valuesYamlUri} parameter are
+   * both specified, this parameter is preferred if its value is
+   * non-{@code null} and non-empty.
+   */
+  @Parameter(property = "helm.upsert.valuesYaml")
+  private String valuesYaml;
+
+  /**
+   * A URI identifying a document containing YAML-formatted values to
+   * supply when updating or installing the release.
+   *
+   * If this parameter and the {@code valuesYaml} parameter are both
+   * specified, this parameter is ignored if the value of the {@code
+   * valuesYaml} parameter is non-{@code null} and non-empty.
+   */
+  @Parameter(property = "helm.upsert.valuesYamlUri")
+  private URI valuesYamlUri;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link UpsertReleaseMojo}.
+   *
+   * @param project the {@link MavenProject} in effect; must not be
+   * {@code null}
+   *
+   * @exception NullPointerException if {@code project} is {@code
+   * null}
+   */
+  @Inject
+  public UpsertReleaseMojo(final MavenProject project) {
+    super();
+    this.project = Objects.requireNonNull(project);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This implementation <a
+   * href="https://docs.helm.sh/using_helm/#helm-upgrade-and-helm-rollback-upgrading-a-release-and-recovering-on-failure">updates</a>
+   * the release named by the {@linkplain #getReleaseName() supplied
+   * release name} with the <a
+   * href="https://docs.helm.sh/developing_charts/#charts">chart</a>
+   * residing at the {@linkplain #getChartUrl() indicated URL}, or <a
+   * href="https://github.com/kubernetes/helm/blob/master/docs/using_helm.md#helm-install-installing-a-package">installs</a>
+   * that chart under that name if the release does not exist.</p>
+   */
+  @Override
+  protected void execute(final Callable<ReleaseManager> releaseManagerCallable) throws Exception {
+    Objects.requireNonNull(releaseManagerCallable);
+    final Log log = this.getLog();
+    assert log != null;
+
+    URL chartUrl = this.getChartUrl();
+    if (chartUrl == null) {
+      final Path chartDirectoryPath = Paths.get(new StringBuilder(this.project.getBuild().getDirectory()).append("/generated-sources/helm/charts/").append(this.project.getArtifactId()).toString());
+      assert chartDirectoryPath != null;
+      chartUrl = chartDirectoryPath.toUri().toURL();
+      if (!Files.isDirectory(chartDirectoryPath)) {
+        throw new MojoExecutionException("Non-existent chartUrl: " + chartUrl);
+      }
+    }
+    assert chartUrl != null;
+    if (log.isDebugEnabled()) {
+      log.debug("chartUrl: " + chartUrl);
+    }
+
+    // Connect to Tiller while the chart and values are loaded.
+    this.connectInBackground(releaseManagerCallable);
+
+    Chart.Builder chartBuilder = null;
+    try (final AbstractChartLoader<URL> chartLoader = this.createChartLoader()) {
+      if (chartLoader == null) {
+        throw new IllegalStateException("createChartLoader() == null");
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("chartLoader: " + chartLoader);
+        log.debug("Loading Helm chart from " + chartUrl);
+      }
+      chartBuilder = chartLoader.load(chartUrl);
+    }
+
+    if (chartBuilder == null) {
+      throw new IllegalStateException("chartBuilder.load(\"" + chartUrl + "\") == null");
+    }
+
+    if (log.isInfoEnabled()) {
+      log.info("Loaded Helm chart from " + chartUrl);
+    }
+
+    // Each attempt gets its own copy of the chart.
+    final Chart chart = chartBuilder.build();
+    assert chart != null;
+
+    final String releaseName = this.getReleaseName();
+    final String valuesYaml = this.readValuesYaml(this.getValuesYaml(), this.getValuesYamlUri());
+
+    final UpdateReleaseRequest.Builder updateRequestBuilder = UpdateReleaseRequest.newBuilder();
+    assert updateRequestBuilder != null;
+    updateRequestBuilder.setDisableHooks(this.getDisableHooks());
+    updateRequestBuilder.setDryRun(this.getDryRun());
+    updateRequestBuilder.setForce(this.getForce());
+    if (releaseName != null) {
+      updateRequestBuilder.setName(releaseName);
+    }
+    updateRequestBuilder.setRecreate(this.getRecreate());
+    updateRequestBuilder.setResetValues(this.getResetValues());
+    updateRequestBuilder.setReuseValues(this.getReuseValues());
+    updateRequestBuilder.setTimeout(this.getTimeout());
+    if (valuesYaml != null && !valuesYaml.isEmpty()) {
+      final hapi.chart.ConfigOuterClass.Config.Builder values = updateRequestBuilder.getValuesBuilder();
+      assert values != null;
+      values.setRaw(valuesYaml);
+    }
+    updateRequestBuilder.setWait(this.getWait());
+
+    final InstallReleaseRequest.Builder installRequestBuilder = InstallReleaseRequest.newBuilder();
+    assert installRequestBuilder != null;
+    installRequestBuilder.setDisableHooks(this.getDisableHooks());
+    installRequestBuilder.setDryRun(this.getDryRun());
+    if (releaseName != null) {
+      installRequestBuilder.setName(releaseName);
+    }
+    final String releaseNamespace = this.getReleaseNamespace();
+    if (releaseNamespace != null) {
+      installRequestBuilder.setNamespace(releaseNamespace);
+    }
+    installRequestBuilder.setReuseName(this.getReuseReleaseName());
+    installRequestBuilder.setTimeout(this.getTimeout());
+    if (valuesYaml != null && !valuesYaml.isEmpty()) {
+      final hapi.chart.ConfigOuterClass.Config.Builder values = installRequestBuilder.getValuesBuilder();
+      assert values != null;
+      values.setRaw(valuesYaml);
+    }
+    installRequestBuilder.setWait(this.getWait());
+
+    final ReleaseManager releaseManager = releaseManagerCallable.call();
+    if (releaseManager == null) {
+      throw new IllegalStateException("releaseManagerCallable.call() == null");
+    }
+
+    if (log.isInfoEnabled()) {
+      log.info("Upserting release " + releaseName);
+    }
+    this.submit("Upserting release " + releaseName, () -> this.upsert(releaseManager, chart, updateRequestBuilder, installRequestBuilder), release -> {
+        assert release != null;
+        if (log.isInfoEnabled()) {
+          log.info("Upserted release " + release.getName() + " (version " + release.getVersion() + ")");
+        }
+      });
+  }
+
+  /**
+   * Updates a release if it exists and otherwise installs it,
+   * returning the resulting {@link Release}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>The update is tried first unless the {@link
+   * ReleaseExistenceCache} records that the release was deleted
+   * earlier in the Maven session, in which case the installation is
+   * tried first instead.  Either way, if the first attempt fails
+   * because the release turns out to be in the other state, the
+   * other operation is then attempted.</p>
+   *
+   * @param releaseManager the {@link ReleaseManager} to use; must not
+   * be {@code null}
+   *
+   * @param chart the {@link Chart} to update or install the release
+   * with; must not be {@code null}
+   *
+   * @param updateRequestBuilder the {@link
+   * UpdateReleaseRequest.Builder} describing the update; must not be
+   * {@code null}
+   *
+   * @param installRequestBuilder the {@link
+   * InstallReleaseRequest.Builder} describing the installation; must
+   * not be {@code null}
+   *
+   * @return the non-{@code null} {@link Release} that was updated or
+   * installed
+   *
+   * @exception Exception if the release could be neither updated nor
+   * installed
+   */
+  private final Release upsert(final ReleaseManager releaseManager, final Chart chart, final UpdateReleaseRequest.Builder updateRequestBuilder, final InstallReleaseRequest.Builder installRequestBuilder) throws Exception {
+    assert releaseManager != null;
+    final String releaseName = updateRequestBuilder.getName();
+    final Release returnValue;
+    if (Boolean.FALSE.equals(ReleaseExistenceCache.get(releaseManager, releaseName))) {
+      returnValue = this.installOrUpdate(releaseManager, chart, updateRequestBuilder, installRequestBuilder);
+    } else {
+      returnValue = this.updateOrInstall(releaseManager, chart, updateRequestBuilder, installRequestBuilder);
+    }
+    assert returnValue != null;
+    if (!this.getDryRun()) {
+      ReleaseExistenceCache.put(releaseManager, releaseName, true);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Attempts to update a release and, if Tiller reports that it does
+   * not exist, installs it instead, returning the resulting {@link
+   * Release}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releaseManager the {@link ReleaseManager} to use; must not
+   * be {@code null}
+   *
+   * @param chart the {@link Chart} to update or install the release
+   * with; must not be {@code null}
+   *
+   * @param updateRequestBuilder the {@link
+   * UpdateReleaseRequest.Builder} describing the update; must not be
+   * {@code null}
+   *
+   * @param installRequestBuilder the {@link
+   * InstallReleaseRequest.Builder} describing the installation; must
+   * not be {@code null}
+   *
+   * @return the non-{@code null} {@link Release} that was updated or
+   * installed
+   *
+   * @exception Exception if the release could be neither updated nor
+   * installed
+   */
+  private final Release updateOrInstall(final ReleaseManager releaseManager, final Chart chart, final UpdateReleaseRequest.Builder updateRequestBuilder, final InstallReleaseRequest.Builder installRequestBuilder) throws Exception {
+    final Log log = this.getLog();
+    assert log != null;
+    try {
+      return this.update(releaseManager, chart, updateRequestBuilder);
+    } catch (final ExecutionException executionException) {
+      final String releaseName = updateRequestBuilder.getName();
+      final String description = getDescription(executionException.getCause());
+      if (isNoDeployedReleasesDescription(description, releaseName)) {
+        // The release was deleted but not purged; its name must be
+        // reused.
+        installRequestBuilder.setReuseName(true);
+      } else if (!isNotFoundDescription(description, releaseName)) {
+        throw executionException;
+      }
+      if (log.isInfoEnabled()) {
+        log.info("Release " + releaseName + " does not exist (" + description + "); installing it");
+      }
+    }
+    return this.install(releaseManager, chart, installRequestBuilder);
+  }
+
+  /**
+   * Attempts to install a release that is believed to have been
+   * deleted and, if Tiller reports that it is still in use, updates
+   * it instead, returning the resulting {@link Release}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releaseManager the {@link ReleaseManager} to use; must not
+   * be {@code null}
+   *
+   * @param chart the {@link Chart} to update or install the release
+   * with; must not be {@code null}
+   *
+   * @param updateRequestBuilder the {@link
+   * UpdateReleaseRequest.Builder} describing the update; must not be
+   * {@code null}
+   *
+   * @param installRequestBuilder the {@link
+   * InstallReleaseRequest.Builder} describing the installation; must
+   * not be {@code null}
+   *
+   * @return the non-{@code null} {@link Release} that was installed
+   * or updated
+   *
+   * @exception Exception if the release could be neither installed
+   * nor updated
+   */
+  private final Release installOrUpdate(final ReleaseManager releaseManager, final Chart chart, final UpdateReleaseRequest.Builder updateRequestBuilder, final InstallReleaseRequest.Builder installRequestBuilder) throws Exception {
+    final Log log = this.getLog();
+    assert log != null;
+    // The release may have been deleted without being purged, in
+    // which case its name must be reused.
+    installRequestBuilder.setReuseName(true);
+    try {
+      return this.install(releaseManager, chart, installRequestBuilder);
+    } catch (final ExecutionException executionException) {
+      final String releaseName = installRequestBuilder.getName();
+      final String description = getDescription(executionException.getCause());
+      if (!isInUseDescription(description, releaseName)) {
+        throw executionException;
+      }
+      if (log.isInfoEnabled()) {
+        log.info("Release " + releaseName + " exists (" + description + "); updating it");
+      }
+    }
+    return this.update(releaseManager, chart, updateRequestBuilder);
+  }
+
+  /**
+   * Updates a release and returns the resulting {@link Release}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releaseManager the {@link ReleaseManager} to use; must not
+   * be {@code null}
+   *
+   * @param chart the {@link Chart} to update the release with, a copy
+   * of which is sent; must not be {@code null}
+   *
+   * @param updateRequestBuilder the {@link
+   * UpdateReleaseRequest.Builder} describing the update; must not be
+   * {@code null}
+   *
+   * @return the non-{@code null} updated {@link Release}
+   *
+   * @exception ExecutionException if Tiller rejected the update
+   *
+   * @exception Exception if the update could not be performed
+   */
+  private final Release update(final ReleaseManager releaseManager, final Chart chart, final UpdateReleaseRequest.Builder updateRequestBuilder) throws Exception {
+    assert releaseManager != null;
+    assert chart != null;
+    assert updateRequestBuilder != null;
+    final UpdateReleaseResponse updateReleaseResponse = releaseManager.update(updateRequestBuilder, chart.toBuilder()).get();
+    assert updateReleaseResponse != null;
+    final Log log = this.getLog();
+    assert log != null;
+    if (log.isInfoEnabled()) {
+      log.info("Updated release " + updateRequestBuilder.getName());
+    }
+    return updateReleaseResponse.getRelease();
+  }
+
+  /**
+   * Installs a release and returns the resulting {@link Release}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param releaseManager the {@link ReleaseManager} to use; must not
+   * be {@code null}
+   *
+   * @param chart the {@link Chart} to install the release with, a
+   * copy of which is sent; must not be {@code null}
+   *
+   * @param installRequestBuilder the {@link
+   * InstallReleaseRequest.Builder} describing the installation; must
+   * not be {@code null}
+   *
+   * @return the non-{@code null} installed {@link Release}
+   *
+   * @exception ExecutionException if Tiller rejected the
+   * installation
+   *
+   * @exception Exception if the installation could not be performed
+   */
+  private final Release install(final ReleaseManager releaseManager, final Chart chart, final InstallReleaseRequest.Builder installRequestBuilder) throws Exception {
+    assert releaseManager != null;
+    assert chart != null;
+    assert installRequestBuilder != null;
+    final InstallReleaseResponse installReleaseResponse = releaseManager.install(installRequestBuilder, chart.toBuilder()).get();
+    assert installReleaseResponse != null;
+    final Log log = this.getLog();
+    assert log != null;
+    if (log.isInfoEnabled()) {
+      log.info("Installed release " + installRequestBuilder.getName());
+    }
+    return installReleaseResponse.getRelease();
+  }
+
+  /**
+   * Returns a {@link URL} identifying a Helm chart that can be read
+   * by the {@link AbstractChartLoader} produced by the {@link
+   * #createChartLoader()} method.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return a {@link URL} to a Helm chart, or {@code null}
+   *
+   * @see #setChartUrl(URL)
+   */
+  public URL getChartUrl() {
+    return this.chartUrl;
+  }
+
+  /**
+   * Sets the {@link URL} identifying a Helm chart that can be read
+   * by the {@link AbstractChartLoader} produced by the {@link
+   * #createChartLoader()} method.
+   *
+   * @param chartUrl the {@link URL} identifying a Helm chart that can
+   * be read by the {@link AbstractChartLoader} produced by the {@link
+   * #createChartLoader()} method; may be {@code null}
+   *
+   * @see #getChartUrl()
+   */
+  public void setChartUrl(final URL chartUrl) {
+    this.chartUrl = chartUrl;
+  }
+
+  /**
+   * Returns the <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * into which the release will be installed if it does not exist.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @return the namespace into which the release will be installed,
+   * or {@code null}
+   *
+   * @see #setReleaseNamespace(String)
+   */
+  public String getReleaseNamespace() {
+    return this.releaseNamespace;
+  }
+
+  /**
+   * Sets the <a
+   * href="https://kubernetes.io/docs/concepts/overview/working-with-objects/namespaces/">namespace</a>
+   * into which the release will be installed if it does not exist.
+   *
+   * @param releaseNamespace the namespace into which the release will
+   * be installed; may be {@code null}
+   *
+   * @see #getReleaseNamespace()
+   */
+  public void setReleaseNamespace(final String releaseNamespace) {
+    this.releaseNamespace = releaseNamespace;
+  }
+
+  /**
+   * Returns {@code true} if the {@linkplain #getReleaseName()
+   * supplied release name} should be reused if the release must be
+   * installed.
+   *
+   * @return {@code true} if the release name should be reused;
+   * {@code false} otherwise
+   *
+   * @see #setReuseReleaseName(boolean)
+   */
+  public boolean getReuseReleaseName() {
+    return this.reuseReleaseName;
+  }
+
+  /**
+   * Sets whether the {@linkplain #getReleaseName() supplied release
+   * name} should be reused if the release must be installed.
+   *
+   * @param reuseReleaseName whether the release name should be reused
+   *
+   * @see #getReuseReleaseName()
+   */
+  public void setReuseReleaseName(final boolean reuseReleaseName) {
+    this.reuseReleaseName = reuseReleaseName;
+  }
+
+  /**
+   * Returns {@code true} if, when the release is updated, values
+   * should be reset to the values built in to the {@linkplain
+   * #getChartUrl() chart}.
+   *
+   * @return {@code true} if values should be reset; {@code false}
+   * otherwise
+   *
+   * @see #setResetValues(boolean)
+   */
+  public boolean getResetValues() {
+    return this.resetValues;
+  }
+
+  /**
+   * Sets whether, when the release is updated, values should be reset
+   * to the values built in to the {@linkplain #getChartUrl() chart}.
+   *
+   * @param resetValues whether values should be reset
+   *
+   * @see #getResetValues()
+   */
+  public void setResetValues(final boolean resetValues) {
+    this.resetValues = resetValues;
+  }
+
+  /**
+   * Returns {@code true} if, when the release is updated, any new
+   * values should be merged with those present in the prior version
+   * of the release.
+   *
+   * @return {@code true} if values should be reused; {@code false}
+   * otherwise
+   *
+   * @see #setReuseValues(boolean)
+   */
+  public boolean getReuseValues() {
+    return this.reuseValues;
+  }
+
+  /**
+   * Sets whether, when the release is updated, any new values should
+   * be merged with those present in the prior version of the release.
+   *
+   * @param reuseValues whether values should be reused
+   *
+   * @see #getReuseValues()
+   */
+  public void setReuseValues(final boolean reuseValues) {
+    this.reuseValues = reuseValues;
+  }
+
+  /**
+   * Returns a YAML {@link String} representing the values to use to
+   * customize the update or installation.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * <p>Overrides of this method may return {@code null}.</p>
+   *
+   * @return a YAML {@link String} representing the values to use, or
+   * {@code null}
+   *
+   * @see #setValuesYaml(String)
+   */
+  public String getValuesYaml() {
+    return this.valuesYaml;
+  }
+
+  /**
+   * Installs a YAML {@link String} representing the values to use to
+   * customize the update or installation.
+   *
+   * @param valuesYaml the YAML {@link String} representing the values
+   * to use; may be {@code null}
+   *
+   * @see #getValuesYaml()
+   */
+  public void setValuesYaml(final String valuesYaml) {
+    this.valuesYaml = valuesYaml;
+  }
+
+  /**
+   * Returns a {@link URI} identifying a YAML document containing the
+   * values to use to customize the update or installation.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * <p>Overrides of this method may return {@code null}.</p>
+   *
+   * @return a {@link URI} identifying a YAML document, or {@code
+   * null}
+   *
+   * @see #setValuesYamlUri(URI)
+   */
+  public URI getValuesYamlUri() {
+    return this.valuesYamlUri;
+  }
+
+  /**
+   * Sets the {@link URI} identifying a YAML document containing the
+   * values to use to customize the update or installation.
+   *
+   * @param valuesYamlUri the {@link URI} identifying a YAML document;
+   * may be {@code null}
+   *
+   * @see #getValuesYamlUri()
+   */
+  public void setValuesYamlUri(final URI valuesYamlUri) {
+    this.valuesYamlUri = valuesYamlUri;
+  }
+
+  /**
+   * Creates and returns an {@link AbstractChartLoader} capable of
+   * loading a Helm chart from a {@link URL}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * <p>Overrides of this method must not return {@code null}.</p>
+   *
+   * <p>This implementation returns a new {@link URLChartLoader}.</p>
+   *
+   * @return a new {@link AbstractChartLoader} implementation; never
+   * {@code null}
+   */
+  protected AbstractChartLoader<URL> createChartLoader() {
+    return new URLChartLoader();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the description of the gRPC {@link Status} carried by
+   * the supplied {@link Throwable}, or {@code null} if it does not
+   * carry one.
+   *
+   * <p>This method may return {@code null}.</p>
+   *
+   * @param throwable the {@link Throwable} in question; may be {@code
+   * null}
+   *
+   * @return a gRPC status description, or {@code null}
+   */
+  private static final String getDescription(final Throwable throwable) {
+    final String returnValue;
+    if (throwable instanceof StatusRuntimeException || throwable instanceof StatusException) {
+      returnValue = Status.fromThrowable(throwable).getDescription();
+    } else {
+      returnValue = null;
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns {@code true} if the supplied gRPC status description is
+   * the one Tiller reports when the named release does not exist at
+   * all.
+   *
+   * <p>Tiller's message reads <code>release: "<em>name</em>" not
+   * found</code>.  Other failures that happen to mention something
+   * that was not found, such as a missing chart dependency, do not
+   * match.</p>
+   *
+   * @param description the description in question; may be {@code
+   * null}
+   *
+   * @param releaseName the name of the release; may be {@code null}
+   *
+   * @return {@code true} if the release does not exist; {@code false}
+   * otherwise
+   */
+  static final boolean isNotFoundDescription(final String description, final String releaseName) {
+    return description != null && releaseName != null && description.endsWith("release: \"" + releaseName + "\" not found");
+  }
+
+  /**
+   * Returns {@code true} if the supplied gRPC status description is
+   * the one Tiller reports when the named release exists but has no
+   * deployed revisions, typically because it was deleted without
+   * being purged.
+   *
+   * <p>Tiller's message reads <code>"<em>name</em>" has no deployed
+   * releases</code>.</p>
+   *
+   * @param description the description in question; may be {@code
+   * null}
+   *
+   * @param releaseName the name of the release; may be {@code null}
+   *
+   * @return {@code true} if the release has no deployed revisions;
+   * {@code false} otherwise
+   */
+  static final boolean isNoDeployedReleasesDescription(final String description, final String releaseName) {
+    return description != null && releaseName != null && description.endsWith("\"" + releaseName + "\" has no deployed releases");
+  }
+
+  /**
+   * Returns {@code true} if the supplied gRPC status description is
+   * one Tiller reports when an installation names a release that
+   * still exists.
+   *
+   * <p>Tiller's messages begin <code>a released named
+   * <em>name</em> is in use</code> when the name was to be reused and
+   * <code>a release named <em>name</em> already exists</code>
+   * otherwise.</p>
+   *
+   * @param description the description in question; may be {@code
+   * null}
+   *
+   * @param releaseName the name of the release; may be {@code null}
+   *
+   * @return {@code true} if the release still exists; {@code false}
+   * otherwise
+   */
+  static final boolean isInUseDescription(final String description, final String releaseName) {
+    return description != null && releaseName != null &&
+      (description.startsWith("a released named " + releaseName + " is in use") || description.startsWith("a release named " + releaseName + " already exists"));
+  }
+
+}
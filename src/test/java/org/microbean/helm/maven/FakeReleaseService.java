@@ -0,0 +1,432 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.regex.Pattern;
+
+import com.google.protobuf.Timestamp;
+
+import hapi.release.InfoOuterClass.Info;
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import hapi.services.tiller.ReleaseServiceGrpc;
+import hapi.services.tiller.Tiller.GetHistoryRequest;
+import hapi.services.tiller.Tiller.GetHistoryResponse;
+import hapi.services.tiller.Tiller.GetReleaseStatusRequest;
+import hapi.services.tiller.Tiller.GetReleaseStatusResponse;
+import hapi.services.tiller.Tiller.GetVersionRequest;
+import hapi.services.tiller.Tiller.GetVersionResponse;
+import hapi.services.tiller.Tiller.InstallReleaseRequest;
+import hapi.services.tiller.Tiller.InstallReleaseResponse;
+import hapi.services.tiller.Tiller.ListReleasesRequest;
+import hapi.services.tiller.Tiller.ListReleasesResponse;
+import hapi.services.tiller.Tiller.RollbackReleaseRequest;
+import hapi.services.tiller.Tiller.RollbackReleaseResponse;
+import hapi.services.tiller.Tiller.UninstallReleaseRequest;
+import hapi.services.tiller.Tiller.UninstallReleaseResponse;
+import hapi.services.tiller.Tiller.UpdateReleaseRequest;
+import hapi.services.tiller.Tiller.UpdateReleaseResponse;
+
+import hapi.version.VersionOuterClass.Version;
+
+import io.grpc.Server;
+import io.grpc.StatusRuntimeException;
+
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+import io.grpc.stub.StreamObserver;
+
+import org.microbean.helm.Tiller;
+
+/**
+ * An in-memory stand-in for Tiller's release service that stores
+ * every revision of every release the way Tiller does, so that list
+ * requests return old revisions alongside new ones.
+ */
+final class FakeReleaseService extends ReleaseServiceGrpc.ReleaseServiceImplBase {
+
+  private static final AtomicInteger serverCount = new AtomicInteger();
+
+  private final Map<String, List<Release>> releases;
+
+  private final Map<String, String> failures;
+
+  private final AtomicInteger inFlight;
+
+  private final AtomicInteger maxInFlight;
+
+  private final AtomicInteger mutations;
+
+  private final AtomicInteger listRequests;
+
+  private final ConcurrentLinkedQueue<String> rollbacks;
+
+  private final String serverName;
+
+  private volatile long latencyMillis;
+
+  private Server server;
+
+  FakeReleaseService() {
+    super();
+    this.releases = new TreeMap<>();
+    this.failures = Collections.synchronizedMap(new HashMap<>());
+    this.inFlight = new AtomicInteger();
+    this.maxInFlight = new AtomicInteger();
+    this.mutations = new AtomicInteger();
+    this.listRequests = new AtomicInteger();
+    this.rollbacks = new ConcurrentLinkedQueue<>();
+    this.serverName = "fake-tiller-" + serverCount.incrementAndGet();
+  }
+
+  final synchronized FakeReleaseService start() throws Exception {
+    if (this.server == null) {
+      this.server = InProcessServerBuilder.forName(this.serverName).addService(this).build().start();
+    }
+    return this;
+  }
+
+  final synchronized void stop() {
+    if (this.server != null) {
+      this.server.shutdownNow();
+      this.server = null;
+    }
+  }
+
+  final String getServerName() {
+    return this.serverName;
+  }
+
+  final Tiller createTiller() {
+    return new Tiller(InProcessChannelBuilder.forName(this.serverName).build());
+  }
+
+  final void setLatencyMillis(final long latencyMillis) {
+    this.latencyMillis = latencyMillis;
+  }
+
+  final void fail(final String releaseName) {
+    this.fail(releaseName, "injected failure for release " + releaseName);
+  }
+
+  final void fail(final String releaseName, final String description) {
+    this.failures.put(releaseName, description);
+  }
+
+  final int getMaxInFlight() {
+    return this.maxInFlight.get();
+  }
+
+  final int getMutationCount() {
+    return this.mutations.get();
+  }
+
+  final int getListRequestCount() {
+    return this.listRequests.get();
+  }
+
+  final List<String> getRollbacks() {
+    return new ArrayList<>(this.rollbacks);
+  }
+
+  final synchronized void put(final String releaseName, final int version, final Status.Code code) {
+    final Release release = release(releaseName, "default", version, code);
+    final List<Release> history = this.releases.computeIfAbsent(releaseName, n -> new ArrayList<>());
+    history.add(release);
+    history.sort((a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+  }
+
+  final synchronized List<Release> getHistory(final String releaseName) {
+    final List<Release> history = this.releases.get(releaseName);
+    return history == null ? Collections.emptyList() : new ArrayList<>(history);
+  }
+
+  final synchronized Release getLatest(final String releaseName) {
+    final List<Release> history = this.releases.get(releaseName);
+    return history == null || history.isEmpty() ? null : history.get(history.size() - 1);
+  }
+
+  static final String notFound(final String releaseName) {
+    return "release: \"" + releaseName + "\" not found";
+  }
+
+  @Override
+  public final void installRelease(final InstallReleaseRequest request, final StreamObserver<InstallReleaseResponse> observer) {
+    this.handle(observer, request.getName(), true, () -> {
+        final String name = request.getName();
+        synchronized (this) {
+          final Release latest = this.getLatest(name);
+          if (latest != null) {
+            final Status.Code code = latest.getInfo().getStatus().getCode();
+            if (!request.getReuseName()) {
+              throw io.grpc.Status.UNKNOWN.withDescription("a release named " + name + " already exists.").asRuntimeException();
+            } else if (code != Status.Code.DELETED && code != Status.Code.FAILED) {
+              throw io.grpc.Status.UNKNOWN.withDescription("a released named " + name + " is in use, cannot re-use a name that is still in use").asRuntimeException();
+            }
+          }
+          final Release release = this.add(name, request.getNamespace(), Status.Code.DEPLOYED);
+          return InstallReleaseResponse.newBuilder().setRelease(release).build();
+        }
+      });
+  }
+
+  @Override
+  public final void updateRelease(final UpdateReleaseRequest request, final StreamObserver<UpdateReleaseResponse> observer) {
+    this.handle(observer, request.getName(), true, () -> {
+        final String name = request.getName();
+        synchronized (this) {
+          final Release latest = this.getLatest(name);
+          if (latest == null) {
+            throw io.grpc.Status.UNKNOWN.withDescription(notFound(name)).asRuntimeException();
+          }
+          boolean deployed = false;
+          for (final Release revision : this.releases.get(name)) {
+            deployed = deployed || revision.getInfo().getStatus().getCode() == Status.Code.DEPLOYED;
+          }
+          if (!deployed) {
+            throw io.grpc.Status.UNKNOWN.withDescription("\"" + name + "\" has no deployed releases").asRuntimeException();
+          }
+          this.supersede(latest);
+          final Release release = this.add(name, latest.getNamespace(), Status.Code.DEPLOYED);
+          return UpdateReleaseResponse.newBuilder().setRelease(release).build();
+        }
+      });
+  }
+
+  @Override
+  public final void rollbackRelease(final RollbackReleaseRequest request, final StreamObserver<RollbackReleaseResponse> observer) {
+    this.handle(observer, request.getName(), true, () -> {
+        final String name = request.getName();
+        synchronized (this) {
+          final Release latest = this.getLatest(name);
+          if (latest == null) {
+            throw io.grpc.Status.UNKNOWN.withDescription(notFound(name)).asRuntimeException();
+          }
+          this.rollbacks.add(name + "@" + request.getVersion());
+          this.supersede(latest);
+          final Release release = this.add(name, latest.getNamespace(), Status.Code.DEPLOYED);
+          return RollbackReleaseResponse.newBuilder().setRelease(release).build();
+        }
+      });
+  }
+
+  @Override
+  public final void uninstallRelease(final UninstallReleaseRequest request, final StreamObserver<UninstallReleaseResponse> observer) {
+    this.handle(observer, request.getName(), true, () -> {
+        final String name = request.getName();
+        synchronized (this) {
+          final Release latest = this.getLatest(name);
+          if (latest == null) {
+            throw io.grpc.Status.UNKNOWN.withDescription(notFound(name)).asRuntimeException();
+          }
+          if (request.getPurge()) {
+            this.releases.remove(name);
+          } else {
+            final List<Release> history = this.releases.get(name);
+            history.set(history.size() - 1, latest.toBuilder().setInfo(info(Status.Code.DELETED)).build());
+          }
+          return UninstallReleaseResponse.newBuilder().setRelease(latest).build();
+        }
+      });
+  }
+
+  @Override
+  public final void getReleaseStatus(final GetReleaseStatusRequest request, final StreamObserver<GetReleaseStatusResponse> observer) {
+    this.handle(observer, request.getName(), false, () -> {
+        final Release release = this.get(request.getName(), request.getVersion());
+        return GetReleaseStatusResponse.newBuilder()
+          .setName(release.getName())
+          .setNamespace(release.getNamespace())
+          .setInfo(release.getInfo())
+          .build();
+      });
+  }
+
+  @Override
+  public final void getHistory(final GetHistoryRequest request, final StreamObserver<GetHistoryResponse> observer) {
+    this.handle(observer, request.getName(), false, () -> {
+        final List<Release> history = this.getHistory(request.getName());
+        if (history.isEmpty()) {
+          throw io.grpc.Status.UNKNOWN.withDescription(notFound(request.getName())).asRuntimeException();
+        }
+        Collections.reverse(history);
+        final int max = request.getMax() <= 0 ? history.size() : Math.min(request.getMax(), history.size());
+        return GetHistoryResponse.newBuilder().addAllReleases(history.subList(0, max)).build();
+      });
+  }
+
+  @Override
+  public final void listReleases(final ListReleasesRequest request, final StreamObserver<ListReleasesResponse> observer) {
+    this.listRequests.incrementAndGet();
+    this.handle(observer, request.getFilter(), false, () -> {
+          final Set<Status.Code> statusCodes = new HashSet<>(request.getStatusCodesList());
+          if (statusCodes.isEmpty()) {
+            statusCodes.add(Status.Code.DEPLOYED);
+          }
+          final Pattern filter = request.getFilter().isEmpty() ? null : Pattern.compile(request.getFilter());
+          final String namespace = request.getNamespace();
+          final List<Release> matches = new ArrayList<>();
+          synchronized (this) {
+            for (final List<Release> history : this.releases.values()) {
+              for (final Release release : history) {
+                if (statusCodes.contains(release.getInfo().getStatus().getCode()) &&
+                    (filter == null || filter.matcher(release.getName()).find()) &&
+                    (namespace.isEmpty() || namespace.equals(release.getNamespace()))) {
+                  matches.add(release);
+                }
+              }
+            }
+          }
+          int start = 0;
+          final String offset = request.getOffset();
+          if (!offset.isEmpty()) {
+            while (start < matches.size() && !matches.get(start).getName().equals(offset)) {
+              start++;
+            }
+          }
+          final int limit = request.getLimit() <= 0 ? matches.size() : (int)Math.min(request.getLimit(), (long)matches.size());
+          final int end = Math.min(matches.size(), start + limit);
+          final ListReleasesResponse.Builder response = ListReleasesResponse.newBuilder()
+            .setCount(end - start)
+            .setTotal(matches.size())
+            .addAllReleases(matches.subList(start, end));
+          if (end < matches.size()) {
+            response.setNext(matches.get(end).getName());
+          }
+          return response.build();
+      });
+  }
+
+  @Override
+  public final void getVersion(final GetVersionRequest request, final StreamObserver<GetVersionResponse> observer) {
+    observer.onNext(GetVersionResponse.newBuilder().setVersion(Version.newBuilder().setSemVer("v2.9.1")).build());
+    observer.onCompleted();
+  }
+
+  private final synchronized Release get(final String name, final int version) {
+    final List<Release> history = this.releases.get(name);
+    if (history != null && !history.isEmpty()) {
+      if (version <= 0) {
+        return history.get(history.size() - 1);
+      }
+      for (final Release release : history) {
+        if (release.getVersion() == version) {
+          return release;
+        }
+      }
+    }
+    throw io.grpc.Status.UNKNOWN.withDescription(notFound(name)).asRuntimeException();
+  }
+
+  private final synchronized Release add(final String name, final String namespace, final Status.Code code) {
+    final List<Release> history = this.releases.computeIfAbsent(name, n -> new ArrayList<>());
+    final int version = history.isEmpty() ? 1 : history.get(history.size() - 1).getVersion() + 1;
+    final Release release = release(name, namespace.isEmpty() ? "default" : namespace, version, code);
+    history.add(release);
+    return release;
+  }
+
+  private final synchronized void supersede(final Release latest) {
+    if (latest.getInfo().getStatus().getCode() == Status.Code.DEPLOYED) {
+      final List<Release> history = this.releases.get(latest.getName());
+      history.set(history.size() - 1, latest.toBuilder().setInfo(info(Status.Code.SUPERSEDED)).build());
+    }
+  }
+
+  private final void enter() {
+    final int current = this.inFlight.incrementAndGet();
+    this.maxInFlight.accumulateAndGet(current, Math::max);
+    final long latencyMillis = this.latencyMillis;
+    if (latencyMillis > 0L) {
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (final InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private final <T> void handle(final StreamObserver<T> observer, final String name, final boolean mutation, final Operation<T> operation) {
+    T response = null;
+    StatusRuntimeException failure = null;
+    this.enter();
+    try {
+      if (mutation) {
+        this.mutations.incrementAndGet();
+        final String description = this.failures.get(name);
+        if (description != null) {
+          throw io.grpc.Status.INTERNAL.withDescription(description).asRuntimeException();
+        }
+      }
+      response = operation.execute();
+    } catch (final StatusRuntimeException statusRuntimeException) {
+      failure = statusRuntimeException;
+    } finally {
+      // Leave before replying so that a caller who issues its next
+      // request upon receiving this reply is never counted twice.
+      this.inFlight.decrementAndGet();
+    }
+    if (failure == null) {
+      observer.onNext(response);
+      observer.onCompleted();
+    } else {
+      observer.onError(failure);
+    }
+  }
+
+  static final Release release(final String name, final String namespace, final int version, final Status.Code code) {
+    return Release.newBuilder()
+      .setName(name)
+      .setNamespace(namespace)
+      .setVersion(version)
+      .setInfo(info(code))
+      .build();
+  }
+
+  private static final Info info(final Status.Code code) {
+    final long now = System.currentTimeMillis();
+    final Timestamp timestamp = Timestamp.newBuilder().setSeconds(now / 1000L).setNanos((int)(now % 1000L) * 1000000).build();
+    return Info.newBuilder()
+      .setStatus(Status.newBuilder().setCode(code))
+      .setFirstDeployed(timestamp)
+      .setLastDeployed(timestamp)
+      .build();
+  }
+
+  @FunctionalInterface
+  private interface Operation<T> {
+
+    T execute();
+
+  }
+
+}
@@ -0,0 +1,166 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestAdaptiveConcurrencyLimit {
+
+  public TestAdaptiveConcurrencyLimit() {
+    super();
+  }
+
+  @Test
+  public void testInitialLimit() {
+    assertEquals(5, new AdaptiveConcurrencyLimit("test", 10, 0.0D).getLimit());
+    assertEquals(1, new AdaptiveConcurrencyLimit("test", 1, 0.0D).getLimit());
+    assertEquals(1, new AdaptiveConcurrencyLimit("test", 0, 0.0D).getLimit());
+    assertEquals(1, new AdaptiveConcurrencyLimit("test", -3, 0.0D).getLimit());
+  }
+
+  @Test
+  public void testAcquireDoesNotBlock() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 4, 0.0D);
+    final AtomicInteger granted = new AtomicInteger();
+    for (int i = 0; i < 5; i++) {
+      limit.acquire(granted::incrementAndGet);
+    }
+    assertEquals(2, granted.get());
+    assertEquals(2, limit.getInFlight());
+    assertEquals(3, limit.getWaiting());
+
+    limit.release(1000L, false);
+    assertEquals(3, granted.get());
+    assertEquals(2, limit.getInFlight());
+    assertEquals(2, limit.getWaiting());
+  }
+
+  @Test
+  public void testWaitersAreGrantedInOrder() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 1, 0.0D);
+    final StringBuilder order = new StringBuilder();
+    limit.acquire(() -> order.append('a'));
+    limit.acquire(() -> order.append('b'));
+    limit.acquire(() -> order.append('c'));
+    assertEquals("a", order.toString());
+    limit.release(1000L, false);
+    assertEquals("ab", order.toString());
+    limit.release(1000L, false);
+    assertEquals("abc", order.toString());
+    limit.release(1000L, false);
+    assertEquals(0, limit.getInFlight());
+  }
+
+  @Test
+  public void testCancel() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 1, 0.0D);
+    final AtomicInteger granted = new AtomicInteger();
+    final Runnable first = granted::incrementAndGet;
+    final Runnable second = granted::incrementAndGet;
+    limit.acquire(first);
+    limit.acquire(second);
+    assertFalse(limit.cancel(first));
+    assertTrue(limit.cancel(second));
+    assertFalse(limit.cancel(second));
+    limit.release(1000L, false);
+    assertEquals(1, granted.get());
+    assertEquals(0, limit.getInFlight());
+  }
+
+  @Test
+  public void testAdditiveIncreaseStopsAtMaximum() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 8, 0.0D);
+    for (int i = 0; i < 1000; i++) {
+      saturate(limit);
+      limit.release(1000L, false);
+      assertTrue(limit.getLimit() <= 8);
+    }
+    assertEquals(8, limit.getLimit());
+  }
+
+  @Test
+  public void testNoIncreaseWhenNotLimited() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 8, 0.0D);
+    for (int i = 0; i < 100; i++) {
+      limit.acquire(() -> {});
+      limit.release(1000L, false);
+    }
+    assertEquals(4, limit.getLimit());
+  }
+
+  @Test
+  public void testNoIncreaseOnFailure() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 8, 0.0D);
+    for (int i = 0; i < 100; i++) {
+      saturate(limit);
+      limit.release(-1L, false);
+    }
+    assertEquals(4, limit.getLimit());
+  }
+
+  @Test
+  public void testMultiplicativeDecreaseStopsAtOne() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 100, 0.0D);
+    assertEquals(50, limit.getLimit());
+    limit.acquire(() -> {});
+    limit.release(-1L, true);
+    assertEquals(37, limit.getLimit());
+    for (int i = 0; i < 100; i++) {
+      limit.acquire(() -> {});
+      limit.release(-1L, true);
+      assertTrue(limit.getLimit() >= 1);
+    }
+    assertEquals(1, limit.getLimit());
+  }
+
+  @Test
+  public void testLatencyTolerance() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 8, 2.0D);
+    limit.acquire(() -> {});
+    limit.release(1000L, false);
+    assertEquals(4, limit.getLimit());
+    limit.acquire(() -> {});
+    limit.release(1500L, false);
+    assertEquals(4, limit.getLimit());
+    limit.acquire(() -> {});
+    limit.release(10000L, false);
+    assertEquals(3, limit.getLimit());
+  }
+
+  @Test
+  public void testLatencyIgnoredWithoutTolerance() {
+    final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 8, 1.0D);
+    limit.acquire(() -> {});
+    limit.release(1L, false);
+    limit.acquire(() -> {});
+    limit.release(1000000000L, false);
+    assertEquals(4, limit.getLimit());
+  }
+
+  private static final void saturate(final AdaptiveConcurrencyLimit limit) {
+    while (limit.getInFlight() < limit.getLimit()) {
+      limit.acquire(() -> {});
+    }
+  }
+
+}
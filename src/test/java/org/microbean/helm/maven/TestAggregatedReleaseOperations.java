@@ -0,0 +1,244 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.List;
+
+import hapi.release.StatusOuterClass.Status;
+
+import io.fabric8.kubernetes.client.Config;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+
+import org.apache.maven.plugin.MojoExecution;
+
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+
+import org.apache.maven.project.MavenProject;
+
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.microbean.helm.Tiller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestAggregatedReleaseOperations {
+
+  private static final String GROUP_ID = "org.microbean";
+
+  private static final String ARTIFACT_ID = "helm-maven-plugin";
+
+  private FakeReleaseService releaseService;
+
+  private MavenSession session;
+
+  private Path chartDirectory;
+
+  public TestAggregatedReleaseOperations() {
+    super();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    this.releaseService = new FakeReleaseService().start();
+    this.session = new MavenSession(null, (RepositorySystemSession)null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    // The last project in the reactor does not bind the install goal.
+    this.session.setProjects(Arrays.asList(createProject("a", "install"), createProject("b", "install"), createProject("c")));
+    this.chartDirectory = TestAsyncReleaseOperations.createChart("fake");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (this.releaseService != null) {
+      this.releaseService.stop();
+    }
+  }
+
+  @Test
+  public void testCountExecutionsForLifecycleBoundGoal() {
+    final MojoExecution mojoExecution = new MojoExecution(createPlugin(), "install", "default");
+    assertEquals(2, AggregatedReleaseOperations.countExecutions(this.session, mojoExecution));
+    assertEquals(1, AggregatedReleaseOperations.countExecutions(this.session, new MojoExecution(createPlugin(), "update", "default")));
+  }
+
+  @Test
+  public void testCountExecutionsForCommandLineGoal() {
+    final PluginDescriptor pluginDescriptor = new PluginDescriptor();
+    pluginDescriptor.setGroupId(GROUP_ID);
+    pluginDescriptor.setArtifactId(ARTIFACT_ID);
+    final MojoDescriptor mojoDescriptor = new MojoDescriptor();
+    mojoDescriptor.setPluginDescriptor(pluginDescriptor);
+    mojoDescriptor.setGoal("install");
+    final MojoExecution mojoExecution = new MojoExecution(mojoDescriptor, "default-cli", MojoExecution.Source.CLI);
+    assertEquals(3, AggregatedReleaseOperations.countExecutions(this.session, mojoExecution));
+  }
+
+  @Test
+  public void testExecutionCompletedAfterLastBoundExecution() {
+    final AggregatedReleaseOperations operations = AggregatedReleaseOperations.getInstance(this.session, null);
+    final MojoExecution mojoExecution = new MojoExecution(createPlugin(), "install", "default");
+    assertFalse(operations.executionCompleted(this.session, mojoExecution));
+    assertTrue(operations.executionCompleted(this.session, mojoExecution));
+    assertTrue(operations.executionCompleted(this.session, mojoExecution));
+    assertTrue(operations.executionCompleted(this.session, null));
+  }
+
+  @Test
+  public void testDeployAfterLastBoundExecution() throws Exception {
+    final MojoExecution mojoExecution = new MojoExecution(createPlugin(), "install", "default");
+    createInstallReleaseMojo(mojoExecution, "first").execute();
+    assertNull(this.releaseService.getLatest("first"));
+    createInstallReleaseMojo(mojoExecution, "second").execute();
+    assertNotNull(this.releaseService.getLatest("first"));
+    assertNotNull(this.releaseService.getLatest("second"));
+    TestAsyncReleaseOperations.endSession(this.session);
+    assertFalse(this.session.getResult().hasExceptions());
+  }
+
+  @Test
+  public void testOtherGoalsDoNotDeploy() throws Exception {
+    this.releaseService.put("existing", 1, Status.Code.DEPLOYED);
+    final MojoExecution installExecution = new MojoExecution(createPlugin(), "install", "default");
+    createInstallReleaseMojo(installExecution, "first").execute();
+
+    // The only execution of the update goal deploys its own operation
+    // but leaves the install goal's operation alone.
+    createUpdateReleaseMojo(new MojoExecution(createPlugin(), "update", "default"), "existing").execute();
+    assertEquals(2, this.releaseService.getLatest("existing").getVersion());
+    assertNull(this.releaseService.getLatest("first"));
+
+    createInstallReleaseMojo(installExecution, "second").execute();
+    assertNotNull(this.releaseService.getLatest("first"));
+    assertNotNull(this.releaseService.getLatest("second"));
+    TestAsyncReleaseOperations.endSession(this.session);
+    assertFalse(this.session.getResult().hasExceptions());
+  }
+
+  @Test
+  public void testSessionEndDiscardsLeftoverOperations() throws Exception {
+    final MojoExecution mojoExecution = new MojoExecution(createPlugin(), "install", "default");
+    // Only one of the two bound executions runs, as when the build
+    // stops early, so the operation is left for the session's end.
+    createInstallReleaseMojo(mojoExecution, "partial").execute();
+    assertNull(this.releaseService.getLatest("partial"));
+    assertFalse(this.session.getResult().hasExceptions());
+
+    TestAsyncReleaseOperations.endSession(this.session);
+
+    assertNull(this.releaseService.getLatest("partial"));
+    assertEquals(0, this.releaseService.getMutationCount());
+    final List<Throwable> exceptions = this.session.getResult().getExceptions();
+    assertEquals(1, exceptions.size());
+    assertEquals(1, exceptions.get(0).getSuppressed().length);
+    assertTrue(exceptions.get(0).getSuppressed()[0].getMessage().contains("partial"));
+  }
+
+  private final InstallReleaseMojo createInstallReleaseMojo(final MojoExecution mojoExecution, final String releaseName) throws Exception {
+    final FakeReleaseService releaseService = this.releaseService;
+    final MavenSession session = this.session;
+    final InstallReleaseMojo mojo = new InstallReleaseMojo(new MavenProject(), session) {
+        @Override
+        protected final MavenSession getMavenSession() {
+          return session;
+        }
+
+        @Override
+        protected final MojoExecution getMojoExecution() {
+          return mojoExecution;
+        }
+
+        @Override
+        protected final Tiller createTiller(final Config config) {
+          return releaseService.createTiller();
+        }
+      };
+    mojo.setTillerHost(releaseService.getServerName());
+    mojo.setChartUrl(this.chartDirectory.toUri().toURL());
+    mojo.setReleaseName(releaseName);
+    mojo.setPoolReleaseManagers(true);
+    mojo.setAggregate(true);
+    return mojo;
+  }
+
+  private final UpdateReleaseMojo createUpdateReleaseMojo(final MojoExecution mojoExecution, final String releaseName) throws Exception {
+    final FakeReleaseService releaseService = this.releaseService;
+    final MavenSession session = this.session;
+    final UpdateReleaseMojo mojo = new UpdateReleaseMojo(new MavenProject(), session) {
+        @Override
+        protected final MavenSession getMavenSession() {
+          return session;
+        }
+
+        @Override
+        protected final MojoExecution getMojoExecution() {
+          return mojoExecution;
+        }
+
+        @Override
+        protected final Tiller createTiller(final Config config) {
+          return releaseService.createTiller();
+        }
+      };
+    mojo.setTillerHost(releaseService.getServerName());
+    mojo.setChartUrl(this.chartDirectory.toUri().toURL());
+    mojo.setReleaseName(releaseName);
+    mojo.setPoolReleaseManagers(true);
+    mojo.setAggregate(true);
+    return mojo;
+  }
+
+  private static final Plugin createPlugin(final String... goals) {
+    final Plugin plugin = new Plugin();
+    plugin.setGroupId(GROUP_ID);
+    plugin.setArtifactId(ARTIFACT_ID);
+    if (goals.length > 0) {
+      final PluginExecution execution = new PluginExecution();
+      execution.setId("default");
+      execution.setGoals(Arrays.asList(goals));
+      plugin.addExecution(execution);
+    }
+    return plugin;
+  }
+
+  private static final MavenProject createProject(final String artifactId, final String... goals) {
+    final MavenProject project = new MavenProject();
+    project.setArtifactId(artifactId);
+    final Build build = new Build();
+    build.addPlugin(createPlugin(goals));
+    project.setBuild(build);
+    return project;
+  }
+
+}
@@ -0,0 +1,162 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+
+import io.fabric8.kubernetes.client.Config;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.plugin.MojoExecution;
+
+import org.apache.maven.project.MavenProject;
+
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.microbean.helm.Tiller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestAsyncReleaseOperations {
+
+  private FakeReleaseService releaseService;
+
+  private MavenSession session;
+
+  private Path chartDirectory;
+
+  public TestAsyncReleaseOperations() {
+    super();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    this.releaseService = new FakeReleaseService().start();
+    this.session = new MavenSession(null, (RepositorySystemSession)null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    this.chartDirectory = createChart("fake");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (this.releaseService != null) {
+      this.releaseService.stop();
+    }
+  }
+
+  @Test
+  public void testAsyncInstallFailureFailsBuild() throws Exception {
+    this.releaseService.fail("doomed");
+    final InstallReleaseMojo mojo = createInstallReleaseMojo(this.releaseService, this.session, this.chartDirectory, "doomed");
+    mojo.execute();
+    assertFalse(this.session.getResult().hasExceptions());
+
+    endSession(this.session);
+
+    final List<Throwable> exceptions = this.session.getResult().getExceptions();
+    assertEquals(1, exceptions.size());
+    final Throwable exception = exceptions.get(0);
+    assertTrue(exception instanceof IOException);
+    assertEquals(1, exception.getSuppressed().length);
+    assertTrue(exception.getSuppressed()[0].getMessage(), exception.getSuppressed()[0].getMessage().contains("doomed"));
+  }
+
+  @Test
+  public void testAsyncInstallSuccess() throws Exception {
+    final InstallReleaseMojo mojo = createInstallReleaseMojo(this.releaseService, this.session, this.chartDirectory, "fine");
+    mojo.execute();
+    endSession(this.session);
+    assertFalse(this.session.getResult().hasExceptions());
+    assertNotNull(this.releaseService.getLatest("fine"));
+  }
+
+  static final Path createChart(final String name) throws IOException {
+    final Path chartDirectory = Files.createTempDirectory("helm-maven-plugin-chart");
+    chartDirectory.toFile().deleteOnExit();
+    final Path chartYaml = chartDirectory.resolve("Chart.yaml");
+    Files.write(chartYaml, ("apiVersion: v1\nname: " + name + "\nversion: 0.1.0\n").getBytes(StandardCharsets.UTF_8));
+    chartYaml.toFile().deleteOnExit();
+    return chartDirectory;
+  }
+
+  static final void endSession(final MavenSession session) {
+    session.getRequest().getExecutionListener().sessionEnded(new ExecutionEvent() {
+        @Override
+        public final ExecutionEvent.Type getType() {
+          return ExecutionEvent.Type.SessionEnded;
+        }
+
+        @Override
+        public final MavenSession getSession() {
+          return session;
+        }
+
+        @Override
+        public final MavenProject getProject() {
+          return null;
+        }
+
+        @Override
+        public final MojoExecution getMojoExecution() {
+          return null;
+        }
+
+        @Override
+        public final Exception getException() {
+          return null;
+        }
+      });
+  }
+
+  private static final InstallReleaseMojo createInstallReleaseMojo(final FakeReleaseService releaseService, final MavenSession session, final Path chartDirectory, final String releaseName) throws IOException {
+    final InstallReleaseMojo mojo = new InstallReleaseMojo(new MavenProject(), session) {
+        @Override
+        protected final MavenSession getMavenSession() {
+          return session;
+        }
+
+        @Override
+        protected final Tiller createTiller(final Config config) {
+          return releaseService.createTiller();
+        }
+      };
+    mojo.setTillerHost(releaseService.getServerName());
+    mojo.setChartUrl(chartDirectory.toUri().toURL());
+    mojo.setReleaseName(releaseName);
+    mojo.setPoolReleaseManagers(true);
+    mojo.setAsync(true);
+    return mojo;
+  }
+
+}
@@ -0,0 +1,218 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import io.fabric8.kubernetes.client.Config;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.project.MavenProject;
+
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.microbean.helm.Tiller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestConcurrentExecution {
+
+  private static final int THREADS = 8;
+
+  private static final int RELEASES_PER_THREAD = 5;
+
+  private FakeReleaseService releaseService;
+
+  private MavenSession session;
+
+  private Path chartDirectory;
+
+  private ExecutorService executorService;
+
+  public TestConcurrentExecution() {
+    super();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    this.releaseService = new FakeReleaseService().start();
+    this.releaseService.setLatencyMillis(2L);
+    this.session = new MavenSession(null, (RepositorySystemSession)null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    this.chartDirectory = TestAsyncReleaseOperations.createChart("fake");
+    this.executorService = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (this.executorService != null) {
+      this.executorService.shutdownNow();
+    }
+    if (this.releaseService != null) {
+      this.releaseService.stop();
+    }
+  }
+
+  @Test
+  public void testConcurrentMojosSharingSession() throws Exception {
+    final CountDownLatch startGate = new CountDownLatch(1);
+    final List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      final int thread = i;
+      futures.add(this.executorService.submit(() -> {
+            startGate.await();
+            for (int j = 0; j < RELEASES_PER_THREAD; j++) {
+              if (thread % 2 == 0) {
+                // Install, then upgrade, over the pooled ReleaseManager.
+                final String releaseName = "sync-" + thread + "-" + j;
+                this.createInstallReleaseMojo(releaseName, false).execute();
+                this.createUpsertReleaseMojo(releaseName).execute();
+              } else {
+                // Install asynchronously; completion is awaited when
+                // the session ends.
+                this.createInstallReleaseMojo("async-" + thread + "-" + j, true).execute();
+              }
+            }
+            return null;
+          }));
+    }
+    startGate.countDown();
+    for (final Future<Void> future : futures) {
+      future.get(30L, TimeUnit.SECONDS);
+    }
+
+    TestAsyncReleaseOperations.endSession(this.session);
+
+    assertFalse(String.valueOf(this.session.getResult().getExceptions()), this.session.getResult().hasExceptions());
+    for (int i = 0; i < THREADS; i++) {
+      for (int j = 0; j < RELEASES_PER_THREAD; j++) {
+        if (i % 2 == 0) {
+          assertLatest("sync-" + i + "-" + j, 2);
+          assertEquals(2, this.releaseService.getHistory("sync-" + i + "-" + j).size());
+        } else {
+          assertLatest("async-" + i + "-" + j, 1);
+        }
+      }
+    }
+    assertEquals((THREADS / 2) * RELEASES_PER_THREAD * 3, this.releaseService.getMutationCount());
+    assertTrue(this.releaseService.getMaxInFlight() > 1);
+  }
+
+  @Test
+  public void testConcurrentFailuresAreAllReported() throws Exception {
+    for (int i = 0; i < THREADS; i++) {
+      this.releaseService.fail("doomed-" + i);
+    }
+    final CountDownLatch startGate = new CountDownLatch(1);
+    final List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      final int thread = i;
+      futures.add(this.executorService.submit(() -> {
+            startGate.await();
+            this.createInstallReleaseMojo("doomed-" + thread, true).execute();
+            this.createInstallReleaseMojo("fine-" + thread, true).execute();
+            return null;
+          }));
+    }
+    startGate.countDown();
+    for (final Future<Void> future : futures) {
+      future.get(30L, TimeUnit.SECONDS);
+    }
+
+    TestAsyncReleaseOperations.endSession(this.session);
+
+    final List<Throwable> exceptions = this.session.getResult().getExceptions();
+    assertEquals(1, exceptions.size());
+    assertEquals(THREADS, exceptions.get(0).getSuppressed().length);
+    for (int i = 0; i < THREADS; i++) {
+      assertLatest("fine-" + i, 1);
+    }
+  }
+
+  private final void assertLatest(final String releaseName, final int version) {
+    final Release latest = this.releaseService.getLatest(releaseName);
+    assertNotNull(releaseName, latest);
+    assertEquals(releaseName, version, latest.getVersion());
+    assertEquals(releaseName, Status.Code.DEPLOYED, latest.getInfo().getStatus().getCode());
+  }
+
+  private final InstallReleaseMojo createInstallReleaseMojo(final String releaseName, final boolean async) throws Exception {
+    final FakeReleaseService releaseService = this.releaseService;
+    final MavenSession session = this.session;
+    final InstallReleaseMojo mojo = new InstallReleaseMojo(new MavenProject(), session) {
+        @Override
+        protected final MavenSession getMavenSession() {
+          return session;
+        }
+
+        @Override
+        protected final Tiller createTiller(final Config config) {
+          return releaseService.createTiller();
+        }
+      };
+    mojo.setTillerHost(releaseService.getServerName());
+    mojo.setChartUrl(this.chartDirectory.toUri().toURL());
+    mojo.setReleaseName(releaseName);
+    mojo.setPoolReleaseManagers(true);
+    mojo.setAsync(async);
+    return mojo;
+  }
+
+  private final UpsertReleaseMojo createUpsertReleaseMojo(final String releaseName) throws Exception {
+    final FakeReleaseService releaseService = this.releaseService;
+    final MavenSession session = this.session;
+    final UpsertReleaseMojo mojo = new UpsertReleaseMojo(new MavenProject()) {
+        @Override
+        protected final MavenSession getMavenSession() {
+          return session;
+        }
+
+        @Override
+        protected final Tiller createTiller(final Config config) {
+          return releaseService.createTiller();
+        }
+      };
+    mojo.setTillerHost(releaseService.getServerName());
+    mojo.setChartUrl(this.chartDirectory.toUri().toURL());
+    mojo.setReleaseName(releaseName);
+    mojo.setPoolReleaseManagers(true);
+    return mojo;
+  }
+
+}
@@ -0,0 +1,145 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.List;
+
+import hapi.release.StatusOuterClass.Status;
+
+import io.fabric8.kubernetes.client.Config;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.junit.Test;
+
+import org.microbean.helm.Tiller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class TestDeployReleasesMojo {
+
+  public TestDeployReleasesMojo() {
+    super();
+  }
+
+  @Test
+  public void testGetLevels() throws Exception {
+    final ReleaseDefinition database = release("database");
+    final ReleaseDefinition cache = release("cache");
+    final ReleaseDefinition backend = release("backend", "database", "cache");
+    final ReleaseDefinition frontend = release("frontend", "backend");
+    final ReleaseDefinition metrics = release("metrics");
+    final List<List<ReleaseDefinition>> levels =
+      new DeployReleasesMojo().getLevels(Arrays.asList(frontend, database, backend, cache, metrics));
+    assertEquals(3, levels.size());
+    assertEquals(Arrays.asList(database, cache, metrics), levels.get(0));
+    assertEquals(Arrays.asList(backend), levels.get(1));
+    assertEquals(Arrays.asList(frontend), levels.get(2));
+  }
+
+  @Test
+  public void testGetLevelsWithNoDependencies() throws Exception {
+    final ReleaseDefinition a = release("a");
+    final ReleaseDefinition b = release("b");
+    final List<List<ReleaseDefinition>> levels = new DeployReleasesMojo().getLevels(Arrays.asList(a, b));
+    assertEquals(1, levels.size());
+    assertSame(a, levels.get(0).get(0));
+    assertSame(b, levels.get(0).get(1));
+  }
+
+  @Test
+  public void testGetLevelsWithCycle() throws Exception {
+    final ReleaseDefinition a = release("a", "c");
+    final ReleaseDefinition b = release("b", "a");
+    final ReleaseDefinition c = release("c", "b");
+    final ReleaseDefinition d = release("d");
+    try {
+      new DeployReleasesMojo().getLevels(Arrays.asList(a, b, c, d));
+      fail();
+    } catch (final MojoExecutionException expected) {
+      assertEquals("Dependency cycle detected among releases [a, b, c]", expected.getMessage());
+    }
+  }
+
+  @Test
+  public void testGetLevelsWithSelfDependency() throws Exception {
+    try {
+      new DeployReleasesMojo().getLevels(Arrays.asList(release("a", "a")));
+      fail();
+    } catch (final MojoExecutionException expected) {
+      // expected
+    }
+  }
+
+  @Test(expected = MojoExecutionException.class)
+  public void testGetLevelsWithUnknownDependency() throws Exception {
+    new DeployReleasesMojo().getLevels(Arrays.asList(release("a", "b")));
+  }
+
+  @Test(expected = MojoExecutionException.class)
+  public void testGetLevelsWithDuplicateName() throws Exception {
+    new DeployReleasesMojo().getLevels(Arrays.asList(release("a"), release("a")));
+  }
+
+  @Test
+  public void testFailedOnlyReleaseIsReinstalled() throws Exception {
+    final FakeReleaseService releaseService = new FakeReleaseService().start();
+    try {
+      // The first installation of "broken" failed, so it has no
+      // deployed revision that Tiller could update.
+      releaseService.put("broken", 1, Status.Code.FAILED);
+      releaseService.put("healthy", 1, Status.Code.FAILED);
+      releaseService.put("healthy", 2, Status.Code.DEPLOYED);
+
+      final Path chartDirectory = TestAsyncReleaseOperations.createChart("fake");
+      final List<ReleaseDefinition> releases = Arrays.asList(release("broken"), release("healthy"), release("fresh"));
+      for (final ReleaseDefinition release : releases) {
+        release.setChartUrl(chartDirectory.toUri().toURL());
+      }
+      final DeployReleasesMojo mojo = new DeployReleasesMojo() {
+          @Override
+          protected final Tiller createTiller(final Config config) {
+            return releaseService.createTiller();
+          }
+        };
+      mojo.setReleases(releases);
+      mojo.execute();
+
+      assertEquals(2, releaseService.getLatest("broken").getVersion());
+      assertEquals(Status.Code.DEPLOYED, releaseService.getLatest("broken").getInfo().getStatus().getCode());
+      assertEquals(3, releaseService.getLatest("healthy").getVersion());
+      assertEquals(1, releaseService.getLatest("fresh").getVersion());
+    } finally {
+      releaseService.stop();
+    }
+  }
+
+  private static final ReleaseDefinition release(final String releaseName, final String... dependsOn) {
+    final ReleaseDefinition returnValue = new ReleaseDefinition();
+    returnValue.setReleaseName(releaseName);
+    if (dependsOn.length > 0) {
+      returnValue.setDependsOn(Arrays.asList(dependsOn));
+    }
+    return returnValue;
+  }
+
+}
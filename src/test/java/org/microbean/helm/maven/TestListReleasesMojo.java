@@ -0,0 +1,182 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import io.fabric8.kubernetes.client.Config;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.microbean.helm.Tiller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestListReleasesMojo {
+
+  private FakeReleaseService releaseService;
+
+  public TestListReleasesMojo() {
+    super();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    this.releaseService = new FakeReleaseService().start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (this.releaseService != null) {
+      this.releaseService.stop();
+    }
+  }
+
+  @Test
+  public void testAutoPaginationFollowsNext() throws Exception {
+    for (final String name : Arrays.asList("a", "b", "c", "d", "e")) {
+      this.releaseService.put(name, 1, Status.Code.DEPLOYED);
+    }
+    final List<String> pages = Collections.synchronizedList(new ArrayList<>());
+    final ListReleasesMojo mojo = this.createListReleasesMojo(event -> {
+        final StringBuilder page = new StringBuilder();
+        for (final Release release : event.getListReleasesResponseOrBuilder().getReleasesList()) {
+          page.append(release.getName());
+        }
+        pages.add(page.toString());
+      });
+    mojo.setLimit(2L);
+    mojo.execute();
+    assertEquals(Arrays.asList("ab", "cd", "e"), pages);
+    assertEquals(3, this.releaseService.getListRequestCount());
+  }
+
+  @Test
+  public void testPrefetchIsLimitedToOnePage() throws Exception {
+    for (final String name : Arrays.asList("a", "b", "c", "d", "e", "f")) {
+      this.releaseService.put(name, 1, Status.Code.DEPLOYED);
+    }
+    final CountDownLatch firstPageDelivered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final List<String> names = Collections.synchronizedList(new ArrayList<>());
+    final ListReleasesMojo mojo = this.createListReleasesMojo(event -> {
+        firstPageDelivered.countDown();
+        try {
+          release.await();
+        } catch (final InterruptedException interruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        for (final Release r : event.getListReleasesResponseOrBuilder().getReleasesList()) {
+          names.add(r.getName());
+        }
+      });
+    mojo.setLimit(2L);
+    final Throwable[] failure = new Throwable[1];
+    final Thread lister = new Thread(() -> {
+        try {
+          mojo.execute();
+        } catch (final Throwable throwable) {
+          failure[0] = throwable;
+        }
+      });
+    lister.start();
+    try {
+      firstPageDelivered.await(10L, TimeUnit.SECONDS);
+      // The second page is fetched while the first is being delivered.
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+      while (this.releaseService.getListRequestCount() < 2 && System.nanoTime() < deadline) {
+        Thread.sleep(10L);
+      }
+      Thread.sleep(100L);
+      // The third is not fetched until the second has been taken.
+      assertEquals(2, this.releaseService.getListRequestCount());
+    } finally {
+      release.countDown();
+      lister.join(10000L);
+    }
+    assertEquals(null, failure[0]);
+    assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), names);
+    assertEquals(3, this.releaseService.getListRequestCount());
+  }
+
+  @Test
+  public void testRepeatedNextEndsPagination() throws Exception {
+    // Tiller pages by release name, so a page of revisions of a
+    // single release names that release again as the next offset.
+    this.releaseService.put("a", 1, Status.Code.SUPERSEDED);
+    this.releaseService.put("a", 2, Status.Code.SUPERSEDED);
+    this.releaseService.put("a", 3, Status.Code.DEPLOYED);
+    final List<Integer> versions = Collections.synchronizedList(new ArrayList<>());
+    final ListReleasesMojo mojo = this.createListReleasesMojo(event -> {
+        for (final Release release : event.getListReleasesResponseOrBuilder().getReleasesList()) {
+          versions.add(release.getVersion());
+        }
+      });
+    mojo.setStatusCodes(Arrays.asList(Status.Code.DEPLOYED, Status.Code.SUPERSEDED));
+    mojo.setLimit(1L);
+    mojo.execute();
+    // The second request starts over at the same offset; its page is
+    // delivered, but its repeated next offset ends the listing.
+    assertEquals(Arrays.asList(1, 1), versions);
+    assertEquals(2, this.releaseService.getListRequestCount());
+  }
+
+  @Test
+  public void testOffsetIsRejectedWithNamespaces() throws Exception {
+    this.releaseService.put("a", 1, Status.Code.DEPLOYED);
+    final ListReleasesMojo mojo = this.createListReleasesMojo(event -> fail());
+    mojo.setNamespaces(Arrays.asList("default", "other"));
+    mojo.setOffset("a");
+    try {
+      mojo.execute();
+      fail();
+    } catch (final MojoExecutionException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().contains("offset"));
+    }
+    assertEquals(0, this.releaseService.getListRequestCount());
+  }
+
+  private final ListReleasesMojo createListReleasesMojo(final ReleaseDiscoveryListener listener) {
+    final FakeReleaseService releaseService = this.releaseService;
+    final ListReleasesMojo mojo = new ListReleasesMojo() {
+        @Override
+        protected final Tiller createTiller(final Config config) {
+          return releaseService.createTiller();
+        }
+      };
+    mojo.setTillerHost(releaseService.getServerName());
+    mojo.setAutoPaginate(true);
+    mojo.setReleaseDiscoveryListenersList(Collections.singletonList(listener));
+    return mojo;
+  }
+
+}
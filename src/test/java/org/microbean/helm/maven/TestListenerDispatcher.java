@@ -0,0 +1,234 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestListenerDispatcher {
+
+  public TestListenerDispatcher() {
+    super();
+  }
+
+  @Test
+  public void testSynchronousDeliveryInCallingThread() throws Exception {
+    final Recorder first = new Recorder();
+    final Recorder second = new Recorder();
+    try (final ListenerDispatcher<Recorder> dispatcher = new ListenerDispatcher<>("test", Arrays.asList(first, null, second), 0, 1)) {
+      for (int i = 0; i < 3; i++) {
+        final int notification = i;
+        dispatcher.dispatch(recorder -> recorder.record(notification));
+      }
+      assertEquals(Arrays.asList(0, 1, 2), first.getNotifications());
+      assertEquals(Arrays.asList(0, 1, 2), second.getNotifications());
+    }
+    assertEquals(Collections.singleton(Thread.currentThread().getName()), first.getThreadNames());
+  }
+
+  @Test
+  public void testAsynchronousDeliveryPreservesOrderPerListener() throws Exception {
+    final List<Recorder> recorders = Arrays.asList(new Recorder(), new Recorder(), new Recorder());
+    final List<Integer> expected = new ArrayList<>();
+    try (final ListenerDispatcher<Recorder> dispatcher = new ListenerDispatcher<>("test", recorders, 2, 4)) {
+      for (int i = 0; i < 1000; i++) {
+        final int notification = i;
+        expected.add(notification);
+        dispatcher.dispatch(recorder -> recorder.record(notification));
+      }
+    }
+    for (final Recorder recorder : recorders) {
+      assertEquals(expected, recorder.getNotifications());
+      // Each listener is always notified on the same worker thread.
+      assertEquals(1, recorder.getThreadNames().size());
+      assertFalse(recorder.getThreadNames().contains(Thread.currentThread().getName()));
+    }
+  }
+
+  @Test
+  public void testSlowListenerAppliesBackpressure() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final Recorder recorder = new Recorder(release);
+    final AtomicInteger dispatched = new AtomicInteger();
+    try (final ListenerDispatcher<Recorder> dispatcher = new ListenerDispatcher<>("test", Collections.singleton(recorder), 1, 2)) {
+      final Thread producer = new Thread(() -> {
+          try {
+            for (int i = 0; i < 10; i++) {
+              final int notification = i;
+              dispatcher.dispatch(r -> r.record(notification));
+              dispatched.incrementAndGet();
+            }
+          } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+          }
+        });
+      producer.start();
+      // One notification is held by the blocked listener and two
+      // fill the queue, so the producer blocks on the fourth.
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+      while (!(producer.getState() == Thread.State.WAITING && dispatched.get() == 3) && System.nanoTime() < deadline) {
+        Thread.sleep(10L);
+      }
+      assertEquals(Thread.State.WAITING, producer.getState());
+      assertEquals(3, dispatched.get());
+      Thread.sleep(50L);
+      assertEquals(3, dispatched.get());
+
+      release.countDown();
+      producer.join(10000L);
+      assertEquals(10, dispatched.get());
+    }
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), recorder.getNotifications());
+  }
+
+  @Test
+  public void testAsynchronousListenerFailureIsRethrown() throws Exception {
+    final IllegalStateException failure = new IllegalStateException("listener failed");
+    final Recorder failing = new Recorder() {
+        @Override
+        final void record(final int notification) {
+          super.record(notification);
+          if (notification == 1) {
+            throw failure;
+          }
+        }
+      };
+    final Recorder other = new Recorder();
+    final ListenerDispatcher<Recorder> dispatcher = new ListenerDispatcher<>("test", Arrays.asList(failing, other), 1, 100);
+    for (int i = 0; i < 5; i++) {
+      final int notification = i;
+      try {
+        dispatcher.dispatch(recorder -> recorder.record(notification));
+      } catch (final IllegalStateException expected) {
+        // The worker has already reported the failure.
+        assertSame(failure, expected);
+      }
+    }
+    try {
+      dispatcher.close();
+      fail();
+    } catch (final IllegalStateException expected) {
+      assertSame(failure, expected);
+    }
+    // Nothing is delivered to any listener once one has failed.
+    assertEquals(Arrays.asList(0, 1), failing.getNotifications());
+    assertEquals(Arrays.asList(0), other.getNotifications());
+    try {
+      dispatcher.dispatch(recorder -> recorder.record(5));
+      fail();
+    } catch (final IllegalStateException expected) {
+      assertSame(failure, expected);
+    }
+  }
+
+  @Test
+  public void testSynchronousListenerFailureIsThrown() throws Exception {
+    final Recorder failing = new Recorder() {
+        @Override
+        final void record(final int notification) {
+          throw new IllegalStateException("listener failed");
+        }
+      };
+    try (final ListenerDispatcher<Recorder> dispatcher = new ListenerDispatcher<>("test", Collections.singleton(failing), 0, 1)) {
+      dispatcher.dispatch(recorder -> recorder.record(0));
+      fail();
+    } catch (final IllegalStateException expected) {
+
+    }
+  }
+
+  @Test
+  public void testCloseRestoresInterruptStatus() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final Recorder recorder = new Recorder(release);
+    final ListenerDispatcher<Recorder> dispatcher = new ListenerDispatcher<>("test", Collections.singleton(recorder), 1, 1);
+    dispatcher.dispatch(r -> r.record(0));
+    dispatcher.dispatch(r -> r.record(1));
+    Thread.currentThread().interrupt();
+    try {
+      dispatcher.close();
+      assertTrue(Thread.interrupted());
+    } finally {
+      Thread.interrupted();
+      release.countDown();
+    }
+  }
+
+  private static class Recorder {
+
+    private final List<Integer> notifications;
+
+    private final Set<String> threadNames;
+
+    private final CountDownLatch release;
+
+    private Recorder() {
+      this(null);
+    }
+
+    private Recorder(final CountDownLatch release) {
+      super();
+      this.notifications = Collections.synchronizedList(new ArrayList<>());
+      this.threadNames = Collections.synchronizedSet(new HashSet<>());
+      this.release = release;
+    }
+
+    void record(final int notification) {
+      if (this.release != null) {
+        try {
+          this.release.await();
+        } catch (final InterruptedException interruptedException) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+      this.threadNames.add(Thread.currentThread().getName());
+      this.notifications.add(Integer.valueOf(notification));
+    }
+
+    final List<Integer> getNotifications() {
+      synchronized (this.notifications) {
+        return new ArrayList<>(this.notifications);
+      }
+    }
+
+    final Set<String> getThreadNames() {
+      synchronized (this.threadNames) {
+        return new HashSet<>(this.threadNames);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,184 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.function.Function;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.ReleaseOuterClass.ReleaseOrBuilder;
+
+import hapi.services.tiller.Tiller.ListReleasesResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.microbean.helm.maven.ListReleasesMojo.NamespaceCursor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestNamespaceCursor {
+
+  private static final Comparator<ReleaseOrBuilder> BY_NAME = Comparator.comparing(ReleaseOrBuilder::getName);
+
+  private ExecutorService executorService;
+
+  private Map<Integer, AtomicInteger> pageRequests;
+
+  public TestNamespaceCursor() {
+    super();
+  }
+
+  @Before
+  public void setUp() {
+    this.executorService = Executors.newFixedThreadPool(4);
+    this.pageRequests = new ConcurrentHashMap<>();
+  }
+
+  @After
+  public void tearDown() {
+    this.executorService.shutdownNow();
+  }
+
+  @Test
+  public void testMergeOrder() throws Exception {
+    final List<String> names = merge(BY_NAME,
+                                     Arrays.asList("b", "e", "f", "g", "h"),
+                                     Arrays.asList("a", "c", "d"),
+                                     Arrays.asList(),
+                                     Arrays.asList("i"));
+    assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i"), names);
+  }
+
+  @Test
+  public void testTiesAreBrokenByNamespaceOrder() throws Exception {
+    final List<String> namespaces = new ArrayList<>();
+    final PriorityQueue<NamespaceCursor> cursors = new PriorityQueue<>();
+    final List<List<String>> listings = Arrays.asList(Arrays.asList("a", "b", "c"),
+                                                      Arrays.asList("a", "b"),
+                                                      Arrays.asList("b", "c"));
+    for (int i = 0; i < listings.size(); i++) {
+      final NamespaceCursor cursor = this.createCursor(i, BY_NAME, listings.get(i), "ns" + i);
+      if (cursor.fill()) {
+        cursors.add(cursor);
+      }
+    }
+    Release release;
+    while ((release = NamespaceCursor.poll(cursors)) != null) {
+      namespaces.add(release.getName() + "/" + release.getNamespace());
+    }
+    assertEquals(Arrays.asList("a/ns0", "a/ns1", "b/ns0", "b/ns1", "b/ns2", "c/ns0", "c/ns2"), namespaces);
+  }
+
+  @Test
+  public void testDescendingMergeOrder() throws Exception {
+    final List<String> names = merge(BY_NAME.reversed(),
+                                     Arrays.asList("e", "c", "a"),
+                                     Arrays.asList("f", "d", "b"));
+    assertEquals(Arrays.asList("f", "e", "d", "c", "b", "a"), names);
+  }
+
+  @Test
+  public void testPrefetchIsBoundedToOnePage() throws Exception {
+    final NamespaceCursor cursor = this.createCursor(0, BY_NAME, Arrays.asList("a", "b", "c", "d", "e", "f", "g"), "default");
+    assertTrue(cursor.fill());
+    assertEquals(7L, cursor.getTotal());
+    // The first page has arrived and at most the second has been
+    // requested.
+    assertTrue(this.pageRequests.get(0).get() <= 2);
+    final PriorityQueue<NamespaceCursor> cursors = new PriorityQueue<>();
+    cursors.add(cursor);
+    for (int i = 0; i < 2; i++) {
+      NamespaceCursor.poll(cursors);
+    }
+    // Having consumed the first page, the cursor has waited for the
+    // second and requested at most the third.
+    assertTrue(this.pageRequests.get(0).get() <= 3);
+    int remaining = 0;
+    while (NamespaceCursor.poll(cursors) != null) {
+      remaining++;
+    }
+    assertEquals(5, remaining);
+    assertEquals(4, this.pageRequests.get(0).get());
+    assertFalse(cursor.fill());
+  }
+
+  @Test
+  public void testEmptyNamespace() throws Exception {
+    final NamespaceCursor cursor = this.createCursor(0, BY_NAME, Arrays.asList(), "default");
+    assertFalse(cursor.fill());
+    assertEquals(0L, cursor.getTotal());
+    assertNull(NamespaceCursor.poll(new PriorityQueue<>()));
+  }
+
+  private final List<String> merge(final Comparator<ReleaseOrBuilder> comparator, final List<?>... listings) throws Exception {
+    final PriorityQueue<NamespaceCursor> cursors = new PriorityQueue<>();
+    for (int i = 0; i < listings.length; i++) {
+      @SuppressWarnings("unchecked")
+      final List<String> listing = (List<String>)listings[i];
+      final NamespaceCursor cursor = this.createCursor(i, comparator, listing, "ns" + i);
+      if (cursor.fill()) {
+        cursors.add(cursor);
+      }
+    }
+    final List<String> names = new ArrayList<>();
+    Release release;
+    while ((release = NamespaceCursor.poll(cursors)) != null) {
+      names.add(release.getName());
+    }
+    return names;
+  }
+
+  private final NamespaceCursor createCursor(final int index, final Comparator<? super ReleaseOrBuilder> comparator, final List<String> names, final String namespace) {
+    final AtomicInteger requests = new AtomicInteger();
+    this.pageRequests.put(index, requests);
+    final Function<String, Callable<ListReleasesResponse>> pageTaskFactory = offset -> () -> {
+      requests.incrementAndGet();
+      // Pages of two releases; each offset is the name of the first
+      // release on its page, as with Tiller.
+      final int start = offset.isEmpty() ? 0 : names.indexOf(offset);
+      final ListReleasesResponse.Builder builder = ListReleasesResponse.newBuilder().setTotal(names.size());
+      final int end = Math.min(names.size(), start + 2);
+      for (int i = start; i < end; i++) {
+        builder.addReleases(Release.newBuilder().setName(names.get(i)).setNamespace(namespace));
+      }
+      if (end < names.size()) {
+        builder.setNext(names.get(end));
+      }
+      return builder.setCount(builder.getReleasesCount()).build();
+    };
+    return new NamespaceCursor(index, comparator, this.executorService, pageTaskFactory, "");
+  }
+
+}
@@ -0,0 +1,246 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.junit.Test;
+
+import org.microbean.helm.Tiller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestRolloutReleasesMojo {
+
+  public TestRolloutReleasesMojo() {
+    super();
+  }
+
+  @Test
+  public void testGetWaves() throws Exception {
+    final List<ReleaseDefinition> releases = releases("a", "b", "c", "d", "e", "f", "g");
+    final RolloutReleasesMojo mojo = new RolloutReleasesMojo();
+
+    List<List<ReleaseDefinition>> waves = mojo.getWaves(releases);
+    assertEquals(1, waves.size());
+    assertEquals(releases, waves.get(0));
+
+    mojo.setWaves(Arrays.asList(1, 2));
+    waves = mojo.getWaves(releases);
+    assertEquals(3, waves.size());
+    assertEquals(releases.subList(0, 1), waves.get(0));
+    assertEquals(releases.subList(1, 3), waves.get(1));
+    assertEquals(releases.subList(3, 7), waves.get(2));
+
+    mojo.setWaves(Arrays.asList(3, 10, 5));
+    waves = mojo.getWaves(releases);
+    assertEquals(2, waves.size());
+    assertEquals(releases.subList(0, 3), waves.get(0));
+    assertEquals(releases.subList(3, 7), waves.get(1));
+
+    mojo.setWaves(Arrays.asList(7));
+    waves = mojo.getWaves(releases);
+    assertEquals(1, waves.size());
+
+    assertTrue(mojo.getWaves(Collections.<ReleaseDefinition>emptyList()).isEmpty());
+  }
+
+  @Test
+  public void testGetWavesWithInvalidSize() throws Exception {
+    final RolloutReleasesMojo mojo = new RolloutReleasesMojo();
+    for (final Integer invalid : Arrays.asList(0, -1, null)) {
+      mojo.setWaves(Arrays.asList(1, invalid));
+      try {
+        mojo.getWaves(releases("a", "b", "c"));
+        fail();
+      } catch (final MojoExecutionException expected) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testPutLatest() {
+    final Map<String, Release> releases = new HashMap<>();
+    final Release a2 = FakeReleaseService.release("a", "default", 2, Status.Code.DEPLOYED);
+    RolloutReleasesMojo.putLatest(releases, FakeReleaseService.release("a", "default", 1, Status.Code.FAILED));
+    RolloutReleasesMojo.putLatest(releases, a2);
+    RolloutReleasesMojo.putLatest(releases, FakeReleaseService.release("a", "default", 1, Status.Code.FAILED));
+    assertEquals(1, releases.size());
+    assertSame(a2, releases.get("a"));
+  }
+
+  @Test
+  public void testGetVerificationProblems() {
+    final Map<String, Release> releases = new HashMap<>();
+    releases.put("a", FakeReleaseService.release("a", "default", 3, Status.Code.DEPLOYED));
+    releases.put("b", FakeReleaseService.release("b", "default", 2, Status.Code.FAILED));
+    releases.put("d", FakeReleaseService.release("d", "default", 5, Status.Code.PENDING_UPGRADE));
+    assertEquals(Arrays.asList("b (FAILED)", "c (not found)", "d (PENDING_UPGRADE)"),
+                 RolloutReleasesMojo.getVerificationProblems(releases("a", "b", "c", "d"), releases));
+    assertTrue(RolloutReleasesMojo.getVerificationProblems(releases("a"), releases).isEmpty());
+  }
+
+  @Test
+  public void testGetRollbacks() {
+    final List<ReleaseDefinition> releases = releases("a", "b", "c", "d");
+    final List<ReleaseDefinition> rollbacks = RolloutReleasesMojo.getRollbacks(releases, new HashSet<>(Arrays.asList("d", "b")));
+    assertEquals(Arrays.asList(releases.get(1), releases.get(3)), rollbacks);
+    assertTrue(RolloutReleasesMojo.getRollbacks(releases, Collections.<String>emptySet()).isEmpty());
+  }
+
+  @Test
+  public void testRolloutRollsBackToLatestPriorVersions() throws Exception {
+    final FakeReleaseService releaseService = new FakeReleaseService().start();
+    try {
+      // Old revisions are listed alongside new ones, so these seven
+      // revisions would not fit in a single page of four.
+      releaseService.put("a", 1, Status.Code.DEPLOYED);
+      releaseService.put("b", 1, Status.Code.FAILED);
+      releaseService.put("b", 2, Status.Code.DEPLOYED);
+      releaseService.put("c", 1, Status.Code.FAILED);
+      releaseService.put("c", 2, Status.Code.FAILED);
+      releaseService.put("c", 3, Status.Code.DEPLOYED);
+      releaseService.put("d", 1, Status.Code.DEPLOYED);
+      releaseService.fail("c");
+
+      final Path chartDirectory = TestAsyncReleaseOperations.createChart("fake");
+      final List<ReleaseDefinition> releases = releases("a", "b", "c", "d");
+      for (final ReleaseDefinition release : releases) {
+        release.setChartUrl(chartDirectory.toUri().toURL());
+      }
+      final RolloutReleasesMojo mojo = new RolloutReleasesMojo() {
+          @Override
+          protected final Tiller createTiller(final Config config) {
+            return releaseService.createTiller();
+          }
+        };
+      mojo.setReleases(releases);
+      mojo.setWaves(Arrays.asList(1, 2));
+      mojo.setRollbackOnFailure(true);
+      try {
+        mojo.execute();
+        fail();
+      } catch (final MojoExecutionException expected) {
+        // c could not be rolled back either.
+        assertEquals(1, expected.getSuppressed().length);
+      }
+
+      final List<String> rollbacks = releaseService.getRollbacks();
+      Collections.sort(rollbacks);
+      assertEquals(Arrays.asList("a@1", "b@2"), rollbacks);
+      assertEquals(4, releaseService.getLatest("b").getVersion());
+      assertEquals(3, releaseService.getLatest("c").getVersion());
+      assertEquals(1, releaseService.getLatest("d").getVersion());
+    } finally {
+      releaseService.stop();
+    }
+  }
+
+  @Test
+  public void testRolloutAcrossClustersRollsEachBackToItsOwnPriorVersions() throws Exception {
+    final FakeReleaseService one = new FakeReleaseService().start();
+    final FakeReleaseService two = new FakeReleaseService().start();
+    try {
+      one.put("a", 1, Status.Code.DEPLOYED);
+      one.put("b", 1, Status.Code.DEPLOYED);
+      two.put("a", 1, Status.Code.SUPERSEDED);
+      two.put("a", 2, Status.Code.SUPERSEDED);
+      two.put("a", 3, Status.Code.DEPLOYED);
+      two.put("b", 1, Status.Code.DEPLOYED);
+      one.fail("b");
+      two.fail("b");
+      // Keep both clusters' rollouts in flight at the same time, with
+      // the second finishing first.
+      one.setLatencyMillis(100L);
+      two.setLatencyMillis(20L);
+
+      final Path chartDirectory = TestAsyncReleaseOperations.createChart("fake");
+      final List<ReleaseDefinition> releases = releases("a", "b");
+      for (final ReleaseDefinition release : releases) {
+        release.setChartUrl(chartDirectory.toUri().toURL());
+      }
+      final Config configOne = new ConfigBuilder().withMasterUrl("https://one.example.com/").build();
+      final Config configTwo = new ConfigBuilder().withMasterUrl("https://two.example.com/").build();
+      final RolloutReleasesMojo mojo = new RolloutReleasesMojo() {
+          @Override
+          protected final Tiller createTiller(final Config config) {
+            return (config == configOne ? one : two).createTiller();
+          }
+        };
+      mojo.setClientConfigurations(Arrays.asList(configOne, configTwo));
+      mojo.setClusterConcurrency(2);
+      mojo.setReleases(releases);
+      mojo.setWaves(Arrays.asList(1));
+      mojo.setRollbackOnFailure(true);
+      try {
+        mojo.execute();
+        fail();
+      } catch (final MojoExecutionException expected) {
+        assertTrue(expected.getMessage(), expected.getMessage().contains("2 of 2 clusters"));
+      }
+
+      assertEquals(Arrays.asList("a@1"), one.getRollbacks());
+      assertEquals(Arrays.asList("a@3"), two.getRollbacks());
+    } finally {
+      one.stop();
+      two.stop();
+    }
+  }
+
+  @Test
+  public void testTillerHostIsRejectedWithClientConfigurations() throws Exception {
+    final RolloutReleasesMojo mojo = new RolloutReleasesMojo();
+    mojo.setClientConfigurations(Arrays.asList(new ConfigBuilder().withMasterUrl("https://one.example.com/").build()));
+    mojo.setTillerHost("localhost");
+    mojo.setReleases(releases("a"));
+    try {
+      mojo.execute();
+      fail();
+    } catch (final MojoExecutionException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().contains("tillerHost"));
+    }
+  }
+
+  private static final List<ReleaseDefinition> releases(final String... names) {
+    final ReleaseDefinition[] releases = new ReleaseDefinition[names.length];
+    for (int i = 0; i < names.length; i++) {
+      releases[i] = new ReleaseDefinition();
+      releases[i].setReleaseName(names[i]);
+    }
+    return Arrays.asList(releases);
+  }
+
+}
@@ -0,0 +1,89 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenSession;
+
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestSessionClosingExecutionListener {
+
+  private MavenSession session;
+
+  private List<String> events;
+
+  public TestSessionClosingExecutionListener() {
+    super();
+  }
+
+  @Before
+  public void setUp() {
+    this.session = new MavenSession(null, (RepositorySystemSession)null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    this.events = new ArrayList<>();
+    final List<String> events = this.events;
+    // Stands in for Maven's ExecutionEventLogger, which reports the
+    // outcome of the build from the session's result.
+    this.session.getRequest().setExecutionListener(new AbstractExecutionListener() {
+        @Override
+        public final void sessionEnded(final ExecutionEvent event) {
+          events.add(event.getSession().getResult().hasExceptions() ? "BUILD FAILURE" : "BUILD SUCCESS");
+        }
+      });
+  }
+
+  @Test
+  public void testCloseFailuresAreRecordedBeforeDelegateIsNotified() {
+    SessionClosingExecutionListener.register(this.session, () -> {
+        this.events.add("close");
+        throw new IOException("close failed");
+      }, null);
+
+    TestAsyncReleaseOperations.endSession(this.session);
+
+    assertEquals(Arrays.asList("close", "BUILD FAILURE"), this.events);
+    assertEquals(1, this.session.getResult().getExceptions().size());
+    assertEquals("close failed", this.session.getResult().getExceptions().get(0).getMessage());
+  }
+
+  @Test
+  public void testClosesInReverseOrderOfRegistration() {
+    SessionClosingExecutionListener.register(this.session, () -> this.events.add("first"), null);
+    SessionClosingExecutionListener.register(this.session, () -> this.events.add("second"), null);
+
+    TestAsyncReleaseOperations.endSession(this.session);
+
+    assertEquals(Arrays.asList("second", "first", "BUILD SUCCESS"), this.events);
+    assertTrue(this.session.getResult().getExceptions().isEmpty());
+  }
+
+}
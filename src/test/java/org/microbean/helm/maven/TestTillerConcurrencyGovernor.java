@@ -0,0 +1,121 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import hapi.services.tiller.ReleaseServiceGrpc;
+import hapi.services.tiller.Tiller.InstallReleaseRequest;
+import hapi.services.tiller.Tiller.InstallReleaseResponse;
+
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+
+import io.grpc.health.v1.HealthGrpc;
+
+import io.grpc.inprocess.InProcessChannelBuilder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestTillerConcurrencyGovernor {
+
+  public TestTillerConcurrencyGovernor() {
+    super();
+  }
+
+  @Test
+  public void testGetLimit() {
+    final TillerConcurrencyGovernor governor = TillerConcurrencyGovernor.getInstance(null, 4, 4, 4, 0.0D);
+    final AdaptiveConcurrencyLimit listLimit = governor.getLimit(ReleaseServiceGrpc.getListReleasesMethod().getFullMethodName());
+    final AdaptiveConcurrencyLimit readLimit = governor.getLimit(ReleaseServiceGrpc.getGetReleaseStatusMethod().getFullMethodName());
+    final AdaptiveConcurrencyLimit mutateLimit = governor.getLimit(ReleaseServiceGrpc.getInstallReleaseMethod().getFullMethodName());
+    assertTrue(listLimit != readLimit && readLimit != mutateLimit && listLimit != mutateLimit);
+    assertSame(readLimit, governor.getLimit(ReleaseServiceGrpc.getGetHistoryMethod().getFullMethodName()));
+    assertSame(readLimit, governor.getLimit(ReleaseServiceGrpc.getGetReleaseContentMethod().getFullMethodName()));
+    assertSame(mutateLimit, governor.getLimit(ReleaseServiceGrpc.getUpdateReleaseMethod().getFullMethodName()));
+    assertSame(mutateLimit, governor.getLimit(ReleaseServiceGrpc.getRollbackReleaseMethod().getFullMethodName()));
+    assertSame(mutateLimit, governor.getLimit(ReleaseServiceGrpc.getUninstallReleaseMethod().getFullMethodName()));
+    assertSame(mutateLimit, governor.getLimit(ReleaseServiceGrpc.getRunReleaseTestMethod().getFullMethodName()));
+    assertNull(governor.getLimit(HealthGrpc.getCheckMethod().getFullMethodName()));
+    assertNull(governor.getLimit(null));
+  }
+
+  @Test
+  public void testStartDoesNotBlock() throws Exception {
+    final FakeReleaseService releaseService = new FakeReleaseService().start();
+    final ManagedChannel managedChannel = InProcessChannelBuilder.forName(releaseService.getServerName()).build();
+    try {
+      releaseService.setLatencyMillis(100L);
+      // A maximum of 1 yields a limit of 1.
+      final TillerConcurrencyGovernor governor = TillerConcurrencyGovernor.getInstance(null, 1, 1, 1, 0.0D);
+      final Channel channel = ClientInterceptors.intercept(managedChannel, governor);
+      final ReleaseServiceGrpc.ReleaseServiceFutureStub stub = ReleaseServiceGrpc.newFutureStub(channel);
+      final AdaptiveConcurrencyLimit mutateLimit = governor.getLimit(ReleaseServiceGrpc.getInstallReleaseMethod().getFullMethodName());
+      final List<Future<InstallReleaseResponse>> futures = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        futures.add(stub.installRelease(InstallReleaseRequest.newBuilder().setName("release-" + i).build()));
+      }
+      // Every call has been started, but only one holds a permit.
+      assertEquals(1, mutateLimit.getInFlight());
+      assertEquals(3, mutateLimit.getWaiting());
+      for (int i = 0; i < futures.size(); i++) {
+        assertEquals("release-" + i, futures.get(i).get(10L, TimeUnit.SECONDS).getRelease().getName());
+      }
+      assertEquals(1, releaseService.getMaxInFlight());
+      assertEquals(0, mutateLimit.getInFlight());
+      assertEquals(0, mutateLimit.getWaiting());
+    } finally {
+      managedChannel.shutdownNow();
+      releaseService.stop();
+    }
+  }
+
+  @Test
+  public void testCancelWhileWaiting() throws Exception {
+    final FakeReleaseService releaseService = new FakeReleaseService().start();
+    final ManagedChannel managedChannel = InProcessChannelBuilder.forName(releaseService.getServerName()).build();
+    try {
+      releaseService.setLatencyMillis(200L);
+      final TillerConcurrencyGovernor governor = TillerConcurrencyGovernor.getInstance(null, 1, 1, 1, 0.0D);
+      final Channel channel = ClientInterceptors.intercept(managedChannel, governor);
+      final ReleaseServiceGrpc.ReleaseServiceFutureStub stub = ReleaseServiceGrpc.newFutureStub(channel);
+      final Future<InstallReleaseResponse> first = stub.installRelease(InstallReleaseRequest.newBuilder().setName("first").build());
+      final Future<InstallReleaseResponse> second = stub.installRelease(InstallReleaseRequest.newBuilder().setName("second").build());
+      final AdaptiveConcurrencyLimit mutateLimit = governor.getLimit(ReleaseServiceGrpc.getInstallReleaseMethod().getFullMethodName());
+      assertEquals(1, mutateLimit.getWaiting());
+      assertTrue(second.cancel(true));
+      assertEquals(0, mutateLimit.getWaiting());
+      assertEquals("first", first.get(10L, TimeUnit.SECONDS).getRelease().getName());
+      assertEquals(0, mutateLimit.getInFlight());
+      assertNull(releaseService.getLatest("second"));
+    } finally {
+      managedChannel.shutdownNow();
+      releaseService.stop();
+    }
+  }
+
+}
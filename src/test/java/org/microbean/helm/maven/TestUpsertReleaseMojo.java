@@ -0,0 +1,201 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.helm.maven;
+
+import java.nio.file.Path;
+
+import hapi.release.ReleaseOuterClass.Release;
+import hapi.release.StatusOuterClass.Status;
+
+import io.fabric8.kubernetes.client.Config;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import org.apache.maven.project.MavenProject;
+
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.microbean.helm.Tiller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestUpsertReleaseMojo {
+
+  private FakeReleaseService releaseService;
+
+  private MavenSession session;
+
+  private Path chartDirectory;
+
+  public TestUpsertReleaseMojo() {
+    super();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    this.releaseService = new FakeReleaseService().start();
+    this.session = new MavenSession(null, (RepositorySystemSession)null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    this.chartDirectory = TestAsyncReleaseOperations.createChart("fake");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (this.session != null && this.session.getRequest().getExecutionListener() != null) {
+      // Closes the pooled ReleaseManagers.
+      TestAsyncReleaseOperations.endSession(this.session);
+    }
+    if (this.releaseService != null) {
+      this.releaseService.stop();
+    }
+  }
+
+  @Test
+  public void testInstallsMissingRelease() throws Exception {
+    this.createUpsertReleaseMojo("r").execute();
+    assertLatest("r", 1, Status.Code.DEPLOYED);
+    assertEquals(2, this.releaseService.getMutationCount());
+  }
+
+  @Test
+  public void testUpdatesExistingRelease() throws Exception {
+    this.releaseService.put("r", 1, Status.Code.DEPLOYED);
+    this.createUpsertReleaseMojo("r").execute();
+    assertLatest("r", 2, Status.Code.DEPLOYED);
+    assertEquals(1, this.releaseService.getMutationCount());
+  }
+
+  @Test
+  public void testInstallsDeletedReleaseReusingName() throws Exception {
+    this.releaseService.put("r", 1, Status.Code.DELETED);
+    this.createUpsertReleaseMojo("r").execute();
+    assertLatest("r", 2, Status.Code.DEPLOYED);
+  }
+
+  @Test
+  public void testUnrelatedNotFoundFailureIsReported() throws Exception {
+    this.releaseService.put("r", 1, Status.Code.DEPLOYED);
+    this.releaseService.fail("r", "chart \"dependency\" not found");
+    try {
+      this.createUpsertReleaseMojo("r").execute();
+      fail();
+    } catch (final MojoExecutionException expected) {
+
+    }
+    // No installation was attempted.
+    assertEquals(1, this.releaseService.getMutationCount());
+    assertLatest("r", 1, Status.Code.DEPLOYED);
+  }
+
+  @Test
+  public void testInstallsFirstAfterUninstall() throws Exception {
+    this.releaseService.put("r", 1, Status.Code.DEPLOYED);
+    this.createUninstallReleaseMojo("r").execute();
+    this.createUpsertReleaseMojo("r").execute();
+    assertLatest("r", 2, Status.Code.DEPLOYED);
+    // One uninstallation and one installation; no failed update.
+    assertEquals(2, this.releaseService.getMutationCount());
+  }
+
+  @Test
+  public void testUpdatesWhenReleaseReappearedAfterUninstall() throws Exception {
+    this.releaseService.put("r", 1, Status.Code.DEPLOYED);
+    this.createUninstallReleaseMojo("r").execute();
+    // Installed again outside the build.
+    this.releaseService.put("r", 2, Status.Code.DEPLOYED);
+    this.createUpsertReleaseMojo("r").execute();
+    assertLatest("r", 3, Status.Code.DEPLOYED);
+    // One uninstallation, one rejected installation and one update.
+    assertEquals(3, this.releaseService.getMutationCount());
+    this.createUpsertReleaseMojo("r").execute();
+    assertLatest("r", 4, Status.Code.DEPLOYED);
+    assertEquals(4, this.releaseService.getMutationCount());
+  }
+
+  @Test
+  public void testDescriptionMatching() {
+    assertTrue(UpsertReleaseMojo.isNotFoundDescription(FakeReleaseService.notFound("r"), "r"));
+    assertFalse(UpsertReleaseMojo.isNotFoundDescription(FakeReleaseService.notFound("other"), "r"));
+    assertFalse(UpsertReleaseMojo.isNotFoundDescription("chart \"r\" not found", "r"));
+    assertFalse(UpsertReleaseMojo.isNotFoundDescription(null, "r"));
+    assertTrue(UpsertReleaseMojo.isNoDeployedReleasesDescription("\"r\" has no deployed releases", "r"));
+    assertFalse(UpsertReleaseMojo.isNoDeployedReleasesDescription("\"rr\" has no deployed releases", "r"));
+    assertTrue(UpsertReleaseMojo.isInUseDescription("a released named r is in use, cannot re-use a name that is still in use", "r"));
+    assertTrue(UpsertReleaseMojo.isInUseDescription("a release named r already exists.", "r"));
+    assertFalse(UpsertReleaseMojo.isInUseDescription("a release named rr already exists.", "r"));
+  }
+
+  private final void assertLatest(final String releaseName, final int version, final Status.Code code) {
+    final Release latest = this.releaseService.getLatest(releaseName);
+    assertNotNull(latest);
+    assertEquals(version, latest.getVersion());
+    assertEquals(code, latest.getInfo().getStatus().getCode());
+  }
+
+  private final UpsertReleaseMojo createUpsertReleaseMojo(final String releaseName) throws Exception {
+    final FakeReleaseService releaseService = this.releaseService;
+    final MavenSession session = this.session;
+    final UpsertReleaseMojo mojo = new UpsertReleaseMojo(new MavenProject()) {
+        @Override
+        protected final MavenSession getMavenSession() {
+          return session;
+        }
+
+        @Override
+        protected final Tiller createTiller(final Config config) {
+          return releaseService.createTiller();
+        }
+      };
+    mojo.setTillerHost(releaseService.getServerName());
+    mojo.setChartUrl(this.chartDirectory.toUri().toURL());
+    mojo.setReleaseName(releaseName);
+    mojo.setPoolReleaseManagers(true);
+    return mojo;
+  }
+
+  private final UninstallReleaseMojo createUninstallReleaseMojo(final String releaseName) {
+    final FakeReleaseService releaseService = this.releaseService;
+    final MavenSession session = this.session;
+    final UninstallReleaseMojo mojo = new UninstallReleaseMojo() {
+        @Override
+        protected final MavenSession getMavenSession() {
+          return session;
+        }
+
+        @Override
+        protected final Tiller createTiller(final Config config) {
+          return releaseService.createTiller();
+        }
+      };
+    mojo.setTillerHost(releaseService.getServerName());
+    mojo.setReleaseName(releaseName);
+    mojo.setPoolReleaseManagers(true);
+    return mojo;
+  }
+
+}